@@ -218,4 +218,18 @@ public class CompilerOptions {
     public void setIgnoreUnexpected(boolean isIgnoreUnexpected) {
         this.isIgnoreUnexpected = isIgnoreUnexpected;
     }
+
+    /**
+     * The number of threads used to apply the template to the bean models and write the
+     * generated classes. The models themselves are always built sequentially.
+     */
+    private int threads = 1;
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
 }
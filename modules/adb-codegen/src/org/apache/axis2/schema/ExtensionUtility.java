@@ -662,6 +662,8 @@ public class ExtensionUtility {
         if (configuration.isSuppressPrefixesMode()) {
             options.setSuppressPrefixesMode(true);
         }
+
+        options.setThreads(configuration.getThreads());
     }
 
 }
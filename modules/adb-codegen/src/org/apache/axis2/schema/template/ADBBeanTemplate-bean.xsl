@@ -1876,7 +1876,8 @@
                 <xsl:value-of select="$name"/> object = null;
                 // initialize a hash map to keep values
                 java.util.Map attributeMap = new java.util.HashMap();
-                java.util.List extraAttributeList = new java.util.ArrayList&lt;org.apache.axiom.om.OMAttribute>();
+                // only created if there are extra attributes
+                java.util.List&lt;org.apache.axiom.om.OMAttribute> extraAttributeList = null;
             </xsl:if>
 
             int event;
@@ -1986,9 +1987,11 @@
                 </xsl:if>
 
                 <!-- populate attributes here!!!. The attributes are part of an element, not part of a type -->
+                <xsl:if test="property[@attribute]">
                 // Note all attributes that were handled. Used to differ normal attributes
                 // from anyAttributes.
                 java.util.Vector handledAttributes = new java.util.Vector();
+                </xsl:if>
                 <!-- if this is an enumeration then we have to read attributes after-->
 
                 <xsl:for-each select="property[@attribute]">
@@ -2110,6 +2113,9 @@
                                 // and add it to the extra attributes
                                 <xsl:choose>
                                     <xsl:when test="property/enumFacet">
+                                         if (extraAttributeList == null) {
+                                             extraAttributeList = new java.util.ArrayList&lt;org.apache.axiom.om.OMAttribute>();
+                                         }
                                          extraAttributeList.add(attr);
                                     </xsl:when>
                                     <xsl:otherwise>
@@ -2132,7 +2138,15 @@
                 <!-- First loop creates arrayLists for handling arrays -->
                 <xsl:for-each select="property[not(@attribute)]">
                     <xsl:if test="@array">
-                        java.util.ArrayList list<xsl:value-of select="position()"/> = new java.util.ArrayList();
+                        <xsl:choose>
+                            <xsl:when test="@ours">
+                                <!-- the items are collected in a typed list and copied into the array without conversion -->
+                                java.util.ArrayList&lt;<xsl:value-of select="@arrayBaseType"/>> list<xsl:value-of select="position()"/> = new java.util.ArrayList&lt;<xsl:value-of select="@arrayBaseType"/>>();
+                            </xsl:when>
+                            <xsl:otherwise>
+                                java.util.ArrayList list<xsl:value-of select="position()"/> = new java.util.ArrayList();
+                            </xsl:otherwise>
+                        </xsl:choose>
                     </xsl:if>
                 </xsl:for-each>
 
@@ -2153,15 +2167,16 @@
                             <xsl:variable name="javaName"><xsl:value-of select="@javaname"></xsl:value-of></xsl:variable>
                             <xsl:variable name="listName">list<xsl:value-of select="position()"/></xsl:variable>
                             <xsl:variable name="loopBoolName">loopDone<xsl:value-of select="position()"/></xsl:variable>
-                            <xsl:variable name="startQname">startQname<xsl:value-of select="position()"/></xsl:variable>
                             <xsl:variable name="stateMachineName">stateMachine<xsl:value-of select="position()"/></xsl:variable>
                             <xsl:variable name="basePropertyType"><xsl:value-of select="@arrayBaseType"/></xsl:variable>
                             <xsl:variable name="namespace"><xsl:value-of select="@nsuri"/></xsl:variable>
                             <xsl:variable name="min"><xsl:value-of select="@minOccurs"/></xsl:variable>
                             <xsl:variable name="particleClassType" select="@particleClassType"></xsl:variable>
 
-                            <xsl:variable name="propQName">new javax.xml.namespace.QName("<xsl:value-of select="$namespace"/>","<xsl:value-of select="$propertyName"/>")</xsl:variable>
-                            <xsl:variable name="propQName2">new javax.xml.namespace.QName("","<xsl:value-of select="$propertyName"/>")</xsl:variable>
+                            <!-- Expressions that test the name of the current element without creating QNames -->
+                            <xsl:variable name="noNamespace">(reader.getNamespaceURI() == null || reader.getNamespaceURI().length() == 0)</xsl:variable>
+                            <xsl:variable name="propQNameMatch">("<xsl:value-of select="$propertyName"/>".equals(reader.getLocalName()) &amp;&amp; <xsl:choose><xsl:when test="string-length($namespace) > 0">"<xsl:value-of select="$namespace"/>".equals(reader.getNamespaceURI())</xsl:when><xsl:otherwise><xsl:value-of select="$noNamespace"/></xsl:otherwise></xsl:choose>)</xsl:variable>
+                            <xsl:variable name="propQName2Match">("<xsl:value-of select="$propertyName"/>".equals(reader.getLocalName()) &amp;&amp; <xsl:value-of select="$noNamespace"/>)</xsl:variable>
 
                            <xsl:choose>
                                 <xsl:when test="$unordered and not($choice and $hasParticleType)">  <!-- One property per iteration if unordered -->
@@ -2186,7 +2201,7 @@
                                          we have to sollow an excpetions : todo find a better solsution-->
                                          try{
                                     </xsl:if>
-                                    if (reader.isStartElement() <xsl:if test="$simple"> || reader.hasText()</xsl:if> <xsl:if test="not($simple) and not($particleClassType)">&amp;&amp; <xsl:value-of select="$propQName"/>.equals(reader.getName()) || <xsl:value-of select="$propQName2"/>.equals(reader.getName()) </xsl:if>){
+                                    if (reader.isStartElement() <xsl:if test="$simple"> || reader.hasText()</xsl:if> <xsl:if test="not($simple) and not($particleClassType)">&amp;&amp; <xsl:value-of select="$propQNameMatch"/> || <xsl:value-of select="$propQName2Match"/> </xsl:if>){
                                 </xsl:otherwise>
                             </xsl:choose>
 
@@ -2216,11 +2231,8 @@
                                                                 <xsl:value-of select="$listName"/>.add(<xsl:value-of select="$basePropertyType"/>.Factory.parse(reader));
                                                             }
                                                         }
-                                                        // call the converter utility  to convert and set the array
-                                                        object.set<xsl:value-of select="$javaName"/>((<xsl:value-of select="$propertyType"/>)
-                                                            org.apache.axis2.databinding.utils.ConverterUtil.convertToArray(
-                                                                <xsl:value-of select="$basePropertyType"/>.class,
-                                                                <xsl:value-of select="$listName"/>));
+                                                        object.set<xsl:value-of select="$javaName"/>(
+                                                            <xsl:value-of select="$listName"/>.toArray(new <xsl:value-of select="$basePropertyType"/>[<xsl:value-of select="$listName"/>.size()]));
 
                                                  </xsl:when>
                                                  <xsl:otherwise>
@@ -2259,7 +2271,7 @@
                                                                 //two continuous end elements means we are exiting the xml structure
                                                                 <xsl:value-of select="$loopBoolName"/> = true;
                                                             } else {
-                                                                if (<xsl:value-of select="$propQName"/>.equals(reader.getName())){
+                                                                if (<xsl:value-of select="$propQNameMatch"/>){
                                                                     <xsl:if test="@nillable">
                                                                       nillableValue = reader.getAttributeValue("http://www.w3.org/2001/XMLSchema-instance","nil");
                                                                       if ("true".equals(nillableValue) || "1".equals(nillableValue)){
@@ -2284,19 +2296,8 @@
                                                                 }
                                                             }
                                                         }
-                                                        // call the converter utility  to convert and set the array
-                                                        <xsl:choose>
-                                                            <xsl:when test="$basePropertyType='java.lang.String'">
-                                                                object.set<xsl:value-of select="$javaName"/>((<xsl:value-of select="$propertyType"/>)
-                                                                    <xsl:value-of select="$listName"/>.toArray(new <xsl:value-of select="$basePropertyType"/>[<xsl:value-of select="$listName"/>.size()]));
-                                                            </xsl:when>
-                                                            <xsl:otherwise>
-                                                        object.set<xsl:value-of select="$javaName"/>((<xsl:value-of select="$propertyType"/>)
-                                                            org.apache.axis2.databinding.utils.ConverterUtil.convertToArray(
-                                                                <xsl:value-of select="$basePropertyType"/>.class,
-                                                                <xsl:value-of select="$listName"/>));
-                                                            </xsl:otherwise>
-                                                        </xsl:choose>
+                                                        object.set<xsl:value-of select="$javaName"/>(
+                                                            <xsl:value-of select="$listName"/>.toArray(new <xsl:value-of select="$basePropertyType"/>[<xsl:value-of select="$listName"/>.size()]));
                                                  </xsl:otherwise>
                                              </xsl:choose>
                                         </xsl:when>
@@ -2340,14 +2341,11 @@
                                         <xsl:when test="@default">
 
                                              boolean <xsl:value-of select="$loopBoolName"/>=false;
-                                             javax.xml.namespace.QName <xsl:value-of select="$startQname"/> = new javax.xml.namespace.QName(
-                                                    "<xsl:value-of select="$namespace"/>",
-                                                    "<xsl:value-of select="$propertyName"/>");
 
                                              while (!<xsl:value-of select="$loopBoolName"/>){
                                                  event = reader.getEventType();
                                                  if (javax.xml.stream.XMLStreamConstants.START_ELEMENT == event
-                                                         &amp;&amp; <xsl:value-of select="$startQname"/>.equals(reader.getName())){
+                                                         &amp;&amp; <xsl:value-of select="$propQNameMatch"/>){
 
                                                       <!-- if-block that handles nillable -->
                                                       <xsl:if test="@nillable">
@@ -2361,10 +2359,10 @@
                                                                             <xsl:value-of select="$mapperClass"/>.class));
                                                        <xsl:if test="@nillable">}</xsl:if>
                                                  } else if (javax.xml.stream.XMLStreamConstants.START_ELEMENT == event &amp;&amp;
-                                                            !<xsl:value-of select="$startQname"/>.equals(reader.getName())){
+                                                            !<xsl:value-of select="$propQNameMatch"/>){
                                                      <xsl:value-of select="$loopBoolName"/> = true;
                                                  }else if (javax.xml.stream.XMLStreamConstants.END_ELEMENT == event &amp;&amp;
-                                                           !<xsl:value-of select="$startQname"/>.equals(reader.getName())){
+                                                           !<xsl:value-of select="$propQNameMatch"/>){
                                                      <xsl:value-of select="$loopBoolName"/> = true;
                                                  }else if (javax.xml.stream.XMLStreamConstants.END_DOCUMENT == event){
                                                      <xsl:value-of select="$loopBoolName"/> = true;
@@ -2414,7 +2412,7 @@
                                                         //two continuous end elements means we are exiting the xml structure
                                                         <xsl:value-of select="$loopBoolName"/> = true;
                                                     } else {
-                                                        if (<xsl:value-of select="$propQName"/>.equals(reader.getName())){
+                                                        if (<xsl:value-of select="$propQNameMatch"/>){
                                                              <xsl:if test="@nillable">
                                                               nillableValue = reader.getAttributeValue("http://www.w3.org/2001/XMLSchema-instance","nil");
                                                               if ("true".equals(nillableValue) || "1".equals(nillableValue)){
@@ -2449,14 +2447,11 @@
                                             <xsl:choose>
                                              <xsl:when test="@default">
                                              boolean <xsl:value-of select="$loopBoolName"/>=false;
-                                             javax.xml.namespace.QName <xsl:value-of select="$startQname"/> = new javax.xml.namespace.QName(
-                                                    "<xsl:value-of select="$namespace"/>",
-                                                    "<xsl:value-of select="$propertyName"/>");
 
                                              while (!<xsl:value-of select="$loopBoolName"/>){
                                                  event = reader.getEventType();
                                                  if (javax.xml.stream.XMLStreamConstants.START_ELEMENT == event
-                                                         &amp;&amp; <xsl:value-of select="$startQname"/>.equals(reader.getName())){
+                                                         &amp;&amp; <xsl:value-of select="$propQNameMatch"/>){
 
                                                       <!-- if-block that handles nillable -->
                                                       <xsl:if test="@nillable">
@@ -2469,10 +2464,10 @@
                                                        <xsl:value-of select="$listName"/>.add(org.apache.axis2.databinding.utils.FactoryUtil.extractElement(reader, false).getFirstElement());
                                                        <xsl:if test="@nillable">}</xsl:if>
                                                  } else if (javax.xml.stream.XMLStreamConstants.START_ELEMENT == event &amp;&amp;
-                                                            !<xsl:value-of select="$startQname"/>.equals(reader.getName())){
+                                                            !<xsl:value-of select="$propQNameMatch"/>){
                                                      <xsl:value-of select="$loopBoolName"/> = true;
                                                  }else if (javax.xml.stream.XMLStreamConstants.END_ELEMENT == event &amp;&amp;
-                                                           !<xsl:value-of select="$startQname"/>.equals(reader.getName())){
+                                                           !<xsl:value-of select="$propQNameMatch"/>){
                                                      <xsl:value-of select="$loopBoolName"/> = true;
                                                  }else if (javax.xml.stream.XMLStreamConstants.END_DOCUMENT == event){
                                                      <xsl:value-of select="$loopBoolName"/> = true;
@@ -2544,7 +2539,7 @@
                                                     //two continuous end elements means we are exiting the xml structure
                                                     <xsl:value-of select="$loopBoolName"/> = true;
                                                 } else {
-                                                    if (<xsl:value-of select="$propQName"/>.equals(reader.getName())){
+                                                    if (<xsl:value-of select="$propQNameMatch"/>){
                                                          <xsl:if test="@nillable">
                                                           nillableValue = reader.getAttributeValue("http://www.w3.org/2001/XMLSchema-instance","nil");
                                                           if ("true".equals(nillableValue) || "1".equals(nillableValue)){
@@ -2740,8 +2735,10 @@
 
                                             <!-- Handle anyAttributes here -->
                                             <xsl:if test="$propertyName = 'extraAttributes'">
-                                                for(org.apache.axiom.om.OMAttribute att : extraAttributeList){
-                                                    object.addExtraAttributes(att);
+                                                if (extraAttributeList != null) {
+                                                    for(org.apache.axiom.om.OMAttribute att : extraAttributeList){
+                                                        object.addExtraAttributes(att);
+                                                    }
                                                 }
                                             </xsl:if>
 
@@ -1172,9 +1172,11 @@ public <xsl:if test="not(@unwrapped) or (@skip-write)">static</xsl:if> class <xs
                 </xsl:if>
 
                 <!-- populate attributes here!!!. The attributes are part of an element, not part of a type -->
+                <xsl:if test="property[@attribute]">
                 // Note all attributes that were handled. Used to differ normal attributes
                 // from anyAttributes.
                 java.util.Vector handledAttributes = new java.util.Vector();
+                </xsl:if>
                 <xsl:for-each select="property[@attribute]">
                     <xsl:variable name="propertyName" select="@name"/>
                     <xsl:variable name="propertyType" select="@type"/>
@@ -1267,13 +1269,13 @@ public <xsl:if test="not(@unwrapped) or (@skip-write)">static</xsl:if> class <xs
                             <xsl:variable name="javaName"><xsl:value-of select="@javaname"></xsl:value-of></xsl:variable>
                             <xsl:variable name="listName">list<xsl:value-of select="position()"/></xsl:variable>
                             <xsl:variable name="loopBoolName">loopDone<xsl:value-of select="position()"/></xsl:variable>
-                            <xsl:variable name="startQname">startQname<xsl:value-of select="position()"/></xsl:variable>
                             <xsl:variable name="stateMachineName">stateMachine<xsl:value-of select="position()"/></xsl:variable>
                             <xsl:variable name="basePropertyType"><xsl:value-of select="@arrayBaseType"/></xsl:variable>
                             <xsl:variable name="namespace"><xsl:value-of select="@nsuri"/></xsl:variable>
                             <xsl:variable name="min"><xsl:value-of select="@minOccurs"/></xsl:variable>
 
-                            <xsl:variable name="propQName">new javax.xml.namespace.QName("<xsl:value-of select="$namespace"/>","<xsl:value-of select="$propertyName"/>")</xsl:variable>
+                            <!-- Expression that tests the name of the current element without creating QNames -->
+                            <xsl:variable name="propQNameMatch">("<xsl:value-of select="$propertyName"/>".equals(reader.getLocalName()) &amp;&amp; <xsl:choose><xsl:when test="string-length($namespace) > 0">"<xsl:value-of select="$namespace"/>".equals(reader.getNamespaceURI())</xsl:when><xsl:otherwise>(reader.getNamespaceURI() == null || reader.getNamespaceURI().length() == 0)</xsl:otherwise></xsl:choose>)</xsl:variable>
 
                            <xsl:choose>
                                 <xsl:when test="$unordered">  <!-- One property per iteration if unordered -->
@@ -1293,7 +1295,7 @@ public <xsl:if test="not(@unwrapped) or (@skip-write)">static</xsl:if> class <xs
                                    if (reader.isStartElement()){
                                 </xsl:when>
                                 <xsl:otherwise>
-                                    if (reader.isStartElement() <xsl:if test="$simple"> || reader.hasText()</xsl:if> <xsl:if test="not($simple)">&amp;&amp; <xsl:value-of select="$propQName"/>.equals(reader.getName())</xsl:if>){
+                                    if (reader.isStartElement() <xsl:if test="$simple"> || reader.hasText()</xsl:if> <xsl:if test="not($simple)">&amp;&amp; <xsl:value-of select="$propQNameMatch"/></xsl:if>){
                                 </xsl:otherwise>
                             </xsl:choose>
 
@@ -1330,7 +1332,7 @@ public <xsl:if test="not(@unwrapped) or (@skip-write)">static</xsl:if> class <xs
                                                     //two continuous end elements means we are exiting the xml structure
                                                     <xsl:value-of select="$loopBoolName"/> = true;
                                                 } else {
-                                                    if (<xsl:value-of select="$propQName"/>.equals(reader.getName())){
+                                                    if (<xsl:value-of select="$propQNameMatch"/>){
                                                         <xsl:if test="@nillable">
                                                           nillableValue = reader.getAttributeValue("http://www.w3.org/2001/XMLSchema-instance","nil");
                                                           if ("true".equals(nillableValue) || "1".equals(nillableValue)){
@@ -1400,14 +1402,11 @@ public <xsl:if test="not(@unwrapped) or (@skip-write)">static</xsl:if> class <xs
                                         <xsl:when test="@default">
 
                                              boolean <xsl:value-of select="$loopBoolName"/>=false;
-                                             javax.xml.namespace.QName <xsl:value-of select="$startQname"/> = new javax.xml.namespace.QName(
-                                                    "<xsl:value-of select="$namespace"/>",
-                                                    "<xsl:value-of select="$propertyName"/>");
 
                                              while (!<xsl:value-of select="$loopBoolName"/>){
                                                  event = reader.getEventType();
                                                  if (javax.xml.stream.XMLStreamConstants.START_ELEMENT == event
-                                                         &amp;&amp; <xsl:value-of select="$startQname"/>.equals(reader.getName())){
+                                                         &amp;&amp; <xsl:value-of select="$propQNameMatch"/>){
 
                                                       <!-- if-block that handles nillable -->
                                                       <xsl:if test="@nillable">
@@ -1420,10 +1419,10 @@ public <xsl:if test="not(@unwrapped) or (@skip-write)">static</xsl:if> class <xs
                                                              <xsl:value-of select="$listName"/>.add(org.apache.axis2.databinding.utils.FactoryUtil.extractElement(reader, false).getFirstElement());
                                                        <xsl:if test="@nillable">}</xsl:if>
                                                  } else if (javax.xml.stream.XMLStreamConstants.START_ELEMENT == event &amp;&amp;
-                                                            !<xsl:value-of select="$startQname"/>.equals(reader.getName())){
+                                                            !<xsl:value-of select="$propQNameMatch"/>){
                                                      <xsl:value-of select="$loopBoolName"/> = true;
                                                  }else if (javax.xml.stream.XMLStreamConstants.END_ELEMENT == event &amp;&amp;
-                                                           !<xsl:value-of select="$startQname"/>.equals(reader.getName())){
+                                                           !<xsl:value-of select="$propQNameMatch"/>){
                                                      <xsl:value-of select="$loopBoolName"/> = true;
                                                  }else if (javax.xml.stream.XMLStreamConstants.END_DOCUMENT == event){
                                                      <xsl:value-of select="$loopBoolName"/> = true;
@@ -1475,7 +1474,7 @@ public <xsl:if test="not(@unwrapped) or (@skip-write)">static</xsl:if> class <xs
                                                         //two continuous end elements means we are exiting the xml structure
                                                         <xsl:value-of select="$loopBoolName"/> = true;
                                                     } else {
-                                                        if (<xsl:value-of select="$propQName"/>.equals(reader.getName())){
+                                                        if (<xsl:value-of select="$propQNameMatch"/>){
                                                              <xsl:if test="@nillable">
                                                               nillableValue = reader.getAttributeValue("http://www.w3.org/2001/XMLSchema-instance","nil");
                                                               if ("true".equals(nillableValue) || "1".equals(nillableValue)){
@@ -1510,14 +1509,11 @@ public <xsl:if test="not(@unwrapped) or (@skip-write)">static</xsl:if> class <xs
                                             <xsl:choose>
                                              <xsl:when test="@default">
                                              boolean <xsl:value-of select="$loopBoolName"/>=false;
-                                             javax.xml.namespace.QName <xsl:value-of select="$startQname"/> = new javax.xml.namespace.QName(
-                                                    "<xsl:value-of select="$namespace"/>",
-                                                    "<xsl:value-of select="$propertyName"/>");
 
                                              while (!<xsl:value-of select="$loopBoolName"/>){
                                                  event = reader.getEventType();
                                                  if (javax.xml.stream.XMLStreamConstants.START_ELEMENT == event
-                                                         &amp;&amp; <xsl:value-of select="$startQname"/>.equals(reader.getName())){
+                                                         &amp;&amp; <xsl:value-of select="$propQNameMatch"/>){
 
                                                       <!-- if-block that handles nillable -->
                                                       <xsl:if test="@nillable">
@@ -1530,10 +1526,10 @@ public <xsl:if test="not(@unwrapped) or (@skip-write)">static</xsl:if> class <xs
                                                        <xsl:value-of select="$listName"/>.add(org.apache.axis2.databinding.utils.FactoryUtil.extractElement(reader, false).getFirstElement());
                                                        <xsl:if test="@nillable">}</xsl:if>
                                                  } else if (javax.xml.stream.XMLStreamConstants.START_ELEMENT == event &amp;&amp;
-                                                            !<xsl:value-of select="$startQname"/>.equals(reader.getName())){
+                                                            !<xsl:value-of select="$propQNameMatch"/>){
                                                      <xsl:value-of select="$loopBoolName"/> = true;
                                                  }else if (javax.xml.stream.XMLStreamConstants.END_ELEMENT == event &amp;&amp;
-                                                           !<xsl:value-of select="$startQname"/>.equals(reader.getName())){
+                                                           !<xsl:value-of select="$propQNameMatch"/>){
                                                      <xsl:value-of select="$loopBoolName"/> = true;
                                                  }else if (javax.xml.stream.XMLStreamConstants.END_DOCUMENT == event){
                                                      <xsl:value-of select="$loopBoolName"/> = true;
@@ -1583,7 +1579,7 @@ public <xsl:if test="not(@unwrapped) or (@skip-write)">static</xsl:if> class <xs
                                                     //two continuous end elements means we are exiting the xml structure
                                                     <xsl:value-of select="$loopBoolName"/> = true;
                                                 } else {
-                                                    if (<xsl:value-of select="$propQName"/>.equals(reader.getName())){
+                                                    if (<xsl:value-of select="$propQNameMatch"/>){
                                                          <xsl:if test="@nillable">
                                                           nillableValue = reader.getAttributeValue("http://www.w3.org/2001/XMLSchema-instance","nil");
                                                           if ("true".equals(nillableValue) || "1".equals(nillableValue)){
@@ -1646,12 +1642,9 @@ public <xsl:if test="not(@unwrapped) or (@skip-write)">static</xsl:if> class <xs
                                 <!-- start of OMelement handling -->
                                  <xsl:when test="@default">
                                      boolean <xsl:value-of select="$loopBoolName"/> = false;
-                                     javax.xml.namespace.QName <xsl:value-of select="$startQname"/> = new javax.xml.namespace.QName(
-                                                                         "<xsl:value-of select="$namespace"/>",
-                                                                         "<xsl:value-of select="$propertyName"/>");
 
                                      while(!<xsl:value-of select="$loopBoolName"/>){
-                                         if (reader.isStartElement() &amp;&amp; <xsl:value-of select="$startQname"/>.equals(reader.getName())){
+                                         if (reader.isStartElement() &amp;&amp; <xsl:value-of select="$propQNameMatch"/>){
                                              <xsl:value-of select="$loopBoolName"/> = true;
                                          }else{
                                              reader.next();
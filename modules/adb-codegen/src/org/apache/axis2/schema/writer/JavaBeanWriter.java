@@ -35,6 +35,7 @@ import org.apache.axis2.util.PrettyPrinter;
 import org.apache.axis2.util.URLProcessor;
 import org.apache.axis2.util.XSLTTemplateProcessor;
 import org.apache.axis2.util.XSLTUtils;
+import org.apache.axis2.wsdl.codegen.writer.WriterExecutor;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.ws.commons.schema.XmlSchemaElement;
@@ -59,6 +60,7 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
 
 
 
@@ -109,6 +111,11 @@ public class JavaBeanWriter implements BeanWriter {
 
     private boolean isIgnoreUnexpected = false;
 
+    private int threads = 1;
+
+    // writes the classes in the background if more than one thread is used
+    private WriterExecutor writerExecutor;
+
     /**
      * package for the mapping class
      */
@@ -173,6 +180,7 @@ public class JavaBeanWriter implements BeanWriter {
             writeClasses = options.isWriteOutput();
             isUseWrapperClasses = options.isUseWrapperClasses();
             isIgnoreUnexpected = options.isIgnoreUnexpected();
+            threads = options.getThreads();
 
             if (!writeClasses) {
                 wrapClasses = false;
@@ -296,6 +304,7 @@ public class JavaBeanWriter implements BeanWriter {
 
                 parse(globalWrappedDocument, out);
             }
+            awaitWrites();
         } catch (Exception e) {
             throw new SchemaCompilationException(e);
         }
@@ -1319,15 +1328,52 @@ public class JavaBeanWriter implements BeanWriter {
      * @param outputFile
      * @throws Exception
      */
-    private void parse(Document doc, File outputFile) throws Exception {
+    private void parse(Document doc, final File outputFile) throws Exception {
+        if (threads > 1) {
+            if (writerExecutor == null) {
+                writerExecutor = new WriterExecutor(threads);
+            }
+            // in helper mode the model is modified after the bean class has been written, so
+            // the task gets its own copy
+            final Document docCopy = (Document) doc.cloneNode(true);
+            final Transformer transformer = getTransformer();
+            writerExecutor.submit(outputFile, new Callable<Object>() {
+                public Object call() throws Exception {
+                    write(docCopy, outputFile, transformer);
+                    return null;
+                }
+            });
+        } else {
+            write(doc, outputFile, getTransformer());
+        }
+    }
+
+    private static void write(Document doc, File outputFile, Transformer transformer)
+            throws Exception {
         OutputStream outStream = new FileOutputStream(outputFile);
-        XSLTTemplateProcessor.parse(outStream, doc, getTransformer());
+        XSLTTemplateProcessor.parse(outStream, doc, transformer);
         outStream.flush();
         outStream.close();
 
         PrettyPrinter.prettify(outputFile);
     }
 
+    /**
+     * Waits until the classes submitted by {@link #parse(Document, File)} have been written.
+     *
+     * @throws Exception if writing one of the classes failed
+     */
+    private void awaitWrites() throws Exception {
+        if (writerExecutor != null) {
+            try {
+                writerExecutor.await();
+            } finally {
+                writerExecutor.shutdown();
+                writerExecutor = null;
+            }
+        }
+    }
+
     private Transformer getTransformer() throws TransformerConfigurationException, SchemaCompilationException {
         try {
             return this.templateCache
@@ -1505,6 +1551,9 @@ public class JavaBeanWriter implements BeanWriter {
                 modelMap.put(new QName(mapperName), model);
             }
 
+            // the schema compiler writes the mapper last
+            awaitWrites();
+
         } catch (ParserConfigurationException e) {
             throw new SchemaCompilationException(SchemaCompilerMessages.getMessage("schema.docuement.error"), e);
         } catch (Exception e) {
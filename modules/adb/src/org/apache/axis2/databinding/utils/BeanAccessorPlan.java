@@ -0,0 +1,289 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.databinding.utils;
+
+import java.beans.BeanDescriptor;
+import java.beans.BeanInfo;
+import java.beans.IntrospectionException;
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import org.apache.axis2.AxisFault;
+import org.apache.axis2.classloader.BeanInfoCache;
+import org.apache.axis2.deployment.util.BeanExcludeInfo;
+import org.apache.axis2.deployment.util.ExcludeInfo;
+
+/**
+ * The precomputed accessors that {@link BeanUtil} uses to serialize and deserialize a bean class.
+ * <p>
+ * Walking the {@link PropertyDescriptor}s, making the accessor methods accessible and resolving
+ * the <code>is</code> getters of {@link Boolean} properties is done once per class instead of
+ * once per bean instance. The plan is stored as an attribute of the {@link BeanDescriptor} of the
+ * {@link BeanInfo} returned by {@link BeanInfoCache}, so it is cached per class loader and has
+ * exactly the same lifecycle as the cached {@link BeanInfo}.
+ */
+final class BeanAccessorPlan {
+    private static final String PLAN_ATTRIBUTE = BeanAccessorPlan.class.getName();
+
+    /**
+     * A readable and/or writable property of the bean.
+     */
+    static final class Property {
+        private final String name;
+        private final Class<?> type;
+        private final Method readMethod;
+        private final Method writeMethod;
+        private final Type genericType;
+
+        Property(String name, Class<?> type, Method readMethod, Method writeMethod) {
+            this.name = name;
+            this.type = type;
+            this.readMethod = readMethod;
+            this.writeMethod = writeMethod;
+            this.genericType = readMethod == null ? null : readMethod.getGenericReturnType();
+            if (readMethod != null) {
+                readMethod.setAccessible(true);
+            }
+            if (writeMethod != null) {
+                writeMethod.setAccessible(true);
+            }
+        }
+
+        String getName() {
+            return name;
+        }
+
+        Class<?> getType() {
+            return type;
+        }
+
+        /**
+         * @return the generic return type of the read method or <code>null</code> if the
+         *         property is not readable
+         */
+        Type getGenericType() {
+            return genericType;
+        }
+
+        Object getValue(Object bean, Class<?> beanClass)
+                throws AxisFault, IllegalAccessException, InvocationTargetException {
+            if (readMethod == null) {
+                throw new AxisFault("Property '" + name + "' in bean class '"
+                                    + beanClass.getName() + "'is not readable.");
+            }
+            return readMethod.invoke(bean);
+        }
+
+        /**
+         * Set the value of the property. Nothing is done if the property is not writable.
+         */
+        void setValue(Object bean, Object value)
+                throws IllegalAccessException, InvocationTargetException {
+            if (writeMethod != null) {
+                writeMethod.invoke(bean, value);
+            }
+        }
+    }
+
+    /**
+     * The properties declared by one class of the hierarchy of the bean class, in the order
+     * in which they are serialized.
+     */
+    static final class Level {
+        private final Class<?> beanClass;
+        private final Property[] properties;
+        // properties that remain after the exclusions of a service have been applied
+        private final Map<ExcludeInfo,Property[]> includedProperties =
+                Collections.synchronizedMap(new WeakHashMap<ExcludeInfo,Property[]>());
+
+        Level(Class<?> beanClass, Property[] properties) {
+            this.beanClass = beanClass;
+            this.properties = properties;
+        }
+
+        Class<?> getBeanClass() {
+            return beanClass;
+        }
+
+        /**
+         * Get the properties to serialize.
+         *
+         * @param excludeInfo
+         *            the exclusions configured for the service; may be <code>null</code>
+         * @return the properties that are not excluded
+         */
+        Property[] getProperties(ExcludeInfo excludeInfo) {
+            if (excludeInfo == null) {
+                return properties;
+            }
+            Property[] included = includedProperties.get(excludeInfo);
+            if (included == null) {
+                BeanExcludeInfo beanExcludeInfo =
+                        excludeInfo.getBeanExcludeInfoForClass(beanClass.getName());
+                if (beanExcludeInfo == null) {
+                    included = properties;
+                } else {
+                    List<Property> list = new ArrayList<Property>(properties.length);
+                    for (Property property : properties) {
+                        if (!beanExcludeInfo.isExcludedProperty(property.getName())) {
+                            list.add(property);
+                        }
+                    }
+                    included = list.toArray(new Property[list.size()]);
+                }
+                includedProperties.put(excludeInfo, included);
+            }
+            return included;
+        }
+    }
+
+    private final Level[] levels;
+    private final Map<String,Property> properties;
+    private final Map<String,Property> propertiesIgnoreCase;
+
+    private BeanAccessorPlan(Level[] levels, Map<String,Property> properties,
+                             Map<String,Property> propertiesIgnoreCase) {
+        this.levels = levels;
+        this.properties = properties;
+        this.propertiesIgnoreCase = propertiesIgnoreCase;
+    }
+
+    /**
+     * Get the (cached) plan for a bean class.
+     *
+     * @param beanClass
+     *            the bean class
+     * @return the plan
+     * @throws IntrospectionException
+     *             if an exception occurs during introspection
+     */
+    static BeanAccessorPlan getPlan(Class<?> beanClass) throws IntrospectionException {
+        BeanDescriptor beanDescriptor =
+                BeanInfoCache.getCachedBeanInfo(beanClass, null).getBeanDescriptor();
+        BeanAccessorPlan plan = beanDescriptor == null ? null
+                : (BeanAccessorPlan)beanDescriptor.getValue(PLAN_ATTRIBUTE);
+        if (plan == null) {
+            plan = createPlan(beanClass);
+            if (beanDescriptor != null) {
+                beanDescriptor.setValue(PLAN_ATTRIBUTE, plan);
+            }
+        }
+        return plan;
+    }
+
+    private static BeanAccessorPlan createPlan(Class<?> beanClass) throws IntrospectionException {
+        // Serialization processes the properties class by class, starting with the
+        // top most superclass that is not a java.* class.
+        List<Level> levels = new ArrayList<Level>();
+        Class<?> levelClass = beanClass;
+        while (true) {
+            Class<?> superClass = levelClass.getSuperclass();
+            BeanInfo beanInfo = BeanInfoCache.getCachedBeanInfo(levelClass, superClass);
+            List<Property> levelProperties = new ArrayList<Property>();
+            for (PropertyDescriptor property : beanInfo.getPropertyDescriptors()) {
+                Class<?> ptype = property.getPropertyType();
+                if (property.getName().equals("class") || ptype == null) {
+                    continue;
+                }
+                levelProperties.add(new Property(property.getName(), ptype,
+                        getReadMethod(beanClass, property), property.getWriteMethod()));
+            }
+            levels.add(0, new Level(levelClass,
+                    levelProperties.toArray(new Property[levelProperties.size()])));
+            if (superClass == null || superClass.getPackage() != null
+                    && superClass.getPackage().getName().startsWith("java.")) {
+                break;
+            }
+            levelClass = superClass;
+        }
+
+        // Deserialization looks up the properties of the complete hierarchy by element name.
+        Map<String,Property> properties = new HashMap<String,Property>();
+        Map<String,Property> propertiesIgnoreCase = new HashMap<String,Property>();
+        for (PropertyDescriptor property :
+                BeanInfoCache.getCachedBeanInfo(beanClass, null).getPropertyDescriptors()) {
+            String name = property.getName();
+            if (name.equals("class")) {
+                continue;
+            }
+            Property p = new Property(name, property.getPropertyType(),
+                    property.getReadMethod(), property.getWriteMethod());
+            properties.put(name, p);
+            propertiesIgnoreCase.put(name.toLowerCase(Locale.ENGLISH), p);
+        }
+        return new BeanAccessorPlan(levels.toArray(new Level[levels.size()]),
+                properties, propertiesIgnoreCase);
+    }
+
+    /**
+     * Get the read method of a property, falling back to the <code>is</code> getter for
+     * {@link Boolean} properties (which the JavaBeans introspector only recognizes for the
+     * primitive <code>boolean</code> type). A property without a read method can still be
+     * deserialized; trying to serialize it results in an error.
+     */
+    private static Method getReadMethod(Class<?> beanClass, PropertyDescriptor property) {
+        Method readMethod = property.getReadMethod();
+        if (readMethod == null && property.getPropertyType() == Boolean.class) {
+            Method writeMethod = property.getWriteMethod();
+            if (writeMethod != null) {
+                String writeMethodName = writeMethod.getName();
+                try {
+                    readMethod = new PropertyDescriptor(property.getName(), beanClass,
+                            "is" + writeMethodName.substring(3), writeMethodName).getReadMethod();
+                } catch (IntrospectionException e) {
+                    // there is no is getter
+                }
+            }
+        }
+        return readMethod;
+    }
+
+    /**
+     * @return the classes of the hierarchy of the bean class (with their properties) in
+     *         serialization order
+     */
+    Level[] getLevels() {
+        return levels;
+    }
+
+    /**
+     * Look up a property of the bean class (or of one of its superclasses) by name.
+     */
+    Property getProperty(String name) {
+        return properties.get(name);
+    }
+
+    /**
+     * Look up a property of the bean class (or of one of its superclasses) by name, ignoring
+     * the case.
+     */
+    Property getPropertyIgnoreCase(String name) {
+        return propertiesIgnoreCase.get(name.toLowerCase(Locale.ENGLISH));
+    }
+}
@@ -0,0 +1,331 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.databinding.utils;
+
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.Collection;
+import java.util.Iterator;
+
+import javax.activation.DataHandler;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+import org.apache.axiom.om.OMAbstractFactory;
+import org.apache.axiom.om.OMDataSource;
+import org.apache.axiom.om.OMElement;
+import org.apache.axiom.om.OMFactory;
+import org.apache.axiom.om.OMNamespace;
+import org.apache.axiom.util.stax.XMLStreamWriterUtils;
+import org.apache.axis2.databinding.AbstractADBDataSource;
+import org.apache.axis2.databinding.typemapping.SimpleTypeMapper;
+import org.apache.axis2.databinding.utils.reader.ADBXMLStreamReaderImpl;
+import org.apache.axis2.description.java2wsdl.TypeTable;
+
+/**
+ * {@link OMDataSource} that writes a Java bean (or a collection of Java beans) directly to the
+ * {@link XMLStreamWriter} when the element is serialized.
+ * <p>
+ * {@link BeanUtil#getPullParser(Object, QName, TypeTable, boolean, boolean)} collects the
+ * element names and values of all the properties of a bean (recursively for nested beans) and
+ * replays them as pull events. This data source produces the same XML, but each property is
+ * written as soon as it has been read from the bean, and the items of a collection are
+ * processed one at a time. Nothing is materialized before the response is written, and large
+ * collections are written with constant memory.
+ */
+public class BeanDataSource extends AbstractADBDataSource {
+    private static final QName XSI_TYPE =
+            new QName(Constants.XSI_NAMESPACE, Constants.XSI_TYPE_ATTRIBUTE,
+                      Constants.DEFAULT_XSI_NAMESPACE_PREFIX);
+    private static final QName XSI_NIL =
+            new QName(Constants.XSI_NAMESPACE, Constants.NIL,
+                      Constants.DEFAULT_XSI_NAMESPACE_PREFIX);
+
+    private Object bean;
+    private final TypeTable typeTable;
+    private final boolean qualified;
+
+    // only set for collections
+    private final Type collectionType;
+    private final String itemName;
+    private final QName collectionQName;
+
+    /**
+     * Constructor for a Java bean.
+     *
+     * @param bean the bean
+     * @param parentQName the name of the element
+     * @param typeTable the type table of the service; may be <code>null</code>
+     * @param qualified whether the property elements are namespace qualified
+     */
+    public BeanDataSource(Object bean, QName parentQName, TypeTable typeTable,
+                          boolean qualified) {
+        super(parentQName);
+        this.bean = bean;
+        this.typeTable = typeTable;
+        this.qualified = qualified;
+        this.collectionType = null;
+        this.itemName = null;
+        this.collectionQName = null;
+    }
+
+    /**
+     * Constructor for a collection. The XML is the same as the XML of the element returned by
+     * {@link BeanUtil#getCollectionElement(OMFactory, Type, Collection, String, String, QName,
+     * TypeTable, boolean)}.
+     *
+     * @param collection the collection
+     * @param type the (generic) type of the collection
+     * @param itemName the name of the elements of the items
+     * @param elementQName the name of the element
+     * @param typeTable the type table of the service
+     * @param elementFormDefault whether the elements are namespace qualified
+     */
+    public BeanDataSource(Collection<?> collection, Type type, String itemName,
+                          QName elementQName, TypeTable typeTable, boolean elementFormDefault) {
+        super(elementFormDefault ? elementQName : new QName(elementQName.getLocalPart()));
+        this.bean = collection;
+        this.typeTable = typeTable;
+        this.qualified = elementFormDefault;
+        this.collectionType = type;
+        this.itemName = itemName;
+        this.collectionQName = elementQName;
+    }
+
+    public void serialize(XMLStreamWriter xmlWriter) throws XMLStreamException {
+        if (collectionQName != null) {
+            writeCollection(xmlWriter);
+        } else {
+            writeBean(xmlWriter, bean, parentQName);
+        }
+        xmlWriter.flush();
+    }
+
+    /**
+     * Returns the backing Object.
+     * @return Object
+     */
+    public Object getObject() {
+        return bean;
+    }
+
+    /**
+     * Close the DataSource and free its resources.
+     */
+    public void close() {
+        parentQName = null;
+        bean = null;
+    }
+
+    private void writeCollection(XMLStreamWriter xmlWriter) throws XMLStreamException {
+        OMFactory fac = OMAbstractFactory.getOMFactory();
+        OMNamespace ns = fac.createOMNamespace(collectionQName.getNamespaceURI(),
+                                               collectionQName.getPrefix());
+        Type valueType = Object.class;
+        if (collectionType instanceof ParameterizedType) {
+            valueType = ((ParameterizedType) collectionType).getActualTypeArguments()[0];
+        }
+        QName valueQName = qualified
+                ? new QName(ns.getNamespaceURI(), itemName, ns.getPrefix())
+                : new QName(itemName);
+        writeStartElement(xmlWriter, parentQName);
+        for (Iterator<?> it = ((Collection<?>) bean).iterator(); it.hasNext();) {
+            Object value = it.next();
+            if (value != null) {
+                writeProperty(xmlWriter, valueQName, BeanUtil.getCollectionItemElement(
+                        fac, itemName, value, valueType, typeTable, ns, qualified));
+            }
+        }
+        xmlWriter.writeEndElement();
+    }
+
+    /**
+     * Write a bean; this is the push equivalent of
+     * {@link BeanUtil#getPullParser(Object, QName, TypeTable, boolean, boolean)}.
+     */
+    private void writeBean(XMLStreamWriter xmlWriter, Object beanObject, QName beanName)
+            throws XMLStreamException {
+        writeStartElement(xmlWriter, beanName);
+        Class<?> beanClass = beanObject.getClass();
+        if (typeTable != null) {
+            QName typeQName = typeTable.getQNamefortheType(BeanUtil.getClassName(beanClass));
+            if (typeQName != null) {
+                writeQNameAttribute(xmlWriter, XSI_TYPE, typeQName);
+            }
+        }
+        PropertyWriter propertyWriter = new PropertyWriter(xmlWriter);
+        try {
+            BeanUtil.addPropertyQnames(beanObject, beanClass, propertyWriter, beanName,
+                                       typeTable, qualified, false);
+        } catch (PropertyWriteException e) {
+            throw e.getCause();
+        }
+        xmlWriter.writeEndElement();
+    }
+
+    /**
+     * Write a property; this is the push equivalent of the way {@link ADBXMLStreamReaderImpl}
+     * processes an element name and its value.
+     */
+    private void writeProperty(XMLStreamWriter xmlWriter, Object key, Object value)
+            throws XMLStreamException {
+        QName name;
+        if (key instanceof QName) {
+            name = (QName) key;
+        } else if (key instanceof String) {
+            name = new QName((String) key);
+        } else {
+            throw new XMLStreamException("unidentified property key!!!" + key);
+        }
+
+        if (value == null) {
+            writeStartElement(xmlWriter, name);
+            writeAttribute(xmlWriter, XSI_NIL, "true");
+            xmlWriter.writeEndElement();
+        } else if (value instanceof DataHandler) {
+            writeStartElement(xmlWriter, name);
+            try {
+                XMLStreamWriterUtils.writeDataHandler(xmlWriter, (DataHandler) value, null, true);
+            } catch (IOException ex) {
+                throw new XMLStreamException("Unable to read data handler", ex);
+            }
+            xmlWriter.writeEndElement();
+        } else if (value instanceof String
+                || value instanceof Integer
+                || value instanceof Long
+                || value instanceof Double
+                || value instanceof Float
+                || value instanceof Character
+                || value instanceof Short) {
+            writeStartElement(xmlWriter, name);
+            xmlWriter.writeCharacters(String.valueOf(value));
+            xmlWriter.writeEndElement();
+        } else if (value.getClass().isArray()) {
+            int length = Array.getLength(value);
+            if (length > 0) {
+                writeStartElement(xmlWriter, name);
+                //for inner Array Complex types we use the special local name array
+                QName arrayName = new QName(name.getNamespaceURI(),
+                                            Constants.INNER_ARRAY_COMPLEX_TYPE_NAME);
+                for (int i = 0; i < length; i++) {
+                    Object item = Array.get(value, i);
+                    if (item != null && SimpleTypeMapper.isSimpleType(item)) {
+                        item = SimpleTypeMapper.getStringValue(item);
+                    }
+                    writeProperty(xmlWriter, arrayName, item);
+                }
+                xmlWriter.writeEndElement();
+            }
+        } else if (value instanceof OMElement) {
+            ((OMElement) value).serialize(xmlWriter);
+        } else {
+            writeBean(xmlWriter, value, name);
+        }
+    }
+
+    private static void writeStartElement(XMLStreamWriter xmlWriter, QName name)
+            throws XMLStreamException {
+        String namespace = name.getNamespaceURI();
+        String writerPrefix = xmlWriter.getPrefix(namespace);
+        if (writerPrefix != null) {
+            xmlWriter.writeStartElement(writerPrefix, name.getLocalPart(), namespace);
+        } else {
+            String prefix = name.getPrefix();
+            if (namespace.length() == 0) {
+                prefix = "";
+            } else if (prefix.length() == 0) {
+                prefix = BeanUtil.getUniquePrefix();
+            }
+            xmlWriter.writeStartElement(prefix, name.getLocalPart(), namespace);
+            xmlWriter.writeNamespace(prefix, namespace);
+            xmlWriter.setPrefix(prefix, namespace);
+        }
+    }
+
+    private static void writeAttribute(XMLStreamWriter xmlWriter, QName name, String value)
+            throws XMLStreamException {
+        String namespace = name.getNamespaceURI();
+        String prefix = xmlWriter.getPrefix(namespace);
+        if (prefix == null) {
+            prefix = name.getPrefix();
+            xmlWriter.writeNamespace(prefix, namespace);
+            xmlWriter.setPrefix(prefix, namespace);
+        }
+        xmlWriter.writeAttribute(prefix, namespace, name.getLocalPart(), value);
+    }
+
+    private static void writeQNameAttribute(XMLStreamWriter xmlWriter, QName name, QName value)
+            throws XMLStreamException {
+        String namespace = value.getNamespaceURI();
+        String prefix = xmlWriter.getPrefix(namespace);
+        if (prefix == null) {
+            prefix = value.getPrefix();
+            if (prefix.length() == 0) {
+                prefix = BeanUtil.getUniquePrefix();
+            }
+            xmlWriter.writeNamespace(prefix, namespace);
+            xmlWriter.setPrefix(prefix, namespace);
+        }
+        writeAttribute(xmlWriter, name,
+                       prefix.length() == 0 ? value.getLocalPart()
+                                            : prefix + ":" + value.getLocalPart());
+    }
+
+    /**
+     * Writes each property of a bean as soon as {@link BeanUtil} produces it, so that the list of
+     * properties is never materialized.
+     */
+    private final class PropertyWriter implements BeanUtil.PropertyHandler {
+        private final XMLStreamWriter xmlWriter;
+
+        PropertyWriter(XMLStreamWriter xmlWriter) {
+            this.xmlWriter = xmlWriter;
+        }
+
+        public void addProperty(QName name, Object value) {
+            try {
+                writeProperty(xmlWriter, name, value);
+            } catch (XMLStreamException e) {
+                throw new PropertyWriteException(e);
+            }
+        }
+    }
+
+    /**
+     * Carries an {@link XMLStreamException} through
+     * {@link BeanUtil#addPropertyQnames(Object, Class, BeanUtil.PropertyHandler, QName, TypeTable,
+     * boolean, boolean)}.
+     */
+    private static final class PropertyWriteException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        PropertyWriteException(XMLStreamException cause) {
+            super(cause);
+        }
+
+        @Override
+        public synchronized XMLStreamException getCause() {
+            return (XMLStreamException) super.getCause();
+        }
+    }
+}
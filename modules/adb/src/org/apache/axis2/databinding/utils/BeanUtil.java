@@ -20,9 +20,7 @@
 package org.apache.axis2.databinding.utils;
 
 
-import java.beans.BeanInfo;
 import java.beans.IntrospectionException;
-import java.beans.PropertyDescriptor;
 import java.lang.reflect.Array;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
@@ -30,7 +28,6 @@ import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -57,11 +54,10 @@ import javax.xml.stream.XMLStreamReader;
 import org.apache.axiom.om.*;
 import org.apache.axiom.util.base64.Base64Utils;
 import org.apache.axis2.AxisFault;
-import org.apache.axis2.classloader.BeanInfoCache;
 import org.apache.axis2.context.MessageContext;
 import org.apache.axis2.databinding.typemapping.SimpleTypeMapper;
 import org.apache.axis2.databinding.utils.reader.ADBXMLStreamReaderImpl;
-import org.apache.axis2.deployment.util.BeanExcludeInfo;
+import org.apache.axis2.deployment.util.ExcludeInfo;
 import org.apache.axis2.description.AxisService;
 import org.apache.axis2.description.java2wsdl.TypeTable;
 import org.apache.axis2.engine.ObjectSupplier;
@@ -102,7 +98,7 @@ public class BeanUtil {
 
     }
 
-    private static String getClassName(Class type) {
+    static String getClassName(Class type) {
         String name = type.getName();
         if (name.indexOf("$") > 0) {
             name = name.replace('$', '_');
@@ -111,30 +107,71 @@ public class BeanUtil {
     }
 
 
-    private static BeanInfo getBeanInfo(Class beanClass, Class beanSuperclass) throws IntrospectionException {
-        return BeanInfoCache.getCachedBeanInfo(beanClass, beanSuperclass);
-    }
-
-    private static BeanInfo getBeanInfo(Class beanClass) throws IntrospectionException {
-        return getBeanInfo(beanClass, null);
-    }
-
     private static List<Object> getPropertyQnameList(Object beanObject,
                                                      Class<?> beanClass,
                                                      QName beanName,
                                                      TypeTable typeTable,
                                                      boolean qualified,
                                                      boolean processingDocLitBare) {
-        List<Object> propertyQnameValueList;
-        Class<?> supperClass = beanClass.getSuperclass();
+        final List<Object> propertyQnameValueList = new ArrayList<Object>();
+        addPropertyQnames(beanObject, beanClass, new PropertyHandler() {
+            public void addProperty(QName name, Object value) {
+                propertyQnameValueList.add(name);
+                propertyQnameValueList.add(value);
+            }
+        }, beanName, typeTable, qualified, processingDocLitBare);
+        return propertyQnameValueList;
+    }
 
-        if (!getQualifiedName(supperClass.getPackage()).startsWith("java.")) {
-            propertyQnameValueList = getPropertyQnameList(beanObject,
-                                                          supperClass, beanName, typeTable, qualified, processingDocLitBare);
-        } else {
-            propertyQnameValueList = new ArrayList<Object>();
+    /**
+     * Receives the element names and values of the properties of a bean, in document order.
+     */
+    interface PropertyHandler {
+        /**
+         * @param name  the element name of the property
+         * @param value the value of the property, in the form expected by
+         *              {@link ADBXMLStreamReaderImpl}
+         */
+        void addProperty(QName name, Object value);
+    }
+
+    /**
+     * Pass the element names and values of the properties of a bean to a handler.
+     */
+    static void addPropertyQnames(Object beanObject,
+                                  Class<?> beanClass,
+                                  PropertyHandler propertyHandler,
+                                  QName beanName,
+                                  TypeTable typeTable,
+                                  boolean qualified,
+                                  boolean processingDocLitBare) {
+        try {
+            ExcludeInfo excludeInfo = null;
+            if (MessageContext.getCurrentMessageContext() != null) {
+                AxisService axisService = MessageContext.getCurrentMessageContext().getAxisService();
+                if (axisService != null) {
+                    excludeInfo = axisService.getExcludeInfo();
+                }
+            }
+            // the properties of the superclasses come first
+            for (BeanAccessorPlan.Level level : BeanAccessorPlan.getPlan(beanClass).getLevels()) {
+                addPropertyQnames(beanObject, level.getBeanClass(),
+                                  level.getProperties(excludeInfo), propertyHandler,
+                                  beanName, typeTable, qualified, processingDocLitBare);
+            }
+        } catch (java.beans.IntrospectionException e) {
+            throw new RuntimeException(e);
         }
+    }
 
+    private static void addPropertyQnames(Object beanObject,
+                                          Class<?> beanClass,
+                                          BeanAccessorPlan.Property[] properties,
+                                          PropertyHandler propertyHandler,
+                                          QName beanName,
+                                          TypeTable typeTable,
+                                          boolean qualified,
+                                          boolean processingDocLitBare) {
         try {
             QName elemntNameSpace = null;
             if (typeTable != null && qualified) {
@@ -149,88 +186,40 @@ public class BeanUtil {
 
                 elemntNameSpace = new QName(qNamefortheType.getNamespaceURI(), "elementName", qNamefortheType.getPrefix());
             }
-            AxisService axisService = null;
-            if (MessageContext.getCurrentMessageContext() != null) {
-                axisService = MessageContext.getCurrentMessageContext().getAxisService();
-            }
-
-            BeanExcludeInfo beanExcludeInfo = null;
-            if (axisService != null && axisService.getExcludeInfo() != null) {
-                beanExcludeInfo = axisService.getExcludeInfo().getBeanExcludeInfoForClass(beanClass.getName());
-            }
-            BeanInfo beanInfo = getBeanInfo(beanClass, beanClass.getSuperclass());
-            PropertyDescriptor[] properties = beanInfo.getPropertyDescriptors();
-            for (PropertyDescriptor property : properties) {
+            for (BeanAccessorPlan.Property property : properties) {
                 String propertyName = property.getName();
-                Class<?> ptype = property.getPropertyType();
-                if (propertyName.equals("class") ||
-                    beanExcludeInfo != null && beanExcludeInfo.isExcludedProperty(propertyName) || ptype == null) {
-                    continue;
-                }
-
-                Method readMethod = property.getReadMethod();
-                if (readMethod == null) {
-                    Class propertyType = property.getPropertyType();
-                    if (propertyType == java.lang.Boolean.class) {
-                        Method writeMethod = property.getWriteMethod();
-                        if (writeMethod != null) {
-                            String tmpWriteMethodName = writeMethod.getName();
-                            PropertyDescriptor tmpPropDesc =
-                                    new PropertyDescriptor(property.getName(),
-                                            beanObject.getClass(),
-                                            "is" + tmpWriteMethodName.substring(3),
-                                            tmpWriteMethodName);
-                            readMethod = tmpPropDesc.getReadMethod();
-                        }
-                    }
-                }
-                Object value;
-                if (readMethod != null) {
-                    readMethod.setAccessible(true);
-                    value = readMethod.invoke(beanObject);
-                } else {
-                    throw new AxisFault("Property '" + propertyName + "' in bean class '"
-                                        + beanClass.getName() + "'is not readable.");
-                }
+                Class<?> ptype = property.getType();
+                Object value = property.getValue(beanObject, beanClass);
+                QName typeQname = getTypeQname(elemntNameSpace, propertyName, beanName,
+                                               processingDocLitBare);
 
                 if (SimpleTypeMapper.isSimpleType(ptype)) {
-                    addTypeQname(elemntNameSpace, propertyQnameValueList, property,
-                                 beanName, processingDocLitBare);
-                    propertyQnameValueList.add(
+                    propertyHandler.addProperty(typeQname,
                             value == null ? null : SimpleTypeMapper.getStringValue(value));
                 } else if(SimpleTypeMapper.isDomDocument(ptype)){
-                    addTypeQname(elemntNameSpace, propertyQnameValueList, property,
-                            beanName, processingDocLitBare);
                     OMFactory fac = OMAbstractFactory.getOMFactory();
-                    propertyQnameValueList.add(convertDOMtoOM(fac, value));
+                    propertyHandler.addProperty(typeQname, convertDOMtoOM(fac, value));
                     
                 } else if (ptype.isArray()) {
                     if (SimpleTypeMapper.isSimpleType(ptype.getComponentType())) {
                         if (value != null) {
                             if (Byte.TYPE.equals(ptype.getComponentType())) {
-                                addTypeQname(elemntNameSpace, propertyQnameValueList,
-                                             property, beanName, processingDocLitBare);
-                                propertyQnameValueList.add(Base64Utils.encode((byte[]) value));
+                                propertyHandler.addProperty(typeQname,
+                                                            Base64Utils.encode((byte[]) value));
                             } else {
                                 int i1 = Array.getLength(value);
                                 for (int j = 0; j < i1; j++) {
                                     Object o = Array.get(value, j);
-                                    addTypeQname(elemntNameSpace, propertyQnameValueList,
-                                                 property, beanName, processingDocLitBare);
-                                    propertyQnameValueList.add(o == null ? null :
-                                                               SimpleTypeMapper.getStringValue(o));
+                                    propertyHandler.addProperty(typeQname, o == null ? null :
+                                                                SimpleTypeMapper.getStringValue(o));
                                 }
                             }
                         } else {
-                            addTypeQname(elemntNameSpace, propertyQnameValueList, property,
-                                         beanName, processingDocLitBare);
-                            propertyQnameValueList.add(value);
+                            propertyHandler.addProperty(typeQname, value);
                         }
                     } else {
                         if (value != null) {
                             for (Object o : (Object[]) value) {
-                                addTypeQname(elemntNameSpace, propertyQnameValueList,
-                                             property, beanName, processingDocLitBare);   
                                 QName propertyQName = null;
                                 if (elemntNameSpace != null) {
                                     propertyQName = new QName(
@@ -261,7 +250,7 @@ public class BeanUtil {
                                     } else {
                                         itemName = new QName(Constants.INNER_ARRAY_COMPLEX_TYPE_NAME);
                                     }
-                                    propertyQnameValueList.add(getOMElement(propertyQName , (Object[]) o,
+                                    propertyHandler.addProperty(typeQname, getOMElement(propertyQName , (Object[]) o,
                                             itemName, qualified, typeTable));
                                 } else {
                                     if(SimpleTypeMapper.isObjectArray(value.getClass())){
@@ -269,17 +258,15 @@ public class BeanUtil {
                                         OMElement element = fac.createOMElement(propertyQName);
                                         element.addChild(fac.createOMText(SimpleTypeMapper.getStringValue(o)));  
                                         addInstanceTypeAttribute(fac, element, o, typeTable);
-                                        propertyQnameValueList.add(element);
+                                        propertyHandler.addProperty(typeQname, element);
                                     } else {
-                                        propertyQnameValueList.add(o);
+                                        propertyHandler.addProperty(typeQname, o);
                                     }
                                 }
                                
                             }
                         } else {
-                            addTypeQname(elemntNameSpace, propertyQnameValueList, property,
-                                         beanName, processingDocLitBare);
-                            propertyQnameValueList.add(value);
+                            propertyHandler.addProperty(typeQname, value);
                         }
                     }
                 } else  if (SimpleTypeMapper.isCollection(ptype) && value != null) { 
@@ -288,19 +275,15 @@ public class BeanUtil {
                         QName qNamefortheType = null;
                         qNamefortheType = (QName) typeTable
                                 .getComplexSchemaMap().get(getClassName(beanClass));
-                        Type genericType = property.getReadMethod().getGenericReturnType();
+                        Type genericType = property.getGenericType();
                         OMElement collection = BeanUtil.getCollectionElement(
                                 fac, genericType,
                                 (Collection) value, propertyName,null,
                                 qNamefortheType,typeTable,
                                 qualified);
-//                      addTypeQname(elemntNameSpace, propertyQnameValueList,
-//                              property, beanName, processingDocLitBare);
                         Iterator childItr = collection.getChildren();
                         while(childItr.hasNext()){
-                            addTypeQname(elemntNameSpace, propertyQnameValueList,
-                                    property, beanName, processingDocLitBare);
-                            propertyQnameValueList.add(childItr.next());
+                            propertyHandler.addProperty(typeQname, childItr.next());
                         }
                     
                     } else {
@@ -310,21 +293,11 @@ public class BeanUtil {
                             // and if the array contain simple type , then the ADBPullParser asked
                             // PullParser from That simpel type
                             for (Object o : objList) {
-                                if (SimpleTypeMapper.isSimpleType(o)) {
-                                    addTypeQname(elemntNameSpace, propertyQnameValueList,
-                                            property, beanName, processingDocLitBare);
-                                    propertyQnameValueList.add(o);
-                                } else {
-                                    addTypeQname(elemntNameSpace, propertyQnameValueList,
-                                            property, beanName, processingDocLitBare);
-                                    propertyQnameValueList.add(o);
-                                }
+                                propertyHandler.addProperty(typeQname, o);
                             }
 
                         } else {
-                            addTypeQname(elemntNameSpace, propertyQnameValueList, property,
-                                    beanName, processingDocLitBare);
-                            propertyQnameValueList.add(value);
+                            propertyHandler.addProperty(typeQname, value);
                         }
                     }
                     
@@ -343,17 +316,11 @@ public class BeanUtil {
                     for (OMElement ele : mapEntries) {
                         map.addChild(ele);
                     }
-                    addTypeQname(elemntNameSpace, propertyQnameValueList,
-                            property, beanName, processingDocLitBare);
-                    propertyQnameValueList.add(map);
+                    propertyHandler.addProperty(typeQname, map);
                 } else if (SimpleTypeMapper.isEnum(ptype)){
-                    addTypeQname(elemntNameSpace, propertyQnameValueList, property,
-                                 beanName, processingDocLitBare);
-                    propertyQnameValueList.add(
+                    propertyHandler.addProperty(typeQname,
                             value == null ? null : SimpleTypeMapper.getStringValue(value.toString()));
                 }else {
-                    addTypeQname(elemntNameSpace, propertyQnameValueList, property,
-                                 beanName, processingDocLitBare);
                     if (Object.class.equals(ptype) && value != null) {
                         //this is required to match this element prefix as
                         //root element's prefix.
@@ -366,10 +333,10 @@ public class BeanUtil {
                         if (elemntNameSpace != null) {
                             elementName = new QName(
                                     elemntNameSpace.getNamespaceURI(),
-                                    property.getName(),
+                                    propertyName,
                                     qNamefortheType.getPrefix());
                         } else {
-                            elementName = new QName(property.getName());
+                            elementName = new QName(propertyName);
                         }
                         
                         if(SimpleTypeMapper.isSimpleType(value)){
@@ -387,20 +354,15 @@ public class BeanUtil {
                             
                         }
                         addInstanceTypeAttribute(fac, element, value, typeTable);
-                        propertyQnameValueList.add(element);
+                        propertyHandler.addProperty(typeQname, element);
                         continue;
                     }
 
-                    propertyQnameValueList.add(value);
+                    propertyHandler.addProperty(typeQname, value);
                 }
             }
-
-            return propertyQnameValueList;
-
         } catch (java.io.IOException e) {
             throw new RuntimeException(e);
-        } catch (java.beans.IntrospectionException e) {
-            throw new RuntimeException(e);
         } catch (java.lang.reflect.InvocationTargetException e) {
             throw new RuntimeException(e);
         } catch (java.lang.IllegalAccessException e) {
@@ -408,19 +370,18 @@ public class BeanUtil {
         }
     }
 
-    private static void addTypeQname(QName elemntNameSpace,
-                                     List<Object> propertyQnameValueList,
-                                     PropertyDescriptor propDesc,
-                                     QName beanName,
-                                     boolean processingDocLitBare) {
+    private static QName getTypeQname(QName elemntNameSpace,
+                                      String propertyName,
+                                      QName beanName,
+                                      boolean processingDocLitBare) {
         if (elemntNameSpace != null) {
-            propertyQnameValueList.add(new QName(elemntNameSpace.getNamespaceURI(),
-                                                 propDesc.getName(), elemntNameSpace.getPrefix()));
+            return new QName(elemntNameSpace.getNamespaceURI(),
+                             propertyName, elemntNameSpace.getPrefix());
         } else {
             if (processingDocLitBare) {
-                propertyQnameValueList.add(new QName(propDesc.getName()));
+                return new QName(propertyName);
             } else {
-                propertyQnameValueList.add(new QName(beanName.getNamespaceURI(), propDesc.getName(), beanName.getPrefix()));
+                return new QName(beanName.getNamespaceURI(), propertyName, beanName.getPrefix());
             }
 
         }
@@ -542,25 +503,12 @@ public class BeanUtil {
                     return beanElement.getFirstOMChild();
                 }
 
-                //use a comaprator to ignore the case of the bean element
-                //names eg. if the property descriptor is getServiceName it
-                //should accept child element with ServiceName as well.
-                //but currently accepts only serviceName
-                Comparator comparator = new Comparator() {
-                    public int compare(Object o1, Object o2) {
-                        String string1 = (String) o1;
-                        String string2 = (String) o2;
-                        return string1.compareToIgnoreCase(string2);
-                    }
-                };
-                Map<String, PropertyDescriptor> properties = new TreeMap<String, PropertyDescriptor>(comparator);
-
-
-                BeanInfo beanInfo = getBeanInfo(beanClass);
-                PropertyDescriptor[] propDescs = beanInfo.getPropertyDescriptors();
-                for (PropertyDescriptor proprty : propDescs) {
-                    properties.put(proprty.getName(), proprty);
-                }
+                //ignore the case of the bean element names eg. if the property
+                //descriptor is getServiceName it should accept child element
+                //with ServiceName as well.
+                BeanAccessorPlan plan = BeanAccessorPlan.getPlan(beanClass);
+                //each property is set only once
+                Set<BeanAccessorPlan.Property> assigned = new HashSet<BeanAccessorPlan.Property>();
                 Iterator elements = beanElement.getChildren();
                 beanObj = objectSupplier.getObject(beanClass);
                 while (elements.hasNext()) {
@@ -580,11 +528,9 @@ public class BeanUtil {
                     // if parts/@href != null then need to find element with id and deserialize.
                     // before that first check whether we already have it in the hashtable
                     String partsLocalName = parts.getLocalName();
-                    PropertyDescriptor prty = properties.remove(partsLocalName);
-                    if (prty != null) {
-                        Class parameters = prty.getPropertyType();
-                        if (prty.getName().equals("class"))
-                            continue;
+                    BeanAccessorPlan.Property prty = plan.getPropertyIgnoreCase(partsLocalName);
+                    if (prty != null && assigned.add(prty)) {
+                        Class parameters = prty.getType();
 
                         Object partObj;
                         boolean isNil = false;
@@ -603,7 +549,7 @@ public class BeanUtil {
                                 partObj = SimpleTypeMapper.getHashSet((OMElement)
                                         parts.getParent(), prty.getName());
                             } else if (SimpleTypeMapper.isCollection(parameters)) {
-                                Type type = prty.getReadMethod().getGenericReturnType();
+                                Type type = prty.getGenericType();
                                 partObj = processGenericCollection(parts, type, null, objectSupplier);  
 
                             } else if (SimpleTypeMapper.isDataHandler(parameters)) {
@@ -613,7 +559,7 @@ public class BeanUtil {
                                                       objectSupplier, prty.getName());
                             } else if (SimpleTypeMapper.isMap(parameters)){
                                 partObj = null;
-                                final Type type = prty.getReadMethod().getGenericReturnType();
+                                final Type type = prty.getGenericType();
                                 if (type instanceof ParameterizedType) {
                                     ParameterizedType aType = (ParameterizedType) type;
                                     Type[] parameterArgTypes = aType.getActualTypeArguments();
@@ -630,12 +576,7 @@ public class BeanUtil {
                                 partObj = deserialize(parameters, parts, objectSupplier, null);
                             }
                         }
-                        Object[] parms = new Object[]{partObj};
-                        Method writeMethod = prty.getWriteMethod();
-                        if (writeMethod != null) {
-                            writeMethod.setAccessible(true);
-                            writeMethod.invoke(beanObj, parms);
-                        }
+                        prty.setValue(beanObj, partObj);
                     }
                 }
                 return beanObj;
@@ -659,12 +600,7 @@ public class BeanUtil {
                                      ObjectSupplier objectSupplier) throws AxisFault {
         Object beanObj;
         try {
-            HashMap<String, PropertyDescriptor> properties = new HashMap<String, PropertyDescriptor>();
-            BeanInfo beanInfo = getBeanInfo(beanClass);
-            PropertyDescriptor[] propDescs = beanInfo.getPropertyDescriptors();
-            for (PropertyDescriptor proprty : propDescs) {
-                properties.put(proprty.getName(), proprty);
-            }
+            BeanAccessorPlan plan = BeanAccessorPlan.getPlan(beanClass);
 
             beanObj = objectSupplier.getObject(beanClass);
             Iterator elements = beanElement.getChildren();
@@ -677,12 +613,10 @@ public class BeanUtil {
                     continue;
                 }
                 String partsLocalName = parts.getLocalName();
-                PropertyDescriptor prty = properties.get(
+                BeanAccessorPlan.Property prty = plan.getProperty(
                         partsLocalName.toLowerCase());
                 if (prty != null) {
-                    Class parameters = prty.getPropertyType();
-                    if (prty.getName().equals("class"))
-                        continue;
+                    Class parameters = prty.getType();
                     Object partObj;
                     OMAttribute attr = MultirefHelper.processRefAtt(parts);
                     if (attr != null) {
@@ -697,12 +631,7 @@ public class BeanUtil {
                             partObj = deserialize(parameters, parts, objectSupplier, null);
                         }
                     }
-                    Object[] parms = new Object[]{partObj};
-                    Method writeMethod = prty.getWriteMethod();
-                    if (writeMethod != null) {
-                        writeMethod.setAccessible(true);
-                        writeMethod.invoke(beanObj, parms);
-                    }
+                    prty.setValue(beanObj, partObj);
                 }
             }
         } catch (IllegalAccessException e) {
@@ -1259,14 +1188,6 @@ public class BeanUtil {
     }
 
 
-    private static String getQualifiedName(Package packagez) {
-        if (packagez != null) {
-            return packagez.getName();
-        } else {
-            return "";
-        }
-    }
-
     private static Object getSimpleTypeObjectChecked(Class classType,
                                                      OMElement omElement) throws AxisFault {
         try {
@@ -1838,7 +1759,7 @@ public class BeanUtil {
      * @param elementFormDefault the element form default
      * @return the collection item element
      */
-    private static Object getCollectionItemElement(OMFactory fac,
+    static Object getCollectionItemElement(OMFactory fac,
             String elementName, Object value, Type valueType,
             TypeTable typeTable, OMNamespace ns, boolean elementFormDefault) {
         if (SimpleTypeMapper.isMap(value.getClass())) {
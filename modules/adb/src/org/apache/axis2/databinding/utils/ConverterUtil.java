@@ -84,7 +84,9 @@ import java.util.Calendar;
 import java.util.Date;
 import java.util.GregorianCalendar;
 import java.util.List;
+import java.util.Map;
 import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Converter methods to go from 1. simple type -> String 2. simple type -> Object 3. String ->
@@ -99,8 +101,31 @@ public class ConverterUtil {
 
     public static final String SYSTEM_PROPERTY_ADB_CONVERTERUTIL = "adb.converterutil";
 
+    /**
+     * If this system property is set to <code>true</code>, dates and calendars are formatted
+     * using the original {@link StringBuffer} based code instead of {@link LexicalFormatter}.
+     * Both produce the same output.
+     */
+    public static final String SYSTEM_PROPERTY_ADB_CONVERTERUTIL_LEGACY = "adb.converterutil.legacy";
+
     private static boolean isCustomClassPresent;
     private static Class customClass;
+    private static final Map<Class,Method> customMethods = new ConcurrentHashMap<Class,Method>();
+    private static final boolean useLegacyFormat =
+            Boolean.getBoolean(SYSTEM_PROPERTY_ADB_CONVERTERUTIL_LEGACY);
+
+    private static final ThreadLocal<char[]> formatBuffer = new ThreadLocal<char[]>() {
+        protected char[] initialValue() {
+            return new char[LexicalFormatter.MAX_LENGTH];
+        }
+    };
+
+    // used to convert Date instances; reset before each use
+    private static final ThreadLocal<Calendar> formatCalendar = new ThreadLocal<Calendar>() {
+        protected Calendar initialValue() {
+            return Calendar.getInstance();
+        }
+    };
 
     /* String conversion methods */
     public static String convertToString(int i) {
@@ -140,6 +165,9 @@ public class ConverterUtil {
         if (isCustomClassPresent) {
             // this means user has define a seperate converter util class
             return invokeToStringMethod(value,Date.class);
+        } else if (!useLegacyFormat) {
+            char[] buffer = formatBuffer.get();
+            return new String(buffer, 0, formatDate(value, buffer));
         } else {
             // lexical form of the date is '-'? yyyy '-' mm '-' dd zzzzzz?
             Calendar calendar = Calendar.getInstance();
@@ -210,7 +238,11 @@ public class ConverterUtil {
     private static String invokeToStringMethod(Object value, Class type) {
 
         try {
-            Method method = customClass.getMethod("convertToString", new Class[]{type});
+            Method method = customMethods.get(type);
+            if (method == null) {
+                method = customClass.getMethod("convertToString", new Class[]{type});
+                customMethods.put(type, method);
+            }
             String result = (String) method.invoke(null,new Object[]{value});
             return result;
         } catch (NoSuchMethodException e) {
@@ -233,6 +265,11 @@ public class ConverterUtil {
             if (value.get(Calendar.ZONE_OFFSET) == -1){
                 value.setTimeZone(TimeZone.getDefault());
             }
+            if (!useLegacyFormat) {
+                char[] buffer = formatBuffer.get();
+                return new String(buffer, 0,
+                        LexicalFormatter.formatDateTime(value, buffer, 0));
+            }
             StringBuffer dateString = new StringBuffer(28);
             appendDate(dateString, value);
             dateString.append("T");
@@ -265,6 +302,71 @@ public class ConverterUtil {
         dateString.append(value.get(Calendar.MILLISECOND));
     }
 
+    /**
+     * Format a date using the thread local calendar.
+     *
+     * @return the number of characters written to the buffer
+     */
+    private static int formatDate(Date value, char[] buffer) {
+        Calendar calendar = formatCalendar.get();
+        calendar.clear();
+        calendar.setTimeZone(TimeZone.getDefault());
+        calendar.setTime(value);
+        return LexicalFormatter.formatDateWithTimeZone(calendar, buffer, 0);
+    }
+
+    /**
+     * Write the lexical representation of an xsd:dateTime value directly to an
+     * {@link XMLStreamWriter}. This produces the same text as {@link #convertToString(Calendar)},
+     * but doesn't create an intermediate string.
+     *
+     * @param value the value to write
+     * @param writer the writer
+     * @throws XMLStreamException
+     */
+    public static void writeDateTime(Calendar value, XMLStreamWriter writer)
+            throws XMLStreamException {
+        if (isCustomClassPresent || useLegacyFormat) {
+            writer.writeCharacters(convertToString(value));
+        } else {
+            if (value.get(Calendar.ZONE_OFFSET) == -1){
+                value.setTimeZone(TimeZone.getDefault());
+            }
+            char[] buffer = formatBuffer.get();
+            writer.writeCharacters(buffer, 0, LexicalFormatter.formatDateTime(value, buffer, 0));
+        }
+    }
+
+    /**
+     * Write the lexical representation of an xsd:date value directly to an
+     * {@link XMLStreamWriter}. This produces the same text as {@link #convertToString(Date)}.
+     *
+     * @param value the value to write
+     * @param writer the writer
+     * @throws XMLStreamException
+     */
+    public static void writeDate(Date value, XMLStreamWriter writer) throws XMLStreamException {
+        if (isCustomClassPresent || useLegacyFormat) {
+            writer.writeCharacters(convertToString(value));
+        } else {
+            char[] buffer = formatBuffer.get();
+            writer.writeCharacters(buffer, 0, formatDate(value, buffer));
+        }
+    }
+
+    /**
+     * Write the lexical representation of an integer value (xsd:long, xsd:int, xsd:short or
+     * xsd:byte) directly to an {@link XMLStreamWriter}.
+     *
+     * @param value the value to write
+     * @param writer the writer
+     * @throws XMLStreamException
+     */
+    public static void writeLong(long value, XMLStreamWriter writer) throws XMLStreamException {
+        char[] buffer = formatBuffer.get();
+        writer.writeCharacters(buffer, 0, LexicalFormatter.formatLong(value, buffer, 0));
+    }
+
     public static String convertToString(Day o) {
         return o.toString();
     }
@@ -585,9 +687,9 @@ public class ConverterUtil {
             if ((source.charAt(4) != '-') || (source.charAt(7) != '-')){
                 throw new RuntimeException("invalid date format (" + source + ") with out - s at correct place ");
             }
-            year = Integer.parseInt(source.substring(0,4));
-            month = Integer.parseInt(source.substring(5,7));
-            day = Integer.parseInt(source.substring(8,10));
+            year = LexicalFormatter.parseDigits(source, 0, 4);
+            month = LexicalFormatter.parseDigits(source, 5, 7);
+            day = LexicalFormatter.parseDigits(source, 8, 10);
 
             if (source.length() > 10) {
                 String restpart = source.substring(10);
@@ -931,12 +1033,12 @@ public class ConverterUtil {
                     (source.charAt(16) != ':')) {
                 throw new RuntimeException("invalid date format (" + source + ") with out - s at correct place ");
             }
-            year = Integer.parseInt(source.substring(0, 4));
-            month = Integer.parseInt(source.substring(5, 7));
-            day = Integer.parseInt(source.substring(8, 10));
-            hour = Integer.parseInt(source.substring(11, 13));
-            minite = Integer.parseInt(source.substring(14, 16));
-            second = Integer.parseInt(source.substring(17, 19));
+            year = LexicalFormatter.parseDigits(source, 0, 4);
+            month = LexicalFormatter.parseDigits(source, 5, 7);
+            day = LexicalFormatter.parseDigits(source, 8, 10);
+            hour = LexicalFormatter.parseDigits(source, 11, 13);
+            minite = LexicalFormatter.parseDigits(source, 14, 16);
+            second = LexicalFormatter.parseDigits(source, 17, 19);
 
             int milliSecondPartLength = 0;
 
@@ -1468,7 +1570,8 @@ public class ConverterUtil {
         if (value instanceof String) {
             serializeAnyType("string", value.toString(), xmlStreamWriter);
         } else if (value instanceof Integer) {
-            serializeAnyType("int", value.toString(), xmlStreamWriter);
+            addTypeAttribute(xmlStreamWriter, "int");
+            writeLong(((Integer)value).intValue(), xmlStreamWriter);
         } else if (value instanceof Boolean) {
             serializeAnyType("boolean", value.toString(), xmlStreamWriter);
         } else if (value instanceof URI) {
@@ -1476,15 +1579,18 @@ public class ConverterUtil {
         } else if (value instanceof Byte) {
             serializeAnyType("byte", value.toString(), xmlStreamWriter);
         } else if (value instanceof Date) {
-            serializeAnyType("date", convertToString((Date) value), xmlStreamWriter);
+            addTypeAttribute(xmlStreamWriter, "date");
+            writeDate((Date)value, xmlStreamWriter);
         } else if (value instanceof Calendar) {
-            serializeAnyType("dateTime", convertToString((Calendar) value), xmlStreamWriter);
+            addTypeAttribute(xmlStreamWriter, "dateTime");
+            writeDateTime((Calendar)value, xmlStreamWriter);
         } else if (value instanceof Time) {
             serializeAnyType("time", convertToString((Time) value), xmlStreamWriter);
         } else if (value instanceof Float) {
             serializeAnyType("float", value.toString(), xmlStreamWriter);
         } else if (value instanceof Long) {
-            serializeAnyType("long", value.toString(), xmlStreamWriter);
+            addTypeAttribute(xmlStreamWriter, "long");
+            writeLong(((Long)value).longValue(), xmlStreamWriter);
         } else if (value instanceof Double) {
             serializeAnyType("double", value.toString(), xmlStreamWriter);
         } else if (value instanceof Short) {
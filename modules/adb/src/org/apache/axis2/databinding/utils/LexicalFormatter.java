@@ -0,0 +1,168 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.databinding.utils;
+
+import java.util.Calendar;
+
+/**
+ * Writes the lexical representations of the xsd date/time types and of integers into a
+ * caller supplied <code>char</code> array.
+ * <p>
+ * The output is identical to the one produced by {@link ConverterUtil#appendDate},
+ * {@link ConverterUtil#appendTime} and {@link ConverterUtil#appendTimeZone}, but no
+ * intermediate {@link StringBuffer} or {@link String} instances are created. All methods take
+ * the position at which to start writing and return the position after the last character
+ * written. The caller is responsible for providing a buffer with at least
+ * {@link #MAX_LENGTH} characters available after that position.
+ */
+public final class LexicalFormatter {
+    /**
+     * The maximum number of characters written by a single call to one of the methods of this
+     * class.
+     */
+    public static final int MAX_LENGTH = 64;
+
+    private LexicalFormatter() {}
+
+    /**
+     * Write the date part (<code>yyyy '-' mm '-' dd</code>) of a calendar.
+     */
+    public static int formatDate(Calendar calendar, char[] buffer, int pos) {
+        int year = calendar.get(Calendar.YEAR);
+        pos = year < 10000 ? formatDigits(year, 4, buffer, pos) : formatLong(year, buffer, pos);
+        buffer[pos++] = '-';
+        // xml date month is started from 1 and calendar month is started from 0
+        pos = formatDigits(calendar.get(Calendar.MONTH) + 1, 2, buffer, pos);
+        buffer[pos++] = '-';
+        return formatDigits(calendar.get(Calendar.DAY_OF_MONTH), 2, buffer, pos);
+    }
+
+    /**
+     * Write the time part (<code>hh ':' mm ':' ss '.' sss</code>) of a calendar.
+     */
+    public static int formatTime(Calendar calendar, char[] buffer, int pos) {
+        pos = formatDigits(calendar.get(Calendar.HOUR_OF_DAY), 2, buffer, pos);
+        buffer[pos++] = ':';
+        pos = formatDigits(calendar.get(Calendar.MINUTE), 2, buffer, pos);
+        buffer[pos++] = ':';
+        pos = formatDigits(calendar.get(Calendar.SECOND), 2, buffer, pos);
+        buffer[pos++] = '.';
+        return formatDigits(calendar.get(Calendar.MILLISECOND), 3, buffer, pos);
+    }
+
+    /**
+     * Write the time zone offset (<code>('+' | '-') hh ':' mm</code>) of a calendar.
+     */
+    public static int formatTimeZone(Calendar calendar, char[] buffer, int pos) {
+        int offsetInMinutes =
+                (calendar.get(Calendar.ZONE_OFFSET) + calendar.get(Calendar.DST_OFFSET)) / 60000;
+        if (offsetInMinutes < 0) {
+            buffer[pos++] = '-';
+            offsetInMinutes = -offsetInMinutes;
+        } else {
+            buffer[pos++] = '+';
+        }
+        pos = formatDigits(offsetInMinutes / 60, 2, buffer, pos);
+        buffer[pos++] = ':';
+        return formatDigits(offsetInMinutes % 60, 2, buffer, pos);
+    }
+
+    /**
+     * Write the xsd:date representation of a calendar (date and time zone).
+     */
+    public static int formatDateWithTimeZone(Calendar calendar, char[] buffer, int pos) {
+        return formatTimeZone(calendar, buffer, formatDate(calendar, buffer, pos));
+    }
+
+    /**
+     * Write the xsd:dateTime representation of a calendar.
+     */
+    public static int formatDateTime(Calendar calendar, char[] buffer, int pos) {
+        pos = formatDate(calendar, buffer, pos);
+        buffer[pos++] = 'T';
+        pos = formatTime(calendar, buffer, pos);
+        return formatTimeZone(calendar, buffer, pos);
+    }
+
+    /**
+     * Write the decimal representation of a <code>long</code>, as returned by
+     * {@link Long#toString(long)}.
+     */
+    public static int formatLong(long value, char[] buffer, int pos) {
+        if (value == Long.MIN_VALUE) {
+            // can't be negated
+            String s = Long.toString(value);
+            s.getChars(0, s.length(), buffer, pos);
+            return pos + s.length();
+        }
+        if (value < 0) {
+            buffer[pos++] = '-';
+            value = -value;
+        }
+        int digits = 1;
+        for (long v = value; v >= 10; v /= 10) {
+            digits++;
+        }
+        int end = pos + digits;
+        for (int i = end - 1; i >= pos; i--) {
+            buffer[i] = (char)('0' + (int)(value % 10));
+            value /= 10;
+        }
+        return end;
+    }
+
+    /**
+     * Write a non negative value left padded with zeros to the given minimum number of digits.
+     */
+    private static int formatDigits(int value, int minDigits, char[] buffer, int pos) {
+        int digits = 1;
+        for (int v = value; v >= 10; v /= 10) {
+            digits++;
+        }
+        for (int i = digits; i < minDigits; i++) {
+            buffer[pos++] = '0';
+        }
+        int end = pos + digits;
+        for (int i = end - 1; i >= pos; i--) {
+            buffer[i] = (char)('0' + value % 10);
+            value /= 10;
+        }
+        return end;
+    }
+
+    /**
+     * Parse a fixed length sequence of ASCII digits, as found in the lexical representation of
+     * the date/time types, without creating a substring.
+     *
+     * @throws NumberFormatException if one of the characters is not a digit
+     */
+    static int parseDigits(CharSequence s, int start, int end) {
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9') {
+                throw new NumberFormatException("For input string: \""
+                        + s.subSequence(start, end) + "\"");
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+}
@@ -31,6 +31,7 @@ import org.apache.axiom.util.base64.Base64Utils;
 import org.apache.axis2.AxisFault;
 import org.apache.axis2.context.MessageContext;
 import org.apache.axis2.databinding.typemapping.SimpleTypeMapper;
+import org.apache.axis2.databinding.utils.BeanDataSource;
 import org.apache.axis2.databinding.utils.BeanUtil;
 import org.apache.axis2.databinding.utils.Constants;
 import org.apache.axis2.databinding.utils.reader.NullXMLStreamReader;
@@ -125,15 +126,9 @@ public class RPCUtil {
                 } else {
                     returnWrapper = new QName(Constants.RETURN_WRAPPER);
                 }
-                XMLStreamReader xr = BeanUtil.getPullParser(resObject,
-                        returnWrapper, typeTable, qualified, false);
-                OMXMLParserWrapper stAXOMBuilder =
-                        OMXMLBuilderFactory.createStAXOMBuilder(
-                                OMAbstractFactory.getOMFactory(), new StreamWrapper(xr));
-                OMElement documentElement = stAXOMBuilder.getDocumentElement();
-                if (documentElement != null) {
-                    bodyContent.addChild(documentElement);
-                }
+                // the bean is written directly to the output when the message is serialized
+                bodyContent.addChild(fac.createOMElement(
+                        new BeanDataSource(resObject, returnWrapper, typeTable, qualified)));
             }
         }
         if (bodyContent != null) {
@@ -328,11 +323,10 @@ public class RPCUtil {
 								elementQName.getNamespaceURI(),
 								method.getName() + "Response",
 								elementQName.getPrefix());
-						OMElement bodyChild = BeanUtil.getCollectionElement(
-								fac, method.getGenericReturnType(),
-								(Collection) resObject, Constants.RETURN_WRAPPER,null,
-								resName, service.getTypeTable(),
-								service.isElementFormDefault());
+						OMElement bodyChild = fac.createOMElement(new BeanDataSource(
+								(Collection) resObject, method.getGenericReturnType(),
+								Constants.RETURN_WRAPPER, resName, service.getTypeTable(),
+								service.isElementFormDefault()));
 						envelope.getBody().addChild(bodyChild);
 						
 					} else if (SimpleTypeMapper.isMap(resObject.getClass())) {
@@ -491,11 +485,10 @@ public class RPCUtil {
 								elementQName.getNamespaceURI(),
 								method.getName() + "Response",
 								elementQName.getPrefix());
-						OMElement bodyChild = BeanUtil.getCollectionElement(
-								fac, method.getGenericReturnType(),
-								(Collection) resObject, Constants.RETURN_WRAPPER,null,
-								resName, service.getTypeTable(),
-								service.isElementFormDefault());
+						OMElement bodyChild = fac.createOMElement(new BeanDataSource(
+								(Collection) resObject, method.getGenericReturnType(),
+								Constants.RETURN_WRAPPER, resName, service.getTypeTable(),
+								service.isElementFormDefault()));
 						envelope.getBody().addChild(bodyChild);
                     } else if (SimpleTypeMapper.isMap(resObject.getClass())){
                     	 OMElement resElemt = fac.createOMElement(method.getName() + "Response", ns);
@@ -0,0 +1,144 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.databinding.utils;
+
+import static com.google.common.truth.Truth.assertAbout;
+import static org.apache.axiom.truth.xml.XMLTruth.xml;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.xml.namespace.QName;
+
+import junit.framework.TestCase;
+
+import org.apache.axiom.om.OMAbstractFactory;
+import org.apache.axiom.om.OMElement;
+import org.apache.axiom.om.OMFactory;
+import org.apache.axis2.description.java2wsdl.TypeTable;
+
+public class BeanDataSourceTest extends TestCase {
+    public static class Item {
+        private String name;
+        private int[] values;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public int[] getValues() {
+            return values;
+        }
+
+        public void setValues(int[] values) {
+            this.values = values;
+        }
+    }
+
+    public static class Order {
+        private String id;
+        private Item item;
+        private Item missingItem;
+        private List<String> notes;
+
+        public String getId() {
+            return id;
+        }
+
+        public void setId(String id) {
+            this.id = id;
+        }
+
+        public Item getItem() {
+            return item;
+        }
+
+        public void setItem(Item item) {
+            this.item = item;
+        }
+
+        public Item getMissingItem() {
+            return missingItem;
+        }
+
+        public void setMissingItem(Item missingItem) {
+            this.missingItem = missingItem;
+        }
+
+        public List<String> getNotes() {
+            return notes;
+        }
+
+        public void setNotes(List<String> notes) {
+            this.notes = notes;
+        }
+    }
+
+    private List<Item> items;
+
+    private static Item createItem(String name, int... values) {
+        Item item = new Item();
+        item.setName(name);
+        item.setValues(values);
+        return item;
+    }
+
+    public void testBean() {
+        Order order = new Order();
+        order.setId("o1");
+        order.setItem(createItem("i1", 1, 2, 3));
+        order.setNotes(Arrays.asList("a", "b"));
+        QName name = new QName("urn:test", "order", "t");
+
+        OMElement element = OMAbstractFactory.getOMFactory().createOMElement(
+                new BeanDataSource(order, name, null, false));
+        assertAbout(xml())
+                .that(element)
+                .ignoringNamespaceDeclarations()
+                .ignoringNamespacePrefixes()
+                .hasSameContentAs(BeanUtil.getPullParser(order, name, null, false, false));
+    }
+
+    public void testCollection() throws Exception {
+        items = new ArrayList<Item>();
+        for (int i = 0; i < 10; i++) {
+            items.add(createItem("i" + i, i));
+        }
+        Type type = BeanDataSourceTest.class.getDeclaredField("items").getGenericType();
+        QName name = new QName("urn:test", "getItemsResponse", "t");
+        TypeTable typeTable = new TypeTable();
+        OMFactory factory = OMAbstractFactory.getOMFactory();
+
+        OMElement element = factory.createOMElement(
+                new BeanDataSource(items, type, "return", name, typeTable, true));
+        assertAbout(xml())
+                .that(element)
+                .ignoringNamespaceDeclarations()
+                .ignoringNamespacePrefixes()
+                .hasSameContentAs(BeanUtil.getCollectionElement(factory, type, items, "return",
+                        null, name, typeTable, true));
+    }
+}
@@ -45,6 +45,30 @@ import java.util.Map;
 
 public class BeanUtilTest extends TestCase {
 
+    public static class BaseBean {
+        private String name;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+    }
+
+    public static class DerivedBean extends BaseBean {
+        private Boolean active;
+
+        public Boolean isActive() {
+            return active;
+        }
+
+        public void setActive(Boolean active) {
+            this.active = active;
+        }
+    }
+
     public class ComplexType {
         private String child;
 
@@ -296,4 +320,33 @@ public class BeanUtilTest extends TestCase {
                 .ignoringNamespacePrefixes()
                 .hasSameContentAs("<root><prop xmlns:xsi='http://www.w3.org/2001/XMLSchema-instance' xsi:nil='true'/></root>");
     }
+
+    /**
+     * Tests that the properties of the superclass are serialized first and that the is getter
+     * of a {@link Boolean} property is used.
+     */
+    public void testSerializeDerivedBean() {
+        DerivedBean bean = new DerivedBean();
+        bean.setName("test");
+        bean.setActive(Boolean.TRUE);
+        for (int i = 0; i < 2; i++) {
+            assertAbout(xml())
+                    .that(BeanUtil.getPullParser(bean, new QName("root"), null, false, false))
+                    .ignoringNamespaceDeclarations()
+                    .ignoringNamespacePrefixes()
+                    .hasSameContentAs("<root><name>test</name><active>true</active></root>");
+        }
+    }
+
+    public void testDeserializeDerivedBean() throws Exception {
+        omFactory.createOMElement(new QName("Name"), omElement).setText("test");
+        omFactory.createOMElement(new QName("active"), omElement).setText("true");
+        // only the first occurrence of a property is used
+        omFactory.createOMElement(new QName("name"), omElement).setText("ignored");
+
+        Object result = BeanUtil.deserialize(DerivedBean.class, omElement, objectSupplier, null);
+        assertTrue(result instanceof DerivedBean);
+        assertEquals("test", ((DerivedBean) result).getName());
+        assertEquals(Boolean.TRUE, ((DerivedBean) result).isActive());
+    }
 }
@@ -560,5 +560,54 @@ public class ConverterUtilTest extends TestCase {
 
     }
 
+    /**
+     * Checks that {@link LexicalFormatter} produces the same output as the {@link StringBuffer}
+     * based methods.
+     */
+    public void testLexicalFormatter() {
+        char[] buffer = new char[LexicalFormatter.MAX_LENGTH];
+        String[] timeZones = { "GMT", "Australia/Perth", "America/St_Johns", "Asia/Kolkata" };
+        long[] times = { 0L, -62135769600000L, 1202982869399L, 253402300799999L, 1000000000L };
+        for (String id : timeZones) {
+            for (long time : times) {
+                Calendar calendar = Calendar.getInstance(TimeZone.getTimeZone(id));
+                calendar.setTimeInMillis(time);
+
+                StringBuffer expected = new StringBuffer();
+                ConverterUtil.appendDate(expected, calendar);
+                expected.append("T");
+                ConverterUtil.appendTime(calendar, expected);
+                ConverterUtil.appendTimeZone(calendar, expected);
+                assertEquals(expected.toString(),
+                        new String(buffer, 0, LexicalFormatter.formatDateTime(calendar, buffer, 0)));
+                assertEquals(expected.toString(), ConverterUtil.convertToString(calendar));
+            }
+        }
+        long[] values = { 0, 7, -42, 1234567890123L, Long.MAX_VALUE, Long.MIN_VALUE };
+        for (long value : values) {
+            assertEquals(Long.toString(value),
+                    new String(buffer, 0, LexicalFormatter.formatLong(value, buffer, 0)));
+        }
+    }
+
+    public void testConvertDateToStringMatchesAppendMethods() {
+        Date date = ConverterUtil.convertToDate("2007-02-15");
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTime(date);
+        StringBuffer expected = new StringBuffer();
+        ConverterUtil.appendDate(expected, calendar);
+        ConverterUtil.appendTimeZone(calendar, expected);
+        assertEquals(expected.toString(), ConverterUtil.convertToString(date));
+    }
+
+    public void testConvertToDateTimeInvalidDigits() {
+        try {
+            ConverterUtil.convertToDateTime("2007-0x-15T14:54:29");
+            fail("Expected NumberFormatException");
+        } catch (NumberFormatException ex) {
+            // Expected
+        }
+    }
+
 
 }
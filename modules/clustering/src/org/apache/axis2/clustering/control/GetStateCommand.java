@@ -24,23 +24,89 @@ import org.apache.axis2.clustering.ClusteringFault;
 import org.apache.axis2.clustering.state.StateClusteringCommand;
 import org.apache.axis2.clustering.state.StateClusteringCommandFactory;
 import org.apache.axis2.clustering.state.StateManager;
+import org.apache.axis2.clustering.tribes.StatePartitioner;
 import org.apache.axis2.context.ConfigurationContext;
 import org.apache.axis2.context.ServiceContext;
 import org.apache.axis2.context.ServiceGroupContext;
+import org.apache.catalina.tribes.Member;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeSet;
 
 /**
- * 
+ * Requests the state of a member, i.e. the properties of its ServiceGroupContexts,
+ * ServiceContexts and ConfigurationContext.
+ * <p/>
+ * The state can be transferred in pages, so that a member with a large number of contexts is
+ * not stalled while building a single response, and the joining member applies the state
+ * incrementally. The ServiceGroupContexts are sent in the order of their IDs; each request
+ * carries the ID of the last ServiceGroupContext received so far as a cursor, and the response
+ * tells whether more pages are available. Since the cursor is not tied to the member which
+ * sent the previous page, a transfer can be resumed with another member.
+ * <p/>
+ * If the state is partitioned among the members of the group, only the ServiceGroupContexts
+ * owned by the requesting member are sent.
+ * <p/>
+ * The serialized form is compatible with members of older versions: they ignore the paging
+ * fields and send the complete state, and a request from such a member has no cursor and no
+ * page size, and therefore also receives the complete state.
  */
 public class GetStateCommand extends ControlCommand {
 
+    private static final long serialVersionUID = -4672184607931422994L;
+
     private StateClusteringCommand[] commands;
+    private String cursor;
+    private int maxContexts;
+
+    private transient String nextCursor;
+    private transient boolean complete;
+    private transient StatePartitioner statePartitioner;
+    private transient Member requester;
+
+    /**
+     * @param cursor The ID of the last ServiceGroupContext received so far, or null to request
+     *               the first page
+     */
+    public void setCursor(String cursor) {
+        this.cursor = cursor;
+    }
+
+    public String getCursor() {
+        return cursor;
+    }
+
+    /**
+     * @param maxContexts The maximum number of ServiceGroupContexts in the response, or 0 to
+     *                    request the complete state in a single response
+     */
+    public void setMaxContexts(int maxContexts) {
+        this.maxContexts = maxContexts;
+    }
+
+    public int getMaxContexts() {
+        return maxContexts;
+    }
+
+    /**
+     * Only send the ServiceGroupContexts owned by the requesting member
+     *
+     * @param statePartitioner The partitioner of the local member
+     * @param requester        The member which sent this command
+     */
+    public void setStatePartitioner(StatePartitioner statePartitioner, Member requester) {
+        this.statePartitioner = statePartitioner;
+        this.requester = requester;
+    }
 
     public void execute(ConfigurationContext configCtx) throws ClusteringFault {
+        commands = null;
+        complete = true;
+        nextCursor = null;
         ClusteringAgent clusteringAgent = configCtx.getAxisConfiguration().getClusteringAgent();
         if(clusteringAgent == null){
             return;
@@ -51,9 +117,14 @@ public class GetStateCommand extends ControlCommand {
             List<StateClusteringCommand> cmdList = new ArrayList<StateClusteringCommand>();
 
             // Add the service group contexts, service contexts & their respective properties
-            String[] sgCtxIDs = configCtx.getServiceGroupContextIDs();
-            for (String sgCtxID : sgCtxIDs) {
+            for (String sgCtxID : getPage(configCtx.getServiceGroupContextIDs())) {
                 ServiceGroupContext sgCtx = configCtx.getServiceGroupContext(sgCtxID);
+                if (sgCtx == null) {
+                    continue; // removed in the meantime
+                }
+                if (statePartitioner != null && !statePartitioner.isOwner(sgCtxID, requester)) {
+                    continue;
+                }
                 StateClusteringCommand updateServiceGroupCtxCmd =
                         StateClusteringCommandFactory.getUpdateCommand(sgCtx,
                                                                          excludedPropPatterns,
@@ -75,12 +146,15 @@ public class GetStateCommand extends ControlCommand {
                 }
             }
 
-            StateClusteringCommand updateCmd =
-                    StateClusteringCommandFactory.getUpdateCommand(configCtx,
-                                                                     excludedPropPatterns,
-                                                                     true);
-            if (updateCmd != null) {
-                cmdList.add(updateCmd);
+            // The properties of the ConfigurationContext are sent with the first page
+            if (cursor == null) {
+                StateClusteringCommand updateCmd =
+                        StateClusteringCommandFactory.getUpdateCommand(configCtx,
+                                                                         excludedPropPatterns,
+                                                                         true);
+                if (updateCmd != null) {
+                    cmdList.add(updateCmd);
+                }
             }
             if (!cmdList.isEmpty()) {
                 commands = cmdList.toArray(new StateClusteringCommand[cmdList.size()]);
@@ -88,10 +162,56 @@ public class GetStateCommand extends ControlCommand {
         }
     }
 
+    /**
+     * Select the IDs of the ServiceGroupContexts of the requested page, and set the cursor for
+     * the next page
+     */
+    private Iterable<String> getPage(String[] sgCtxIDs) {
+        if (maxContexts <= 0 && cursor == null) {
+            return Arrays.asList(sgCtxIDs);
+        }
+        // Keep the smallest IDs following the cursor; this only needs a single pass over the
+        // IDs instead of sorting all of them for every page
+        TreeSet<String> page = new TreeSet<String>();
+        for (String sgCtxID : sgCtxIDs) {
+            if (sgCtxID == null || (cursor != null && sgCtxID.compareTo(cursor) <= 0)) {
+                continue;
+            }
+            if (maxContexts <= 0 || page.size() < maxContexts) {
+                page.add(sgCtxID);
+            } else if (sgCtxID.compareTo(page.last()) < 0) {
+                if (page.add(sgCtxID)) {
+                    page.pollLast();
+                }
+                complete = false;
+            } else {
+                complete = false;
+            }
+        }
+        if (!complete) {
+            nextCursor = page.last();
+        }
+        return page;
+    }
+
     public StateClusteringCommand[] getCommands() {
         return commands;
     }
 
+    /**
+     * @return The cursor to request the next page with, or null if the state is complete
+     */
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    /**
+     * @return true - if the response contains the last page of the state, false - otherwise
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
     public String toString() {
         return "GetStateCommand";
     }
@@ -27,23 +27,35 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
 /**
- * 
+ * The response to a {@link GetStateCommand}. A response from a member of an older version has
+ * no paging fields and is therefore treated as the complete state.
  */
 public class GetStateResponseCommand extends ControlCommand {
 
+    private static final long serialVersionUID = -6386279311401107461L;
+
     private static final Log log = LogFactory.getLog(GetStateResponseCommand.class);
 
     private StateClusteringCommand[] commands;
+    private String nextCursor;
+    // false when absent from the serialized form, i.e. in a complete response
+    private boolean incomplete;
 
     public void execute(ConfigurationContext configContext) throws ClusteringFault {
-        log.info("Received state initialization message");
-        
+        boolean complete = isComplete();
+        if (complete) {
+            log.info("Received state initialization message");
+        } else if (log.isDebugEnabled()) {
+            log.debug("Received state initialization message page, next cursor " + nextCursor);
+        }
+
         // Run this code only if this node is not already initialized
         if (configContext.
                 getPropertyNonReplicable(ClusteringConstants.RECD_STATE_INIT_MSG) == null) {
-            configContext.
-                setNonReplicableProperty(ClusteringConstants.RECD_STATE_INIT_MSG, "true");
-//            log.info("Received state initialization message");
+            if (complete) {
+                configContext.
+                    setNonReplicableProperty(ClusteringConstants.RECD_STATE_INIT_MSG, "true");
+            }
             if (commands != null) {
                 for (int i = 0; i < commands.length; i++) {
                     commands[i].execute(configContext);
@@ -56,6 +68,29 @@ public class GetStateResponseCommand extends ControlCommand {
         this.commands = commands;
     }
 
+    /**
+     * @param nextCursor The cursor to request the next page of the state with
+     * @see GetStateCommand#setCursor(String)
+     */
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    /**
+     * @param complete true - if this is the last page of the state, false - otherwise
+     */
+    public void setComplete(boolean complete) {
+        incomplete = !complete;
+    }
+
+    public boolean isComplete() {
+        return !incomplete;
+    }
+
     public String toString() {
         return "GetStateResponseCommand";
     }
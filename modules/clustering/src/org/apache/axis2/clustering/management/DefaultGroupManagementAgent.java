@@ -17,6 +17,7 @@ package org.apache.axis2.clustering.management;
 
 import org.apache.axis2.clustering.ClusteringFault;
 import org.apache.axis2.clustering.Member;
+import org.apache.axis2.clustering.management.commands.GetMemberLoadCommand;
 import org.apache.axis2.clustering.tribes.ChannelSender;
 import org.apache.axis2.clustering.tribes.MembershipManager;
 import org.apache.axis2.clustering.tribes.TribesConstants;
@@ -30,20 +31,25 @@ import java.net.InetAddress;
 import java.net.InetSocketAddress;
 import java.net.Socket;
 import java.net.SocketAddress;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
- * The default implementation of {@link GroupManagementAgent}
+ * The default implementation of {@link GroupManagementAgent}, which also implements
+ * {@link SessionAwareGroupManagementAgent}
  */
-public class DefaultGroupManagementAgent implements GroupManagementAgent {
+public class DefaultGroupManagementAgent implements SessionAwareGroupManagementAgent {
 
     private static final Log log = LogFactory.getLog(DefaultGroupManagementAgent.class);
-    private final List<Member> members = new ArrayList<Member>();
+    private final List<Member> members = new CopyOnWriteArrayList<Member>();
     private ChannelSender sender;
     private MembershipManager membershipManager;
     private RpcChannel rpcChannel; //TODO
     private String description;
+    private final MemberSelector memberSelector = new MemberSelector();
+    private Timer loadPollTimer;
 
     public void setSender(ChannelSender sender) {
         this.sender = sender;
@@ -72,12 +78,58 @@ public class DefaultGroupManagementAgent implements GroupManagementAgent {
     public void applicationMemberRemoved(Member member) {
         log.info("Application member " + member + " left cluster.");
         members.remove(member);
+        memberSelector.removeMember(member);
     }
 
     public List<Member> getMembers() {
         return members;
     }
 
+    public Member getMember(String serviceGroupContextId) {
+        List<Member> selected = getMembers(serviceGroupContextId, 1);
+        return selected.isEmpty() ? null : selected.get(0);
+    }
+
+    public List<Member> getMembers(String serviceGroupContextId, int count) {
+        return memberSelector.select(serviceGroupContextId, members, count);
+    }
+
+    public void setMemberLoad(Member member, double load) {
+        if (memberSelector.setLoad(member, load) && log.isDebugEnabled()) {
+            log.debug("Load of application member " + member + " changed to " + load);
+        }
+    }
+
+    /**
+     * Periodically request the members of the group to report their load. The reported loads
+     * are passed to {@link #setMemberLoad(Member, double)}.
+     *
+     * @param interval The polling interval in milliseconds
+     */
+    public synchronized void startLoadPolling(long interval) {
+        stopLoadPolling();
+        loadPollTimer = new Timer("GroupManagementAgent load poller", true);
+        loadPollTimer.schedule(new TimerTask() {
+            public void run() {
+                if (sender == null || members.isEmpty()) {
+                    return;
+                }
+                try {
+                    send(new GetMemberLoadCommand());
+                } catch (ClusteringFault e) {
+                    log.warn("Could not request the load of the application members", e);
+                }
+            }
+        }, interval, interval);
+    }
+
+    public synchronized void stopLoadPolling() {
+        if (loadPollTimer != null) {
+            loadPollTimer.cancel();
+            loadPollTimer = null;
+        }
+    }
+
     public void send(GroupManagementCommand command) throws ClusteringFault {
         sender.sendToGroup(command,
                            membershipManager,
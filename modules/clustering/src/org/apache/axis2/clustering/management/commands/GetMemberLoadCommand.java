@@ -0,0 +1,84 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axis2.clustering.management.commands;
+
+import org.apache.axis2.clustering.ClusteringFault;
+import org.apache.axis2.clustering.management.GroupManagementCommand;
+import org.apache.axis2.clustering.tribes.ChannelSender;
+import org.apache.axis2.clustering.tribes.StatePartitioner;
+import org.apache.axis2.clustering.tribes.TribesConstants;
+import org.apache.axis2.context.ConfigurationContext;
+import org.apache.catalina.tribes.Member;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+
+/**
+ * This command is periodically sent by a load balancer to the members of an application group.
+ * Each member replies with a {@link MemberLoadCommand} containing its current load. If the state
+ * is partitioned among the members of the group, the load is also sent to the other members of
+ * the group, so that the owners of the state are weighted like the load balancer weights them.
+ */
+public class GetMemberLoadCommand extends GroupManagementCommand {
+
+    private transient ChannelSender sender;
+    private transient Member requester;
+
+    /**
+     * @param sender    The sender used to send the reply
+     * @param requester The member which sent this command
+     */
+    public void setReplyTo(ChannelSender sender, Member requester) {
+        this.sender = sender;
+        this.requester = requester;
+    }
+
+    public void execute(ConfigurationContext configContext) throws ClusteringFault {
+        if (sender == null || requester == null) {
+            return;
+        }
+        double load = getLocalLoad();
+        MemberLoadCommand reply = new MemberLoadCommand();
+        reply.setLoad(load);
+        sender.sendToMember(reply, requester, TribesConstants.MEMBERSHIP_MSG_OPTION);
+
+        StatePartitioner statePartitioner = sender.getStatePartitioner();
+        if (statePartitioner != null) {
+            statePartitioner.setLocalLoad(load);
+            sender.sendToGroup(reply, false);
+        }
+    }
+
+    /**
+     * @return The system load average of this member divided by the number of processors, or 0
+     *         if the load average is not available
+     */
+    public static double getLocalLoad() {
+        OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+        double loadAverage = os.getSystemLoadAverage();
+        if (loadAverage < 0) {
+            return 0;
+        }
+        return loadAverage / Math.max(1, os.getAvailableProcessors());
+    }
+
+    public String toString() {
+        return "GetMemberLoadCommand";
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axis2.clustering.management.commands;
+
+import org.apache.axis2.clustering.ClusteringAgent;
+import org.apache.axis2.clustering.ClusteringFault;
+import org.apache.axis2.clustering.Member;
+import org.apache.axis2.clustering.management.GroupManagementAgent;
+import org.apache.axis2.clustering.management.GroupManagementCommand;
+import org.apache.axis2.clustering.management.SessionAwareGroupManagementAgent;
+import org.apache.axis2.clustering.tribes.StatePartitioner;
+import org.apache.axis2.context.ConfigurationContext;
+
+/**
+ * This command is sent by a member of an application group in reply to a
+ * {@link GetMemberLoadCommand}. The load balancer passes the load to the
+ * {@link GroupManagementAgent} of the group of the member, if that agent is a
+ * {@link SessionAwareGroupManagementAgent}.
+ * <p/>
+ * The members of the group also send this command to each other, and pass the load to their
+ * {@link StatePartitioner}.
+ */
+public class MemberLoadCommand extends GroupManagementCommand {
+
+    private double load;
+    private transient Member member;
+    private transient StatePartitioner statePartitioner;
+
+    public void setLoad(double load) {
+        this.load = load;
+    }
+
+    public double getLoad() {
+        return load;
+    }
+
+    /**
+     * @param member The member which sent this command
+     */
+    public void setMember(Member member) {
+        this.member = member;
+    }
+
+    /**
+     * @param statePartitioner The partitioner of the local member, or null if the state is not
+     *                         partitioned
+     */
+    public void setStatePartitioner(StatePartitioner statePartitioner) {
+        this.statePartitioner = statePartitioner;
+    }
+
+    public void execute(ConfigurationContext configContext) throws ClusteringFault {
+        if (member == null) {
+            return;
+        }
+        if (statePartitioner != null) {
+            statePartitioner.setMemberLoad(member, load);
+        }
+        ClusteringAgent clusteringAgent = configContext.getAxisConfiguration().getClusteringAgent();
+        if (clusteringAgent == null) {
+            return;
+        }
+        GroupManagementAgent agent =
+                clusteringAgent.getGroupManagementAgent(member.getDomain(),
+                                                        member.getProperties().
+                                                                getProperty("subDomain"));
+        if (agent instanceof SessionAwareGroupManagementAgent) {
+            ((SessionAwareGroupManagementAgent) agent).setMemberLoad(member, load);
+        }
+    }
+
+    public String toString() {
+        return "MemberLoadCommand";
+    }
+}
@@ -21,6 +21,7 @@ package org.apache.axis2.clustering.state;
 
 import org.apache.axiom.om.OMElement;
 import org.apache.axis2.AxisFault;
+import org.apache.axis2.clustering.ClusteringConstants.Parameters;
 import org.apache.axis2.clustering.ClusteringFault;
 import org.apache.axis2.clustering.state.commands.StateClusteringCommandCollection;
 import org.apache.axis2.clustering.tribes.ChannelSender;
@@ -28,9 +29,14 @@ import org.apache.axis2.context.AbstractContext;
 import org.apache.axis2.context.ConfigurationContext;
 import org.apache.axis2.context.ServiceContext;
 import org.apache.axis2.context.ServiceGroupContext;
+import org.apache.axis2.description.AxisService;
+import org.apache.axis2.description.AxisServiceGroup;
 import org.apache.axis2.description.Parameter;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
 
 import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -40,12 +46,20 @@ import java.util.Map;
  */
 public class DefaultStateManager implements StateManager {
 
+    private static final Log log = LogFactory.getLog(DefaultStateManager.class);
+
+    private static final long DEFAULT_COALESCING_WINDOW = 20;
+    private static final long DEFAULT_MAX_PENDING_COMMANDS = 1000;
+
     private final Map<String, Parameter> parameters = new HashMap<String, Parameter>();
 
     private ChannelSender sender;
 
     private final Map<String, List> excludedReplicationPatterns = new HashMap<String, List>();
 
+    private final Map<ReplicationMode, ReplicationPipeline> pipelines =
+            new EnumMap<ReplicationMode, ReplicationPipeline>(ReplicationMode.class);
+
     //TODO: Try to use an interface
     public void setSender(ChannelSender sender) {
         this.sender = sender;
@@ -60,7 +74,7 @@ public class DefaultStateManager implements StateManager {
                                                                  excludedReplicationPatterns,
                                                                  false);
         if (cmd != null) {
-            sender.sendToGroup(cmd);
+            send(context, cmd);
         }
     }
 
@@ -69,26 +83,158 @@ public class DefaultStateManager implements StateManager {
         StateClusteringCommand cmd =
                 StateClusteringCommandFactory.getUpdateCommand(context, propertyNames);
         if (cmd != null) {
-            sender.sendToGroup(cmd);
+            send(context, cmd);
         }
     }
 
     public void updateContexts(AbstractContext[] contexts) throws ClusteringFault {
-        StateClusteringCommandCollection cmd =
-                StateClusteringCommandFactory.getCommandCollection(contexts,
-                                                                   excludedReplicationPatterns);
+        // The contexts which are replicated synchronously are still sent in a single message
+        List<StateClusteringCommand> commands = new ArrayList<StateClusteringCommand>();
+        StateClusteringCommandCollection cmd = new StateClusteringCommandCollection(commands);
+        ReplicationMode collectionMode = null;
+        for (AbstractContext context : contexts) {
+            StateClusteringCommand updateCmd =
+                    StateClusteringCommandFactory.getUpdateCommand(context,
+                                                                   excludedReplicationPatterns,
+                                                                   false);
+            if (updateCmd == null) {
+                continue;
+            }
+            ReplicationMode mode = getReplicationMode(context);
+            if (mode != null && mode.isQueued()) {
+                getPipeline(mode).add(context, updateCmd);
+            } else {
+                if (mode == ReplicationMode.SYNC_ACK) {
+                    collectionMode = mode;
+                }
+                commands.add(updateCmd);
+            }
+        }
         if (!cmd.isEmpty()) {
-            sender.sendToGroup(cmd);
+            send(collectionMode, null, cmd);
         }
     }
 
     public void replicateState(StateClusteringCommand command) throws ClusteringFault {
-        sender.sendToGroup(command);
+        send(getReplicationMode(null), null, command);
     }
 
     public void removeContext(AbstractContext context) throws ClusteringFault {
         StateClusteringCommand cmd = StateClusteringCommandFactory.getRemoveCommand(context);
-        sender.sendToGroup(cmd);
+        send(context, cmd);
+    }
+
+    /**
+     * Send the commands which are still queued and stop the threads replicating the state
+     * asynchronously. Commands replicated after this method has been called are sent by the
+     * calling thread.
+     */
+    public void shutdown() {
+        List<ReplicationPipeline> pipelines;
+        synchronized (this.pipelines) {
+            pipelines = new ArrayList<ReplicationPipeline>(this.pipelines.values());
+        }
+        for (ReplicationPipeline pipeline : pipelines) {
+            try {
+                pipeline.stop();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                log.warn("Interrupted while sending the queued state replication commands");
+                return;
+            }
+        }
+    }
+
+    private void send(AbstractContext context,
+                      StateClusteringCommand cmd) throws ClusteringFault {
+        send(getReplicationMode(context), context, cmd);
+    }
+
+    private void send(ReplicationMode mode,
+                      AbstractContext context,
+                      StateClusteringCommand cmd) throws ClusteringFault {
+        if (mode == null) {
+            sender.sendToGroup(cmd);
+        } else if (!mode.isQueued()) {
+            sender.sendToGroup(cmd, true);
+        } else if (cmd != null) {
+            getPipeline(mode).add(context, cmd);
+        }
+    }
+
+    private ReplicationPipeline getPipeline(ReplicationMode mode) {
+        synchronized (pipelines) {
+            ReplicationPipeline pipeline = pipelines.get(mode);
+            if (pipeline == null) {
+                long coalescingWindow =
+                        getLongParameter(Parameters.REPLICATION_COALESCING_WINDOW,
+                                         DEFAULT_COALESCING_WINDOW);
+                long maxPendingCommands =
+                        getLongParameter(Parameters.REPLICATION_MAX_PENDING_COMMANDS,
+                                         DEFAULT_MAX_PENDING_COMMANDS);
+                pipeline = new ReplicationPipeline(sender,
+                                                   mode == ReplicationMode.ASYNC_ACK,
+                                                   coalescingWindow,
+                                                   (int) maxPendingCommands);
+                pipeline.start();
+                pipelines.put(mode, pipeline);
+            }
+            return pipeline;
+        }
+    }
+
+    /**
+     * Get the replication mode of a context. The mode set on the service (or its service group)
+     * takes precedence over the mode set on this state manager.
+     *
+     * @param context The context, or null for the mode set on this state manager
+     * @return The replication mode, or null if no mode has been set, in which case the
+     *         <code>synchronizeAll</code> setting applies
+     * @throws ClusteringFault If the replication mode is not valid
+     */
+    private ReplicationMode getReplicationMode(AbstractContext context) throws ClusteringFault {
+        Parameter param = null;
+        if (context instanceof ServiceContext) {
+            AxisService axisService = ((ServiceContext) context).getAxisService();
+            if (axisService != null) {
+                param = axisService.getParameter(Parameters.REPLICATION_MODE);
+            }
+        } else if (context instanceof ServiceGroupContext) {
+            AxisServiceGroup axisServiceGroup = ((ServiceGroupContext) context).getDescription();
+            if (axisServiceGroup != null) {
+                param = axisServiceGroup.getParameter(Parameters.REPLICATION_MODE);
+            }
+        }
+        if (param == null) {
+            param = getParameter(Parameters.REPLICATION_MODE);
+            if (param == null) {
+                return null;
+            }
+        }
+        ReplicationMode mode = toReplicationMode(param);
+        if (mode == null) {
+            throw new ClusteringFault("Invalid " + Parameters.REPLICATION_MODE +
+                                      " parameter value: " + param.getValue());
+        }
+        return mode;
+    }
+
+    private static ReplicationMode toReplicationMode(Parameter param) {
+        Object value = param.getValue();
+        return value == null ? null : ReplicationMode.fromValue(value.toString());
+    }
+
+    private long getLongParameter(String name, long defaultValue) {
+        Parameter param = getParameter(name);
+        if (param != null && param.getValue() != null) {
+            try {
+                return Long.parseLong(param.getValue().toString().trim());
+            } catch (NumberFormatException e) {
+                log.warn("Invalid value for the " + name + " parameter: " + param.getValue() +
+                         ". Using the default value " + defaultValue);
+            }
+        }
+        return defaultValue;
     }
 
     public boolean isContextClusterable(AbstractContext context) {
@@ -111,6 +257,11 @@ public class DefaultStateManager implements StateManager {
 
     // ---------------------- Methods from ParameterInclude ----------------------------------------
     public void addParameter(Parameter param) throws AxisFault {
+        if (Parameters.REPLICATION_MODE.equals(param.getName()) &&
+            toReplicationMode(param) == null) {
+            throw new AxisFault("Invalid " + Parameters.REPLICATION_MODE + " parameter value: " +
+                                param.getValue());
+        }
         parameters.put(param.getName(), param);
     }
 
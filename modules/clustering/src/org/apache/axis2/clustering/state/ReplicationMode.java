@@ -0,0 +1,85 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.clustering.state;
+
+/**
+ * The consistency guarantees of state replication, configured using the
+ * {@link org.apache.axis2.clustering.ClusteringConstants.Parameters#REPLICATION_MODE} parameter
+ */
+public enum ReplicationMode {
+
+    /**
+     * The state is sent by the thread that processes the request, which waits until all members
+     * have acknowledged it
+     */
+    SYNC_ACK("sync-ack"),
+
+    /**
+     * The state is queued and sent by a dedicated thread, which waits until all members have
+     * acknowledged it. Updates of the same context queued within the coalescing window are
+     * merged.
+     */
+    ASYNC_ACK("async-ack"),
+
+    /**
+     * The state is queued and sent by a dedicated thread without waiting for acknowledgements.
+     * Updates of the same context queued within the coalescing window are merged.
+     */
+    FIRE_AND_FORGET("fire-and-forget");
+
+    private final String value;
+
+    private ReplicationMode(String value) {
+        this.value = value;
+    }
+
+    /**
+     * @return The value of the replication mode parameter corresponding to this mode
+     */
+    public String getValue() {
+        return value;
+    }
+
+    /**
+     * @return true - if the state is sent by a dedicated thread, false - otherwise
+     */
+    public boolean isQueued() {
+        return this != SYNC_ACK;
+    }
+
+    /**
+     * Get the replication mode corresponding to a parameter value
+     *
+     * @param value The parameter value
+     * @return The replication mode, or null if the value is not valid
+     */
+    public static ReplicationMode fromValue(String value) {
+        for (ReplicationMode mode : values()) {
+            if (mode.value.equalsIgnoreCase(value.trim())) {
+                return mode;
+            }
+        }
+        return null;
+    }
+
+    public String toString() {
+        return value;
+    }
+}
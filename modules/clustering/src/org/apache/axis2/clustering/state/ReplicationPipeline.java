@@ -0,0 +1,228 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.clustering.state;
+
+import org.apache.axis2.clustering.ClusteringFault;
+import org.apache.axis2.clustering.state.commands.StateClusteringCommandCollection;
+import org.apache.axis2.clustering.state.commands.UpdateStateCommand;
+import org.apache.axis2.clustering.tribes.ChannelSender;
+import org.apache.axis2.context.AbstractContext;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sends state replication commands to the group from a dedicated thread, so that the threads
+ * processing requests don't have to wait for the members of the group.
+ * <p/>
+ * The sender thread waits for the coalescing window after the first command has been queued,
+ * and then sends all queued commands as a single {@link StateClusteringCommandCollection}.
+ * An update of a context that is queued while an earlier update of the same context is still
+ * waiting is merged into the earlier update. Other commands (e.g. the removal of a context) act
+ * as barriers: updates queued after them are never merged into updates queued before them, so
+ * that the members apply the commands in the same order as they have been issued. If the
+ * maximum number of pending commands is reached, the callers are blocked until the queue has
+ * been sent.
+ */
+public class ReplicationPipeline implements Runnable {
+
+    private static final Log log = LogFactory.getLog(ReplicationPipeline.class);
+
+    private final ChannelSender sender;
+    private final boolean waitForAck;
+    private final long coalescingWindow;
+    private final int maxPendingCommands;
+
+    private final Object lock = new Object();
+    private List<StateClusteringCommand> pendingCommands = new ArrayList<StateClusteringCommand>();
+
+    // The queued updates which later updates of the same context can be merged into
+    private final Map<AbstractContext, UpdateStateCommand> pendingUpdates =
+            new IdentityHashMap<AbstractContext, UpdateStateCommand>();
+
+    private boolean sending;
+    private boolean stopped;
+    private Thread thread;
+
+    /**
+     * @param sender             The sender used to send the commands to the group
+     * @param waitForAck         true - wait until all members have acknowledged each batch of
+     *                           commands, false - don't wait for acknowledgements
+     * @param coalescingWindow   The time in milliseconds to wait for further commands before
+     *                           sending the queued commands
+     * @param maxPendingCommands The maximum number of commands that can be queued
+     */
+    public ReplicationPipeline(ChannelSender sender,
+                               boolean waitForAck,
+                               long coalescingWindow,
+                               int maxPendingCommands) {
+        this.sender = sender;
+        this.waitForAck = waitForAck;
+        this.coalescingWindow = coalescingWindow;
+        this.maxPendingCommands = maxPendingCommands;
+    }
+
+    /**
+     * Start the sender thread
+     */
+    public synchronized void start() {
+        if (thread == null) {
+            thread = new Thread(this, "Axis2 state replication (" +
+                                      (waitForAck ? "ack" : "no ack") + ")");
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    /**
+     * Queue a command
+     *
+     * @param context The context whose state is replicated by the command, or null if the
+     *                command is not related to a single context
+     * @param command The command
+     * @throws ClusteringFault If the pipeline has been stopped and the command cannot be sent
+     */
+    public void add(AbstractContext context, StateClusteringCommand command)
+            throws ClusteringFault {
+        synchronized (lock) {
+            while (!stopped && pendingCommands.size() >= maxPendingCommands) {
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+            if (!stopped) {
+                if (context != null && command instanceof UpdateStateCommand) {
+                    UpdateStateCommand updateCommand = (UpdateStateCommand) command;
+                    UpdateStateCommand pendingUpdate = pendingUpdates.get(context);
+                    if (pendingUpdate != null) {
+                        pendingUpdate.mergeProperties(updateCommand);
+                    } else {
+                        pendingCommands.add(updateCommand);
+                        pendingUpdates.put(context, updateCommand);
+                    }
+                } else {
+                    pendingCommands.add(command);
+                    pendingUpdates.clear();
+                }
+                lock.notifyAll();
+                return;
+            }
+        }
+        // The pipeline has been stopped; send the command directly
+        sender.sendToGroup(command, waitForAck);
+    }
+
+    /**
+     * Wait until all commands queued so far have been sent
+     *
+     * @throws InterruptedException If the current thread is interrupted while waiting
+     */
+    public void flush() throws InterruptedException {
+        synchronized (lock) {
+            while (!pendingCommands.isEmpty() || sending) {
+                lock.wait();
+            }
+        }
+    }
+
+    /**
+     * Send the remaining commands and stop the sender thread
+     *
+     * @throws InterruptedException If the current thread is interrupted while waiting for the
+     *                              sender thread to terminate
+     */
+    public void stop() throws InterruptedException {
+        synchronized (lock) {
+            stopped = true;
+            lock.notifyAll();
+        }
+        Thread thread;
+        synchronized (this) {
+            thread = this.thread;
+        }
+        if (thread != null) {
+            thread.join();
+        }
+    }
+
+    public void run() {
+        while (true) {
+            List<StateClusteringCommand> commands;
+            synchronized (lock) {
+                try {
+                    while (pendingCommands.isEmpty() && !stopped) {
+                        lock.wait();
+                    }
+                    // Give updates of the same contexts a chance to be merged
+                    long deadline = System.currentTimeMillis() + coalescingWindow;
+                    long remaining = coalescingWindow;
+                    while (!stopped && remaining > 0 &&
+                           pendingCommands.size() < maxPendingCommands) {
+                        lock.wait(remaining);
+                        remaining = deadline - System.currentTimeMillis();
+                    }
+                } catch (InterruptedException e) {
+                    log.warn("State replication thread interrupted; sending the queued commands");
+                    stopped = true;
+                }
+                if (pendingCommands.isEmpty()) {
+                    lock.notifyAll();
+                    return; // stopped
+                }
+                commands = pendingCommands;
+                pendingCommands = new ArrayList<StateClusteringCommand>();
+                pendingUpdates.clear();
+                sending = true;
+                lock.notifyAll();
+            }
+            try {
+                send(commands);
+            } finally {
+                synchronized (lock) {
+                    sending = false;
+                    lock.notifyAll();
+                }
+            }
+        }
+    }
+
+    private void send(List<StateClusteringCommand> commands) {
+        StateClusteringCommand command = commands.size() == 1 ?
+                                         commands.get(0) :
+                                         new StateClusteringCommandCollection(commands);
+        try {
+            sender.sendToGroup(command, waitForAck);
+            if (log.isDebugEnabled()) {
+                log.debug("Replicated " + commands.size() + " queued state command(s)");
+            }
+        } catch (ClusteringFault e) {
+            log.error("Could not replicate " + commands.size() + " queued state command(s)", e);
+        } catch (RuntimeException e) {
+            log.error("Could not replicate " + commands.size() + " queued state command(s)", e);
+        }
+    }
+}
@@ -27,8 +27,14 @@ import org.apache.axis2.context.ConfigurationContext;
  *
  */
 public class DeleteServiceGroupStateCommand extends StateClusteringCommand {
+
+    private static final long serialVersionUID = 4807200956468691485L;
     private String serviceGroupContextId;
 
+    public String getServiceGroupContextId() {
+        return serviceGroupContextId;
+    }
+
     public void setServiceGroupContextId(String serviceGroupContextId) {
         this.serviceGroupContextId = serviceGroupContextId;
     }
@@ -27,18 +27,32 @@ import org.apache.axis2.context.ConfigurationContext;
  * 
  */
 public class DeleteServiceStateCommand extends StateClusteringCommand {
+
+    private static final long serialVersionUID = -6459827985014982785L;
     protected String serviceGroupName;
     protected String serviceGroupContextId;
     protected String serviceName;
 
+    public String getServiceGroupName() {
+        return serviceGroupName;
+    }
+
     public void setServiceGroupName(String serviceGroupName) {
         this.serviceGroupName = serviceGroupName;
     }
 
+    public String getServiceName() {
+        return serviceName;
+    }
+
     public void setServiceName(String serviceName) {
         this.serviceName = serviceName;
     }
 
+    public String getServiceGroupContextId() {
+        return serviceGroupContextId;
+    }
+
     public void setServiceGroupContextId(String serviceGroupContextId) {
         this.serviceGroupContextId = serviceGroupContextId;
     }
@@ -31,6 +31,8 @@ import java.util.List;
  */
 public class StateClusteringCommandCollection extends StateClusteringCommand {
 
+    private static final long serialVersionUID = -8630925240260284254L;
+
     private final List<StateClusteringCommand> commands;
 
     public StateClusteringCommandCollection(List<StateClusteringCommand> commands) {
@@ -43,6 +45,10 @@ public class StateClusteringCommandCollection extends StateClusteringCommand {
         }
     }
 
+    public List<StateClusteringCommand> getCommands() {
+        return commands;
+    }
+
     public boolean isEmpty(){
         return commands != null && commands.isEmpty();
     }
@@ -35,20 +35,34 @@ import org.apache.commons.logging.LogFactory;
  */
 public class UpdateServiceStateCommand extends UpdateStateCommand {
 
+    private static final long serialVersionUID = -8029649062119565112L;
+
     private static final Log log = LogFactory.getLog(UpdateServiceStateCommand.class);
 
     protected String serviceGroupName;
     protected String serviceGroupContextId;
     protected String serviceName;
 
+    public String getServiceGroupName() {
+        return serviceGroupName;
+    }
+
     public void setServiceGroupName(String serviceGroupName) {
         this.serviceGroupName = serviceGroupName;
     }
 
+    public String getServiceName() {
+        return serviceName;
+    }
+
     public void setServiceName(String serviceName) {
         this.serviceName = serviceName;
     }
 
+    public String getServiceGroupContextId() {
+        return serviceGroupContextId;
+    }
+
     public void setServiceGroupContextId(String serviceGroupContextId) {
         this.serviceGroupContextId = serviceGroupContextId;
     }
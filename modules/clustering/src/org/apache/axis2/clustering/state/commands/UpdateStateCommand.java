@@ -24,12 +24,16 @@ import org.apache.axis2.clustering.state.StateClusteringCommand;
 import org.apache.axis2.context.PropertyDifference;
 
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
 
 /**
  * 
  */
 public abstract class UpdateStateCommand extends StateClusteringCommand {
 
+    private static final long serialVersionUID = 4736765527125821275L;
+
     protected PropertyUpdater propertyUpdater = new PropertyUpdater();
 
     public boolean isPropertiesEmpty() {
@@ -40,10 +44,33 @@ public abstract class UpdateStateCommand extends StateClusteringCommand {
         return propertyUpdater.getProperties().isEmpty();
     }
 
+    /**
+     * @return The property differences of this command, keyed by property name, or null if
+     *         there are none
+     */
+    public Map getProperties() {
+        return propertyUpdater.getProperties();
+    }
+
     public void addProperty(PropertyDifference diff) {
         if (propertyUpdater.getProperties() == null) {
             propertyUpdater.setProperties(new HashMap());
         }                                        
         propertyUpdater.addContextProperty(diff);
     }
+
+    /**
+     * Add the property differences of a later update of the same context to this command. The
+     * differences of the later update replace those of this command for the same properties.
+     *
+     * @param command The later update
+     */
+    public void mergeProperties(UpdateStateCommand command) {
+        Map properties = command.propertyUpdater.getProperties();
+        if (properties != null) {
+            for (Iterator iter = properties.values().iterator(); iter.hasNext();) {
+                addProperty((PropertyDifference) iter.next());
+            }
+        }
+    }
 }
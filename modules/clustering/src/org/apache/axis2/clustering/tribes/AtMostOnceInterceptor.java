@@ -24,11 +24,7 @@ import org.apache.catalina.tribes.group.ChannelInterceptorBase;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Message interceptor for handling at-most-once message processing semantics
@@ -36,103 +32,47 @@ import java.util.Map;
 public final class AtMostOnceInterceptor extends ChannelInterceptorBase {
 
     private static Log log = LogFactory.getLog(AtMostOnceInterceptor.class);
-    private static final Map<MessageId, Long> receivedMessages =
-            new HashMap<MessageId, Long>();
 
     /**
-     * The time a message lives in the receivedMessages Map
+     * The minimum time a message ID is remembered
      */
     private static final int TIMEOUT = 5 * 60 * 1000;
 
-    public AtMostOnceInterceptor() {
-        Thread cleanupThread = new Thread(new MessageCleanupTask());
-        cleanupThread.setPriority(Thread.MIN_PRIORITY);
-        cleanupThread.start();
-    }
+    /**
+     * The number of intervals the timeout is divided into. The message IDs of an interval are
+     * dropped together once they are older than the timeout.
+     */
+    private static final int INTERVALS = 5;
+
+    private final MessageIdWindow receivedMessages =
+            new MessageIdWindow(TIMEOUT / INTERVALS, INTERVALS + 1, System.currentTimeMillis());
+
+    private final AtomicLong duplicateMessages = new AtomicLong();
 
     public void messageReceived(ChannelMessage msg) {
         if (okToProcess(msg.getOptions())) {
-            synchronized (receivedMessages) {
-                MessageId msgId = new MessageId(msg.getUniqueId());
-                if (receivedMessages.get(msgId) == null) {  // If it is a new message, keep track of it
-                    receivedMessages.put(msgId, System.currentTimeMillis());
-                    super.messageReceived(msg);
-                } else {  // If it is a duplicate message, discard it. i.e. dont call super.messageReceived
-                    log.info("Duplicate message received from " + TribesUtil.getName(msg.getAddress()));
-                }
+            if (receivedMessages.add(msg.getUniqueId(), System.currentTimeMillis())) {
+                super.messageReceived(msg);
+            } else {  // If it is a duplicate message, discard it. i.e. dont call super.messageReceived
+                duplicateMessages.incrementAndGet();
+                log.info("Duplicate message received from " + TribesUtil.getName(msg.getAddress()));
             }
         } else {
             super.messageReceived(msg);
         }
     }
 
-    private static class MessageCleanupTask implements Runnable {
-
-        public void run() {
-            while (true) { // This task should never terminate
-                try {
-                    Thread.sleep(TIMEOUT);
-                } catch (InterruptedException e) {
-                    e.printStackTrace();
-                }
-                try {
-                    List<MessageId> toBeRemoved = new ArrayList<MessageId>();
-                    Thread.yield();
-                    synchronized (receivedMessages) {
-                        for (MessageId msgId : receivedMessages.keySet()) {
-                            long arrivalTime = receivedMessages.get(msgId);
-                            if (System.currentTimeMillis() - arrivalTime >= TIMEOUT) {
-                                toBeRemoved.add(msgId);
-                                if (toBeRemoved.size() > 10000) { // Do not allow this thread to run for too long
-                                    break;
-                                }
-                            }
-                        }
-                        for (MessageId msgId : toBeRemoved) {
-                            receivedMessages.remove(msgId);
-                            if (log.isDebugEnabled()) {
-                                log.debug("Cleaned up message ");
-                            }
-                        }
-                    }
-                } catch (Throwable e) {
-                    log.error("Exception occurred while trying to cleanup messages", e);
-                }
-            }
-        }
+    /**
+     * @return The number of duplicate messages which have been discarded
+     */
+    public long getDuplicateMessageCount() {
+        return duplicateMessages.get();
     }
 
     /**
-     * Represents a Message ID
+     * @return The number of message IDs which are currently remembered
      */
-    private static class MessageId {
-        private byte[] id;
-
-        private MessageId(byte[] id) {
-            this.id = id;
-        }
-
-        @Override
-        public boolean equals(Object o) {
-            if (this == o) {
-                return true;
-            }
-            if (o == null || getClass() != o.getClass()) {
-                return false;
-            }
-
-            MessageId messageId = (MessageId) o;
-
-            if (!Arrays.equals(id, messageId.id)) {
-                return false;
-            }
-
-            return true;
-        }
-
-        @Override
-        public int hashCode() {
-            return Arrays.hashCode(id);
-        }
+    public int getTrackedMessageCount() {
+        return receivedMessages.size();
     }
 }
@@ -23,6 +23,8 @@ import org.apache.axis2.clustering.ClusteringConstants;
 import org.apache.axis2.clustering.ClusteringFault;
 import org.apache.axis2.clustering.management.DefaultNodeManager;
 import org.apache.axis2.clustering.management.GroupManagementCommand;
+import org.apache.axis2.clustering.management.commands.GetMemberLoadCommand;
+import org.apache.axis2.clustering.management.commands.MemberLoadCommand;
 import org.apache.axis2.clustering.management.NodeManagementCommand;
 import org.apache.axis2.clustering.state.DefaultStateManager;
 import org.apache.axis2.clustering.state.StateClusteringCommand;
@@ -32,7 +34,6 @@ import org.apache.catalina.tribes.ChannelListener;
 import org.apache.catalina.tribes.Member;
 import org.apache.catalina.tribes.RemoteProcessException;
 import org.apache.catalina.tribes.group.RpcMessage;
-import org.apache.catalina.tribes.io.XByteBuffer;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
@@ -49,6 +50,7 @@ public class Axis2ChannelListener implements ChannelListener {
     private DefaultNodeManager nodeManager;
 
     private ConfigurationContext configurationContext;
+    private ChannelSender channelSender;
 
     public Axis2ChannelListener(ConfigurationContext configurationContext,
                                 DefaultNodeManager nodeManager,
@@ -70,6 +72,10 @@ public class Axis2ChannelListener implements ChannelListener {
         this.configurationContext = configurationContext;
     }
 
+    public void setChannelSender(ChannelSender channelSender) {
+        this.channelSender = channelSender;
+    }
+
     /**
      * Invoked by the channel to determine if the listener will process this message or not.
      * @param msg Serializable
@@ -88,10 +94,7 @@ public class Axis2ChannelListener implements ChannelListener {
     public void messageReceived(Serializable msg, Member sender) {
         try {
             byte[] message = ((ByteMessage) msg).getMessage();
-            msg = XByteBuffer.deserialize(message,
-                                          0,
-                                          message.length,
-                                          ClassLoaderUtil.getClassLoaders());
+            msg = ClusteringCommandCodec.decode(message, ClassLoaderUtil.getClassLoaders());
         } catch (Exception e) {
             String errMsg = "Cannot deserialize received message";
             log.error(errMsg, e);
@@ -112,7 +115,7 @@ public class Axis2ChannelListener implements ChannelListener {
         }
 
         try {
-            processMessage(msg);
+            processMessage(msg, sender);
         } catch (Exception e) {
             String errMsg = "Cannot process received message";
             log.error(errMsg, e);
@@ -120,13 +123,22 @@ public class Axis2ChannelListener implements ChannelListener {
         }
     }
 
-    private void processMessage(Serializable msg) throws ClusteringFault {
+    private void processMessage(Serializable msg, Member sender) throws ClusteringFault {
         if (msg instanceof StateClusteringCommand && stateManager != null) {
             StateClusteringCommand ctxCmd = (StateClusteringCommand) msg;
             ctxCmd.execute(configurationContext);
         } else if (msg instanceof NodeManagementCommand && nodeManager != null) {
             ((NodeManagementCommand) msg).execute(configurationContext);
         } else if (msg instanceof GroupManagementCommand){
+            if (msg instanceof GetMemberLoadCommand) {
+                ((GetMemberLoadCommand) msg).setReplyTo(channelSender, sender);
+            } else if (msg instanceof MemberLoadCommand) {
+                ((MemberLoadCommand) msg).setMember(TribesUtil.toAxis2Member(sender));
+                if (channelSender != null) {
+                    ((MemberLoadCommand) msg).
+                            setStatePartitioner(channelSender.getStatePartitioner());
+                }
+            }
             ((GroupManagementCommand) msg).execute(configurationContext);
         }
     }
@@ -22,6 +22,7 @@ package org.apache.axis2.clustering.tribes;
 import org.apache.axis2.clustering.ClusteringCommand;
 import org.apache.axis2.clustering.ClusteringFault;
 import org.apache.axis2.clustering.MessageSender;
+import org.apache.axis2.clustering.state.StateClusteringCommand;
 import org.apache.catalina.tribes.ByteMessage;
 import org.apache.catalina.tribes.Channel;
 import org.apache.catalina.tribes.ChannelException;
@@ -33,6 +34,7 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.NotSerializableException;
 import java.io.ObjectOutputStream;
+import java.util.Map;
 
 public class ChannelSender implements MessageSender {
 
@@ -40,6 +42,8 @@ public class ChannelSender implements MessageSender {
     private Channel channel;
     private boolean synchronizeAllMembers;
     private MembershipManager membershipManager;
+    private boolean binaryEncoding;
+    private StatePartitioner statePartitioner;
 
     public ChannelSender(Channel channel,
                          MembershipManager membershipManager,
@@ -49,19 +53,82 @@ public class ChannelSender implements MessageSender {
         this.synchronizeAllMembers = synchronizeAllMembers;
     }
 
-    public synchronized void sendToGroup(ClusteringCommand msg,
+    /**
+     * Set whether the built-in commands are sent using {@link ClusteringCommandCodec}. This is
+     * disabled by default and should only be enabled once all members of the cluster are able to
+     * decode the binary format.
+     *
+     * @param binaryEncoding true - encode the built-in commands in the binary format,
+     *                       false - serialize all commands
+     */
+    public void setBinaryEncoding(boolean binaryEncoding) {
+        this.binaryEncoding = binaryEncoding;
+    }
+
+    /**
+     * Set the partitioner which selects the members to which state replication commands are
+     * sent. If no partitioner is set, the state is replicated to all members of the group.
+     *
+     * @param statePartitioner The partitioner
+     */
+    public void setStatePartitioner(StatePartitioner statePartitioner) {
+        this.statePartitioner = statePartitioner;
+    }
+
+    /**
+     * @return The partitioner which selects the members to which state replication commands are
+     *         sent, or null if the state is replicated to all members of the group
+     */
+    public StatePartitioner getStatePartitioner() {
+        return statePartitioner;
+    }
+
+    public void sendToGroup(ClusteringCommand msg,
                             MembershipManager membershipManager,
                             int additionalOptions) throws ClusteringFault {
+        sendToGroup(msg, membershipManager, synchronizeAllMembers, additionalOptions);
+    }
+
+    /**
+     * Send a message to the group, overriding the <code>synchronizeAll</code> setting of the
+     * cluster.
+     *
+     * @param msg        The message
+     * @param waitForAck true - wait until all members have acknowledged the message,
+     *                   false - send the message asynchronously without acknowledgement
+     * @throws ClusteringFault If the message cannot be serialized
+     */
+    public void sendToGroup(ClusteringCommand msg, boolean waitForAck) throws ClusteringFault {
+        sendToGroup(msg, this.membershipManager, waitForAck, 0);
+    }
+
+    private void sendToGroup(ClusteringCommand msg,
+                             MembershipManager membershipManager,
+                             boolean waitForAck,
+                             int additionalOptions) throws ClusteringFault {
         if (channel == null) {
             return;
         }
-        Member[] members = membershipManager.getMembers();
+        if (statePartitioner != null && membershipManager == this.membershipManager &&
+            msg instanceof StateClusteringCommand) {
+            for (Map.Entry<ClusteringCommand, Member[]> route :
+                    statePartitioner.partition(msg).entrySet()) {
+                send(route.getKey(), route.getValue(), waitForAck, additionalOptions);
+            }
+        } else {
+            send(msg, membershipManager.getMembers(), waitForAck, additionalOptions);
+        }
+    }
 
+    private void send(ClusteringCommand msg,
+                      Member[] members,
+                      boolean waitForAck,
+                      int additionalOptions) throws ClusteringFault {
         // Keep retrying, since at the point of trying to send the msg, a member may leave the group
         // causing a view change. All nodes in a view should get the msg
         if (members.length > 0) {
             try {
-                if (synchronizeAllMembers) {
+                if (waitForAck) {
                     channel.send(members, toByteMessage(msg),
                                  Channel.SEND_OPTIONS_USE_ACK |
                                  Channel.SEND_OPTIONS_SYNCHRONIZED_ACK |
@@ -106,6 +173,9 @@ public class ChannelSender implements MessageSender {
     }
 
     private ByteMessage toByteMessage(ClusteringCommand msg) throws IOException {
+        if (binaryEncoding) {
+            return new ByteMessage(ClusteringCommandCodec.encode(msg));
+        }
         ByteArrayOutputStream bos = new ByteArrayOutputStream();
         ObjectOutputStream out = new ObjectOutputStream(bos);
         out.writeObject(msg);
@@ -132,6 +202,21 @@ public class ChannelSender implements MessageSender {
     }
 
     public void sendToMember(ClusteringCommand cmd, Member member) throws ClusteringFault {
+        sendToMember(cmd, member, 0);
+    }
+
+    /**
+     * Send a command to a single member
+     *
+     * @param cmd               The command
+     * @param member            The member
+     * @param additionalOptions Options to be set in addition to the default send options, e.g.
+     *                          {@link TribesConstants#MEMBERSHIP_MSG_OPTION} to send the command
+     *                          to a member of another domain
+     * @throws ClusteringFault If the command cannot be serialized
+     */
+    public void sendToMember(ClusteringCommand cmd, Member member,
+                             int additionalOptions) throws ClusteringFault {
         try {
             if (member.isReady()) {
                 channel.send(new Member[]{member}, toByteMessage(cmd),
@@ -139,7 +224,8 @@ public class ChannelSender implements MessageSender {
                              Channel.SEND_OPTIONS_SYNCHRONIZED_ACK |
                              Channel.SEND_OPTIONS_BYTE_MESSAGE |
                              TribesConstants.MSG_ORDER_OPTION |
-                             TribesConstants.AT_MOST_ONCE_OPTION);
+                             TribesConstants.AT_MOST_ONCE_OPTION |
+                             additionalOptions);
                 if (log.isDebugEnabled()) {
                     log.debug("Sent " + cmd + " to " + TribesUtil.getName(member));
                 }
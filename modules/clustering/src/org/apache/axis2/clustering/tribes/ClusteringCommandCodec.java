@@ -0,0 +1,568 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.clustering.tribes;
+
+import org.apache.axis2.clustering.ClusteringCommand;
+import org.apache.axis2.clustering.management.commands.ShutdownMemberCommand;
+import org.apache.axis2.clustering.state.StateClusteringCommand;
+import org.apache.axis2.clustering.state.commands.DeleteServiceGroupStateCommand;
+import org.apache.axis2.clustering.state.commands.DeleteServiceStateCommand;
+import org.apache.axis2.clustering.state.commands.StateClusteringCommandCollection;
+import org.apache.axis2.clustering.state.commands.UpdateConfigurationStateCommand;
+import org.apache.axis2.clustering.state.commands.UpdateServiceGroupStateCommand;
+import org.apache.axis2.clustering.state.commands.UpdateServiceStateCommand;
+import org.apache.axis2.clustering.state.commands.UpdateStateCommand;
+import org.apache.axis2.context.PropertyDifference;
+import org.apache.catalina.tribes.io.XByteBuffer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.io.StreamCorruptedException;
+import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Encodes the built-in state replication and member management commands in a compact binary
+ * format, instead of using Java serialization. Java serialization writes the class descriptors
+ * of the command, the property updater, the property map and every property difference in each
+ * message, and is expensive to decode on the receiving members.
+ * <p/>
+ * The format starts with a marker byte and a version byte, followed by the command. Strings
+ * (context IDs, service names, property names) are written once per message; later occurrences
+ * refer to the first one. Lengths and integers are written as variable length integers. Property
+ * values which are not strings, numbers, booleans or byte arrays are written using Java
+ * serialization, and large values are compressed. Commands which have no binary representation
+ * are written using Java serialization, so {@link #decode(byte[], ClassLoader[])} accepts both
+ * formats.
+ */
+public final class ClusteringCommandCodec {
+
+    /**
+     * The first byte of a binary encoded message. Java serialization streams start with 0xAC.
+     */
+    private static final byte MARKER = (byte) 0xA2;
+    private static final byte VERSION = 1;
+
+    private static final int COMMAND_SERIALIZED = 0;
+    private static final int COMMAND_COLLECTION = 1;
+    private static final int COMMAND_UPDATE_CONFIGURATION = 2;
+    private static final int COMMAND_UPDATE_SERVICE_GROUP = 3;
+    private static final int COMMAND_UPDATE_SERVICE = 4;
+    private static final int COMMAND_DELETE_SERVICE_GROUP = 5;
+    private static final int COMMAND_DELETE_SERVICE = 6;
+    private static final int COMMAND_SHUTDOWN_MEMBER = 7;
+
+    private static final int VALUE_NULL = 0;
+    private static final int VALUE_STRING = 1;
+    private static final int VALUE_INTEGER = 2;
+    private static final int VALUE_LONG = 3;
+    private static final int VALUE_TRUE = 4;
+    private static final int VALUE_FALSE = 5;
+    private static final int VALUE_BYTES = 6;
+    private static final int VALUE_SERIALIZED = 7;
+    private static final int VALUE_REMOVED = 8;
+
+    /**
+     * Set on the value type if the value is compressed
+     */
+    private static final int COMPRESSED = 0x80;
+
+    /**
+     * Values of at least this size (in bytes) are compressed
+     */
+    private static final int COMPRESSION_THRESHOLD = 1024;
+
+    /**
+     * The maximum ratio of the uncompressed to the compressed size of the deflate format
+     */
+    private static final int MAX_COMPRESSION_RATIO = 1032;
+
+    /**
+     * The maximum total size (in bytes) of the compressed values of a message after inflating
+     * them, so that a corrupt message cannot exhaust the memory of the receiving member
+     */
+    private static final int MAX_INFLATED_LENGTH = 64 * 1024 * 1024;
+
+    private static final int STRING_NULL = 0;
+    private static final int STRING_LITERAL = 1;
+    private static final int STRING_REFERENCE_OFFSET = 2;
+
+    private ClusteringCommandCodec() {
+    }
+
+    /**
+     * Encode a command
+     *
+     * @param command The command
+     * @return The encoded command
+     * @throws IOException If the command, or one of its property values, cannot be serialized
+     */
+    public static byte[] encode(ClusteringCommand command) throws IOException {
+        if (!isEncodable(command)) {
+            return serialize(command);
+        }
+        Encoder encoder = new Encoder();
+        encoder.out.write(MARKER);
+        encoder.out.write(VERSION);
+        encoder.writeCommand(command);
+        return encoder.out.toByteArray();
+    }
+
+    /**
+     * Decode a message encoded by {@link #encode(ClusteringCommand)}, or serialized using Java
+     * serialization
+     *
+     * @param message      The message
+     * @param classLoaders The class loaders used to load the classes of serialized objects
+     * @return The decoded command
+     * @throws IOException            If the message is not valid
+     * @throws ClassNotFoundException If the class of a serialized object cannot be found
+     */
+    public static Serializable decode(byte[] message,
+                                      ClassLoader[] classLoaders)
+            throws IOException, ClassNotFoundException {
+        if (message.length == 0 || message[0] != MARKER) {
+            return XByteBuffer.deserialize(message, 0, message.length, classLoaders);
+        }
+        if (message.length < 2 || message[1] != VERSION) {
+            throw new StreamCorruptedException("Unsupported clustering message version " +
+                                               (message.length < 2 ? -1 : message[1]));
+        }
+        Decoder decoder = new Decoder(message, 2, classLoaders);
+        Serializable command = decoder.readCommand();
+        if (decoder.pos != message.length) {
+            throw new StreamCorruptedException("Unexpected data at the end of the message");
+        }
+        return command;
+    }
+
+    private static boolean isEncodable(ClusteringCommand command) {
+        if (command instanceof StateClusteringCommandCollection) {
+            // The collection itself is always encodable; unknown commands in it are serialized
+            return ((StateClusteringCommandCollection) command).getCommands() != null;
+        }
+        Class commandClass = command.getClass();
+        // Subclasses may have additional state; only the exact classes are encoded
+        return commandClass == UpdateConfigurationStateCommand.class ||
+               commandClass == UpdateServiceGroupStateCommand.class ||
+               commandClass == UpdateServiceStateCommand.class ||
+               commandClass == DeleteServiceGroupStateCommand.class ||
+               commandClass == DeleteServiceStateCommand.class ||
+               commandClass == ShutdownMemberCommand.class;
+    }
+
+    private static byte[] serialize(Object object) throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bos);
+        out.writeObject(object);
+        out.flush();
+        out.close();
+        return bos.toByteArray();
+    }
+
+    private static final class Encoder {
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+        private final Map<String, Integer> strings = new HashMap<String, Integer>();
+
+        void writeCommand(ClusteringCommand command) throws IOException {
+            if (!isEncodable(command)) {
+                out.write(COMMAND_SERIALIZED);
+                writeBytes(serialize(command));
+            } else if (command instanceof StateClusteringCommandCollection) {
+                List<StateClusteringCommand> commands =
+                        ((StateClusteringCommandCollection) command).getCommands();
+                out.write(COMMAND_COLLECTION);
+                writeVarInt(commands.size());
+                for (StateClusteringCommand cmd : commands) {
+                    writeCommand(cmd);
+                }
+            } else if (command instanceof UpdateConfigurationStateCommand) {
+                out.write(COMMAND_UPDATE_CONFIGURATION);
+                writeProperties((UpdateStateCommand) command);
+            } else if (command instanceof UpdateServiceGroupStateCommand) {
+                UpdateServiceGroupStateCommand cmd = (UpdateServiceGroupStateCommand) command;
+                out.write(COMMAND_UPDATE_SERVICE_GROUP);
+                writeString(cmd.getServiceGroupName());
+                writeString(cmd.getServiceGroupContextId());
+                writeProperties(cmd);
+            } else if (command instanceof UpdateServiceStateCommand) {
+                UpdateServiceStateCommand cmd = (UpdateServiceStateCommand) command;
+                out.write(COMMAND_UPDATE_SERVICE);
+                writeString(cmd.getServiceGroupName());
+                writeString(cmd.getServiceGroupContextId());
+                writeString(cmd.getServiceName());
+                writeProperties(cmd);
+            } else if (command instanceof DeleteServiceGroupStateCommand) {
+                out.write(COMMAND_DELETE_SERVICE_GROUP);
+                writeString(((DeleteServiceGroupStateCommand) command).getServiceGroupContextId());
+            } else if (command instanceof DeleteServiceStateCommand) {
+                DeleteServiceStateCommand cmd = (DeleteServiceStateCommand) command;
+                out.write(COMMAND_DELETE_SERVICE);
+                writeString(cmd.getServiceGroupName());
+                writeString(cmd.getServiceGroupContextId());
+                writeString(cmd.getServiceName());
+            } else {
+                out.write(COMMAND_SHUTDOWN_MEMBER);
+            }
+        }
+
+        private void writeProperties(UpdateStateCommand command) throws IOException {
+            Map properties = command.getProperties();
+            if (properties == null) {
+                writeVarInt(0);
+                return;
+            }
+            writeVarInt(properties.size());
+            for (Iterator iter = properties.values().iterator(); iter.hasNext();) {
+                PropertyDifference diff = (PropertyDifference) iter.next();
+                writeString(diff.getKey());
+                if (diff.isRemoved()) {
+                    out.write(VALUE_REMOVED);
+                } else {
+                    writeValue(diff.getValue());
+                }
+            }
+        }
+
+        private void writeValue(Object value) throws IOException {
+            if (value == null) {
+                out.write(VALUE_NULL);
+            } else if (value instanceof String) {
+                writeData(VALUE_STRING, ((String) value).getBytes("UTF-8"));
+            } else if (value instanceof Integer) {
+                out.write(VALUE_INTEGER);
+                writeVarLong(zigZag(((Integer) value).intValue()));
+            } else if (value instanceof Long) {
+                out.write(VALUE_LONG);
+                writeVarLong(zigZag(((Long) value).longValue()));
+            } else if (value instanceof Boolean) {
+                out.write(((Boolean) value).booleanValue() ? VALUE_TRUE : VALUE_FALSE);
+            } else if (value instanceof byte[]) {
+                writeData(VALUE_BYTES, (byte[]) value);
+            } else {
+                writeData(VALUE_SERIALIZED, serialize(value));
+            }
+        }
+
+        private void writeData(int type, byte[] data) {
+            if (data.length >= COMPRESSION_THRESHOLD) {
+                byte[] compressed = compress(data);
+                if (compressed != null) {
+                    out.write(type | COMPRESSED);
+                    writeVarInt(data.length);
+                    writeBytes(compressed);
+                    return;
+                }
+            }
+            out.write(type);
+            writeBytes(data);
+        }
+
+        /**
+         * @return The compressed data, or null if compression doesn't make it smaller
+         */
+        private static byte[] compress(byte[] data) {
+            Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+            try {
+                deflater.setInput(data);
+                deflater.finish();
+                byte[] buffer = new byte[data.length];
+                int length = 0;
+                while (!deflater.finished() && length < buffer.length) {
+                    length += deflater.deflate(buffer, length, buffer.length - length);
+                }
+                if (!deflater.finished()) {
+                    return null;
+                }
+                byte[] compressed = new byte[length];
+                System.arraycopy(buffer, 0, compressed, 0, length);
+                return compressed;
+            } finally {
+                deflater.end();
+            }
+        }
+
+        private void writeString(String value) throws UnsupportedEncodingException {
+            if (value == null) {
+                writeVarInt(STRING_NULL);
+                return;
+            }
+            Integer index = strings.get(value);
+            if (index != null) {
+                writeVarInt(index.intValue() + STRING_REFERENCE_OFFSET);
+            } else {
+                strings.put(value, Integer.valueOf(strings.size()));
+                writeVarInt(STRING_LITERAL);
+                writeBytes(value.getBytes("UTF-8"));
+            }
+        }
+
+        private void writeBytes(byte[] data) {
+            writeVarInt(data.length);
+            out.write(data, 0, data.length);
+        }
+
+        private void writeVarInt(int value) {
+            writeVarLong(value & 0xFFFFFFFFL);
+        }
+
+        private void writeVarLong(long value) {
+            while ((value & ~0x7FL) != 0) {
+                out.write((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            out.write((int) value);
+        }
+
+        private static long zigZag(long value) {
+            return (value << 1) ^ (value >> 63);
+        }
+    }
+
+    private static final class Decoder {
+        private final byte[] in;
+        private final ClassLoader[] classLoaders;
+        private final List<String> strings = new ArrayList<String>();
+        private int pos;
+        private int inflatedLength;
+
+        Decoder(byte[] in, int pos, ClassLoader[] classLoaders) {
+            this.in = in;
+            this.pos = pos;
+            this.classLoaders = classLoaders;
+        }
+
+        StateClusteringCommand readStateCommand() throws IOException, ClassNotFoundException {
+            Serializable command = readCommand();
+            if (!(command instanceof StateClusteringCommand)) {
+                throw new StreamCorruptedException("Unexpected command " + command +
+                                                   " in StateClusteringCommandCollection");
+            }
+            return (StateClusteringCommand) command;
+        }
+
+        Serializable readCommand() throws IOException, ClassNotFoundException {
+            int type = readByte();
+            switch (type) {
+                case COMMAND_SERIALIZED: {
+                    byte[] data = readBytes();
+                    return XByteBuffer.deserialize(data, 0, data.length, classLoaders);
+                }
+                case COMMAND_COLLECTION: {
+                    int size = readLength();
+                    List<StateClusteringCommand> commands =
+                            new ArrayList<StateClusteringCommand>(Math.min(size, 64));
+                    for (int i = 0; i < size; i++) {
+                        commands.add(readStateCommand());
+                    }
+                    return new StateClusteringCommandCollection(commands);
+                }
+                case COMMAND_UPDATE_CONFIGURATION: {
+                    UpdateConfigurationStateCommand cmd = new UpdateConfigurationStateCommand();
+                    readProperties(cmd);
+                    return cmd;
+                }
+                case COMMAND_UPDATE_SERVICE_GROUP: {
+                    UpdateServiceGroupStateCommand cmd = new UpdateServiceGroupStateCommand();
+                    cmd.setServiceGroupName(readString());
+                    cmd.setServiceGroupContextId(readString());
+                    readProperties(cmd);
+                    return cmd;
+                }
+                case COMMAND_UPDATE_SERVICE: {
+                    UpdateServiceStateCommand cmd = new UpdateServiceStateCommand();
+                    cmd.setServiceGroupName(readString());
+                    cmd.setServiceGroupContextId(readString());
+                    cmd.setServiceName(readString());
+                    readProperties(cmd);
+                    return cmd;
+                }
+                case COMMAND_DELETE_SERVICE_GROUP: {
+                    DeleteServiceGroupStateCommand cmd = new DeleteServiceGroupStateCommand();
+                    cmd.setServiceGroupContextId(readString());
+                    return cmd;
+                }
+                case COMMAND_DELETE_SERVICE: {
+                    DeleteServiceStateCommand cmd = new DeleteServiceStateCommand();
+                    cmd.setServiceGroupName(readString());
+                    cmd.setServiceGroupContextId(readString());
+                    cmd.setServiceName(readString());
+                    return cmd;
+                }
+                case COMMAND_SHUTDOWN_MEMBER:
+                    return new ShutdownMemberCommand();
+                default:
+                    throw new StreamCorruptedException("Unknown command type " + type);
+            }
+        }
+
+        private void readProperties(UpdateStateCommand command)
+                throws IOException, ClassNotFoundException {
+            int size = readLength();
+            // Make sure that the command has a property map, even if it is empty
+            command.isPropertiesEmpty();
+            for (int i = 0; i < size; i++) {
+                String key = readString();
+                int type = readByte();
+                if (type == VALUE_REMOVED) {
+                    command.addProperty(new PropertyDifference(key, null, true));
+                } else {
+                    command.addProperty(new PropertyDifference(key, readValue(type), false));
+                }
+            }
+        }
+
+        private Object readValue(int type) throws IOException, ClassNotFoundException {
+            switch (type) {
+                case VALUE_NULL:
+                    return null;
+                case VALUE_INTEGER:
+                    return Integer.valueOf((int) unZigZag(readVarLong()));
+                case VALUE_LONG:
+                    return Long.valueOf(unZigZag(readVarLong()));
+                case VALUE_TRUE:
+                    return Boolean.TRUE;
+                case VALUE_FALSE:
+                    return Boolean.FALSE;
+            }
+            byte[] data = (type & COMPRESSED) != 0 ? readCompressedBytes() : readBytes();
+            switch (type & ~COMPRESSED) {
+                case VALUE_STRING:
+                    return new String(data, "UTF-8");
+                case VALUE_BYTES:
+                    return data;
+                case VALUE_SERIALIZED:
+                    return XByteBuffer.deserialize(data, 0, data.length, classLoaders);
+                default:
+                    throw new StreamCorruptedException("Unknown value type " + type);
+            }
+        }
+
+        private byte[] readCompressedBytes() throws IOException {
+            int length = readLength();
+            byte[] compressed = readBytes();
+            if (length > (long) compressed.length * MAX_COMPRESSION_RATIO
+                || length > MAX_INFLATED_LENGTH - inflatedLength) {
+                throw new StreamCorruptedException("Invalid compressed value length " + length);
+            }
+            inflatedLength += length;
+            byte[] data = new byte[length];
+            Inflater inflater = new Inflater();
+            try {
+                inflater.setInput(compressed);
+                int count = 0;
+                while (count < length) {
+                    int n = inflater.inflate(data, count, length - count);
+                    if (n == 0 && (inflater.finished() || inflater.needsInput())) {
+                        break;
+                    }
+                    count += n;
+                }
+                if (count != length || !inflater.finished()) {
+                    throw new StreamCorruptedException("Invalid compressed value");
+                }
+            } catch (DataFormatException e) {
+                StreamCorruptedException ex =
+                        new StreamCorruptedException("Invalid compressed value");
+                ex.initCause(e);
+                throw ex;
+            } finally {
+                inflater.end();
+            }
+            return data;
+        }
+
+        private String readString() throws IOException {
+            int ref = readVarInt();
+            if (ref == STRING_NULL) {
+                return null;
+            } else if (ref == STRING_LITERAL) {
+                String value = new String(readBytes(), "UTF-8");
+                strings.add(value);
+                return value;
+            } else {
+                int index = ref - STRING_REFERENCE_OFFSET;
+                if (index >= strings.size()) {
+                    throw new StreamCorruptedException("Invalid string reference " + ref);
+                }
+                return strings.get(index);
+            }
+        }
+
+        private byte[] readBytes() throws IOException {
+            int length = readLength();
+            if (length > in.length - pos) {
+                throw new StreamCorruptedException("Unexpected end of message");
+            }
+            byte[] data = new byte[length];
+            System.arraycopy(in, pos, data, 0, length);
+            pos += length;
+            return data;
+        }
+
+        private int readByte() throws IOException {
+            if (pos >= in.length) {
+                throw new StreamCorruptedException("Unexpected end of message");
+            }
+            return in[pos++] & 0xFF;
+        }
+
+        private int readLength() throws IOException {
+            int length = readVarInt();
+            if (length < 0) {
+                throw new StreamCorruptedException("Invalid length " + length);
+            }
+            return length;
+        }
+
+        private int readVarInt() throws IOException {
+            long value = readVarLong();
+            if ((value & ~0xFFFFFFFFL) != 0) {
+                throw new StreamCorruptedException("Invalid variable length integer");
+            }
+            return (int) value;
+        }
+
+        private long readVarLong() throws IOException {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = readByte();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new StreamCorruptedException("Invalid variable length integer");
+        }
+
+        private static long unZigZag(long value) {
+            return (value >>> 1) ^ -(value & 1);
+        }
+    }
+}
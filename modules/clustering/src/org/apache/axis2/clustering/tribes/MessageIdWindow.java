@@ -0,0 +1,154 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.clustering.tribes;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Keeps track of the IDs of the messages received within a time window.
+ * <p/>
+ * The IDs are stored in a ring of buckets, each of which holds the IDs received during one
+ * interval. New IDs are always added to the current bucket. When an interval has elapsed, the
+ * oldest bucket is dropped as a whole and replaced by an empty one, so an ID is remembered for
+ * at least <code>interval * (buckets - 1)</code> milliseconds. The buckets are only rotated by
+ * the threads adding IDs, so there is no cleanup thread.
+ * <p/>
+ * Adding an ID only takes a shared lock, which prevents the buckets from being rotated while an
+ * ID is checked and added. Concurrent additions of the same ID are resolved by the current
+ * bucket, so exactly one of them succeeds.
+ */
+class MessageIdWindow {
+
+    private final long interval;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<MessageId, Boolean>[] buckets;
+
+    // Guarded by the lock
+    private int current;
+    private volatile long nextRotation;
+
+    /**
+     * @param interval The time in milliseconds covered by each bucket
+     * @param buckets  The number of buckets
+     * @param now      The current time in milliseconds
+     */
+    @SuppressWarnings("unchecked")
+    MessageIdWindow(long interval, int buckets, long now) {
+        this.interval = interval;
+        this.buckets = new Map[buckets];
+        for (int i = 0; i < buckets; i++) {
+            this.buckets[i] = new ConcurrentHashMap<MessageId, Boolean>();
+        }
+        nextRotation = now + interval;
+    }
+
+    /**
+     * Add the ID of a received message
+     *
+     * @param id  The message ID
+     * @param now The current time in milliseconds
+     * @return true - if the ID has not been seen within the window, false - if it is a duplicate
+     */
+    boolean add(byte[] id, long now) {
+        if (now >= nextRotation) {
+            rotate(now);
+        }
+        MessageId msgId = new MessageId(id);
+        lock.readLock().lock();
+        try {
+            for (int i = 1; i < buckets.length; i++) {
+                if (buckets[(current + i) % buckets.length].containsKey(msgId)) {
+                    return false;
+                }
+            }
+            return buckets[current].putIfAbsent(msgId, Boolean.TRUE) == null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return The number of IDs currently in the window
+     */
+    int size() {
+        lock.readLock().lock();
+        try {
+            int size = 0;
+            for (Map<MessageId, Boolean> bucket : buckets) {
+                size += bucket.size();
+            }
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void rotate(long now) {
+        lock.writeLock().lock();
+        try {
+            if (now < nextRotation) {
+                return; // already rotated by another thread
+            }
+            // Rotate once per elapsed interval, but clear each bucket at most once
+            long elapsed = (now - nextRotation) / interval + 1;
+            long rotations = Math.min(elapsed, buckets.length);
+            for (int i = 0; i < rotations; i++) {
+                current = (current + 1) % buckets.length;
+                buckets[current] = new ConcurrentHashMap<MessageId, Boolean>();
+            }
+            nextRotation += elapsed * interval;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Represents a Message ID
+     */
+    private static class MessageId {
+        private final byte[] id;
+        private final int hashCode;
+
+        private MessageId(byte[] id) {
+            this.id = id;
+            this.hashCode = Arrays.hashCode(id);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            return Arrays.equals(id, ((MessageId) o).id);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+}
@@ -41,11 +41,20 @@ public class RpcInitializationRequestHandler implements RpcCallback {
 
     private static Log log = LogFactory.getLog(RpcInitializationRequestHandler.class);
     private ConfigurationContext configurationContext;
+    private StatePartitioner statePartitioner;
 
     public RpcInitializationRequestHandler(ConfigurationContext configurationContext) {
         this.configurationContext = configurationContext;
     }
 
+    /**
+     * @param statePartitioner The partitioner used to send only the state owned by a member
+     *                         requesting the state, or null if the state is not partitioned
+     */
+    public void setStatePartitioner(StatePartitioner statePartitioner) {
+        this.statePartitioner = statePartitioner;
+    }
+
     public void setConfigurationContext(ConfigurationContext configurationContext) {
         this.configurationContext = configurationContext;
     }
@@ -65,9 +74,14 @@ public class RpcInitializationRequestHandler implements RpcCallback {
                 log.info("Received " + msg + " initialization request message from " +
                          TribesUtil.getName(invoker));
                 GetStateCommand command = (GetStateCommand) msg;
+                if (statePartitioner != null) {
+                    command.setStatePartitioner(statePartitioner, invoker);
+                }
                 command.execute(configurationContext);
                 GetStateResponseCommand getStateRespCmd = new GetStateResponseCommand();
                 getStateRespCmd.setCommands(command.getCommands());
+                getStateRespCmd.setNextCursor(command.getNextCursor());
+                getStateRespCmd.setComplete(command.isComplete());
                 return getStateRespCmd;
             } catch (ClusteringFault e) {
                 String errMsg = "Cannot handle initialization request";
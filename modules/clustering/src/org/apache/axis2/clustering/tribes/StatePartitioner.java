@@ -0,0 +1,510 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axis2.clustering.tribes;
+
+import org.apache.axis2.clustering.ClusteringAgent;
+import org.apache.axis2.clustering.ClusteringCommand;
+import org.apache.axis2.clustering.ClusteringFault;
+import org.apache.axis2.clustering.management.MemberSelector;
+import org.apache.axis2.clustering.state.StateClusteringCommand;
+import org.apache.axis2.clustering.state.StateClusteringCommandFactory;
+import org.apache.axis2.clustering.state.StateManager;
+import org.apache.axis2.clustering.state.commands.DeleteServiceGroupStateCommand;
+import org.apache.axis2.clustering.state.commands.DeleteServiceStateCommand;
+import org.apache.axis2.clustering.state.commands.StateClusteringCommandCollection;
+import org.apache.axis2.clustering.state.commands.UpdateServiceGroupStateCommand;
+import org.apache.axis2.clustering.state.commands.UpdateServiceStateCommand;
+import org.apache.axis2.context.ConfigurationContext;
+import org.apache.axis2.context.ServiceContext;
+import org.apache.axis2.context.ServiceGroupContext;
+import org.apache.catalina.tribes.Channel;
+import org.apache.catalina.tribes.Member;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Selects the members to which the state of a ServiceGroupContext is replicated, when the state
+ * is replicated to a fixed number of backup members instead of all members of the group.
+ * <p/>
+ * The owners of a ServiceGroupContext are selected from the members of the group, including the
+ * local member, by a {@link MemberSelector}, so the state of each session is held by its primary
+ * member and the configured number of backups, independent of the size of the group. The
+ * ConfigurationContext and commands which do not belong to a ServiceGroupContext are still
+ * replicated to all members.
+ * <p/>
+ * When the membership changes, the owners of some ServiceGroupContexts change. For each
+ * ServiceGroupContext, the highest ranked of the previous owners which are still part of the
+ * group sends the complete state to the new owners.
+ * <p/>
+ * The members are weighted by the loads they report to the load balancer, which the members of
+ * the group also send to each other, so that the state of a session is owned by the member to
+ * which the load balancer routes its requests. The owners also change when the weight of a member
+ * changes.
+ */
+public class StatePartitioner {
+
+    private static final Log log = LogFactory.getLog(StatePartitioner.class);
+
+    /**
+     * The maximum number of commands sent in a single message while rebalancing
+     */
+    private static final int MAX_COMMANDS_PER_MESSAGE = 500;
+
+    private final Channel channel;
+    private final MembershipManager membershipManager;
+    private final ChannelSender sender;
+    private final ConfigurationContext configurationContext;
+    private final int backups;
+    private final MemberSelector memberSelector = new MemberSelector();
+    private final ExecutorService rebalancer =
+            Executors.newSingleThreadExecutor(new ThreadFactory() {
+                public Thread newThread(Runnable r) {
+                    Thread th = new Thread(r, "StatePartitioner rebalancer");
+                    th.setDaemon(true);
+                    return th;
+                }
+            });
+
+    private volatile View view;
+
+    /**
+     * Incremented whenever the weight of a member changes
+     */
+    private volatile int loadsVersion;
+
+    /**
+     * @param channel              The channel
+     * @param membershipManager    The MembershipManager of the local domain
+     * @param sender               The sender used to transfer the state to new owners
+     * @param configurationContext The ConfigurationContext holding the state
+     * @param backups              The number of members holding a copy of the state of a
+     *                             ServiceGroupContext in addition to its primary member
+     */
+    public StatePartitioner(Channel channel,
+                            MembershipManager membershipManager,
+                            ChannelSender sender,
+                            ConfigurationContext configurationContext,
+                            int backups) {
+        this.channel = channel;
+        this.membershipManager = membershipManager;
+        this.sender = sender;
+        this.configurationContext = configurationContext;
+        this.backups = backups;
+    }
+
+    public int getBackups() {
+        return backups;
+    }
+
+    /**
+     * Get the members to which a command has to be sent. A collection of commands is split so
+     * that each member only receives the commands of the ServiceGroupContexts it owns.
+     *
+     * @param command The command
+     * @return The commands to be sent, mapped to the members they have to be sent to
+     */
+    Map<ClusteringCommand, Member[]> partition(ClusteringCommand command) {
+        return partition(command, getView());
+    }
+
+    Map<ClusteringCommand, Member[]> partition(ClusteringCommand command, View currentView) {
+        Map<ClusteringCommand, Member[]> routes = new LinkedHashMap<ClusteringCommand, Member[]>();
+        if (!(command instanceof StateClusteringCommandCollection)) {
+            routes.put(command, getTargets(currentView, getServiceGroupContextId(command)));
+            return routes;
+        }
+
+        List<StateClusteringCommand> commands =
+                ((StateClusteringCommandCollection) command).getCommands();
+        Map<Member, List<StateClusteringCommand>> commandsByMember =
+                new LinkedHashMap<Member, List<StateClusteringCommand>>();
+        for (StateClusteringCommand cmd : commands) {
+            for (Member member : getTargets(currentView, getServiceGroupContextId(cmd))) {
+                List<StateClusteringCommand> memberCommands = commandsByMember.get(member);
+                if (memberCommands == null) {
+                    memberCommands = new ArrayList<StateClusteringCommand>();
+                    commandsByMember.put(member, memberCommands);
+                }
+                memberCommands.add(cmd);
+            }
+        }
+
+        // Members receiving the same commands share a single message. The commands do not
+        // override equals, so the lists are compared by the identity of their elements.
+        Map<List<StateClusteringCommand>, List<Member>> membersByCommands =
+                new LinkedHashMap<List<StateClusteringCommand>, List<Member>>();
+        for (Map.Entry<Member, List<StateClusteringCommand>> entry :
+                commandsByMember.entrySet()) {
+            List<Member> members = membersByCommands.get(entry.getValue());
+            if (members == null) {
+                members = new ArrayList<Member>();
+                membersByCommands.put(entry.getValue(), members);
+            }
+            members.add(entry.getKey());
+        }
+        for (Map.Entry<List<StateClusteringCommand>, List<Member>> entry :
+                membersByCommands.entrySet()) {
+            List<StateClusteringCommand> memberCommands = entry.getKey();
+            ClusteringCommand cmd;
+            if (memberCommands.size() == commands.size()) {
+                cmd = command;
+            } else if (memberCommands.size() == 1) {
+                cmd = memberCommands.get(0);
+            } else {
+                cmd = new StateClusteringCommandCollection(memberCommands);
+            }
+            List<Member> members = entry.getValue();
+            routes.put(cmd, members.toArray(new Member[members.size()]));
+        }
+        return routes;
+    }
+
+    /**
+     * Notify this partitioner that the membership of the group has changed. If the owners of
+     * ServiceGroupContexts held by the local member have changed, their state is sent to the new
+     * owners in the background.
+     */
+    public void membershipChanged() {
+        getView();
+    }
+
+    /**
+     * Set the load of a member of the group. If the weight of the member changes, the owners of
+     * some ServiceGroupContexts change, and their state is sent to the new owners in the
+     * background. The loads of members of other groups, e.g. of the application members
+     * reporting to a load balancer, are ignored.
+     *
+     * @param member The member
+     * @param load   The load reported by the member
+     * @see MemberSelector#setLoad(org.apache.axis2.clustering.Member, double)
+     */
+    public void setMemberLoad(org.apache.axis2.clustering.Member member, double load) {
+        if (!getView().members.contains(member)) {
+            return;
+        }
+        synchronized (this) {
+            if (!memberSelector.setLoad(member, load)) {
+                return;
+            }
+            loadsVersion++;
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Load of member " + member + " changed to " + load);
+        }
+        getView();
+    }
+
+    /**
+     * Set the load of the local member
+     *
+     * @param load The load of the local member
+     */
+    public void setLocalLoad(double load) {
+        setMemberLoad(TribesUtil.toAxis2Member(channel.getLocalMember(true)), load);
+    }
+
+    /**
+     * Check whether a member is one of the owners of a ServiceGroupContext. The member does not
+     * need to be known to the local member yet, so that a member which has just joined the group
+     * can be checked.
+     *
+     * @param serviceGroupContextId The ID of the ServiceGroupContext
+     * @param member                The member
+     * @return true - if the member is the primary member or a backup of the ServiceGroupContext,
+     *         false - otherwise
+     */
+    public boolean isOwner(String serviceGroupContextId, Member member) {
+        View currentView = getView();
+        org.apache.axis2.clustering.Member owner = TribesUtil.toAxis2Member(member);
+        List<org.apache.axis2.clustering.Member> members = currentView.members;
+        if (!members.contains(owner)) {
+            members = new ArrayList<org.apache.axis2.clustering.Member>(members);
+            members.add(owner);
+        }
+        return currentView.selector.select(serviceGroupContextId, members, backups + 1).
+                contains(owner);
+    }
+
+    /**
+     * Stop rebalancing the state
+     */
+    public void shutdown() {
+        rebalancer.shutdownNow();
+    }
+
+    private Member[] getTargets(View currentView, String serviceGroupContextId) {
+        if (serviceGroupContextId == null) {
+            return currentView.remoteMembers;
+        }
+        List<org.apache.axis2.clustering.Member> owners =
+                currentView.selector.select(serviceGroupContextId, currentView.members,
+                                            backups + 1);
+        List<Member> targets = new ArrayList<Member>(owners.size());
+        for (org.apache.axis2.clustering.Member owner : owners) {
+            Member member = currentView.remoteMembersByOwner.get(owner);
+            if (member != null) {
+                targets.add(member);
+            }
+        }
+        return targets.toArray(new Member[targets.size()]);
+    }
+
+    private static String getServiceGroupContextId(ClusteringCommand command) {
+        if (command instanceof UpdateServiceGroupStateCommand) {
+            return ((UpdateServiceGroupStateCommand) command).getServiceGroupContextId();
+        } else if (command instanceof UpdateServiceStateCommand) {
+            return ((UpdateServiceStateCommand) command).getServiceGroupContextId();
+        } else if (command instanceof DeleteServiceGroupStateCommand) {
+            return ((DeleteServiceGroupStateCommand) command).getServiceGroupContextId();
+        } else if (command instanceof DeleteServiceStateCommand) {
+            return ((DeleteServiceStateCommand) command).getServiceGroupContextId();
+        }
+        return null;
+    }
+
+    /**
+     * Get the current view of the group, and start rebalancing if the membership or the weights
+     * of the members have changed since the view was created. Membership changes are detected
+     * here rather than only in the membership listener, since members may also be added by
+     * membership commands.
+     */
+    private View getView() {
+        Member[] remoteMembers = membershipManager.getMembers();
+        View currentView = view;
+        if (currentView != null && currentView.isCurrent(remoteMembers, loadsVersion)) {
+            return currentView;
+        }
+        final View oldView;
+        final View newView;
+        synchronized (this) {
+            remoteMembers = membershipManager.getMembers();
+            if (view != null && view.isCurrent(remoteMembers, loadsVersion)) {
+                return view;
+            }
+            oldView = view;
+            newView = new View(remoteMembers, channel.getLocalMember(true),
+                               new MemberSelector(memberSelector), loadsVersion);
+            if (oldView != null) {
+                for (org.apache.axis2.clustering.Member member : oldView.members) {
+                    if (!newView.members.contains(member)) {
+                        memberSelector.removeMember(member);
+                    }
+                }
+            }
+            view = newView;
+        }
+        if (oldView != null) {
+            // The views are rebalanced one after the other, in the order they were created
+            try {
+                rebalancer.execute(new Runnable() {
+                    public void run() {
+                        rebalance(oldView, newView);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                log.debug("Not rebalancing the state, since the partitioner has been shut down");
+            }
+        }
+        return newView;
+    }
+
+    void rebalance(View oldView, View newView) {
+        ClusteringAgent clusteringAgent =
+                configurationContext.getAxisConfiguration().getClusteringAgent();
+        StateManager stateManager = clusteringAgent == null ? null :
+                                    clusteringAgent.getStateManager();
+        if (stateManager == null) {
+            return;
+        }
+        Map excludedPropPatterns = stateManager.getReplicationExcludePatterns();
+        Map<Member, List<StateClusteringCommand>> pending =
+                new HashMap<Member, List<StateClusteringCommand>>();
+        int transferred = 0;
+        for (String sgCtxID : configurationContext.getServiceGroupContextIDs()) {
+            ServiceGroupContext sgCtx = configurationContext.getServiceGroupContext(sgCtxID);
+            if (sgCtx == null) {
+                continue; // removed in the meantime
+            }
+            List<Member> newOwners = getNewOwners(oldView, newView, sgCtxID);
+            if (newOwners.isEmpty()) {
+                continue;
+            }
+            List<StateClusteringCommand> commands =
+                    getUpdateCommands(sgCtx, excludedPropPatterns);
+            for (Member member : newOwners) {
+                List<StateClusteringCommand> memberCommands = pending.get(member);
+                if (memberCommands == null) {
+                    memberCommands = new ArrayList<StateClusteringCommand>();
+                    pending.put(member, memberCommands);
+                }
+                memberCommands.addAll(commands);
+                if (memberCommands.size() >= MAX_COMMANDS_PER_MESSAGE) {
+                    send(member, memberCommands);
+                    pending.put(member, new ArrayList<StateClusteringCommand>());
+                }
+            }
+            transferred++;
+        }
+        for (Map.Entry<Member, List<StateClusteringCommand>> entry : pending.entrySet()) {
+            if (!entry.getValue().isEmpty()) {
+                send(entry.getKey(), entry.getValue());
+            }
+        }
+        if (transferred > 0) {
+            log.info("Transferred the state of " + transferred +
+                     " ServiceGroupContext(s) to their new owners");
+        }
+    }
+
+    /**
+     * Get the owners of a ServiceGroupContext to which the local member has to send its state,
+     * i.e. the owners which were not owners before the membership changed, if the local member
+     * is responsible for the transfer
+     */
+    List<Member> getNewOwners(View oldView, View newView, String sgCtxID) {
+        List<org.apache.axis2.clustering.Member> oldOwners =
+                oldView.selector.select(sgCtxID, oldView.members, backups + 1);
+        List<org.apache.axis2.clustering.Member> newOwners =
+                newView.selector.select(sgCtxID, newView.members, backups + 1);
+        if (oldOwners.equals(newOwners)) {
+            return Collections.emptyList();
+        }
+
+        // The state is sent by the highest ranked new owner which was an old owner, or if there
+        // is none, by the highest ranked old owner which is still a member. A member which was
+        // already part of the group but not an owner does not hold the state, which happens
+        // when the weights of the members change.
+        org.apache.axis2.clustering.Member transferringMember = null;
+        for (org.apache.axis2.clustering.Member owner : newOwners) {
+            if (oldOwners.contains(owner)) {
+                transferringMember = owner;
+                break;
+            }
+        }
+        if (transferringMember == null) {
+            for (org.apache.axis2.clustering.Member owner : oldOwners) {
+                if (newView.members.contains(owner)) {
+                    transferringMember = owner;
+                    break;
+                }
+            }
+        }
+        if (!newView.localMember.equals(transferringMember)) {
+            return Collections.emptyList();
+        }
+
+        List<Member> targets = new ArrayList<Member>();
+        for (org.apache.axis2.clustering.Member owner : newOwners) {
+            Member member = newView.remoteMembersByOwner.get(owner);
+            if (member != null && !oldOwners.contains(owner)) {
+                targets.add(member);
+            }
+        }
+        return targets;
+    }
+
+    private static List<StateClusteringCommand> getUpdateCommands(ServiceGroupContext sgCtx,
+                                                                  Map excludedPropPatterns) {
+        List<StateClusteringCommand> commands = new ArrayList<StateClusteringCommand>();
+        StateClusteringCommand updateServiceGroupCtxCmd =
+                StateClusteringCommandFactory.getUpdateCommand(sgCtx, excludedPropPatterns, true);
+        if (updateServiceGroupCtxCmd != null) {
+            commands.add(updateServiceGroupCtxCmd);
+        }
+        if (sgCtx.getServiceContexts() != null) {
+            for (Iterator iter = sgCtx.getServiceContexts(); iter.hasNext();) {
+                ServiceContext serviceCtx = (ServiceContext) iter.next();
+                StateClusteringCommand updateServiceCtxCmd =
+                        StateClusteringCommandFactory.getUpdateCommand(serviceCtx,
+                                                                         excludedPropPatterns,
+                                                                         true);
+                if (updateServiceCtxCmd != null) {
+                    commands.add(updateServiceCtxCmd);
+                }
+            }
+        }
+        return commands;
+    }
+
+    void send(Member member, List<StateClusteringCommand> commands) {
+        try {
+            sender.sendToMember(new StateClusteringCommandCollection(commands), member);
+        } catch (ClusteringFault e) {
+            log.error("Could not transfer state to " + TribesUtil.getName(member), e);
+        }
+    }
+
+    /**
+     * The members of the group and their weights at a point in time
+     */
+    static class View {
+        private final Member[] remoteMembers;
+        private final org.apache.axis2.clustering.Member localMember;
+        private final MemberSelector selector;
+        private final int loadsVersion;
+
+        /**
+         * All members including the local member, which are ranked to select the owners
+         */
+        private final List<org.apache.axis2.clustering.Member> members;
+        private final Map<org.apache.axis2.clustering.Member, Member> remoteMembersByOwner;
+
+        /**
+         * @param remoteMembers The members of the group, excluding the local member
+         * @param localMember   The local member
+         * @param selector      The selector holding the weights of the members, which must not
+         *                      be changed afterwards
+         * @param loadsVersion  The version of the weights
+         */
+        View(Member[] remoteMembers, Member localMember, MemberSelector selector,
+             int loadsVersion) {
+            this.remoteMembers = remoteMembers;
+            this.localMember = TribesUtil.toAxis2Member(localMember);
+            this.selector = selector;
+            this.loadsVersion = loadsVersion;
+            members = new ArrayList<org.apache.axis2.clustering.Member>(remoteMembers.length + 1);
+            remoteMembersByOwner =
+                    new HashMap<org.apache.axis2.clustering.Member, Member>(remoteMembers.length);
+            members.add(this.localMember);
+            for (Member member : remoteMembers) {
+                org.apache.axis2.clustering.Member owner = TribesUtil.toAxis2Member(member);
+                members.add(owner);
+                remoteMembersByOwner.put(owner, member);
+            }
+        }
+
+        private boolean isCurrent(Member[] remoteMembers, int loadsVersion) {
+            return this.loadsVersion == loadsVersion &&
+                   Arrays.equals(this.remoteMembers, remoteMembers);
+        }
+    }
+}
@@ -26,6 +26,7 @@ import org.apache.axis2.clustering.*;
 import org.apache.axis2.clustering.control.ControlCommand;
 import org.apache.axis2.clustering.control.GetConfigurationCommand;
 import org.apache.axis2.clustering.control.GetStateCommand;
+import org.apache.axis2.clustering.control.GetStateResponseCommand;
 import org.apache.axis2.clustering.management.DefaultGroupManagementAgent;
 import org.apache.axis2.clustering.management.DefaultNodeManager;
 import org.apache.axis2.clustering.management.GroupManagementAgent;
@@ -78,6 +79,9 @@ import java.util.Set;
 public class TribesClusteringAgent implements ClusteringAgent {
 
     private static final Log log = LogFactory.getLog(TribesClusteringAgent.class);
+
+    private static final int DEFAULT_STATE_TRANSFER_PAGE_SIZE = 500;
+
     public static final String DEFAULT_SUB_DOMAIN = "__$default";
 
     private DefaultNodeManager configurationManager;
@@ -201,8 +205,10 @@ public class TribesClusteringAgent implements ClusteringAgent {
         channel.addInterceptor(coordinator);
         channel.setHeartbeat(true);
         channelSender = new ChannelSender(channel, primaryMembershipManager, synchronizeAllMembers());
+        channelSender.setBinaryEncoding(binaryCommandEncoding());
         axis2ChannelListener =
                 new Axis2ChannelListener(configurationContext, configurationManager, contextManager);
+        axis2ChannelListener.setChannelSender(channelSender);
         channel.addChannelListener(axis2ChannelListener);
 
         byte[] domain = getClusterDomain();
@@ -234,6 +240,17 @@ public class TribesClusteringAgent implements ClusteringAgent {
         setMemberInfo();
 
         TribesMembershipListener membershipListener = new TribesMembershipListener(primaryMembershipManager);
+        int replicationBackupCount = getReplicationBackupCount();
+        if (replicationBackupCount > 0) {
+            StatePartitioner statePartitioner =
+                    new StatePartitioner(channel, primaryMembershipManager, channelSender,
+                                         configurationContext, replicationBackupCount);
+            channelSender.setStatePartitioner(statePartitioner);
+            membershipListener.setStatePartitioner(statePartitioner);
+            rpcInitRequestHandler.setStatePartitioner(statePartitioner);
+            log.info("Replicating the state of each ServiceGroupContext to " +
+                     replicationBackupCount + " backup member(s)");
+        }
         channel.addMembershipListener(membershipListener);
         try {
             channel.start(Channel.DEFAULT); // At this point, this member joins the group
@@ -266,7 +283,7 @@ public class TribesClusteringAgent implements ClusteringAgent {
         if (contextManager != null) {
             contextManager.setSender(channelSender);
             axis2ChannelListener.setStateManager(contextManager);
-            initializeSystem(new GetStateCommand());
+            initializeState();
             ClusteringContextListener contextListener = new ClusteringContextListener(channelSender);
             configurationContext.addContextListener(contextListener);
         }
@@ -533,10 +550,16 @@ public class TribesClusteringAgent implements ClusteringAgent {
     private void configureMode(byte[] domain) {
         if (clusterManagementMode) {
             mode = new ClusterManagementMode(domain, groupManagementAgents, primaryMembershipManager);
+            long loadPollInterval = getMemberLoadPollInterval();
             for (Map<String, GroupManagementAgent> agents : groupManagementAgents.values()) {
                 for (GroupManagementAgent agent : agents.values()) {
                     if (agent instanceof DefaultGroupManagementAgent) {
-                        ((DefaultGroupManagementAgent) agent).setSender(channelSender);
+                        DefaultGroupManagementAgent defaultAgent =
+                                (DefaultGroupManagementAgent) agent;
+                        defaultAgent.setSender(channelSender);
+                        if (loadPollInterval > 0) {
+                            defaultAgent.startLoadPolling(loadPollInterval);
+                        }
                     }
                 }
             }
@@ -716,9 +739,10 @@ public class TribesClusteringAgent implements ClusteringAgent {
      * rpcInitChannel is The utility for sending RPC style messages to the channel
      *
      * @param command The control command to send
+     * @return The response which has been executed, or null if no response has been received
      * @throws ClusteringFault If initialization code failed on this node
      */
-    private void initializeSystem(ControlCommand command) throws ClusteringFault {
+    private ControlCommand initializeSystem(ControlCommand command) throws ClusteringFault {
         // If there is at least one member in the cluster,
         //  get the current initialization info from a member
         int numberOfTries = 0; // Don't keep on trying indefinitely
@@ -729,7 +753,7 @@ public class TribesClusteringAgent implements ClusteringAgent {
         sentMembersList.add(TribesUtil.getLocalHost(channel));
         Member[] members = primaryMembershipManager.getMembers();
         if (members.length == 0) {
-            return;
+            return null;
         }
 
         while (members.length > 0 && numberOfTries < 5) {
@@ -758,8 +782,9 @@ public class TribesClusteringAgent implements ClusteringAgent {
 //                    }
 //                    while (responses.length == 0 || responses[0] == null || responses[0].getMessage() == null);    // TODO: #### We will need to check this 
                     if (responses.length != 0 && responses[0] != null && responses[0].getMessage() != null) {
-                        ((ControlCommand) responses[0].getMessage()).execute(configurationContext); // Do the initialization
-                        break;
+                        ControlCommand response = (ControlCommand) responses[0].getMessage();
+                        response.execute(configurationContext); // Do the initialization
+                        return response;
                     }
                 }
             } catch (Exception e) {
@@ -778,6 +803,84 @@ public class TribesClusteringAgent implements ClusteringAgent {
                 break;
             }
         }
+        return null;
+    }
+
+    /**
+     * Get the state from a neighbour, one page at a time. Each page is applied as soon as it has
+     * been received. If a member fails to send a page, the transfer resumes from the last page
+     * received with another member.
+     *
+     * @throws ClusteringFault If initialization code failed on this node
+     */
+    private void initializeState() throws ClusteringFault {
+        int pageSize = getStateTransferPageSize();
+        String cursor = null;
+        int pages = 0;
+        while (true) {
+            GetStateCommand command = new GetStateCommand();
+            command.setCursor(cursor);
+            command.setMaxContexts(pageSize);
+            ControlCommand response = initializeSystem(command);
+            if (!(response instanceof GetStateResponseCommand)) {
+                if (pages > 0) {
+                    log.warn("State initialization incomplete; could not get the state after " +
+                             pages + " page(s)");
+                }
+                return;
+            }
+            GetStateResponseCommand stateResponse = (GetStateResponseCommand) response;
+            pages++;
+            if (stateResponse.isComplete() || stateResponse.getNextCursor() == null) {
+                if (log.isDebugEnabled()) {
+                    log.debug("Received the state in " + pages + " page(s)");
+                }
+                return;
+            }
+            cursor = stateResponse.getNextCursor();
+        }
+    }
+
+    private int getReplicationBackupCount() {
+        Parameter backupCountParam =
+                getParameter(ClusteringConstants.Parameters.REPLICATION_BACKUP_COUNT);
+        if (backupCountParam != null) {
+            try {
+                return Integer.parseInt(((String) backupCountParam.getValue()).trim());
+            } catch (NumberFormatException e) {
+                log.warn("Invalid " + ClusteringConstants.Parameters.REPLICATION_BACKUP_COUNT +
+                         " parameter value: " + backupCountParam.getValue());
+            }
+        }
+        return 0;
+    }
+
+    private long getMemberLoadPollInterval() {
+        Parameter intervalParam =
+                getParameter(ClusteringConstants.Parameters.MEMBER_LOAD_POLL_INTERVAL);
+        if (intervalParam != null) {
+            try {
+                return Long.parseLong(((String) intervalParam.getValue()).trim());
+            } catch (NumberFormatException e) {
+                log.warn("Invalid " + ClusteringConstants.Parameters.MEMBER_LOAD_POLL_INTERVAL +
+                         " parameter value: " + intervalParam.getValue());
+            }
+        }
+        return 0;
+    }
+
+    private int getStateTransferPageSize() {
+        Parameter pageSizeParam =
+                getParameter(ClusteringConstants.Parameters.STATE_TRANSFER_PAGE_SIZE);
+        if (pageSizeParam != null) {
+            try {
+                return Integer.parseInt(((String) pageSizeParam.getValue()).trim());
+            } catch (NumberFormatException e) {
+                log.warn("Invalid " + ClusteringConstants.Parameters.STATE_TRANSFER_PAGE_SIZE +
+                         " parameter value: " + pageSizeParam.getValue());
+            }
+        }
+        return DEFAULT_STATE_TRANSFER_PAGE_SIZE;
     }
 
     public void setNodeManager(NodeManager nodeManager) {
@@ -826,6 +929,20 @@ public class TribesClusteringAgent implements ClusteringAgent {
      */
     public void shutdown() throws ClusteringFault {
         log.debug("Enter: TribesClusteringAgent::shutdown");
+        if (contextManager != null) {
+            // Send the state replication commands which are still queued
+            contextManager.shutdown();
+        }
+        for (Map<String, GroupManagementAgent> agents : groupManagementAgents.values()) {
+            for (GroupManagementAgent agent : agents.values()) {
+                if (agent instanceof DefaultGroupManagementAgent) {
+                    ((DefaultGroupManagementAgent) agent).stopLoadPolling();
+                }
+            }
+        }
+        if (channelSender != null && channelSender.getStatePartitioner() != null) {
+            channelSender.getStatePartitioner().shutdown();
+        }
         if (channel != null) {
             try {
                 channel.removeChannelListener(rpcInitChannel);
@@ -875,5 +992,19 @@ public class TribesClusteringAgent implements ClusteringAgent {
         Parameter syncAllParam = getParameter(ClusteringConstants.Parameters.SYNCHRONIZE_ALL_MEMBERS);
         return syncAllParam == null || Boolean.parseBoolean((String) syncAllParam.getValue());
     }
+
+    /**
+     * Method to check whether the built-in commands have to be sent in the compact binary
+     * format instead of being serialized. This is disabled by default, because members of
+     * older versions can only receive serialized commands.
+     *
+     * @return true - if the binary command encoding has been enabled, false otherwise
+     */
+    private boolean binaryCommandEncoding() {
+        Parameter binaryEncodingParam =
+                getParameter(ClusteringConstants.Parameters.BINARY_COMMAND_ENCODING);
+        return binaryEncodingParam != null &&
+               Boolean.parseBoolean(((String) binaryEncodingParam.getValue()).trim());
+    }
 }
     
\ No newline at end of file
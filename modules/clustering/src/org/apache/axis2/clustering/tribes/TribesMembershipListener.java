@@ -31,14 +31,26 @@ public class TribesMembershipListener implements MembershipListener {
 
     private static Log log = LogFactory.getLog(TribesMembershipListener.class);
     private final MembershipManager membershipManager;
+    private StatePartitioner statePartitioner;
 
     public TribesMembershipListener(MembershipManager membershipManager) {
         this.membershipManager = membershipManager;
     }
 
+    /**
+     * @param statePartitioner The partitioner which rebalances the ownership of the state when
+     *                         the membership changes
+     */
+    public void setStatePartitioner(StatePartitioner statePartitioner) {
+        this.statePartitioner = statePartitioner;
+    }
+
     public void memberAdded(Member member) {
         if (membershipManager.memberAdded(member)) {
             log.info("New member " + TribesUtil.getName(member) + " joined cluster.");
+            if (statePartitioner != null) {
+                statePartitioner.membershipChanged();
+            }
             /*if (TribesUtil.toAxis2Member(member).isActive()) {
             } else {
             }*/
@@ -49,6 +61,9 @@ public class TribesMembershipListener implements MembershipListener {
     public void memberDisappeared(Member member) {
         log.info("Member " + TribesUtil.getName(member) + " left cluster");
         membershipManager.memberDisappeared(member);
+        if (statePartitioner != null) {
+            statePartitioner.membershipChanged();
+        }
 
 //        System.err.println("++++++ IS COORD="+TribesClusteringAgent.nbc.isCoordinator());
         
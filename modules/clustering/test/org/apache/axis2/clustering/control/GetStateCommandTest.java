@@ -0,0 +1,134 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.clustering.control;
+
+import junit.framework.TestCase;
+import org.apache.axis2.clustering.state.DefaultStateManager;
+import org.apache.axis2.clustering.state.StateClusteringCommand;
+import org.apache.axis2.clustering.state.commands.UpdateConfigurationStateCommand;
+import org.apache.axis2.clustering.state.commands.UpdateServiceGroupStateCommand;
+import org.apache.axis2.clustering.tribes.TribesClusteringAgent;
+import org.apache.axis2.context.ConfigurationContext;
+import org.apache.axis2.context.ServiceGroupContext;
+import org.apache.axis2.description.AxisServiceGroup;
+import org.apache.axis2.engine.AxisConfiguration;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ *
+ */
+public class GetStateCommandTest extends TestCase {
+
+    private ConfigurationContext configCtx;
+
+    protected void setUp() throws Exception {
+        AxisConfiguration axisConfig = new AxisConfiguration();
+        configCtx = new ConfigurationContext(axisConfig);
+        TribesClusteringAgent clusteringAgent = new TribesClusteringAgent();
+        clusteringAgent.setStateManager(new DefaultStateManager());
+        axisConfig.setClusteringAgent(clusteringAgent);
+        configCtx.setProperty("configProperty", "value");
+
+        AxisServiceGroup axisServiceGroup = new AxisServiceGroup(axisConfig);
+        axisServiceGroup.setServiceGroupName("testServiceGroup");
+        for (int i = 0; i < 25; i++) {
+            ServiceGroupContext sgCtx = new ServiceGroupContext(configCtx, axisServiceGroup);
+            sgCtx.setId("sgCtx" + (i < 10 ? "0" : "") + i);
+            sgCtx.setProperty("property", Integer.valueOf(i));
+            configCtx.addServiceGroupContextIntoSoapSessionTable(sgCtx);
+        }
+    }
+
+    public void testCompleteState() throws Exception {
+        GetStateCommand command = new GetStateCommand();
+        command.execute(configCtx);
+        assertTrue(command.isComplete());
+        assertNull(command.getNextCursor());
+        assertEquals(26, command.getCommands().length);
+    }
+
+    public void testPages() throws Exception {
+        Set<String> received = new HashSet<String>();
+        String cursor = null;
+        int pages = 0;
+        boolean configReceived = false;
+        while (true) {
+            GetStateCommand command = new GetStateCommand();
+            command.setCursor(cursor);
+            command.setMaxContexts(10);
+            command.execute(configCtx);
+            pages++;
+            String last = null;
+            for (StateClusteringCommand cmd : command.getCommands()) {
+                if (cmd instanceof UpdateConfigurationStateCommand) {
+                    assertEquals(1, pages);
+                    configReceived = true;
+                } else {
+                    String id = ((UpdateServiceGroupStateCommand) cmd).getServiceGroupContextId();
+                    assertTrue(received.add(id));
+                    assertTrue(cursor == null || id.compareTo(cursor) > 0);
+                    last = id;
+                }
+            }
+            if (command.isComplete()) {
+                assertNull(command.getNextCursor());
+                break;
+            }
+            assertEquals(last, command.getNextCursor());
+            cursor = command.getNextCursor();
+        }
+        assertEquals(3, pages);
+        assertEquals(25, received.size());
+        assertTrue(configReceived);
+    }
+
+    public void testSerializedForm() throws Exception {
+        // The serialVersionUIDs of the versions without paging
+        assertEquals(-4672184607931422994L,
+                     ObjectStreamClass.lookup(GetStateCommand.class).getSerialVersionUID());
+        assertEquals(-6386279311401107461L,
+                     ObjectStreamClass.lookup(GetStateResponseCommand.class).getSerialVersionUID());
+
+        // A response without paging information is complete
+        assertTrue(new GetStateResponseCommand().isComplete());
+
+        GetStateResponseCommand response = new GetStateResponseCommand();
+        response.setComplete(false);
+        response.setNextCursor("sgCtx09");
+        response = (GetStateResponseCommand) copy(response);
+        assertFalse(response.isComplete());
+        assertEquals("sgCtx09", response.getNextCursor());
+    }
+
+    private static Object copy(Object object) throws Exception {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(baos);
+        out.writeObject(object);
+        out.close();
+        return new ObjectInputStream(new ByteArrayInputStream(baos.toByteArray())).readObject();
+    }
+}
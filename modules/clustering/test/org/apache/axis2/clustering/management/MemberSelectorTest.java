@@ -0,0 +1,133 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axis2.clustering.management;
+
+import junit.framework.TestCase;
+import org.apache.axis2.clustering.Member;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ *
+ */
+public class MemberSelectorTest extends TestCase {
+
+    private static final int KEYS = 10000;
+
+    private static List<Member> createMembers(int count) {
+        List<Member> members = new ArrayList<Member>();
+        for (int i = 0; i < count; i++) {
+            members.add(new Member("10.0.0." + i, 4000));
+        }
+        return members;
+    }
+
+    private static Map<String, Member> owners(MemberSelector selector, List<Member> members) {
+        Map<String, Member> owners = new HashMap<String, Member>();
+        for (int i = 0; i < KEYS; i++) {
+            String key = "urn:uuid:" + i;
+            owners.put(key, selector.select(key, members, 1).get(0));
+        }
+        return owners;
+    }
+
+    public void testSticky() {
+        MemberSelector selector = new MemberSelector();
+        List<Member> members = createMembers(4);
+        Member owner = selector.select("urn:uuid:1", members, 1).get(0);
+        for (int i = 0; i < 10; i++) {
+            assertEquals(owner, selector.select("urn:uuid:1", createMembers(4), 1).get(0));
+        }
+    }
+
+    public void testBalanced() {
+        MemberSelector selector = new MemberSelector();
+        List<Member> members = createMembers(4);
+        Map<Member, Integer> counts = new HashMap<Member, Integer>();
+        for (Member owner : owners(selector, members).values()) {
+            Integer count = counts.get(owner);
+            counts.put(owner, count == null ? 1 : count + 1);
+        }
+        assertEquals(4, counts.size());
+        for (Integer count : counts.values()) {
+            assertTrue(count > KEYS / 4 * 0.9 && count < KEYS / 4 * 1.1);
+        }
+    }
+
+    public void testMemberLeft() {
+        MemberSelector selector = new MemberSelector();
+        List<Member> members = createMembers(5);
+        Map<String, Member> before = owners(selector, members);
+        Member removed = members.remove(2);
+        Map<String, Member> after = owners(selector, members);
+        for (Map.Entry<String, Member> entry : before.entrySet()) {
+            if (!entry.getValue().equals(removed)) {
+                assertEquals(entry.getValue(), after.get(entry.getKey()));
+            }
+        }
+    }
+
+    public void testBackups() {
+        MemberSelector selector = new MemberSelector();
+        List<Member> members = createMembers(5);
+        List<Member> selected = selector.select("urn:uuid:1", members, 3);
+        assertEquals(3, selected.size());
+        assertEquals(selector.select("urn:uuid:1", members, 1).get(0), selected.get(0));
+        // The first backup takes over if the owner leaves
+        members.remove(selected.get(0));
+        assertEquals(selected.get(1), selector.select("urn:uuid:1", members, 1).get(0));
+        assertEquals(4, selector.select("urn:uuid:1", members, 10).size());
+    }
+
+    public void testInactiveMembersSkipped() {
+        MemberSelector selector = new MemberSelector();
+        List<Member> members = createMembers(3);
+        Member owner = selector.select("urn:uuid:1", members, 1).get(0);
+        owner.setActive(false);
+        Member newOwner = selector.select("urn:uuid:1", members, 1).get(0);
+        assertFalse(owner.equals(newOwner));
+        members.get(0).setActive(false);
+        members.get(1).setActive(false);
+        members.get(2).setActive(false);
+        assertTrue(selector.select("urn:uuid:1", members, 1).isEmpty());
+    }
+
+    public void testLoad() {
+        MemberSelector selector = new MemberSelector();
+        List<Member> members = createMembers(2);
+        // Small changes are ignored
+        assertFalse(selector.setLoad(members.get(0), 0.1));
+        assertEquals(0.0, selector.getLoad(members.get(0)), 0);
+        assertTrue(selector.setLoad(members.get(0), 3));
+        Map<String, Member> owners = owners(selector, members);
+        int loaded = 0;
+        for (Member owner : owners.values()) {
+            if (owner.equals(members.get(0))) {
+                loaded++;
+            }
+        }
+        // Weight 1/4 against 1, i.e. about a fifth of the keys
+        assertTrue(loaded > KEYS * 0.15 && loaded < KEYS * 0.25);
+        selector.removeMember(members.get(0));
+        assertEquals(0.0, selector.getLoad(members.get(0)), 0);
+    }
+}
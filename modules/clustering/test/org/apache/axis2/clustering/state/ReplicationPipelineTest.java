@@ -0,0 +1,123 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.clustering.state;
+
+import junit.framework.TestCase;
+import org.apache.axis2.clustering.ClusteringCommand;
+import org.apache.axis2.clustering.ClusteringFault;
+import org.apache.axis2.clustering.state.commands.DeleteServiceStateCommand;
+import org.apache.axis2.clustering.state.commands.StateClusteringCommandCollection;
+import org.apache.axis2.clustering.state.commands.UpdateConfigurationStateCommand;
+import org.apache.axis2.clustering.tribes.ChannelSender;
+import org.apache.axis2.context.AbstractContext;
+import org.apache.axis2.context.ConfigurationContext;
+import org.apache.axis2.context.PropertyDifference;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ *
+ */
+public class ReplicationPipelineTest extends TestCase {
+
+    private static class RecordingSender extends ChannelSender {
+        private final List<ClusteringCommand> commands = new ArrayList<ClusteringCommand>();
+        private final List<Boolean> acks = new ArrayList<Boolean>();
+
+        RecordingSender() {
+            super(null, null, false);
+        }
+
+        public synchronized void sendToGroup(ClusteringCommand msg,
+                                             boolean waitForAck) throws ClusteringFault {
+            commands.add(msg);
+            acks.add(Boolean.valueOf(waitForAck));
+        }
+    }
+
+    private static class TestUpdateCommand extends UpdateConfigurationStateCommand {
+        TestUpdateCommand(String key, Object value) {
+            addProperty(new PropertyDifference(key, value, false));
+        }
+    }
+
+    private static AbstractContext newContext() {
+        return new AbstractContext() {
+            public ConfigurationContext getRootContext() {
+                return null;
+            }
+        };
+    }
+
+    public void testCoalescing() throws Exception {
+        RecordingSender sender = new RecordingSender();
+        ReplicationPipeline pipeline = new ReplicationPipeline(sender, true, 10000, 100);
+        AbstractContext context1 = newContext();
+        AbstractContext context2 = newContext();
+        TestUpdateCommand update1 = new TestUpdateCommand("a", "1");
+        TestUpdateCommand update2 = new TestUpdateCommand("a", "2");
+        update2.addProperty(new PropertyDifference("b", "3", false));
+        TestUpdateCommand update3 = new TestUpdateCommand("c", "4");
+        DeleteServiceStateCommand delete = new DeleteServiceStateCommand();
+        TestUpdateCommand update4 = new TestUpdateCommand("a", "5");
+
+        // Queue the commands before the sender thread is started, so that they are sent together
+        pipeline.add(context1, update1);
+        pipeline.add(context2, update3);
+        pipeline.add(context1, update2);
+        pipeline.add(null, delete);
+        pipeline.add(context1, update4);
+        pipeline.start();
+        pipeline.stop();
+
+        assertEquals(1, sender.commands.size());
+        assertEquals(Boolean.TRUE, sender.acks.get(0));
+        List<StateClusteringCommand> commands =
+                ((StateClusteringCommandCollection) sender.commands.get(0)).getCommands();
+        assertEquals(4, commands.size());
+        assertSame(update1, commands.get(0));
+        assertSame(update3, commands.get(1));
+        assertSame(delete, commands.get(2));
+        assertSame(update4, commands.get(3));
+        assertEquals(2, update1.getProperties().size());
+        assertEquals("2", ((PropertyDifference) update1.getProperties().get("a")).getValue());
+        assertEquals("3", ((PropertyDifference) update1.getProperties().get("b")).getValue());
+        assertEquals(1, update4.getProperties().size());
+    }
+
+    public void testSendAfterStop() throws Exception {
+        RecordingSender sender = new RecordingSender();
+        ReplicationPipeline pipeline = new ReplicationPipeline(sender, false, 0, 100);
+        pipeline.start();
+        TestUpdateCommand update = new TestUpdateCommand("a", "1");
+        pipeline.add(newContext(), update);
+        pipeline.flush();
+        assertEquals(1, sender.commands.size());
+        assertSame(update, sender.commands.get(0));
+        assertEquals(Boolean.FALSE, sender.acks.get(0));
+
+        pipeline.stop();
+        DeleteServiceStateCommand delete = new DeleteServiceStateCommand();
+        pipeline.add(null, delete);
+        assertEquals(2, sender.commands.size());
+        assertSame(delete, sender.commands.get(1));
+    }
+}
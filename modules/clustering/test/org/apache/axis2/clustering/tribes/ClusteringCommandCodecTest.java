@@ -0,0 +1,197 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.clustering.tribes;
+
+import junit.framework.TestCase;
+import org.apache.axis2.clustering.ClusteringFault;
+import org.apache.axis2.clustering.TestDO;
+import org.apache.axis2.clustering.state.StateClusteringCommand;
+import org.apache.axis2.clustering.state.commands.DeleteServiceGroupStateCommand;
+import org.apache.axis2.clustering.state.commands.StateClusteringCommandCollection;
+import org.apache.axis2.clustering.state.commands.UpdateConfigurationStateCommand;
+import org.apache.axis2.clustering.state.commands.UpdateServiceGroupStateCommand;
+import org.apache.axis2.clustering.state.commands.UpdateServiceStateCommand;
+import org.apache.axis2.context.ConfigurationContext;
+import org.apache.axis2.context.PropertyDifference;
+
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.io.StreamCorruptedException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ *
+ */
+public class ClusteringCommandCodecTest extends TestCase {
+
+    private static final ClassLoader[] CLASS_LOADERS =
+            new ClassLoader[]{ClusteringCommandCodecTest.class.getClassLoader()};
+
+    public static class CustomCommand extends StateClusteringCommand {
+        private String value;
+
+        public CustomCommand(String value) {
+            this.value = value;
+        }
+
+        public void execute(ConfigurationContext configContext) throws ClusteringFault {
+        }
+    }
+
+    private static Serializable roundTrip(StateClusteringCommand command) throws Exception {
+        return ClusteringCommandCodec.decode(ClusteringCommandCodec.encode(command), CLASS_LOADERS);
+    }
+
+    public void testUpdateCommands() throws Exception {
+        StringBuffer largeValue = new StringBuffer();
+        for (int i = 0; i < 1000; i++) {
+            largeValue.append("value");
+        }
+        UpdateServiceGroupStateCommand sgCmd = new UpdateServiceGroupStateCommand();
+        sgCmd.setServiceGroupName("sg");
+        sgCmd.setServiceGroupContextId("urn:uuid:1234");
+        sgCmd.addProperty(new PropertyDifference("string", "\u00e9t\u00e9", false));
+        sgCmd.addProperty(new PropertyDifference("int", Integer.valueOf(-42), false));
+        sgCmd.addProperty(new PropertyDifference("long", Long.valueOf(Long.MIN_VALUE), false));
+        sgCmd.addProperty(new PropertyDifference("bool", Boolean.TRUE, false));
+        sgCmd.addProperty(new PropertyDifference("bytes", new byte[]{1, 2, 3}, false));
+        sgCmd.addProperty(new PropertyDifference("object", new TestDO("name", "value"), false));
+        sgCmd.addProperty(new PropertyDifference("large", largeValue.toString(), false));
+        sgCmd.addProperty(new PropertyDifference("null", null, false));
+        sgCmd.addProperty(new PropertyDifference("removed", null, true));
+
+        UpdateServiceStateCommand serviceCmd = new UpdateServiceStateCommand();
+        serviceCmd.setServiceGroupName("sg");
+        serviceCmd.setServiceGroupContextId("urn:uuid:1234");
+        serviceCmd.setServiceName("service");
+        serviceCmd.addProperty(new PropertyDifference("string", "value", false));
+
+        UpdateConfigurationStateCommand configCmd = new UpdateConfigurationStateCommand();
+        configCmd.isPropertiesEmpty();
+
+        DeleteServiceGroupStateCommand deleteCmd = new DeleteServiceGroupStateCommand();
+        deleteCmd.setServiceGroupContextId("urn:uuid:1234");
+
+        List<StateClusteringCommand> commands = new ArrayList<StateClusteringCommand>();
+        commands.add(sgCmd);
+        commands.add(serviceCmd);
+        commands.add(configCmd);
+        commands.add(deleteCmd);
+        commands.add(new CustomCommand("custom"));
+        StateClusteringCommandCollection collection =
+                new StateClusteringCommandCollection(commands);
+
+        byte[] encoded = ClusteringCommandCodec.encode(collection);
+        // The large value must have been compressed
+        assertTrue(encoded.length < largeValue.length());
+
+        List<StateClusteringCommand> decoded =
+                ((StateClusteringCommandCollection) ClusteringCommandCodec.decode(encoded,
+                                                                                  CLASS_LOADERS))
+                        .getCommands();
+        assertEquals(5, decoded.size());
+
+        UpdateServiceGroupStateCommand sgCmd2 = (UpdateServiceGroupStateCommand) decoded.get(0);
+        assertEquals("sg", sgCmd2.getServiceGroupName());
+        assertEquals("urn:uuid:1234", sgCmd2.getServiceGroupContextId());
+        Map properties = sgCmd2.getProperties();
+        assertEquals(9, properties.size());
+        assertEquals("\u00e9t\u00e9", getValue(properties, "string"));
+        assertEquals(Integer.valueOf(-42), getValue(properties, "int"));
+        assertEquals(Long.valueOf(Long.MIN_VALUE), getValue(properties, "long"));
+        assertEquals(Boolean.TRUE, getValue(properties, "bool"));
+        assertTrue(Arrays.equals(new byte[]{1, 2, 3}, (byte[]) getValue(properties, "bytes")));
+        assertEquals("value", ((TestDO) getValue(properties, "object")).getValue());
+        assertEquals(largeValue.toString(), getValue(properties, "large"));
+        assertNull(getValue(properties, "null"));
+        assertFalse(((PropertyDifference) properties.get("null")).isRemoved());
+        assertTrue(((PropertyDifference) properties.get("removed")).isRemoved());
+
+        UpdateServiceStateCommand serviceCmd2 = (UpdateServiceStateCommand) decoded.get(1);
+        assertEquals("sg", serviceCmd2.getServiceGroupName());
+        assertEquals("urn:uuid:1234", serviceCmd2.getServiceGroupContextId());
+        assertEquals("service", serviceCmd2.getServiceName());
+        assertEquals("value", getValue(serviceCmd2.getProperties(), "string"));
+
+        assertTrue(((UpdateConfigurationStateCommand) decoded.get(2)).isPropertiesEmpty());
+        assertEquals("urn:uuid:1234",
+                     ((DeleteServiceGroupStateCommand) decoded.get(3)).getServiceGroupContextId());
+        assertEquals("custom", ((CustomCommand) decoded.get(4)).value);
+    }
+
+    public void testSerializedCommand() throws Exception {
+        byte[] encoded = ClusteringCommandCodec.encode(new CustomCommand("custom"));
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bos);
+        out.writeObject(new CustomCommand("custom"));
+        out.close();
+        assertTrue(Arrays.equals(bos.toByteArray(), encoded));
+        assertEquals("custom", ((CustomCommand) roundTrip(new CustomCommand("custom"))).value);
+    }
+
+    public void testSmallerThanSerialization() throws Exception {
+        UpdateServiceGroupStateCommand cmd = new UpdateServiceGroupStateCommand();
+        cmd.setServiceGroupName("sg");
+        cmd.setServiceGroupContextId("urn:uuid:1234");
+        cmd.addProperty(new PropertyDifference("key", "value", false));
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bos);
+        out.writeObject(cmd);
+        out.close();
+        assertTrue(ClusteringCommandCodec.encode(cmd).length * 10 < bos.size());
+    }
+
+    public void testTruncatedMessage() throws Exception {
+        UpdateServiceGroupStateCommand cmd = new UpdateServiceGroupStateCommand();
+        cmd.setServiceGroupName("sg");
+        cmd.setServiceGroupContextId("urn:uuid:1234");
+        cmd.addProperty(new PropertyDifference("key", "value", false));
+        byte[] encoded = ClusteringCommandCodec.encode(cmd);
+        byte[] truncated = new byte[encoded.length - 1];
+        System.arraycopy(encoded, 0, truncated, 0, truncated.length);
+        try {
+            ClusteringCommandCodec.decode(truncated, CLASS_LOADERS);
+            fail("Expected StreamCorruptedException");
+        } catch (StreamCorruptedException e) {
+            // Expected
+        }
+    }
+
+    public void testInvalidCompressedValueLength() throws Exception {
+        // An UpdateConfigurationStateCommand with a single compressed string value, which claims
+        // to inflate to 2GB
+        byte[] message = {(byte) 0xA2, 1, 2, 1, 1, 1, 'k', (byte) 0x81,
+                          (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07, 1, 0};
+        try {
+            ClusteringCommandCodec.decode(message, CLASS_LOADERS);
+            fail("Expected StreamCorruptedException");
+        } catch (StreamCorruptedException e) {
+            // Expected
+        }
+    }
+
+    private static Object getValue(Map properties, String key) {
+        return ((PropertyDifference) properties.get(key)).getValue();
+    }
+}
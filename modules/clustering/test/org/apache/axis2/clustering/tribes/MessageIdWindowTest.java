@@ -0,0 +1,95 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.clustering.tribes;
+
+import junit.framework.TestCase;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ *
+ */
+public class MessageIdWindowTest extends TestCase {
+
+    private static byte[] id(int i) {
+        return new byte[]{(byte) (i >> 8), (byte) i, 1, 2};
+    }
+
+    public void testDuplicates() {
+        MessageIdWindow window = new MessageIdWindow(1000, 3, 0);
+        assertTrue(window.add(id(1), 0));
+        assertFalse(window.add(id(1), 10));
+        assertTrue(window.add(id(2), 10));
+        assertEquals(2, window.size());
+    }
+
+    public void testExpiry() {
+        MessageIdWindow window = new MessageIdWindow(1000, 3, 0);
+        assertTrue(window.add(id(1), 500));
+        assertTrue(window.add(id(2), 1500));
+        // Still remembered during the following intervals
+        assertFalse(window.add(id(1), 2999));
+        // Dropped with its bucket
+        assertTrue(window.add(id(1), 3000));
+        assertFalse(window.add(id(2), 3000));
+        assertTrue(window.add(id(2), 4000));
+    }
+
+    public void testIdle() {
+        MessageIdWindow window = new MessageIdWindow(1000, 3, 0);
+        for (int i = 0; i < 100; i++) {
+            window.add(id(i), 0);
+        }
+        assertTrue(window.add(id(1), 1000000));
+        assertEquals(1, window.size());
+        assertFalse(window.add(id(1), 1000999));
+        assertTrue(window.add(id(2), 1001000));
+    }
+
+    public void testConcurrentAdd() throws Exception {
+        final MessageIdWindow window = new MessageIdWindow(60000, 4, System.currentTimeMillis());
+        final AtomicInteger added = new AtomicInteger();
+        final CountDownLatch start = new CountDownLatch(1);
+        Thread[] threads = new Thread[8];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread() {
+                public void run() {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (int j = 0; j < 1000; j++) {
+                        if (window.add(id(j), System.currentTimeMillis())) {
+                            added.incrementAndGet();
+                        }
+                    }
+                }
+            };
+            threads[i].start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(1000, added.get());
+    }
+}
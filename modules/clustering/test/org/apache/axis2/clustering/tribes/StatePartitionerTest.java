@@ -0,0 +1,288 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.clustering.tribes;
+
+import junit.framework.TestCase;
+import org.apache.axis2.clustering.ClusteringCommand;
+import org.apache.axis2.clustering.management.MemberSelector;
+import org.apache.axis2.clustering.state.DefaultStateManager;
+import org.apache.axis2.clustering.state.StateClusteringCommand;
+import org.apache.axis2.clustering.state.commands.StateClusteringCommandCollection;
+import org.apache.axis2.clustering.state.commands.UpdateConfigurationStateCommand;
+import org.apache.axis2.clustering.state.commands.UpdateServiceGroupStateCommand;
+import org.apache.axis2.context.ConfigurationContext;
+import org.apache.axis2.context.ServiceGroupContext;
+import org.apache.axis2.description.AxisServiceGroup;
+import org.apache.axis2.engine.AxisConfiguration;
+import org.apache.catalina.tribes.Member;
+import org.apache.catalina.tribes.membership.MemberImpl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ *
+ */
+public class StatePartitionerTest extends TestCase {
+
+    private static final int CONTEXTS = 200;
+
+    private ConfigurationContext configCtx;
+    private Member[] members;
+
+    protected void setUp() throws Exception {
+        AxisConfiguration axisConfig = new AxisConfiguration();
+        configCtx = new ConfigurationContext(axisConfig);
+        TribesClusteringAgent clusteringAgent = new TribesClusteringAgent();
+        clusteringAgent.setStateManager(new DefaultStateManager());
+        axisConfig.setClusteringAgent(clusteringAgent);
+
+        AxisServiceGroup axisServiceGroup = new AxisServiceGroup(axisConfig);
+        axisServiceGroup.setServiceGroupName("testServiceGroup");
+        for (int i = 0; i < CONTEXTS; i++) {
+            ServiceGroupContext sgCtx = new ServiceGroupContext(configCtx, axisServiceGroup);
+            sgCtx.setId("sgCtx" + i);
+            sgCtx.setProperty("property", Integer.valueOf(i));
+            configCtx.addServiceGroupContextIntoSoapSessionTable(sgCtx);
+        }
+
+        members = new Member[5];
+        for (int i = 0; i < members.length; i++) {
+            members[i] = new MemberImpl("10.0.0." + (i + 1), 4000, 1000);
+        }
+    }
+
+    public void testPartition() throws Exception {
+        StatePartitioner partitioner = createPartitioner(1, null);
+        MemberSelector selector = new MemberSelector();
+        StatePartitioner.View view = createView(0, new int[]{0, 1, 2, 3, 4}, selector);
+
+        List<StateClusteringCommand> commands = new ArrayList<StateClusteringCommand>();
+        for (int i = 0; i < CONTEXTS; i++) {
+            UpdateServiceGroupStateCommand cmd = new UpdateServiceGroupStateCommand();
+            cmd.setServiceGroupContextId("sgCtx" + i);
+            commands.add(cmd);
+        }
+        UpdateConfigurationStateCommand configCmd = new UpdateConfigurationStateCommand();
+        commands.add(configCmd);
+
+        Map<Member, Set<StateClusteringCommand>> received =
+                new HashMap<Member, Set<StateClusteringCommand>>();
+        for (Map.Entry<ClusteringCommand, Member[]> route :
+                partitioner.partition(new StateClusteringCommandCollection(commands),
+                                      view).entrySet()) {
+            List<StateClusteringCommand> routed;
+            if (route.getKey() instanceof StateClusteringCommandCollection) {
+                routed = ((StateClusteringCommandCollection) route.getKey()).getCommands();
+            } else {
+                routed = Arrays.asList((StateClusteringCommand) route.getKey());
+            }
+            for (Member member : route.getValue()) {
+                assertFalse(member.equals(members[0]));
+                Set<StateClusteringCommand> memberCommands = received.get(member);
+                if (memberCommands == null) {
+                    memberCommands = new HashSet<StateClusteringCommand>();
+                    received.put(member, memberCommands);
+                }
+                for (StateClusteringCommand cmd : routed) {
+                    assertTrue(memberCommands.add(cmd));
+                }
+            }
+        }
+
+        // Each remote member receives the commands of the contexts it owns, and the commands
+        // which do not belong to a context
+        List<org.apache.axis2.clustering.Member> axis2Members = toAxis2Members(members);
+        for (int i = 1; i < members.length; i++) {
+            Set<StateClusteringCommand> expected = new HashSet<StateClusteringCommand>();
+            for (StateClusteringCommand cmd : commands) {
+                if (cmd == configCmd || selector.select(
+                        ((UpdateServiceGroupStateCommand) cmd).getServiceGroupContextId(),
+                        axis2Members, 2).contains(axis2Members.get(i))) {
+                    expected.add(cmd);
+                }
+            }
+            assertEquals(expected, received.get(members[i]));
+        }
+
+        // A single command is sent to the remote owners of its context
+        List<org.apache.axis2.clustering.Member> owners =
+                selector.select("sgCtx1", axis2Members, 2);
+        Member[] targets = partitioner.partition(commands.get(1), view).get(commands.get(1));
+        assertEquals(owners.contains(axis2Members.get(0)) ? 1 : 2, targets.length);
+        for (Member target : targets) {
+            assertTrue(owners.contains(TribesUtil.toAxis2Member(target)));
+        }
+    }
+
+    public void testGetNewOwnersOnJoin() throws Exception {
+        assertTransfers(new int[]{0, 1, 2, 3}, new MemberSelector(),
+                        new int[]{0, 1, 2, 3, 4}, new MemberSelector());
+    }
+
+    public void testGetNewOwnersOnLeave() throws Exception {
+        assertTransfers(new int[]{0, 1, 2, 3, 4}, new MemberSelector(),
+                        new int[]{0, 1, 3, 4}, new MemberSelector());
+    }
+
+    public void testGetNewOwnersOnLoadChange() throws Exception {
+        MemberSelector newSelector = new MemberSelector();
+        assertTrue(newSelector.setLoad(TribesUtil.toAxis2Member(members[1]), 3));
+        int[] all = new int[]{0, 1, 2, 3, 4};
+        assertTransfers(all, new MemberSelector(), all, newSelector);
+    }
+
+    public void testGetNewOwnersUnchanged() throws Exception {
+        StatePartitioner partitioner = createPartitioner(1, null);
+        int[] all = new int[]{0, 1, 2, 3, 4};
+        for (int i = 0; i < CONTEXTS; i++) {
+            assertTrue(partitioner.getNewOwners(createView(0, all, new MemberSelector()),
+                                                createView(0, all, new MemberSelector()),
+                                                "sgCtx" + i).isEmpty());
+        }
+    }
+
+    public void testRebalance() throws Exception {
+        final Map<Member, Set<String>> sent = new HashMap<Member, Set<String>>();
+        StatePartitioner partitioner = createPartitioner(1, sent);
+        StatePartitioner.View oldView = createView(0, new int[]{0, 1, 2, 3}, new MemberSelector());
+        StatePartitioner.View newView =
+                createView(0, new int[]{0, 1, 2, 3, 4}, new MemberSelector());
+        partitioner.rebalance(oldView, newView);
+
+        Map<Member, Set<String>> expected = new HashMap<Member, Set<String>>();
+        for (int i = 0; i < CONTEXTS; i++) {
+            for (Member member : partitioner.getNewOwners(oldView, newView, "sgCtx" + i)) {
+                assertEquals(members[4], member);
+                Set<String> ids = expected.get(member);
+                if (ids == null) {
+                    ids = new HashSet<String>();
+                    expected.put(member, ids);
+                }
+                ids.add("sgCtx" + i);
+            }
+        }
+        assertFalse(expected.isEmpty());
+        assertEquals(expected, sent);
+    }
+
+    /**
+     * Check that each new owner of a context receives its state exactly once, from a member
+     * which held the state
+     */
+    private void assertTransfers(int[] oldMembers, MemberSelector oldSelector,
+                                 int[] newMembers, MemberSelector newSelector) throws Exception {
+        StatePartitioner partitioner = createPartitioner(1, null);
+        List<org.apache.axis2.clustering.Member> oldAxis2Members =
+                toAxis2Members(select(oldMembers));
+        List<org.apache.axis2.clustering.Member> newAxis2Members =
+                toAxis2Members(select(newMembers));
+        int moved = 0;
+        for (int i = 0; i < CONTEXTS; i++) {
+            String id = "sgCtx" + i;
+            List<org.apache.axis2.clustering.Member> oldOwners =
+                    oldSelector.select(id, oldAxis2Members, 2);
+            List<org.apache.axis2.clustering.Member> newOwners =
+                    newSelector.select(id, newAxis2Members, 2);
+
+            Map<org.apache.axis2.clustering.Member, Integer> received =
+                    new HashMap<org.apache.axis2.clustering.Member, Integer>();
+            for (int local : newMembers) {
+                if (!Arrays.asList(select(oldMembers)).contains(members[local])) {
+                    continue; // a joining member does not rebalance
+                }
+                List<Member> targets =
+                        partitioner.getNewOwners(createView(local, oldMembers, oldSelector),
+                                                 createView(local, newMembers, newSelector), id);
+                if (!targets.isEmpty()) {
+                    assertTrue(oldOwners.contains(TribesUtil.toAxis2Member(members[local])));
+                }
+                for (Member target : targets) {
+                    org.apache.axis2.clustering.Member owner = TribesUtil.toAxis2Member(target);
+                    Integer count = received.get(owner);
+                    received.put(owner, Integer.valueOf(count == null ? 1 : count.intValue() + 1));
+                }
+            }
+
+            Map<org.apache.axis2.clustering.Member, Integer> expected =
+                    new HashMap<org.apache.axis2.clustering.Member, Integer>();
+            for (org.apache.axis2.clustering.Member owner : newOwners) {
+                if (!oldOwners.contains(owner)) {
+                    expected.put(owner, Integer.valueOf(1));
+                }
+            }
+            assertEquals(id, expected, received);
+            moved += expected.size();
+        }
+        assertTrue(moved > 0);
+    }
+
+    private StatePartitioner createPartitioner(int backups, final Map<Member, Set<String>> sent) {
+        ChannelSender sender = new ChannelSender(null, null, false);
+        return new StatePartitioner(null, null, sender, configCtx, backups) {
+            void send(Member member, List<StateClusteringCommand> commands) {
+                Set<String> ids = sent.get(member);
+                if (ids == null) {
+                    ids = new HashSet<String>();
+                    sent.put(member, ids);
+                }
+                for (StateClusteringCommand cmd : commands) {
+                    if (cmd instanceof UpdateServiceGroupStateCommand) {
+                        ids.add(((UpdateServiceGroupStateCommand) cmd).getServiceGroupContextId());
+                    }
+                }
+            }
+        };
+    }
+
+    private StatePartitioner.View createView(int local, int[] groupMembers,
+                                             MemberSelector selector) {
+        List<Member> remoteMembers = new ArrayList<Member>();
+        for (int i : groupMembers) {
+            if (i != local) {
+                remoteMembers.add(members[i]);
+            }
+        }
+        return new StatePartitioner.View(remoteMembers.toArray(new Member[remoteMembers.size()]),
+                                         members[local], selector, 0);
+    }
+
+    private Member[] select(int[] indexes) {
+        Member[] selected = new Member[indexes.length];
+        for (int i = 0; i < indexes.length; i++) {
+            selected[i] = members[indexes[i]];
+        }
+        return selected;
+    }
+
+    private static List<org.apache.axis2.clustering.Member> toAxis2Members(Member[] members) {
+        List<org.apache.axis2.clustering.Member> axis2Members =
+                new ArrayList<org.apache.axis2.clustering.Member>();
+        for (Member member : members) {
+            axis2Members.add(TribesUtil.toAxis2Member(member));
+        }
+        return axis2Members;
+    }
+}
@@ -662,6 +662,21 @@ public class CodeGenConfiguration implements CommandLineOptionConstants {
         isUseOperationName = useOperationName;
     }
 
+    /**
+     * The number of threads used to write the generated files. The models are always built
+     * sequentially; with more than one thread, the templates are applied to them and the
+     * resulting files written concurrently. The generated code is the same in both cases.
+     */
+    private int threads = 1;
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
     public void loadWsdl(String wsdlUri) throws CodeGenerationException {
         try {
             // the redirected urls gives problems in code generation some times with jaxbri
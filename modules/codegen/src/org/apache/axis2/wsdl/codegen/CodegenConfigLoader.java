@@ -314,6 +314,22 @@ public class CodegenConfigLoader implements CommandLineOptionConstants {
         config.setUseOperationName(loadOption(WSDL2JavaConstants.USE_OPERATION_NAME,
                                      WSDL2JavaConstants.USE_OPERATION_NAME_LONG, optionMap) != null);
 
+        commandLineOption = loadOption(null, WSDL2JavaConstants.THREADS_OPTION_LONG, optionMap);
+        if (commandLineOption != null) {
+            String threads = commandLineOption.getOptionValue();
+            int threadCount;
+            try {
+                threadCount = Integer.parseInt(threads);
+            } catch (NumberFormatException e) {
+                threadCount = 0;
+            }
+            if (threadCount < 1) {
+                throw new RuntimeException(
+                        CodegenMessages.getMessage("options.invalidThreads", threads));
+            }
+            config.setThreads(threadCount);
+        }
+
         // loop through the map and find parameters having the extra prefix.
         //put them in the property map
         for (Map.Entry<String,CommandLineOption> entry : optionMap.entrySet()) {
@@ -57,6 +57,7 @@ import org.apache.axis2.wsdl.codegen.writer.SkeletonWriter;
 import org.apache.axis2.wsdl.codegen.writer.TestClassWriter;
 import org.apache.axis2.wsdl.codegen.writer.WSDL11Writer;
 import org.apache.axis2.wsdl.codegen.writer.WSDL20Writer;
+import org.apache.axis2.wsdl.codegen.writer.WriterExecutor;
 import org.apache.axis2.wsdl.databinding.TypeMapper;
 import org.apache.axis2.wsdl.util.Constants;
 import org.apache.axis2.wsdl.util.MessagePartInformationHolder;
@@ -76,6 +77,7 @@ import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Templates;
 import javax.xml.transform.Transformer;
 import javax.xml.transform.TransformerFactory;
 import javax.xml.transform.URIResolver;
@@ -92,6 +94,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Type;
 import java.lang.reflect.ParameterizedType;
@@ -192,6 +195,12 @@ public class AxisServiceBasedMultiLanguageEmitter implements Emitter {
     protected static final Log log = LogFactory.getLog(AxisServiceBasedMultiLanguageEmitter.class);
     protected URIResolver resolver;
 
+    // the templates compiled with the resolver, keyed by template name
+    protected Map<String,Templates> templatesCache = new HashMap<String,Templates>();
+
+    // executes the XSLT transformations if code generation uses more than one thread
+    protected WriterExecutor writerExecutor;
+
     // this is used to keep the current service infoHolder
     protected Map infoHolder;
     // this is used to keep infoHolders for all services
@@ -239,6 +248,7 @@ public class AxisServiceBasedMultiLanguageEmitter implements Emitter {
         this.axisEndpoint = axisService.getEndpoint(axisService.getEndpointName());
         this.axisBinding = axisEndpoint.getBinding();
         resolver = new XSLTIncludeResolver(codeGenConfiguration);
+        templatesCache.clear();
     }
 
     /**
@@ -441,6 +451,7 @@ public class AxisServiceBasedMultiLanguageEmitter implements Emitter {
      */
     public void emitStub() throws CodeGenerationException {
         try {
+            startWriterExecutor();
 
             //first keep a seperate copy of the original map to use in
             // every iteration
@@ -531,10 +542,14 @@ public class AxisServiceBasedMultiLanguageEmitter implements Emitter {
                     }
                 }
             }
+
+            awaitWriterExecutor();
         } catch (CodeGenerationException ce) {
             throw ce;
         } catch (Exception e) {
             throw new CodeGenerationException(e);
+        } finally {
+            shutdownWriterExecutor();
         }
     }
 
@@ -1367,6 +1382,7 @@ public class AxisServiceBasedMultiLanguageEmitter implements Emitter {
     public void emitSkeleton() throws CodeGenerationException {
 
         try {
+            startWriterExecutor();
 
             allServiceInfoHolder = new HashMap();
             Map originalMap = getNewCopy(this.mapper.getAllMappedNames());
@@ -1444,11 +1460,13 @@ public class AxisServiceBasedMultiLanguageEmitter implements Emitter {
                 }
             }
 
-
+            awaitWriterExecutor();
         } catch (CodeGenerationException cgExp) {
             throw cgExp;
         } catch (Exception e) {
             throw new CodeGenerationException(e);
+        } finally {
+            shutdownWriterExecutor();
         }
     }
 
@@ -2650,17 +2668,69 @@ public class AxisServiceBasedMultiLanguageEmitter implements Emitter {
      * @throws java.io.IOException
      * @throws Exception
      */
-    protected void writeFile(Document model, FileWriter writer) throws IOException, Exception {
+    protected void writeFile(Document model, final FileWriter writer) throws IOException, Exception {
         writer.loadTemplate();
+        writer.compileTemplate(templatesCache, resolver);
 
         String packageName = model.getDocumentElement().getAttribute("package");
         String className = model.getDocumentElement().getAttribute("name");
 
+        // the writer class, package and class name determine the output file; a task that is
+        // still writing it must complete before createOutFile truncates it
+        String fileKey = writer.getClass().getName() + ":" + packageName + "." + className;
+        if (writerExecutor != null) {
+            writerExecutor.awaitKey(fileKey);
+        }
         writer.createOutFile(packageName, className);
         codeGenConfiguration.addOutputFileName(writer.getOutputFile().getAbsolutePath());//$NON-SEC-3
 
         // use the global resolver
-        writer.parse(model, resolver);
+        final URIResolver resolver = this.resolver;
+        if (writerExecutor == null) {
+            writer.parse(model, resolver);
+        } else {
+            // the caller may modify the model or write it again with another template, so the
+            // task gets its own copy
+            final Document modelCopy = (Document) model.cloneNode(true);
+            writerExecutor.submit(fileKey, new Callable<Object>() {
+                public Object call() throws Exception {
+                    writer.parse(modelCopy, resolver);
+                    return null;
+                }
+            });
+        }
+    }
+
+    /**
+     * Creates the executor used by {@link #writeFile(Document, FileWriter)} if the code
+     * generation is configured to use more than one thread.
+     */
+    protected void startWriterExecutor() {
+        if (codeGenConfiguration.getThreads() > 1) {
+            writerExecutor = new WriterExecutor(codeGenConfiguration.getThreads());
+        }
+    }
+
+    /**
+     * Waits until all files submitted by {@link #writeFile(Document, FileWriter)} have been
+     * written.
+     *
+     * @throws Exception if writing one of the files failed
+     */
+    protected void awaitWriterExecutor() throws Exception {
+        if (writerExecutor != null) {
+            writerExecutor.await();
+        }
+    }
+
+    /**
+     * Releases the threads of the executor created by {@link #startWriterExecutor()}.
+     */
+    protected void shutdownWriterExecutor() {
+        if (writerExecutor != null) {
+            writerExecutor.shutdown();
+            writerExecutor = null;
+        }
     }
 
     /**
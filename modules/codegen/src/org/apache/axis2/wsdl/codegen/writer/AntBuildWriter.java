@@ -19,7 +19,6 @@
 
 package org.apache.axis2.wsdl.codegen.writer;
 
-import org.apache.axis2.util.XSLTTemplateProcessor;
 import org.apache.axis2.wsdl.util.ConfigPropertyFileLoader;
 import org.w3c.dom.Document;
 
@@ -95,10 +94,7 @@ public class AntBuildWriter extends FileWriter {
      */
     public void parse(Document doc, URIResolver resolver) throws Exception {
         if (!fileExists) {
-            XSLTTemplateProcessor.parse(this.stream,
-                                        doc,
-                                        this.xsltStream,
-                                        resolver);
+            transform(doc, resolver);
             this.stream.flush();
             this.stream.close();
         }
@@ -28,9 +28,11 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.w3c.dom.Document;
 
+import javax.xml.transform.Templates;
 import javax.xml.transform.URIResolver;
 import java.io.File;
 import java.io.FileOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.util.Iterator;
 import java.util.Map;
@@ -43,6 +45,8 @@ public abstract class FileWriter {
     protected File outputFile = null;
     protected FileOutputStream stream = null;
     protected InputStream xsltStream = null;
+    protected String templateName = null;
+    protected Templates templates = null;
     protected String language = ConfigPropertyFileLoader.getDefaultLanguage(); //default would java
 
     protected static final String TEMPLATE_SUFFIX = ".template";
@@ -78,6 +82,7 @@ public abstract class FileWriter {
 
         String templateName = findTemplate(languageSpecificPropertyMap);
         if (templateName != null) {
+            this.templateName = templateName;
             this.xsltStream = clazz.getResourceAsStream(templateName);
         } else {
             throw new CodeGenerationException(CodegenMessages.getMessage("writer.templateMissing"));
@@ -86,6 +91,32 @@ public abstract class FileWriter {
 
     }
 
+    /**
+     * Compiles the template loaded by {@link #loadTemplate()}, or reuses the template compiled
+     * by a previous writer using the same template name and resolver. This avoids parsing the
+     * template again for every generated file, and the compiled template may be applied by
+     * several threads concurrently.
+     *
+     * @param templatesCache the compiled templates, keyed by template name; all templates in
+     *                       the cache must have been compiled with the same resolver
+     * @param resolver       the resolver for the includes of the template
+     * @throws Exception
+     */
+    public void compileTemplate(Map<String,Templates> templatesCache, URIResolver resolver)
+            throws Exception {
+        templates = templatesCache.get(templateName);
+        if (templates == null) {
+            templates = XSLTTemplateProcessor.newTemplates(this.xsltStream, resolver);
+            templatesCache.put(templateName, templates);
+        }
+        try {
+            this.xsltStream.close();
+        } catch (IOException e) {
+            log.debug("Unable to close template " + templateName, e);
+        }
+        this.xsltStream = null;
+    }
+
     protected String findTemplate(Map languageSpecificPropertyMap) {
         //search through the proprty names to find the template relevant to this class
 
@@ -172,15 +203,28 @@ public abstract class FileWriter {
      */
     public void parse(Document doc, URIResolver resolver) throws Exception {
         if (!fileExists || this.isOverride()) {
-            XSLTTemplateProcessor.parse(this.stream,
-                                        doc,
-                                        this.xsltStream,
-                                        resolver);
+            transform(doc, resolver);
             this.stream.flush();
             this.stream.close();
         }
     }
 
+    /**
+     * Applies the template to the document and writes the result to the output stream, using
+     * the compiled template if {@link #compileTemplate(Map, URIResolver)} has been called.
+     *
+     * @param doc
+     * @param resolver
+     * @throws Exception
+     */
+    protected void transform(Document doc, URIResolver resolver) throws Exception {
+        if (templates != null) {
+            XSLTTemplateProcessor.parse(this.stream, doc, templates.newTransformer());
+        } else {
+            XSLTTemplateProcessor.parse(this.stream, doc, this.xsltStream, resolver);
+        }
+    }
+
     public boolean isOverride() {
         return isOverride;
     }
@@ -0,0 +1,154 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.wsdl.codegen.writer;
+
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executes the tasks that write generated files (i.e. apply the XSLT template to the model
+ * and, where applicable, pretty print the result) on a pool of threads, while the code
+ * generator continues to build the models on the calling thread.
+ * <p>
+ * Each task must only use objects that are no longer modified by the code generator, in
+ * particular its own copy of the model document. Tasks are submitted with a key identifying the
+ * file they write. Tasks with the same key are executed in the order in which they have been
+ * submitted, and {@link #awaitKey(Object)} allows the caller to wait for them before it opens
+ * the file again, so that the output is the same as with sequential code generation. The number
+ * of pending tasks is limited to avoid keeping too many models and open files in memory.
+ * Instances of this class are not thread safe; they are expected to be used by the thread that
+ * drives the code generation.
+ */
+public class WriterExecutor {
+    private static final AtomicInteger threadCount = new AtomicInteger();
+
+    private final ThreadPoolExecutor executor;
+    private final int maxPending;
+    private final LinkedList<Future<?>> pending = new LinkedList<Future<?>>();
+    private final Map<Object,Future<?>> lastTaskForKey = new HashMap<Object,Future<?>>();
+
+    /**
+     * @param threads the number of threads to use
+     */
+    public WriterExecutor(int threads) {
+        executor = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "codegen-writer-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        // don't leak the threads if code generation fails before shutdown is called
+        executor.allowCoreThreadTimeOut(true);
+        maxPending = threads * 4;
+    }
+
+    /**
+     * Wait for the last task submitted with a given key to complete. This must be called before
+     * the file identified by the key is opened (and possibly truncated) again.
+     *
+     * @param key the key identifying the file
+     * @throws Exception if a previously submitted task failed
+     */
+    public void awaitKey(Object key) throws Exception {
+        Future<?> previous = lastTaskForKey.remove(key);
+        if (previous != null) {
+            getResult(previous);
+        }
+    }
+
+    /**
+     * Submit a task. If a previously submitted task failed, its exception is thrown and the
+     * remaining tasks are cancelled.
+     *
+     * @param key the key identifying the file written by the task
+     * @param task the task
+     * @throws Exception if a previously submitted task failed
+     */
+    public void submit(Object key, Callable<?> task) throws Exception {
+        awaitKey(key);
+        while (pending.size() >= maxPending) {
+            getResult(pending.removeFirst());
+        }
+        Future<?> future = executor.submit(task);
+        pending.add(future);
+        lastTaskForKey.put(key, future);
+    }
+
+    /**
+     * Wait for all submitted tasks to complete.
+     *
+     * @throws Exception the exception thrown by the first task that failed; in that case the
+     *             remaining tasks are cancelled
+     */
+    public void await() throws Exception {
+        while (!pending.isEmpty()) {
+            getResult(pending.removeFirst());
+        }
+        lastTaskForKey.clear();
+    }
+
+    /**
+     * Cancel the pending tasks and release the threads. This must be called when the executor is
+     * no longer used, typically after {@link #await()}.
+     */
+    public void shutdown() {
+        cancel();
+        executor.shutdown();
+    }
+
+    private void cancel() {
+        for (Future<?> future : pending) {
+            future.cancel(false);
+        }
+        pending.clear();
+        lastTaskForKey.clear();
+    }
+
+    private void getResult(Future<?> future) throws Exception {
+        try {
+            future.get();
+        } catch (ExecutionException ex) {
+            cancel();
+            Throwable cause = ex.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception)cause;
+            } else if (cause instanceof Error) {
+                throw (Error)cause;
+            } else {
+                throw ex;
+            }
+        } catch (InterruptedException ex) {
+            cancel();
+            Thread.currentThread().interrupt();
+            throw ex;
+        }
+    }
+}
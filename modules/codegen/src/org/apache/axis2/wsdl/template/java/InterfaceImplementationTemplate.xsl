@@ -58,10 +58,16 @@
         <xsl:if test="not(@wrapped)">implements <xsl:value-of select="$interfaceName"/></xsl:if>{
         protected org.apache.axis2.description.AxisOperation[] _operations;
 
-        //hashmaps to keep the fault mapping
-        private java.util.Map&lt;org.apache.axis2.client.FaultMapKey,String> faultExceptionNameMap = new java.util.HashMap&lt;org.apache.axis2.client.FaultMapKey,String>();
-        private java.util.Map&lt;org.apache.axis2.client.FaultMapKey,String> faultExceptionClassNameMap = new java.util.HashMap&lt;org.apache.axis2.client.FaultMapKey,String>();
-        private java.util.Map&lt;org.apache.axis2.client.FaultMapKey,String> faultMessageMap = new java.util.HashMap&lt;org.apache.axis2.client.FaultMapKey,String>();
+        //the fault mapping; shared by all the instances of the stub
+        private static final org.apache.axis2.client.FaultMapping faultMapping = new org.apache.axis2.client.FaultMapping(<xsl:value-of select="@name"/>.class);
+
+        static {
+            populateFaults();
+        }
+
+        //the AxisService shared by the instances of the stub created with the same ConfigurationContext,
+        //if that context enables it (see org.apache.axis2.client.Stub.SHARE_SERVICE)
+        private static final org.apache.axis2.client.Stub.ServiceCache _serviceCache = new org.apache.axis2.client.Stub.ServiceCache(<xsl:value-of select="@name"/>.class);
 
         private static int counter = 0;
 
@@ -116,12 +122,10 @@
         }
 
     //populates the faults
-    private void populateFaults(){
+    private static void populateFaults(){
          <xsl:for-each select="method">
            <xsl:for-each select="fault/param">
-              faultExceptionNameMap.put(new org.apache.axis2.client.FaultMapKey(new javax.xml.namespace.QName("<xsl:value-of select="@namespace"/>","<xsl:value-of select="@localname"/>"), "<xsl:value-of select="@operationName"/>"),"<xsl:value-of select="@name"/>");
-              faultExceptionClassNameMap.put(new org.apache.axis2.client.FaultMapKey(new javax.xml.namespace.QName("<xsl:value-of select="@namespace"/>","<xsl:value-of select="@localname"/>"), "<xsl:value-of select="@operationName"/>"),"<xsl:value-of select="@name"/>");
-              faultMessageMap.put(new org.apache.axis2.client.FaultMapKey(new javax.xml.namespace.QName("<xsl:value-of select="@namespace"/>","<xsl:value-of select="@localname"/>"), "<xsl:value-of select="@operationName"/>"),"<xsl:value-of select="@instantiatableType"/>");
+              faultMapping.addFault(new javax.xml.namespace.QName("<xsl:value-of select="@namespace"/>","<xsl:value-of select="@localname"/>"), "<xsl:value-of select="@operationName"/>","<xsl:value-of select="@name"/>","<xsl:value-of select="@instantiatableType"/>");
            </xsl:for-each>
         </xsl:for-each>
 
@@ -145,13 +149,24 @@
    public <xsl:value-of select="@name"/>(org.apache.axis2.context.ConfigurationContext configurationContext,
         java.lang.String targetEndpoint, boolean useSeparateListener)
         throws org.apache.axis2.AxisFault {
-         //To populate AxisService
-         populateAxisService();
-         populateFaults();
+        org.apache.axis2.client.Stub.SharedService sharedService = _serviceCache.get(configurationContext);
+        if (sharedService == null) {
+            //To populate AxisService
+            populateAxisService();
+            if (configurationContext != null) {
+                sharedService = _serviceCache.register(configurationContext, _service, _operations, <xsl:value-of select="boolean(//@policy)"/>);
+            }
+        }
+        if (sharedService != null) {
+            _service = sharedService.getService();
+            _operations = sharedService.getOperations();
+        }
 
         _serviceClient = new org.apache.axis2.client.ServiceClient(configurationContext,_service);
         <xsl:if test="//@policy">
-        _service.applyPolicy();
+        if (sharedService == null) {
+            _service.applyPolicy();
+        }
         </xsl:if>
 	
         _serviceClient.getOptions().setTo(new org.apache.axis2.addressing.EndpointReference(
@@ -516,20 +531,14 @@
 
             org.apache.axiom.om.OMElement faultElt = f.getDetail();
             if (faultElt!=null){
-                if (faultExceptionNameMap.containsKey(new org.apache.axis2.client.FaultMapKey(faultElt.getQName(),"<xsl:value-of select="@originalName"/>"))){
+                org.apache.axis2.client.FaultMapping.Fault _fault = faultMapping.getFault(faultElt.getQName(),"<xsl:value-of select="@originalName"/>");
+                if (_fault != null){
                     //make the fault by reflection
                     try{
-                        java.lang.String exceptionClassName = faultExceptionClassNameMap.get(new org.apache.axis2.client.FaultMapKey(faultElt.getQName(),"<xsl:value-of select="@originalName"/>"));
-                        java.lang.Class exceptionClass = java.lang.Class.forName(exceptionClassName);
-                        java.lang.reflect.Constructor constructor = exceptionClass.getConstructor(java.lang.String.class);
-                        java.lang.Exception ex = (java.lang.Exception) constructor.newInstance(f.getMessage());
+                        java.lang.Exception ex = _fault.newException(f.getMessage());
                         //message class
-                        java.lang.String messageClassName = faultMessageMap.get(new org.apache.axis2.client.FaultMapKey(faultElt.getQName(),"<xsl:value-of select="@originalName"/>"));
-                        java.lang.Class messageClass = java.lang.Class.forName(messageClassName);
-                        java.lang.Object messageObject = fromOM(faultElt,messageClass);
-                        java.lang.reflect.Method m = exceptionClass.getMethod("setFaultMessage",
-                                   new java.lang.Class[]{messageClass});
-                        m.invoke(ex,new java.lang.Object[]{messageObject});
+                        java.lang.Object messageObject = fromOM(faultElt,_fault.getMessageClass());
+                        _fault.setFaultMessage(ex,messageObject);
                         <xsl:for-each select="fault/param">
                         if (ex instanceof <xsl:value-of select="@name"/>){
                           throw (<xsl:value-of select="@name"/>)ex;
@@ -786,20 +795,14 @@
 									org.apache.axis2.AxisFault f = (org.apache.axis2.AxisFault) error;
 									org.apache.axiom.om.OMElement faultElt = f.getDetail();
 									if (faultElt!=null){
-										if (faultExceptionNameMap.containsKey(new org.apache.axis2.client.FaultMapKey(faultElt.getQName(),"<xsl:value-of select="@originalName"/>"))){
+										org.apache.axis2.client.FaultMapping.Fault _fault = faultMapping.getFault(faultElt.getQName(),"<xsl:value-of select="@originalName"/>");
+										if (_fault != null){
 											//make the fault by reflection
 											try{
-													java.lang.String exceptionClassName = faultExceptionClassNameMap.get(new org.apache.axis2.client.FaultMapKey(faultElt.getQName(),"<xsl:value-of select="@originalName"/>"));
-													java.lang.Class exceptionClass = java.lang.Class.forName(exceptionClassName);
-													java.lang.reflect.Constructor constructor = exceptionClass.getConstructor(java.lang.String.class);
-                                                    java.lang.Exception ex = (java.lang.Exception) constructor.newInstance(f.getMessage());
+													java.lang.Exception ex = _fault.newException(f.getMessage());
 													//message class
-													java.lang.String messageClassName = faultMessageMap.get(new org.apache.axis2.client.FaultMapKey(faultElt.getQName(),"<xsl:value-of select="@originalName"/>"));
-														java.lang.Class messageClass = java.lang.Class.forName(messageClassName);
-													java.lang.Object messageObject = fromOM(faultElt,messageClass);
-													java.lang.reflect.Method m = exceptionClass.getMethod("setFaultMessage",
-															new java.lang.Class[]{messageClass});
-													m.invoke(ex,new java.lang.Object[]{messageObject});
+													java.lang.Object messageObject = fromOM(faultElt,_fault.getMessageClass());
+													_fault.setFaultMessage(ex,messageObject);
 													<xsl:for-each select="fault/param">
 													if (ex instanceof <xsl:value-of select="@name"/>){
 														callback.receiveError<xsl:value-of select="$method-name"/>((<xsl:value-of select="@name"/>)ex);
@@ -1046,20 +1049,14 @@
                }catch(org.apache.axis2.AxisFault f){
                   org.apache.axiom.om.OMElement faultElt = f.getDetail();
                   if (faultElt!=null){
-                      if (faultExceptionNameMap.containsKey(new org.apache.axis2.client.FaultMapKey(faultElt.getQName(),"<xsl:value-of select="@originalName"/>"))){
+                      org.apache.axis2.client.FaultMapping.Fault _fault = faultMapping.getFault(faultElt.getQName(),"<xsl:value-of select="@originalName"/>");
+                      if (_fault != null){
                           //make the fault by reflection
                           try{
-                              java.lang.String exceptionClassName = faultExceptionClassNameMap.get(new org.apache.axis2.client.FaultMapKey(faultElt.getQName(),"<xsl:value-of select="@originalName"/>"));
-                              java.lang.Class exceptionClass = java.lang.Class.forName(exceptionClassName);
-                              java.lang.Exception ex=
-                                      (java.lang.Exception) exceptionClass.newInstance();
+                              java.lang.Exception ex = _fault.newException();
                               //message class
-                              java.lang.String messageClassName = faultMessageMap.get(new org.apache.axis2.client.FaultMapKey(faultElt.getQName(),"<xsl:value-of select="@originalName"/>"));
-                              java.lang.Class messageClass = java.lang.Class.forName(messageClassName);
-                              java.lang.Object messageObject = fromOM(faultElt,messageClass);
-                              java.lang.reflect.Method m = exceptionClass.getMethod("setFaultMessage",
-                                         new java.lang.Class[]{messageClass});
-                              m.invoke(ex,new java.lang.Object[]{messageObject});
+                              java.lang.Object messageObject = fromOM(faultElt,_fault.getMessageClass());
+                              _fault.setFaultMessage(ex,messageObject);
                               <xsl:for-each select="fault/param">
                               if (ex instanceof <xsl:value-of select="@name"/>){
                                 throw (<xsl:value-of select="@name"/>)ex;
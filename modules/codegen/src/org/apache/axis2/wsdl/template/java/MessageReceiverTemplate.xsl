@@ -48,6 +48,10 @@
 
         public class <xsl:value-of select="@name"/> extends <xsl:value-of select="@basereceiver"/>{
 
+        //maps the operation names to the positions of the skeleton methods in this array
+        private static final org.apache.axis2.receivers.OperationDispatchTable _dispatchTable =
+            new org.apache.axis2.receivers.OperationDispatchTable(new java.lang.String[] {<xsl:for-each select="method"><xsl:if test="position() > 1">, </xsl:if>"<xsl:value-of select="@name"/>"</xsl:for-each>}, <xsl:value-of select="boolean(@isLowerCaseMethodName)"/>);
+
 
         public void invokeBusinessLogic(org.apache.axis2.context.MessageContext msgContext, org.apache.axis2.context.MessageContext newMsgContext)
         throws org.apache.axis2.AxisFault{
@@ -66,14 +70,14 @@
         throw new org.apache.axis2.AxisFault("Operation is not located, if this is doclit style the SOAP-ACTION should specified via the SOAP Action to use the RawXMLProvider");
         }
 
-        java.lang.String methodName;
-        if((op.getName() != null) &amp;&amp; ((methodName = org.apache.axis2.util.JavaUtils.xmlNameToJava<xsl:if test="@isLowerCaseMethodName">Identifier</xsl:if>(op.getName().getLocalPart())) != null)){
+        if(op.getName() != null){
+        int operationIndex = _dispatchTable.getIndex(op.getName().getLocalPart());
 
 
         <xsl:for-each select="method">
             <xsl:if test="position() > 1">} else </xsl:if>
 
-            if("<xsl:value-of select="@name"/>".equals(methodName)){
+            if(operationIndex == <xsl:value-of select="position()-1"/>){
                 <!-- If usedbmethod attribute present, gives name of method to call for implementation -->
                 <xsl:variable name="usedbmethod"><xsl:value-of select="@usedbmethod"/></xsl:variable>
                 <xsl:choose>
@@ -332,6 +336,10 @@
 
         public class <xsl:value-of select="@name"/> extends <xsl:value-of select="@basereceiver"/>{
 
+        //maps the operation names to the positions of the skeleton methods in this array
+        private static final org.apache.axis2.receivers.OperationDispatchTable _dispatchTable =
+            new org.apache.axis2.receivers.OperationDispatchTable(new java.lang.String[] {<xsl:for-each select="method"><xsl:if test="position() > 1">, </xsl:if>"<xsl:value-of select="@name"/>"</xsl:for-each>}, <xsl:value-of select="boolean(@isLowerCaseMethodName)"/>);
+
         public void invokeBusinessLogic(org.apache.axis2.context.MessageContext inMessage) throws org.apache.axis2.AxisFault{
 
         try {
@@ -348,15 +356,15 @@
         throw new org.apache.axis2.AxisFault("Operation is not located, if this is doclit style the SOAP-ACTION should specified via the SOAP Action to use the RawXMLProvider");
         }
 
-        java.lang.String methodName;
-        if((op.getName() != null) &amp;&amp; ((methodName = org.apache.axis2.util.JavaUtils.xmlNameToJava<xsl:if test="@isLowerCaseMethodName">Identifier</xsl:if>(op.getName().getLocalPart())) != null)){
+        if(op.getName() != null){
+        int operationIndex = _dispatchTable.getIndex(op.getName().getLocalPart());
 
         <xsl:for-each select="method">
 
             <xsl:variable name="style"><xsl:value-of select="@style"/></xsl:variable>
 
             <xsl:if test="position() > 1">} else </xsl:if>
-            if("<xsl:value-of select="@name"/>".equals(methodName)){
+            if(operationIndex == <xsl:value-of select="position()-1"/>){
             <!-- If usedbmethod attribute present, gives name of method to call for implementation -->
             <xsl:variable name="usedbmethod"><xsl:value-of select="@usedbmethod"/></xsl:variable>
             <xsl:choose>
@@ -450,6 +458,10 @@
 
         public class <xsl:value-of select="@name"/> extends <xsl:value-of select="@basereceiver"/>{
 
+        //maps the operation names to the positions of the skeleton methods in this array
+        private static final org.apache.axis2.receivers.OperationDispatchTable _dispatchTable =
+            new org.apache.axis2.receivers.OperationDispatchTable(new java.lang.String[] {<xsl:for-each select="method"><xsl:if test="position() > 1">, </xsl:if>"<xsl:value-of select="@name"/>"</xsl:for-each>}, <xsl:value-of select="boolean(@isLowerCaseMethodName)"/>);
+
 
         public void invokeBusinessLogic(org.apache.axis2.context.MessageContext msgContext)
         throws org.apache.axis2.AxisFault{
@@ -468,12 +480,12 @@
         throw new org.apache.axis2.AxisFault("Operation is not located, if this is doclit style the SOAP-ACTION should specified via the SOAP Action to use the RawXMLProvider");
         }
 
-        java.lang.String methodName;
-        if((op.getName() != null) &amp;&amp; ((methodName = org.apache.axis2.util.JavaUtils.xmlNameToJava<xsl:if test="@isLowerCaseMethodName">Identifier</xsl:if>(op.getName().getLocalPart())) != null)){
+        if(op.getName() != null){
+        int operationIndex = _dispatchTable.getIndex(op.getName().getLocalPart());
      
         <xsl:for-each select="method">
             <xsl:if test="position() > 1">} else </xsl:if>
-            if("<xsl:value-of select="@name"/>".equals(methodName)){
+            if(operationIndex == <xsl:value-of select="position()-1"/>){
             <!-- If usedbmethod attribute present, gives name of method to call for implementation -->
             <xsl:variable name="usedbmethod"><xsl:value-of select="@usedbmethod"/></xsl:variable>
             <xsl:choose>
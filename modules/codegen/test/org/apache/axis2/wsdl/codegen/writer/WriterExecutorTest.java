@@ -0,0 +1,97 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.wsdl.codegen.writer;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class WriterExecutorTest extends Assert {
+    @Test
+    public void testTasksForSameFileAreOrdered() throws Exception {
+        final List<Integer> order = Collections.synchronizedList(new ArrayList<Integer>());
+        WriterExecutor executor = new WriterExecutor(4);
+        try {
+            for (int i = 0; i < 50; i++) {
+                final int task = i;
+                File file = new File(i % 3 == 0 ? "Same.java" : "Class" + i + ".java");
+                executor.submit(file, new Callable<Object>() {
+                    public Object call() throws Exception {
+                        Thread.sleep(task % 5);
+                        if (task % 3 == 0) {
+                            order.add(Integer.valueOf(task));
+                        }
+                        return null;
+                    }
+                });
+            }
+            executor.await();
+        } finally {
+            executor.shutdown();
+        }
+        List<Integer> expected = new ArrayList<Integer>(order);
+        Collections.sort(expected);
+        assertEquals(17, order.size());
+        assertEquals(expected, order);
+    }
+
+    @Test
+    public void testAwaitKey() throws Exception {
+        final AtomicBoolean done = new AtomicBoolean();
+        WriterExecutor executor = new WriterExecutor(2);
+        try {
+            File file = new File("Same.java");
+            executor.submit(file, new Callable<Object>() {
+                public Object call() throws Exception {
+                    Thread.sleep(50);
+                    done.set(true);
+                    return null;
+                }
+            });
+            executor.awaitKey(new File("Other.java"));
+            executor.awaitKey(file);
+            assertTrue(done.get());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test(expected=IOException.class)
+    public void testFailure() throws Exception {
+        WriterExecutor executor = new WriterExecutor(2);
+        try {
+            executor.submit(new File("Test.java"), new Callable<Object>() {
+                public Object call() throws Exception {
+                    throw new IOException();
+                }
+            });
+            executor.await();
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
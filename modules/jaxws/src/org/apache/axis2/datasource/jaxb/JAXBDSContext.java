@@ -28,6 +28,7 @@ import org.apache.axis2.java.security.AccessController;
 import org.apache.axis2.jaxws.context.utils.ContextUtils;
 import org.apache.axis2.jaxws.message.OccurrenceArray;
 import org.apache.axis2.jaxws.message.databinding.JAXBUtils;
+import org.apache.axis2.jaxws.message.util.OMExpansionMonitor;
 import org.apache.axis2.jaxws.message.util.XMLStreamWriterWithOS;
 import org.apache.axis2.jaxws.spi.Constants;
 import org.apache.axis2.jaxws.utility.JavaUtils;
@@ -295,6 +296,9 @@ public class JAXBDSContext {
      */
     public Object unmarshal(OMElement element) throws JAXBException {
 
+        // An incomplete element is unmarshalled directly from the parser (no OM is built).
+        OMExpansionMonitor.unmarshalled(!element.isComplete());
+
         // See the Javadoc of the CustomBuilder interface for a complete explanation of
         // the following two instructions:
         XOPEncoded<XMLStreamReader> xopEncodedStream = element.getXOPEncodedStreamReader(false);
@@ -267,4 +267,30 @@ public interface Constants {
      * If this property is set, the Endpoint.publish methods will throw an UnsupportedOperationException.
      */
     public static final String  DISABLE_ENDPOINT_PUBLISH_METHODS = "jaxws.endpoint.publish.disable"; 
+
+    /** 
+     * Context Property:
+     * Name: jaxws.jaxbcontext.prewarm
+     * Value: String "false" or "true"
+     * Default: null, which is interpreted as "false"
+     * Can be set on:
+     * - Axis Configuration, which affects all jax-ws endpoints
+     *
+     * Indicates if the JAXBContexts needed by the JAX-WS endpoints should be built when the
+     * endpoints are deployed (see org.apache.axis2.jaxws.framework.JAXBContextPrewarmer) instead
+     * of on the first request to each endpoint.
+     */
+    public static final String  JAXBCONTEXT_PREWARM = "jaxws.jaxbcontext.prewarm";
+
+    /** 
+     * Context Property:
+     * Name: jaxws.jaxbcontext.prewarm.threads
+     * Value: String containing a positive integer
+     * Default: null, which is interpreted as the number of available processors
+     * Can be set on:
+     * - Axis Configuration
+     *
+     * The maximum number of JAXBContexts that are built in parallel when pre-warming.
+     */
+    public static final String  JAXBCONTEXT_PREWARM_THREADS = "jaxws.jaxbcontext.prewarm.threads";
 }
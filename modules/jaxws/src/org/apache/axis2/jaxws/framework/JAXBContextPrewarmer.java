@@ -0,0 +1,274 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.jaxws.framework;
+
+import org.apache.axis2.description.AxisService;
+import org.apache.axis2.description.Parameter;
+import org.apache.axis2.engine.AxisConfiguration;
+import org.apache.axis2.jaxws.Constants;
+import org.apache.axis2.jaxws.description.EndpointDescription;
+import org.apache.axis2.jaxws.description.EndpointInterfaceDescription;
+import org.apache.axis2.jaxws.description.ServiceDescription;
+import org.apache.axis2.jaxws.message.databinding.JAXBUtils;
+import org.apache.axis2.jaxws.runtime.description.marshal.MarshalServiceRuntimeDescription;
+import org.apache.axis2.jaxws.runtime.description.marshal.MarshalServiceRuntimeDescriptionFactory;
+import org.apache.axis2.util.threadpool.DefaultThreadFactory;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import javax.jws.soap.SOAPBinding;
+import javax.xml.ws.Holder;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Builds the JAXBContexts needed by JAX-WS endpoints ahead of the first request.
+ * <p/>
+ * Normally the MarshalServiceRuntimeDescription (and thus the package set computed by the
+ * PackageSetBuilder) and the JAXBContext for an endpoint are created lazily, so the first
+ * request to each endpoint pays for them.  When {@link Constants#JAXBCONTEXT_PREWARM} is set,
+ * the JAXWSDeployerSupport hands the deployed services to this class, which computes the
+ * package sets and builds the JAXBContexts in parallel on a bounded pool of threads.  The
+ * contexts are stored in the JAXBUtils cache exactly as if they had been built by a request.
+ * A request that arrives while its context is still being built waits for that build
+ * instead of starting another one.
+ * <p/>
+ * {@link #prewarm(AxisConfiguration)} can also be called (for example from an administration
+ * console) to pre-warm all of the deployed JAX-WS services; it returns the build times.
+ * The build times are also recorded by the JAXBUtilsMonitor when monitoring is enabled.
+ */
+public class JAXBContextPrewarmer {
+
+    private static final Log log = LogFactory.getLog(JAXBContextPrewarmer.class);
+
+    // Idle pool threads exit after this time
+    private static final long KEEP_ALIVE_SECONDS = 30;
+
+    /**
+     * Intentionally private.  All methods are static.
+     */
+    private JAXBContextPrewarmer() {
+    }
+
+    /**
+     * @param axisConfig AxisConfiguration
+     * @return true if JAXBContexts should be pre-warmed when the endpoints are deployed
+     */
+    public static boolean isEnabled(AxisConfiguration axisConfig) {
+        if (axisConfig == null) {
+            return false;
+        }
+        Parameter param = axisConfig.getParameter(Constants.JAXBCONTEXT_PREWARM);
+        return param != null && "true".equalsIgnoreCase(String.valueOf(param.getValue()).trim());
+    }
+
+    /**
+     * @param axisConfig AxisConfiguration
+     * @return the maximum number of JAXBContexts that are built in parallel
+     */
+    public static int getThreads(AxisConfiguration axisConfig) {
+        int threads = Runtime.getRuntime().availableProcessors();
+        Parameter param = (axisConfig == null) ? null :
+            axisConfig.getParameter(Constants.JAXBCONTEXT_PREWARM_THREADS);
+        if (param != null && param.getValue() != null) {
+            try {
+                threads = Integer.parseInt(param.getValue().toString().trim());
+            } catch (NumberFormatException e) {
+                log.warn("Invalid value for " + Constants.JAXBCONTEXT_PREWARM_THREADS + ": " +
+                         param.getValue());
+            }
+        }
+        return Math.max(1, threads);
+    }
+
+    /**
+     * Pre-warm all of the JAX-WS services in the AxisConfiguration and wait for completion.
+     * @param axisConfig AxisConfiguration
+     * @return Map of package key to the time (in milliseconds) spent getting its JAXBContext
+     * @throws InterruptedException
+     */
+    public static Map<String, Long> prewarm(AxisConfiguration axisConfig)
+            throws InterruptedException {
+        List<Future<Result>> futures =
+            prewarm(axisConfig.getServices().values(), getThreads(axisConfig));
+        Map<String, Long> buildTimes = new LinkedHashMap<String, Long>();
+        for (Future<Result> future : futures) {
+            try {
+                Result result = future.get();
+                if (result != null) {
+                    buildTimes.put(result.packagesKey, Long.valueOf(result.millis));
+                }
+            } catch (ExecutionException e) {
+                log.warn("Unable to pre-warm a JAXBContext: " + e.getCause());
+            }
+        }
+        return buildTimes;
+    }
+
+    /**
+     * Asynchronously pre-warm the JAXBContexts for the JAX-WS services.  Services that are
+     * not JAX-WS services are ignored.
+     * @param services Collection of AxisService
+     * @param threads maximum number of JAXBContexts that are built in parallel
+     * @return List of Futures, one per JAX-WS ServiceDescription.  The result of a Future
+     *         is null if there is nothing to pre-warm or if the pre-warm failed.
+     */
+    public static List<Future<Result>> prewarm(Collection<AxisService> services, int threads) {
+        List<Future<Result>> futures = new ArrayList<Future<Result>>();
+        Set<ServiceDescription> visited = new HashSet<ServiceDescription>();
+        List<PrewarmTask> tasks = new ArrayList<PrewarmTask>();
+        for (Iterator<AxisService> it = services.iterator(); it.hasNext();) {
+            AxisService axisService = it.next();
+            Parameter param = axisService.getParameter(EndpointDescription.AXIS_SERVICE_PARAMETER);
+            if (param == null || !(param.getValue() instanceof EndpointDescription)) {
+                continue;
+            }
+            EndpointDescription endpointDesc = (EndpointDescription) param.getValue();
+            if (visited.add(endpointDesc.getServiceDescription())) {
+                tasks.add(new PrewarmTask(endpointDesc, axisService.getClassLoader()));
+            }
+        }
+        if (tasks.isEmpty()) {
+            return futures;
+        }
+
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads,
+                KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(),
+                new DefaultThreadFactory(new ThreadGroup("JAXBContextPrewarm"),
+                                         "JAXBContextPrewarm"));
+        executor.allowCoreThreadTimeOut(true);
+        try {
+            for (PrewarmTask task : tasks) {
+                futures.add(executor.submit(task));
+            }
+        } finally {
+            // The queued tasks are still executed; the threads exit when the queue is empty.
+            executor.shutdown();
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Pre-warming the JAXBContexts of " + tasks.size() +
+                      " JAX-WS services using " + threads + " threads");
+        }
+        return futures;
+    }
+
+    /**
+     * The outcome of pre-warming the JAXBContext of a service
+     */
+    public static class Result {
+        private final String packagesKey;
+        private final long millis;
+
+        Result(String packagesKey, long millis) {
+            this.packagesKey = packagesKey;
+            this.millis = millis;
+        }
+
+        /** @return the package key of the JAXBContext */
+        public String getPackagesKey() {
+            return packagesKey;
+        }
+
+        /** @return the time (in milliseconds) spent getting the JAXBContext */
+        public long getMillis() {
+            return millis;
+        }
+    }
+
+    private static class PrewarmTask implements Callable<Result> {
+        private final EndpointDescription endpointDesc;
+        private final ClassLoader classLoader;
+
+        PrewarmTask(EndpointDescription endpointDesc, ClassLoader classLoader) {
+            this.endpointDesc = endpointDesc;
+            this.classLoader = classLoader;
+        }
+
+        public Result call() throws Exception {
+            Thread thread = Thread.currentThread();
+            ClassLoader savedClassLoader = thread.getContextClassLoader();
+            if (classLoader != null) {
+                thread.setContextClassLoader(classLoader);
+            }
+            try {
+                long startTime = System.currentTimeMillis();
+                MarshalServiceRuntimeDescription marshalDesc =
+                    MarshalServiceRuntimeDescriptionFactory.get(
+                        endpointDesc.getServiceDescription());
+                String packagesKey = marshalDesc.getPackagesKey();
+                if (marshalDesc.getPackages() == null || marshalDesc.getPackages().isEmpty()) {
+                    return null;
+                }
+                JAXBUtils.getJAXBContext(marshalDesc.getPackages(),
+                                         new Holder<JAXBUtils.CONSTRUCTION_TYPE>(),
+                                         packagesKey,
+                                         classLoader,
+                                         getProperties(endpointDesc));
+                long millis = System.currentTimeMillis() - startTime;
+                if (log.isDebugEnabled()) {
+                    log.debug("Pre-warmed the JAXBContext for " + packagesKey + " in " +
+                              millis + " ms");
+                }
+                return new Result(packagesKey, millis);
+            } catch (Throwable t) {
+                // The JAXBContext is built on the first request instead
+                log.warn("Unable to pre-warm the JAXBContext for the service " +
+                         endpointDesc.getServiceQName() + ": " + t);
+                if (log.isDebugEnabled()) {
+                    log.debug("Pre-warm failure", t);
+                }
+                return null;
+            } finally {
+                thread.setContextClassLoader(savedClassLoader);
+            }
+        }
+
+        /**
+         * The doc/lit wrapped marshallers remap the default namespace to the target
+         * namespace of the endpoint interface; use the same properties so that the cached
+         * JAXBContext is identical to the one built by a request.
+         */
+        private static Map<String, ?> getProperties(EndpointDescription endpointDesc) {
+            EndpointInterfaceDescription eid = endpointDesc.getEndpointInterfaceDescription();
+            if (eid == null ||
+                eid.getSoapBindingStyle() != SOAPBinding.Style.DOCUMENT ||
+                eid.getSoapBindingParameterStyle() != SOAPBinding.ParameterStyle.WRAPPED ||
+                eid.getTargetNamespace() == null) {
+                return null;
+            }
+            Map<String, Object> properties = new HashMap<String, Object>();
+            properties.put(JAXBUtils.DEFAULT_NAMESPACE_REMAP, eid.getTargetNamespace());
+            return properties;
+        }
+    }
+}
@@ -41,6 +41,7 @@ import org.apache.axis2.description.AxisOperation;
 import org.apache.axis2.description.AxisService;
 import org.apache.axis2.description.AxisServiceGroup;
 import org.apache.axis2.description.Parameter;
+import org.apache.axis2.engine.AxisConfiguration;
 import org.apache.axis2.jaxws.addressing.util.EndpointContextMap;
 import org.apache.axis2.jaxws.addressing.util.EndpointContextMapManager;
 import org.apache.axis2.jaxws.addressing.util.EndpointKey;
@@ -228,6 +229,10 @@ public class JAXWSDeployerSupport {
                 }
             }
         }
+        AxisConfiguration axisConfig = getConfigurationContext().getAxisConfiguration();
+        if (!services.isEmpty() && JAXBContextPrewarmer.isEnabled(axisConfig)) {
+            JAXBContextPrewarmer.prewarm(services.values(), JAXBContextPrewarmer.getThreads(axisConfig));
+        }
         return services;
     }
 
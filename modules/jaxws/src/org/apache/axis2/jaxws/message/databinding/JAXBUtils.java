@@ -294,11 +294,19 @@ public class JAXBUtils {
                     
                     int numPackages = validContextPackages.size();
                     
+                    long startTime = System.currentTimeMillis();
                     contextValue = createJAXBContextValue(validContextPackages, 
                             clKey, 
                             forceArrays, 
                             properties, 
                             classRefs);
+                    long buildTime = System.currentTimeMillis() - startTime;
+                    if (log.isDebugEnabled()) {
+                        log.debug("Built the JAXBContext for " + key + " in " + buildTime + " ms");
+                    }
+                    if (JAXBUtilsMonitor.isMonitoring()) {
+                        JAXBUtilsMonitor.addContextBuildTime(key, buildTime);
+                    }
                     
                     synchronized (jaxbMap) {
                         // Add the context value with the original package set
@@ -24,7 +24,9 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * The monitor is used by the tests to ensure
@@ -32,7 +34,8 @@ import java.util.List;
  * In normal usage, monitoring is off.
  * 
  * Currently the JAXBUtilsMonitor keeps track of the packageKeys
- * passed to createJAXBContext(*).  Future improvements may monitor
+ * passed to createJAXBContext(*) and the time taken to build each
+ * JAXBContext.  Future improvements may monitor
  * the size of the pools, the pool hits versus misses, etc.
  */
 public class JAXBUtilsMonitor {
@@ -40,6 +43,7 @@ public class JAXBUtilsMonitor {
     private static final Log log = LogFactory.getLog(JAXBUtilsMonitor.class);
     private static boolean monitoring = false;
     private static ArrayList<String> packageKeys = new ArrayList<String>(); 
+    private static Map<String, Long> buildTimes = new HashMap<String, Long>();
     private static String semifore = "JAXBUtils";
     
     /**
@@ -65,11 +69,12 @@ public class JAXBUtilsMonitor {
     }
     
     /**
-     * Clear the number of creates and failed creates
+     * Clear the package keys and build times
      */
     public static void clear() {
         synchronized(semifore) {
             packageKeys.clear();
+            buildTimes.clear();
         }
     }
 
@@ -98,5 +103,28 @@ public class JAXBUtilsMonitor {
             }
         }
     }
+
+    /**
+     * @return map of package key to the time (in milliseconds) that it took to
+     * build the JAXBContext for the package key
+     */
+    public static Map<String, Long> getContextBuildTimes() {
+        synchronized(semifore) {
+            return new HashMap<String, Long>(buildTimes);
+        }
+    }
+
+    /**
+     * Add the time that it took to build a JAXBContext
+     * @param packageKey String
+     * @param millis long
+     */
+    public static void addContextBuildTime(String packageKey, long millis) {
+        if (isMonitoring()) {
+            synchronized(semifore) {
+                buildTimes.put(packageKey, Long.valueOf(millis));
+            }
+        }
+    }
   
 }
@@ -32,6 +32,7 @@ import org.apache.axis2.jaxws.message.Protocol;
 import org.apache.axis2.jaxws.message.XMLFault;
 import org.apache.axis2.jaxws.message.XMLPart;
 import org.apache.axis2.jaxws.message.factory.BlockFactory;
+import org.apache.axis2.jaxws.message.util.OMExpansionMonitor;
 import org.apache.axis2.jaxws.message.util.XMLFaultUtils;
 import org.apache.axis2.jaxws.utility.JavaUtils;
 import org.apache.commons.logging.Log;
@@ -222,9 +223,11 @@ public abstract class XMLPartBase implements XMLPart {
                 se = (SOAPEnvelope)content;
                 break;
             case (SPINE):
+                OMExpansionMonitor.expanded(OMExpansionMonitor.REASON_SAAJ);
                 se = _convertSpine2SE((XMLSpine)content);
                 break;
             case (OM):
+                OMExpansionMonitor.expanded(OMExpansionMonitor.REASON_SAAJ);
                 se = _convertOM2SE((OMElement)content);
                 break;
             default:
@@ -384,6 +387,9 @@ public abstract class XMLPartBase implements XMLPart {
             if (consume) {
                 reader = omElement.getXMLStreamReaderWithoutCaching();
             } else {
+                if (!omElement.isComplete()) {
+                    OMExpansionMonitor.expanded(OMExpansionMonitor.REASON_CACHED_READER);
+                }
                 reader = omElement.getXMLStreamReader();
             }
         }
@@ -41,6 +41,7 @@ import org.apache.axis2.jaxws.message.Protocol;
 import org.apache.axis2.jaxws.message.XMLFault;
 import org.apache.axis2.jaxws.message.factory.BlockFactory;
 import org.apache.axis2.jaxws.message.factory.OMBlockFactory;
+import org.apache.axis2.jaxws.message.util.OMExpansionMonitor;
 import org.apache.axis2.jaxws.message.util.Reader2Writer;
 import org.apache.axis2.jaxws.message.util.XMLFaultUtils;
 import org.apache.axis2.jaxws.registry.FactoryRegistry;
@@ -249,7 +250,11 @@ class XMLSpineImpl implements XMLSpine {
       * @see org.apache.axis2.jaxws.message.XMLPart#getNumBodyBlocks()
       */
     public int getNumBodyBlocks() throws WebServiceException {
-        return _getNumChildElements(_getBodyBlockParent());
+        OMElement bodyBlockParent = _getBodyBlockParent();
+        if (!bodyBlockParent.isComplete()) {
+            OMExpansionMonitor.expanded(OMExpansionMonitor.REASON_BODY_BLOCKS);
+        }
+        return _getNumChildElements(bodyBlockParent);
     }
     
     /**
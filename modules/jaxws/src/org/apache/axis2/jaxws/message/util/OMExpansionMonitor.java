@@ -0,0 +1,158 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.jaxws.message.util;
+
+import org.apache.axis2.util.JavaUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The monitor keeps track of how JAX-WS message bodies are unmarshalled.
+ * <p/>
+ * The preferred (fast) path is to keep the body as an unconsumed parser and to
+ * unmarshal the business object directly from the XMLStreamReader.  Some operations
+ * (SAAJ conversion, counting the body blocks, handlers that touch the body, etc.)
+ * force the body to be built into an OM tree first.  Each time this happens the
+ * reason is logged (debug) along with the call stack (trace).  If monitoring is
+ * enabled the streamed/built unmarshal counts and the expansion reasons are also
+ * collected so that tests and administrators can verify that the fast path is used.
+ * <p/>
+ * In normal usage, monitoring is off.
+ */
+public class OMExpansionMonitor {
+
+    private static final Log log = LogFactory.getLog(OMExpansionMonitor.class);
+
+    /** The body was converted into a SAAJ SOAPEnvelope */
+    public static final String REASON_SAAJ = "SAAJ SOAPEnvelope requested";
+    /** All of the body blocks were parsed in order to count or locate them */
+    public static final String REASON_BODY_BLOCKS = "Body blocks counted or accessed by index";
+    /** The XMLPart was read with a caching XMLStreamReader */
+    public static final String REASON_CACHED_READER = "Caching XMLStreamReader requested";
+    /** A JAXB object was unmarshalled from an already built OMElement */
+    public static final String REASON_UNMARSHAL_FROM_OM = "JAXB unmarshal from a built OMElement";
+
+    private static boolean monitoring = false;
+    private static long streamedCount = 0;
+    private static long builtCount = 0;
+    private static Map<String, Long> reasons = new HashMap<String, Long>();
+    private static String semifore = "OMExpansionMonitor";
+
+    /**
+     * Intentionally private.  All methods are static.
+     */
+    private OMExpansionMonitor() {
+
+    }
+
+    /**
+     * @return true if monitoring
+     */
+    public static boolean isMonitoring() {
+        return monitoring;
+    }
+
+    /**
+     * Set monitoring
+     * @param monitoring boolean
+     */
+    public static void setMonitoring(boolean monitoring) {
+        OMExpansionMonitor.monitoring = monitoring;
+    }
+
+    /**
+     * Clear the counts and the recorded reasons
+     */
+    public static void clear() {
+        synchronized(semifore) {
+            streamedCount = 0;
+            builtCount = 0;
+            reasons.clear();
+        }
+    }
+
+    /**
+     * @return number of JAXB objects unmarshalled directly from the parser
+     */
+    public static long getStreamedCount() {
+        synchronized(semifore) {
+            return streamedCount;
+        }
+    }
+
+    /**
+     * @return number of JAXB objects unmarshalled from a built OM tree
+     */
+    public static long getBuiltCount() {
+        synchronized(semifore) {
+            return builtCount;
+        }
+    }
+
+    /**
+     * @return map of expansion reason to the number of times that it occurred
+     */
+    public static Map<String, Long> getReasons() {
+        synchronized(semifore) {
+            return new HashMap<String, Long>(reasons);
+        }
+    }
+
+    /**
+     * Record an unmarshal of a business object
+     * @param streamed true if the object was unmarshalled directly from the parser
+     */
+    public static void unmarshalled(boolean streamed) {
+        if (!streamed) {
+            expanded(REASON_UNMARSHAL_FROM_OM);
+        }
+        if (isMonitoring()) {
+            synchronized(semifore) {
+                if (streamed) {
+                    streamedCount++;
+                } else {
+                    builtCount++;
+                }
+            }
+        }
+    }
+
+    /**
+     * Record that the message content was (or will be) built into an OM tree
+     * @param reason String describing why
+     */
+    public static void expanded(String reason) {
+        if (log.isDebugEnabled()) {
+            log.debug("The message content is built into an OM tree. Reason: " + reason);
+            if (log.isTraceEnabled()) {
+                log.trace(JavaUtils.callStackToString());
+            }
+        }
+        if (isMonitoring()) {
+            synchronized(semifore) {
+                Long count = reasons.get(reason);
+                reasons.put(reason, Long.valueOf(count == null ? 1 : count.longValue() + 1));
+            }
+        }
+    }
+}
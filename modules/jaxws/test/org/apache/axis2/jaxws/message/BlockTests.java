@@ -37,6 +37,7 @@ import org.apache.axis2.jaxws.message.factory.MessageFactory;
 import org.apache.axis2.jaxws.message.factory.OMBlockFactory;
 import org.apache.axis2.jaxws.message.factory.SourceBlockFactory;
 import org.apache.axis2.jaxws.message.factory.XMLStringBlockFactory;
+import org.apache.axis2.jaxws.message.util.OMExpansionMonitor;
 import org.apache.axis2.jaxws.message.util.Reader2Writer;
 import org.apache.axis2.jaxws.registry.FactoryRegistry;
 import org.apache.axis2.jaxws.unitTest.TestLogger;
@@ -446,6 +447,72 @@ public class BlockTests extends TestCase {
 
     }
 
+    /**
+     * Verify that a JAXB object is unmarshalled directly from the parser
+     * (no OM is built) when nothing else touches the block content.
+     * @throws Exception
+     */
+    public void testJAXBInflowStreaming() throws Exception {
+        OMExpansionMonitor.setMonitoring(true);
+        OMExpansionMonitor.clear();
+        try {
+            Object bo = createJAXBInflowBlock(false).getBusinessObject(true);
+            assertTrue(bo instanceof EchoString);
+            assertEquals(1, OMExpansionMonitor.getStreamedCount());
+            assertEquals(0, OMExpansionMonitor.getBuiltCount());
+            assertTrue(OMExpansionMonitor.getReasons().isEmpty());
+        } finally {
+            OMExpansionMonitor.clear();
+            OMExpansionMonitor.setMonitoring(false);
+        }
+    }
+
+    /**
+     * Verify that the monitor reports an unmarshal from a built OM tree.
+     * @throws Exception
+     */
+    public void testJAXBInflowFromBuiltOM() throws Exception {
+        OMExpansionMonitor.setMonitoring(true);
+        OMExpansionMonitor.clear();
+        try {
+            Object bo = createJAXBInflowBlock(true).getBusinessObject(true);
+            assertTrue(bo instanceof EchoString);
+            assertEquals(0, OMExpansionMonitor.getStreamedCount());
+            assertEquals(1, OMExpansionMonitor.getBuiltCount());
+            assertEquals(Long.valueOf(1), OMExpansionMonitor.getReasons().
+                         get(OMExpansionMonitor.REASON_UNMARSHAL_FROM_OM));
+        } finally {
+            OMExpansionMonitor.clear();
+            OMExpansionMonitor.setMonitoring(false);
+        }
+    }
+
+    private Block createJAXBInflowBlock(boolean build) throws Exception {
+        JAXBBlockFactory f = (JAXBBlockFactory)
+        FactoryRegistry.getFactory(JAXBBlockFactory.class);
+
+        ObjectFactory factory = new ObjectFactory();
+        EchoString jaxb = factory.createEchoString(); 
+        jaxb.setInput("Hello World");
+        JAXBBlockContext context = new JAXBBlockContext(EchoString.class.getPackage().getName());
+
+        StringWriter sw = new StringWriter();
+        XMLStreamWriter writer = outputFactory.createXMLStreamWriter(sw);
+        Marshaller marshaller = JAXBUtils.getJAXBMarshaller(context.getJAXBContext());
+        marshaller.marshal(jaxb, writer);
+        JAXBUtils.releaseJAXBMarshaller(context.getJAXBContext(), marshaller);
+        writer.flush();
+        sw.flush();
+
+        OMXMLParserWrapper builder = OMXMLBuilderFactory.createOMBuilder(
+                new StringReader(sw.toString()));
+        OMElement om = builder.getDocumentElement();
+        if (build) {
+            om.build();
+        }
+        return f.createFrom(om, context, null);
+    }
+
     /**
      * Create a Block representing an JAXB and simulate a 
      * normal Dispatch<JAXB> input flow
@@ -76,4 +76,32 @@ public class JAXBUtilsTests extends TestCase {
         assertTrue(jbcString.indexOf(BadData2.class.getName()) < 0);
         assertTrue(jbcString.indexOf(BadData3.class.getName()) < 0);
     }
+
+    /**
+     * Validate that the time needed to build a JAXBContext is
+     * recorded by the JAXBUtilsMonitor.
+     * @throws Exception
+     */
+    public void testContextBuildTime() throws Exception {
+        TreeSet<String> contextPackages = new TreeSet<String>();
+        contextPackages.add("org.apache.ws.jaxb.a");
+        String key = "testContextBuildTime" + contextPackages.toString();
+        
+        JAXBUtilsMonitor.setMonitoring(true);
+        JAXBUtilsMonitor.clear();
+        try {
+            JAXBUtils.getJAXBContext(contextPackages, new Holder<CONSTRUCTION_TYPE>(), key);
+            Long buildTime = JAXBUtilsMonitor.getContextBuildTimes().get(key);
+            assertNotNull(buildTime);
+            assertTrue(buildTime.longValue() >= 0);
+            
+            // The second request uses the cached JAXBContext
+            JAXBUtilsMonitor.clear();
+            JAXBUtils.getJAXBContext(contextPackages, new Holder<CONSTRUCTION_TYPE>(), key);
+            assertTrue(JAXBUtilsMonitor.getContextBuildTimes().isEmpty());
+        } finally {
+            JAXBUtilsMonitor.clear();
+            JAXBUtilsMonitor.setMonitoring(false);
+        }
+    }
 }
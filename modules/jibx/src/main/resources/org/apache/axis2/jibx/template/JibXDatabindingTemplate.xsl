@@ -457,7 +457,7 @@
                 }
       </xsl:if>
             } catch (Exception e) {
-                Exception outex = convertException(e);
+                Exception outex = convertException(e, "<xsl:value-of select="/class/method[@name=$method-name]/@originalName"/>");
       <xsl:for-each select="/class/method[@name=$method-name]/fault/param">
                 if (outex instanceof <xsl:value-of select="@name"/>) {
                     throw (<xsl:value-of select="@name"/>)outex;
@@ -538,7 +538,7 @@
                 _operationClient.execute(false);
                 
             } catch (Exception e) {
-                Exception outex = convertException(e);
+                Exception outex = convertException(e, "<xsl:value-of select="/class/method[@name=$method-name]/@originalName"/>");
                 throw new RuntimeException("Unexpected exception type: " +
                     outex.getClass().getName(), outex);
             }
@@ -696,26 +696,21 @@
   <!-- Called by main template to create utility methods -->
   <xsl:template name="stub-utility-methods">
     
-    private Exception convertException(Exception ex) throws java.rmi.RemoteException {
+    private Exception convertException(Exception ex, String operationName) throws java.rmi.RemoteException {
         if (ex instanceof org.apache.axis2.AxisFault) {
             org.apache.axis2.AxisFault f = (org.apache.axis2.AxisFault)ex;
             org.apache.axiom.om.OMElement faultElt = f.getDetail();
             if (faultElt != null) {
-                if (faultExceptionNameMap.containsKey(faultElt.getQName())) {
+                org.apache.axis2.client.FaultMapping.Fault fault = faultMapping.getFault(faultElt.getQName(), operationName);
+                if (fault != null) {
                     try {
                         
                         // first create the actual exception
-                        String exceptionClassName = (String)faultExceptionClassNameMap.get(faultElt.getQName());
-                        Class exceptionClass = Class.forName(exceptionClassName);
-                        Exception e = (Exception)exceptionClass.newInstance();
+                        Exception e = fault.newException();
                         
                         // build the message object from the details
-                        String messageClassName = (String)faultMessageMap.get(faultElt.getQName());
-                        Class messageClass = Class.forName(messageClassName);
-                        Object messageObject = fromOM(faultElt, messageClass);
-                        java.lang.reflect.Method m = exceptionClass.getMethod("setFaultMessage",
-                            new Class[] { messageClass });
-                        m.invoke(e, new Object[] { messageObject });
+                        Object messageObject = fromOM(faultElt, fault.getMessageClass());
+                        fault.setFaultMessage(e, messageObject);
                         return e;
                         
                     } catch (ClassCastException e) {
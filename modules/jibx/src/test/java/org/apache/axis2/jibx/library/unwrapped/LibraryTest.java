@@ -20,11 +20,13 @@ package org.apache.axis2.jibx.library.unwrapped;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.fail;
 
 import org.apache.axis2.Constants;
 import org.apache.axis2.description.AxisService;
 import org.apache.axis2.engine.AxisConfiguration;
 import org.apache.axis2.jibx.beans.Book;
+import org.apache.axis2.jibx.library.unwrapped.client.DuplicateBookException;
 import org.apache.axis2.jibx.library.unwrapped.client.LibraryStub;
 import org.apache.axis2.jibx.library.unwrapped.service.LibraryImpl;
 import org.apache.axis2.testutils.UtilServer;
@@ -81,4 +83,18 @@ public class LibraryTest {
         assertEquals(1, authors.length);
         assertEquals("Charles Darwin", authors[0]);
     }
+    
+    @Test
+    public void testFault() throws Exception {
+        LibraryStub stub = new LibraryStub(UtilServer.getConfigurationContext(), "http://127.0.0.1:" + UtilServer.TESTING_PORT + "/axis2/services/library");
+        
+        stub.addBook("Paperback", "0140432051", new String[] { "Charles Darwin" }, "The Origin of Species");
+        try {
+            stub.addBook("Paperback", "0140432051", new String[] { "Charles Darwin" }, "The Origin of Species");
+            fail("Expected DuplicateBookException");
+        } catch (DuplicateBookException ex) {
+            assertNotNull(ex.getFaultMessage());
+            assertEquals("0140432051", ex.getFaultMessage().getIsbn());
+        }
+    }
 }
@@ -24,6 +24,7 @@ import java.util.List;
 import java.util.Map;
 
 import org.apache.axis2.jibx.beans.Book;
+import org.apache.axis2.jibx.beans.DuplicateBook;
 import org.apache.axis2.jibx.beans.Type;
 
 public class LibraryImpl implements LibrarySkeletonInterface {
@@ -52,7 +53,13 @@ public class LibraryImpl implements LibrarySkeletonInterface {
         return result.toArray(new Book[result.size()]);
     }
 
-    public boolean addBook(String type, String isbn, String[] authors, String title) {
+    public boolean addBook(String type, String isbn, String[] authors, String title)
+            throws DuplicateBookException {
+        if (books.containsKey(isbn)) {
+            DuplicateBookException ex = new DuplicateBookException();
+            ex.setFaultMessage(new DuplicateBook(isbn));
+            throw ex;
+        }
         books.put(isbn, new Book(type, isbn, title, authors));
         return true;
     }
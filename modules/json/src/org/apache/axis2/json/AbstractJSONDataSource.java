@@ -28,12 +28,15 @@ import javax.xml.stream.XMLStreamReader;
 import javax.xml.stream.XMLStreamException;
 import java.io.IOException;
 import java.io.Reader;
-import java.io.BufferedReader;
+import java.io.StringReader;
 
 /**
  * JSONDataSource keeps the JSON String inside and consumes it when needed. This is to be kept in
  * the OMSourcedElement and can be used either to expand the tree or get the JSON String
  * directly without expanding. This uses the "Mapped" JSON convention.
+ * <p/>
+ * Unless the JSON String has been requested first, expanding the tree streams the JSON message
+ * from the reader, and the data source can then not be read again.
  */
 
 public abstract class AbstractJSONDataSource extends AbstractPullOMDataSource {
@@ -47,16 +50,41 @@ public abstract class AbstractJSONDataSource extends AbstractPullOMDataSource {
     }
 
     public final XMLStreamReader getReader() throws XMLStreamException {
-        return getXMLInputFactory().createXMLStreamReader(new JSONTokener(getJSONString()));
+        if (jsonString != null) {
+            return createXMLStreamReader(new StringReader(jsonString));
+        }
+        if (isRead) {
+            throw new XMLStreamException("The JSON message has already been consumed");
+        }
+        isRead = true;
+        return createXMLStreamReader(jsonReader);
+    }
+
+    /**
+     * Create the reader for the XML representation of a JSON message. By default, the whole
+     * message is read and then parsed by the input factory of the data source; subclasses should
+     * override this method to stream the message instead.
+     *
+     * @param reader The JSON message
+     * @return The XML stream reader
+     */
+    protected XMLStreamReader createXMLStreamReader(Reader reader) throws XMLStreamException {
+        try {
+            return getXMLInputFactory().createXMLStreamReader(new JSONTokener(read(reader)));
+        } catch (IOException e) {
+            throw new XMLStreamException(e);
+        }
     }
 
     protected abstract AbstractXMLInputFactory getXMLInputFactory() throws XMLStreamException;
     
     public boolean isDestructiveRead() {
-        // TODO: for the moment the data source in not destructive (because it reads the entire message into memory before processing it), but this will change...
-        return false;
+        return jsonString == null;
     }
 
+    /**
+     * @return The JSON String, or null if the JSON message has already been streamed
+     */
     @Override
     public Object getObject() {
         return getJSONString();
@@ -68,20 +96,23 @@ public abstract class AbstractJSONDataSource extends AbstractPullOMDataSource {
             return jsonString;
         } else {
             try {
-                BufferedReader br = new BufferedReader(jsonReader);
-                StringBuilder sb = new StringBuilder(512);
-                char[] tempBuf = new char[512];
-                int readLen;
-
-                while((readLen = br.read(tempBuf)) != -1) {
-                    sb.append(tempBuf, 0, readLen);
-                }
-                jsonString = sb.toString();
+                jsonString = read(jsonReader);
             } catch (IOException e) {
-                throw new OMException();
+                throw new OMException(e);
             }
             isRead = true;
+            jsonReader = null;
             return jsonString;
         }
     }
+
+    private static String read(Reader reader) throws IOException {
+        StringBuilder sb = new StringBuilder(512);
+        char[] tempBuf = new char[4096];
+        int readLen;
+        while ((readLen = reader.read(tempBuf)) != -1) {
+            sb.append(tempBuf, 0, readLen);
+        }
+        return sb.toString();
+    }
 }
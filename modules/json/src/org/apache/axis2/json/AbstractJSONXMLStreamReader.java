@@ -0,0 +1,802 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.json;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import javax.xml.XMLConstants;
+import javax.xml.namespace.NamespaceContext;
+import javax.xml.namespace.QName;
+import javax.xml.stream.Location;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * Streams the StAX events of a JSON message which follows one of the conventions of Jettison,
+ * reading the message from a {@link Reader} as the events are pulled. Unlike the Jettison input
+ * factories, which parse the whole message into a JSON object tree first, only the members of
+ * the current JSON object which precede its first nested object or array are held in memory, as
+ * the attributes of an element have to be known before its start element is reported.
+ * <p/>
+ * Consequently, attributes which follow a nested object or array are rejected, unless reading
+ * ahead is enabled with {@link #setReadAheadAttributes(boolean)}. In that case the rest of a JSON
+ * object with nested objects or arrays is read into a {@link BufferedJsonReader}, which holds the
+ * tokens of the message until they are replayed, so that the whole object is held in memory.
+ * <p/>
+ * The name of the first member of the top level JSON object is the name of the document element;
+ * any other members of the top level object are ignored.
+ */
+public abstract class AbstractJSONXMLStreamReader implements XMLStreamReader {
+
+    protected static final String ATTRIBUTE_PREFIX = "@";
+    protected static final String TEXT_KEY = "$";
+    protected static final String XMLNS = "xmlns";
+
+    private static final String[][] NO_NAMESPACES = new String[0][];
+
+    /**
+     * The reader of the JSON message, or the reader replaying the part of the message which has
+     * been read ahead
+     */
+    private JsonReader jsonReader;
+
+    /**
+     * The events which have been read from the JSON message but not yet been reported
+     */
+    private final LinkedList<Event> events = new LinkedList<Event>();
+
+    /**
+     * The elements which are being read from the JSON message
+     */
+    private final LinkedList<Frame> frames = new LinkedList<Frame>();
+
+    /**
+     * The elements whose start element has been reported but not their end element
+     */
+    private final LinkedList<Event> openElements = new LinkedList<Event>();
+
+    private Event event = Event.START_DOCUMENT;
+    private boolean started;
+    private boolean readAheadAttributes;
+
+    protected AbstractJSONXMLStreamReader(Reader reader) {
+        jsonReader = new JsonReader(reader);
+        jsonReader.setLenient(true);
+    }
+
+    /**
+     * Accept attributes which follow the nested objects and arrays of an element, by reading the
+     * rest of the JSON object ahead. This must be set before the first event is read.
+     *
+     * @param readAheadAttributes true to read ahead, false to stream the JSON message and reject
+     *                            such attributes (the default)
+     */
+    public void setReadAheadAttributes(boolean readAheadAttributes) {
+        this.readAheadAttributes = readAheadAttributes;
+    }
+
+    /**
+     * Process the value of the first member of the top level JSON object, which is the
+     * document element. The JSON reader is positioned at the value.
+     *
+     * @param key The name of the member
+     */
+    protected abstract void processRoot(String key) throws IOException, XMLStreamException;
+
+    /**
+     * Process a member, or an array item, with a value which is neither an object nor an array,
+     * except for the text member.
+     *
+     * @param key   The name of the member
+     * @param value The value, or null if the value is null
+     */
+    protected abstract void processScalar(String key, String value)
+            throws XMLStreamException;
+
+    /**
+     * @param key The name of a member holding an element
+     * @return The name of the element
+     */
+    protected abstract QName createElementName(String key) throws XMLStreamException;
+
+    /**
+     * @param key The name of a member holding an attribute, without the leading '@'
+     * @return The name of the attribute
+     */
+    protected abstract QName createAttributeName(String key) throws XMLStreamException;
+
+    /**
+     * Find the namespace bound to a prefix by the elements which are being read
+     *
+     * @param prefix The prefix, or "" for the default namespace
+     * @return The namespace URI, or null if the prefix is not bound
+     */
+    protected String findNamespaceURI(String prefix) {
+        for (Frame frame : frames) {
+            for (String[] namespace : frame.namespaces) {
+                if (namespace[0].equals(prefix)) {
+                    return namespace[1];
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Start an element whose value is the JSON object the reader is positioned at
+     *
+     * @param key The name of the member holding the object
+     */
+    protected void startObjectElement(String key) throws IOException, XMLStreamException {
+        jsonReader.beginObject();
+        Frame frame = new Frame(false);
+        List<String[]> attributes = new ArrayList<String[]>();
+        List<String[]> namespaces = new ArrayList<String[]>();
+        while (jsonReader.hasNext()) {
+            String name = jsonReader.nextName();
+            JsonToken token = jsonReader.peek();
+            if (name.startsWith(ATTRIBUTE_PREFIX)) {
+                readAttribute(key, name.substring(ATTRIBUTE_PREFIX.length()), attributes,
+                        namespaces);
+            } else if (token == JsonToken.BEGIN_OBJECT || token == JsonToken.BEGIN_ARRAY) {
+                frame.pendingKey = name;
+                break;
+            } else {
+                if (frame.buffered == null) {
+                    frame.buffered = new ArrayList<String[]>();
+                }
+                frame.buffered.add(new String[]{name, readScalar()});
+            }
+        }
+        if (frame.pendingKey != null && readAheadAttributes) {
+            // Look for attributes following the nested objects and arrays. Unless the object is
+            // part of a buffered object already, the rest of the object is read ahead, and read
+            // from the buffer until the end of the element.
+            BufferedJsonReader buffer;
+            if (jsonReader instanceof BufferedJsonReader) {
+                buffer = (BufferedJsonReader) jsonReader;
+            } else {
+                buffer = new BufferedJsonReader(jsonReader);
+                frame.outerReader = jsonReader;
+                jsonReader = buffer;
+            }
+            int mark = buffer.mark();
+            buffer.skipValue();
+            while (buffer.hasNext()) {
+                String name = buffer.nextName();
+                if (name.startsWith(ATTRIBUTE_PREFIX)) {
+                    readAttribute(key, name.substring(ATTRIBUTE_PREFIX.length()), attributes,
+                            namespaces);
+                } else {
+                    buffer.skipValue();
+                }
+            }
+            buffer.reset(mark);
+        }
+        if (!namespaces.isEmpty()) {
+            frame.namespaces = namespaces.toArray(new String[namespaces.size()][]);
+        }
+        // The namespaces declared by the element are in scope for its own name
+        frames.addFirst(frame);
+
+        Event start = new Event(START_ELEMENT, createElementName(key), frame.namespaces);
+        if (!attributes.isEmpty()) {
+            start.attributeNames = new QName[attributes.size()];
+            start.attributeValues = new String[attributes.size()];
+            for (int i = 0; i < attributes.size(); i++) {
+                start.attributeNames[i] = createAttributeName(attributes.get(i)[0]);
+                start.attributeValues[i] = attributes.get(i)[1];
+            }
+        }
+        frame.name = start.name;
+        events.add(start);
+    }
+
+    /**
+     * Read the value of an attribute member, or of the member declaring the namespaces
+     *
+     * @param key        The name of the member holding the element
+     * @param attribute  The name of the attribute member, without the leading '@'
+     * @param attributes The attributes read so far, as pairs of name and value
+     * @param namespaces The namespaces declared so far, as pairs of prefix and URI
+     */
+    private void readAttribute(String key, String attribute, List<String[]> attributes,
+                               List<String[]> namespaces) throws IOException, XMLStreamException {
+        JsonToken token = jsonReader.peek();
+        if (XMLNS.equals(attribute) && token == JsonToken.BEGIN_OBJECT) {
+            jsonReader.beginObject();
+            while (jsonReader.hasNext()) {
+                String prefix = jsonReader.nextName();
+                if (TEXT_KEY.equals(prefix)) {
+                    prefix = XMLConstants.DEFAULT_NS_PREFIX;
+                }
+                namespaces.add(new String[]{prefix, readScalar()});
+            }
+            jsonReader.endObject();
+        } else {
+            if (token == JsonToken.BEGIN_OBJECT || token == JsonToken.BEGIN_ARRAY) {
+                throw new XMLStreamException("Attribute [" + attribute
+                        + "] of element [" + key + "] does not have a simple value");
+            }
+            String value = readScalar();
+            attributes.add(new String[]{attribute, value == null ? "" : value});
+        }
+    }
+
+    /**
+     * Start a sequence of elements whose values are the items of the JSON array the reader is
+     * positioned at
+     *
+     * @param key  The name of the member holding the array
+     * @param name The name of an element enclosing the sequence, or null if there is none
+     */
+    protected void startArray(String key, QName name) throws IOException {
+        jsonReader.beginArray();
+        Frame frame = new Frame(true);
+        frame.key = key;
+        frame.name = name;
+        frames.addFirst(frame);
+        if (name != null) {
+            events.add(new Event(START_ELEMENT, name, NO_NAMESPACES));
+        }
+    }
+
+    /**
+     * Add an element which only holds text
+     *
+     * @param name The name of the element
+     * @param text The text, or null for an empty element
+     */
+    protected void addSimpleElement(QName name, String text) {
+        events.add(new Event(START_ELEMENT, name, NO_NAMESPACES));
+        if (text != null) {
+            events.add(new Event(text));
+        }
+        events.add(new Event(END_ELEMENT, name, NO_NAMESPACES));
+    }
+
+    /**
+     * Read a value which is neither an object nor an array
+     *
+     * @return The value as text, or null if the value is null
+     */
+    protected String readScalar() throws IOException, XMLStreamException {
+        JsonToken token = jsonReader.peek();
+        switch (token) {
+            case STRING:
+            case NUMBER:
+                return jsonReader.nextString();
+            case BOOLEAN:
+                return String.valueOf(jsonReader.nextBoolean());
+            case NULL:
+                jsonReader.nextNull();
+                return null;
+            default:
+                throw new XMLStreamException("Unexpected " + token + " in JSON message");
+        }
+    }
+
+    protected JsonReader getJsonReader() {
+        return jsonReader;
+    }
+
+    /**
+     * Process the value of a member or an array item
+     */
+    private void processValue(String key) throws IOException, XMLStreamException {
+        JsonToken token = jsonReader.peek();
+        if (TEXT_KEY.equals(key)) {
+            String text;
+            if (token == JsonToken.BEGIN_ARRAY) {
+                StringBuilder sb = new StringBuilder();
+                jsonReader.beginArray();
+                while (jsonReader.hasNext()) {
+                    sb.append(readScalar());
+                }
+                jsonReader.endArray();
+                text = sb.toString();
+            } else {
+                text = readScalar();
+            }
+            if (text != null) {
+                events.add(new Event(text));
+            }
+        } else if (token == JsonToken.BEGIN_OBJECT) {
+            startObjectElement(key);
+        } else if (token == JsonToken.BEGIN_ARRAY) {
+            startArray(key, null);
+        } else {
+            processScalar(key, readScalar());
+        }
+    }
+
+    /**
+     * Read the JSON message until at least one event is available
+     */
+    private void readEvents() throws XMLStreamException {
+        try {
+            while (events.isEmpty()) {
+                if (!started) {
+                    started = true;
+                    jsonReader.beginObject();
+                    if (!jsonReader.hasNext()) {
+                        throw new XMLStreamException("The JSON message is empty");
+                    }
+                    processRoot(jsonReader.nextName());
+                    continue;
+                }
+                Frame frame = frames.peek();
+                if (frame == null) {
+                    events.add(Event.END_DOCUMENT);
+                } else if (frame.array) {
+                    if (jsonReader.hasNext()) {
+                        processValue(frame.key);
+                    } else {
+                        jsonReader.endArray();
+                        endFrame();
+                    }
+                } else if (frame.buffered != null && frame.bufferedIndex < frame.buffered.size()) {
+                    String[] member = frame.buffered.get(frame.bufferedIndex);
+                    frame.buffered.set(frame.bufferedIndex++, null);
+                    if (TEXT_KEY.equals(member[0])) {
+                        if (member[1] != null) {
+                            events.add(new Event(member[1]));
+                        }
+                    } else {
+                        processScalar(member[0], member[1]);
+                    }
+                } else if (frame.pendingKey != null) {
+                    String key = frame.pendingKey;
+                    frame.pendingKey = null;
+                    processValue(key);
+                } else if (jsonReader.hasNext()) {
+                    String key = jsonReader.nextName();
+                    if (key.startsWith(ATTRIBUTE_PREFIX)) {
+                        if (!readAheadAttributes) {
+                            throw new XMLStreamException("Attribute [" + key.substring(1)
+                                    + "] of element [" + frame.name
+                                    + "] must precede the nested objects and arrays of the element");
+                        }
+                        // Read ahead when the element was started
+                        jsonReader.skipValue();
+                    } else {
+                        processValue(key);
+                    }
+                } else {
+                    jsonReader.endObject();
+                    endFrame();
+                }
+            }
+        } catch (IOException e) {
+            throw new XMLStreamException(e);
+        } catch (IllegalStateException e) {
+            // Thrown by the JSON reader on an unexpected token
+            throw new XMLStreamException(e.getMessage(), e);
+        }
+    }
+
+    private void endFrame() {
+        Frame frame = frames.removeFirst();
+        if (frame.outerReader != null) {
+            jsonReader = frame.outerReader;
+        }
+        if (frame.name != null) {
+            events.add(new Event(END_ELEMENT, frame.name, frame.namespaces));
+        }
+    }
+
+    public int next() throws XMLStreamException {
+        if (event.type == END_DOCUMENT) {
+            throw new IllegalStateException("No more events");
+        }
+        if (event.type == END_ELEMENT) {
+            openElements.removeFirst();
+        }
+        if (events.isEmpty()) {
+            readEvents();
+        }
+        event = events.removeFirst();
+        if (event.type == START_ELEMENT) {
+            openElements.addFirst(event);
+        }
+        return event.type;
+    }
+
+    public boolean hasNext() throws XMLStreamException {
+        return event.type != END_DOCUMENT;
+    }
+
+    public int nextTag() throws XMLStreamException {
+        int eventType = next();
+        while ((eventType == CHARACTERS && isWhiteSpace()) || eventType == COMMENT) {
+            eventType = next();
+        }
+        if (eventType != START_ELEMENT && eventType != END_ELEMENT) {
+            throw new XMLStreamException("Expected start or end tag");
+        }
+        return eventType;
+    }
+
+    public String getElementText() throws XMLStreamException {
+        if (event.type != START_ELEMENT) {
+            throw new XMLStreamException("Expected start element");
+        }
+        StringBuilder sb = new StringBuilder();
+        int eventType = next();
+        while (eventType != END_ELEMENT) {
+            if (eventType == CHARACTERS) {
+                sb.append(getText());
+            } else {
+                throw new XMLStreamException("Element text content may not contain elements");
+            }
+            eventType = next();
+        }
+        return sb.toString();
+    }
+
+    public void require(int type, String namespaceURI, String localName)
+            throws XMLStreamException {
+        if (type != event.type) {
+            throw new XMLStreamException("Expected event type " + type);
+        }
+        if (namespaceURI != null && !namespaceURI.equals(getNamespaceURI())) {
+            throw new XMLStreamException("Expected namespace " + namespaceURI);
+        }
+        if (localName != null && !localName.equals(getLocalName())) {
+            throw new XMLStreamException("Expected local name " + localName);
+        }
+    }
+
+    public void close() throws XMLStreamException {
+        // The JSON reader is owned by the data source
+    }
+
+    public Object getProperty(String name) throws IllegalArgumentException {
+        return null;
+    }
+
+    public int getEventType() {
+        return event.type;
+    }
+
+    public boolean isStartElement() {
+        return event.type == START_ELEMENT;
+    }
+
+    public boolean isEndElement() {
+        return event.type == END_ELEMENT;
+    }
+
+    public boolean isCharacters() {
+        return event.type == CHARACTERS;
+    }
+
+    public boolean isWhiteSpace() {
+        if (event.type != CHARACTERS) {
+            return false;
+        }
+        for (int i = 0; i < event.text.length(); i++) {
+            if (!Character.isWhitespace(event.text.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public boolean hasName() {
+        return event.type == START_ELEMENT || event.type == END_ELEMENT;
+    }
+
+    public QName getName() {
+        checkName();
+        return event.name;
+    }
+
+    public String getLocalName() {
+        checkName();
+        return event.name.getLocalPart();
+    }
+
+    public String getNamespaceURI() {
+        checkName();
+        return event.name.getNamespaceURI();
+    }
+
+    public String getPrefix() {
+        checkName();
+        return event.name.getPrefix();
+    }
+
+    public int getAttributeCount() {
+        checkStartElement();
+        return event.attributeNames == null ? 0 : event.attributeNames.length;
+    }
+
+    public QName getAttributeName(int index) {
+        checkStartElement();
+        return event.attributeNames[index];
+    }
+
+    public String getAttributeLocalName(int index) {
+        return getAttributeName(index).getLocalPart();
+    }
+
+    public String getAttributeNamespace(int index) {
+        return getAttributeName(index).getNamespaceURI();
+    }
+
+    public String getAttributePrefix(int index) {
+        return getAttributeName(index).getPrefix();
+    }
+
+    public String getAttributeType(int index) {
+        getAttributeName(index);
+        return "CDATA";
+    }
+
+    public String getAttributeValue(int index) {
+        checkStartElement();
+        return event.attributeValues[index];
+    }
+
+    public String getAttributeValue(String namespaceURI, String localName) {
+        checkStartElement();
+        for (int i = 0; i < getAttributeCount(); i++) {
+            QName attributeName = event.attributeNames[i];
+            if (attributeName.getLocalPart().equals(localName) && (namespaceURI == null
+                    || namespaceURI.equals(attributeName.getNamespaceURI()))) {
+                return event.attributeValues[i];
+            }
+        }
+        return null;
+    }
+
+    public boolean isAttributeSpecified(int index) {
+        getAttributeName(index);
+        return true;
+    }
+
+    public int getNamespaceCount() {
+        checkName();
+        return event.namespaces.length;
+    }
+
+    public String getNamespacePrefix(int index) {
+        checkName();
+        return event.namespaces[index][0];
+    }
+
+    public String getNamespaceURI(int index) {
+        checkName();
+        return event.namespaces[index][1];
+    }
+
+    public String getNamespaceURI(String prefix) {
+        if (prefix == null) {
+            throw new IllegalArgumentException("The prefix must not be null");
+        }
+        for (Event element : openElements) {
+            for (String[] namespace : element.namespaces) {
+                if (namespace[0].equals(prefix)) {
+                    return namespace[1];
+                }
+            }
+        }
+        if (XMLConstants.XML_NS_PREFIX.equals(prefix)) {
+            return XMLConstants.XML_NS_URI;
+        } else if (XMLConstants.XMLNS_ATTRIBUTE.equals(prefix)) {
+            return XMLConstants.XMLNS_ATTRIBUTE_NS_URI;
+        }
+        return null;
+    }
+
+    public NamespaceContext getNamespaceContext() {
+        return new NamespaceContext() {
+            public String getNamespaceURI(String prefix) {
+                String namespaceURI = AbstractJSONXMLStreamReader.this.getNamespaceURI(prefix);
+                return namespaceURI == null ? XMLConstants.NULL_NS_URI : namespaceURI;
+            }
+
+            public String getPrefix(String namespaceURI) {
+                Iterator prefixes = getPrefixes(namespaceURI);
+                return prefixes.hasNext() ? (String) prefixes.next() : null;
+            }
+
+            public Iterator getPrefixes(String namespaceURI) {
+                List<String> prefixes = new ArrayList<String>();
+                for (Event element : openElements) {
+                    for (String[] namespace : element.namespaces) {
+                        if (namespace[1].equals(namespaceURI)
+                                && namespaceURI.equals(
+                                AbstractJSONXMLStreamReader.this.getNamespaceURI(namespace[0]))
+                                && !prefixes.contains(namespace[0])) {
+                            prefixes.add(namespace[0]);
+                        }
+                    }
+                }
+                return Collections.unmodifiableList(prefixes).iterator();
+            }
+        };
+    }
+
+    public boolean hasText() {
+        return event.type == CHARACTERS;
+    }
+
+    public String getText() {
+        checkCharacters();
+        return event.text;
+    }
+
+    public char[] getTextCharacters() {
+        return getText().toCharArray();
+    }
+
+    public int getTextCharacters(int sourceStart, char[] target, int targetStart, int length)
+            throws XMLStreamException {
+        String text = getText();
+        int count = Math.min(length, text.length() - sourceStart);
+        if (count > 0) {
+            text.getChars(sourceStart, sourceStart + count, target, targetStart);
+        }
+        return Math.max(count, 0);
+    }
+
+    public int getTextStart() {
+        checkCharacters();
+        return 0;
+    }
+
+    public int getTextLength() {
+        return getText().length();
+    }
+
+    public String getEncoding() {
+        return null;
+    }
+
+    public String getVersion() {
+        return null;
+    }
+
+    public boolean isStandalone() {
+        return false;
+    }
+
+    public boolean standaloneSet() {
+        return false;
+    }
+
+    public String getCharacterEncodingScheme() {
+        return null;
+    }
+
+    public String getPITarget() {
+        return null;
+    }
+
+    public String getPIData() {
+        return null;
+    }
+
+    public Location getLocation() {
+        return new Location() {
+            public int getLineNumber() {
+                return -1;
+            }
+
+            public int getColumnNumber() {
+                return -1;
+            }
+
+            public int getCharacterOffset() {
+                return -1;
+            }
+
+            public String getPublicId() {
+                return null;
+            }
+
+            public String getSystemId() {
+                return null;
+            }
+        };
+    }
+
+    private void checkName() {
+        if (!hasName()) {
+            throw new IllegalStateException("Not a start or end element");
+        }
+    }
+
+    private void checkStartElement() {
+        if (event.type != START_ELEMENT) {
+            throw new IllegalStateException("Not a start element");
+        }
+    }
+
+    private void checkCharacters() {
+        if (event.type != CHARACTERS) {
+            throw new IllegalStateException("Not a text event");
+        }
+    }
+
+    /**
+     * An element, or a sequence of elements from an array, being read from the JSON message
+     */
+    private static class Frame {
+        private final boolean array;
+        private QName name;
+        private String[][] namespaces = NO_NAMESPACES;
+
+        // For arrays, the name of the member holding the array
+        private String key;
+
+        // For objects, the members preceding the first nested object or array, except for the
+        // attributes, and the name of the member holding that nested object or array
+        private List<String[]> buffered;
+        private int bufferedIndex;
+        private String pendingKey;
+
+        // The reader to continue with after the element, if the rest of the object has been
+        // read ahead
+        private JsonReader outerReader;
+
+        private Frame(boolean array) {
+            this.array = array;
+        }
+    }
+
+    private static class Event {
+        private static final Event START_DOCUMENT =
+                new Event(XMLStreamReader.START_DOCUMENT, null, NO_NAMESPACES);
+        private static final Event END_DOCUMENT =
+                new Event(XMLStreamReader.END_DOCUMENT, null, NO_NAMESPACES);
+
+        private final int type;
+        private final QName name;
+        private final String[][] namespaces;
+        private final String text;
+        private QName[] attributeNames;
+        private String[] attributeValues;
+
+        private Event(int type, QName name, String[][] namespaces) {
+            this.type = type;
+            this.name = name;
+            this.namespaces = namespaces;
+            this.text = null;
+        }
+
+        private Event(String text) {
+            this.type = XMLStreamReader.CHARACTERS;
+            this.name = null;
+            this.namespaces = NO_NAMESPACES;
+            this.text = text;
+        }
+    }
+}
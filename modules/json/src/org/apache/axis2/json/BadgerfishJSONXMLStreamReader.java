@@ -0,0 +1,71 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.json;
+
+import javax.xml.XMLConstants;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLStreamException;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Streams a JSON message which follows the "Badgerfish" convention. Every element is an object,
+ * or an array of objects for a sequence of elements with the same name. Members whose names
+ * start with '@' are attributes, the member named '$' is text, and the '@xmlns' member declares
+ * the namespaces, the default namespace being named '$'. Element and attribute names may carry
+ * the prefix of a declared namespace.
+ */
+public class BadgerfishJSONXMLStreamReader extends AbstractJSONXMLStreamReader {
+
+    public BadgerfishJSONXMLStreamReader(Reader reader) {
+        super(reader);
+    }
+
+    protected void processRoot(String key) throws IOException, XMLStreamException {
+        startObjectElement(key);
+    }
+
+    protected void processScalar(String key, String value) throws XMLStreamException {
+        throw new XMLStreamException("The value of element [" + key
+                + "] must be an object or an array of objects");
+    }
+
+    protected QName createElementName(String key) throws XMLStreamException {
+        return createQName(key, true);
+    }
+
+    protected QName createAttributeName(String key) throws XMLStreamException {
+        return createQName(key, false);
+    }
+
+    private QName createQName(String key, boolean element) throws XMLStreamException {
+        int colon = key.indexOf(':');
+        if (colon == -1) {
+            String namespaceURI = element ? findNamespaceURI(XMLConstants.DEFAULT_NS_PREFIX) : null;
+            return namespaceURI == null ? new QName(key) : new QName(namespaceURI, key);
+        }
+        String prefix = key.substring(0, colon);
+        String namespaceURI = findNamespaceURI(prefix);
+        if (namespaceURI == null) {
+            throw new XMLStreamException("Undeclared namespace prefix: " + prefix);
+        }
+        return new QName(namespaceURI, key.substring(colon + 1), prefix);
+    }
+}
@@ -0,0 +1,207 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.json;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Replays the rest of a JSON object which has been read ahead of the JSON message, so that the
+ * attributes which follow the nested objects and arrays of an element are known when its start
+ * element is reported. The reader can be reset to an earlier position, so that the nested objects
+ * of the buffered object can also be read ahead without copying them again. Unless a position is
+ * marked, the tokens which have been replayed are dropped.
+ */
+class BufferedJsonReader extends JsonReader {
+
+    /**
+     * The minimum number of replayed tokens to drop at once
+     */
+    private static final int DROP_THRESHOLD = 256;
+
+    private final List<JsonToken> tokens = new ArrayList<JsonToken>();
+    private final List<String> values = new ArrayList<String>();
+    private int position;
+    private boolean marked;
+
+    /**
+     * Read the rest of the current JSON object, i.e. the value of the current member, the
+     * following members and the end of the object
+     *
+     * @param reader The reader, positioned at the value of a member
+     */
+    BufferedJsonReader(JsonReader reader) throws IOException {
+        super(new StringReader(""));
+        copyValue(reader);
+        while (reader.hasNext()) {
+            add(JsonToken.NAME, reader.nextName());
+            copyValue(reader);
+        }
+        reader.endObject();
+        add(JsonToken.END_OBJECT, null);
+    }
+
+    private void copyValue(JsonReader reader) throws IOException {
+        JsonToken token = reader.peek();
+        switch (token) {
+            case BEGIN_OBJECT:
+                reader.beginObject();
+                add(token, null);
+                while (reader.hasNext()) {
+                    add(JsonToken.NAME, reader.nextName());
+                    copyValue(reader);
+                }
+                reader.endObject();
+                add(JsonToken.END_OBJECT, null);
+                break;
+            case BEGIN_ARRAY:
+                reader.beginArray();
+                add(token, null);
+                while (reader.hasNext()) {
+                    copyValue(reader);
+                }
+                reader.endArray();
+                add(JsonToken.END_ARRAY, null);
+                break;
+            case BOOLEAN:
+                add(token, String.valueOf(reader.nextBoolean()));
+                break;
+            case NULL:
+                reader.nextNull();
+                add(token, null);
+                break;
+            default:
+                add(token, reader.nextString());
+        }
+    }
+
+    private void add(JsonToken token, String value) {
+        tokens.add(token);
+        values.add(value);
+    }
+
+    /**
+     * @return The current position, to be passed to {@link #reset(int)}
+     */
+    int mark() {
+        marked = true;
+        return position;
+    }
+
+    /**
+     * Return to a position obtained from {@link #mark()}
+     */
+    void reset(int mark) {
+        position = mark;
+        marked = false;
+    }
+
+    /**
+     * @return The number of tokens held by the reader
+     */
+    int size() {
+        return tokens.size();
+    }
+
+    /**
+     * Drop the tokens which have been replayed, once they make up half of the buffer
+     */
+    private void dropReplayedTokens() {
+        if (!marked && position >= DROP_THRESHOLD && position * 2 >= tokens.size()) {
+            tokens.subList(0, position).clear();
+            values.subList(0, position).clear();
+            position = 0;
+        }
+    }
+
+    public JsonToken peek() {
+        return position < tokens.size() ? tokens.get(position) : JsonToken.END_DOCUMENT;
+    }
+
+    public boolean hasNext() {
+        JsonToken token = peek();
+        return token != JsonToken.END_OBJECT && token != JsonToken.END_ARRAY
+                && token != JsonToken.END_DOCUMENT;
+    }
+
+    public void beginObject() {
+        next(JsonToken.BEGIN_OBJECT);
+    }
+
+    public void endObject() {
+        next(JsonToken.END_OBJECT);
+    }
+
+    public void beginArray() {
+        next(JsonToken.BEGIN_ARRAY);
+    }
+
+    public void endArray() {
+        next(JsonToken.END_ARRAY);
+    }
+
+    public String nextName() {
+        return next(JsonToken.NAME);
+    }
+
+    public String nextString() {
+        return next(peek() == JsonToken.NUMBER ? JsonToken.NUMBER : JsonToken.STRING);
+    }
+
+    public boolean nextBoolean() {
+        return Boolean.parseBoolean(next(JsonToken.BOOLEAN));
+    }
+
+    public void nextNull() {
+        next(JsonToken.NULL);
+    }
+
+    public void skipValue() {
+        int depth = 0;
+        do {
+            JsonToken token = peek();
+            if (token == JsonToken.END_DOCUMENT) {
+                throw new IllegalStateException("Unexpected end of the buffered JSON object");
+            }
+            position++;
+            if (token == JsonToken.BEGIN_OBJECT || token == JsonToken.BEGIN_ARRAY) {
+                depth++;
+            } else if (token == JsonToken.END_OBJECT || token == JsonToken.END_ARRAY) {
+                depth--;
+            }
+        } while (depth > 0);
+        dropReplayedTokens();
+    }
+
+    private String next(JsonToken expected) {
+        JsonToken token = peek();
+        if (token != expected) {
+            throw new IllegalStateException("Expected " + expected + " but was " + token);
+        }
+        String value = values.get(position++);
+        dropReplayedTokens();
+        return value;
+    }
+}
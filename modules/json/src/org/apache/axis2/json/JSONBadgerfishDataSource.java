@@ -19,9 +19,11 @@
 
 package org.apache.axis2.json;
 
+import org.apache.axis2.context.MessageContext;
 import org.codehaus.jettison.AbstractXMLInputFactory;
 import org.codehaus.jettison.badgerfish.BadgerFishXMLInputFactory;
 
+import javax.xml.stream.XMLStreamReader;
 import java.io.Reader;
 
 /**
@@ -29,13 +31,29 @@ import java.io.Reader;
  */
 
 public class JSONBadgerfishDataSource extends AbstractJSONDataSource {
+    private final MessageContext messageContext;
 
     public JSONBadgerfishDataSource(Reader jsonReader) {
+        this(jsonReader, null);
+    }
+
+    public JSONBadgerfishDataSource(Reader jsonReader, MessageContext messageContext) {
         super(jsonReader);
+        this.messageContext = messageContext;
     }
 
     @Override
     protected AbstractXMLInputFactory getXMLInputFactory() {
         return new BadgerFishXMLInputFactory();
     }
+
+    @Override
+    protected XMLStreamReader createXMLStreamReader(Reader reader) {
+        BadgerfishJSONXMLStreamReader xmlStreamReader = new BadgerfishJSONXMLStreamReader(reader);
+        if (messageContext != null) {
+            xmlStreamReader.setReadAheadAttributes(
+                    JSONUtil.isReadAheadAttributes(messageContext.getAxisService()));
+        }
+        return xmlStreamReader;
+    }
 }
@@ -31,6 +31,6 @@ import org.apache.axis2.context.MessageContext;
 public class JSONBadgerfishOMBuilder extends AbstractJSONOMBuilder {
     @Override
     protected AbstractJSONDataSource getDataSource(Reader jsonReader, MessageContext messageContext) {
-        return new JSONBadgerfishDataSource(jsonReader);
+        return new JSONBadgerfishDataSource(jsonReader, messageContext);
     }
 }
@@ -27,6 +27,7 @@ import org.codehaus.jettison.mapped.MappedXMLInputFactory;
 import java.io.Reader;
 
 import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 
 /**
  * JSON data source implementation for the "Mapped" convention.
@@ -50,4 +51,16 @@ public class JSONDataSource extends AbstractJSONDataSource {
         //input factory for "Mapped" convention
         return new MappedXMLInputFactory(JSONUtil.getNS2JNSMap(service));
     }
+
+    @Override
+    protected XMLStreamReader createXMLStreamReader(Reader reader) throws XMLStreamException {
+        AxisService service = messageContext.getAxisService();
+        if (service == null) {
+            throw new XMLStreamException("AxisService not yet set; unable to create namespace map");
+        }
+        MappedJSONXMLStreamReader xmlStreamReader =
+                new MappedJSONXMLStreamReader(reader, JSONUtil.getNS2JNSMap(service));
+        xmlStreamReader.setReadAheadAttributes(JSONUtil.isReadAheadAttributes(service));
+        return xmlStreamReader;
+    }
 }
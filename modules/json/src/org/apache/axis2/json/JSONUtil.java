@@ -26,9 +26,22 @@ import javax.xml.namespace.QName;
 
 import org.apache.axiom.om.OMElement;
 import org.apache.axis2.description.AxisService;
+import org.apache.axis2.util.JavaUtils;
 
 public final class JSONUtil {
+    /**
+     * The service parameter which enables attributes following the nested objects and arrays of
+     * an element in incoming messages; see
+     * {@link AbstractJSONXMLStreamReader#setReadAheadAttributes(boolean)}
+     */
+    public static final String READ_AHEAD_ATTRIBUTES = "jsonReadAheadAttributes";
+
     private JSONUtil() {}
+
+    public static boolean isReadAheadAttributes(AxisService service) {
+        return service != null
+                && JavaUtils.isTrueExplicitly(service.getParameterValue(READ_AHEAD_ATTRIBUTES));
+    }
     
     public static Map<String,String> getNS2JNSMap(AxisService service) {
         Map<String,String> ns2jnsMap = new HashMap<String,String>();
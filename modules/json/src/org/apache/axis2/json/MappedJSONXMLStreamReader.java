@@ -0,0 +1,97 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.json;
+
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLStreamException;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Streams a JSON message which follows the "Mapped" convention. Members whose names start with
+ * '@' are attributes, the member named '$' is text, and an array holds a sequence of elements
+ * with the name of the member holding the array. Element names may be prefixed with a JSON
+ * namespace, separated by a '.', which is mapped onto an XML namespace.
+ */
+public class MappedJSONXMLStreamReader extends AbstractJSONXMLStreamReader {
+
+    private final Map<String, String> jnsToXns;
+
+    /**
+     * @param reader    The JSON message
+     * @param xnsToJns The mapping of XML namespaces onto JSON namespaces
+     */
+    public MappedJSONXMLStreamReader(Reader reader, Map xnsToJns) {
+        super(reader);
+        jnsToXns = new HashMap<String, String>();
+        for (Iterator it = xnsToJns.entrySet().iterator(); it.hasNext();) {
+            Map.Entry entry = (Map.Entry) it.next();
+            jnsToXns.put((String) entry.getValue(), (String) entry.getKey());
+        }
+    }
+
+    protected void processRoot(String key) throws IOException, XMLStreamException {
+        switch (getJsonReader().peek()) {
+            case BEGIN_OBJECT:
+                startObjectElement(key);
+                break;
+            case BEGIN_ARRAY:
+                // A top level array is wrapped into an element with the same name as its items
+                startArray(key, createElementName(key));
+                break;
+            default:
+                processScalar(key, readScalar());
+        }
+    }
+
+    protected void processScalar(String key, String value) throws XMLStreamException {
+        addSimpleElement(createElementName(key), value);
+    }
+
+    protected QName createElementName(String key) throws XMLStreamException {
+        QName name = createQName(key);
+        if (name == null) {
+            String xns = jnsToXns.get("");
+            return xns == null ? new QName(key) : new QName(xns, key);
+        }
+        return name;
+    }
+
+    protected QName createAttributeName(String key) throws XMLStreamException {
+        QName name = createQName(key);
+        return name == null ? new QName(key) : name;
+    }
+
+    /**
+     * @return The qualified name of a key prefixed with a configured JSON namespace, or null if
+     *         the key has no such prefix, i.e. the dot is part of the local name
+     */
+    private QName createQName(String key) {
+        int dot = key.lastIndexOf('.');
+        if (dot == -1) {
+            return null;
+        }
+        String xns = jnsToXns.get(key.substring(0, dot));
+        return xns == null ? null : new QName(xns, key.substring(dot + 1));
+    }
+}
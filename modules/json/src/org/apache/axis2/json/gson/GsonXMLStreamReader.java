@@ -25,9 +25,8 @@ import org.apache.axis2.AxisFault;
 import org.apache.axis2.context.ConfigurationContext;
 import org.apache.axis2.json.gson.factory.JSONType;
 import org.apache.axis2.json.gson.factory.JsonConstant;
+import org.apache.axis2.json.gson.factory.JsonMappingCache;
 import org.apache.axis2.json.gson.factory.JsonObject;
-import org.apache.axis2.json.gson.factory.XmlNode;
-import org.apache.axis2.json.gson.factory.XmlNodeGenerator;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.ws.commons.schema.XmlSchema;
@@ -38,12 +37,9 @@ import javax.xml.stream.Location;
 import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.XMLStreamReader;
 import java.io.IOException;
-import java.util.HashMap;
-import java.util.LinkedList;
+import java.util.Collections;
 import java.util.List;
-import java.util.Map;
 import java.util.NoSuchElementException;
-import java.util.Queue;
 import java.util.Stack;
 
 
@@ -67,13 +63,14 @@ public class GsonXMLStreamReader implements XMLStreamReader {
 
     private QName elementQname;
 
-    private XmlNode mainXmlNode;
-
     private List<XmlSchema> xmlSchemaList;
 
-    private Queue<JsonObject> queue = new LinkedList<JsonObject>();
+    /**
+     * JsonObjects of the request element in document order, shared with the other readers of the element
+     */
+    private List<JsonObject> jsonObjects = Collections.emptyList();
 
-    private XmlNodeGenerator xmlNodeGenerator;
+    private int nextJsonObject;
 
     private Stack<JsonObject> stackObj = new Stack<JsonObject>();
     private Stack<JsonObject> miniStack = new Stack<JsonObject>();
@@ -111,28 +108,8 @@ public class GsonXMLStreamReader implements XMLStreamReader {
     }
 
     private void process() throws AxisFault {
-        Object ob = configContext.getProperty(JsonConstant.XMLNODES);
-        if (ob != null) {
-            Map<QName, XmlNode> nodeMap = (Map<QName, XmlNode>) ob;
-            XmlNode requesNode = nodeMap.get(elementQname);
-            if (requesNode != null) {
-                xmlNodeGenerator = new XmlNodeGenerator();
-                queue = xmlNodeGenerator.getQueue(requesNode);
-            } else {
-                xmlNodeGenerator = new XmlNodeGenerator(xmlSchemaList, elementQname);
-                mainXmlNode = xmlNodeGenerator.getMainXmlNode();
-                queue = xmlNodeGenerator.getQueue(mainXmlNode);
-                nodeMap.put(elementQname, mainXmlNode);
-                configContext.setProperty(JsonConstant.XMLNODES, nodeMap);
-            }
-        } else {
-            Map<QName, XmlNode> newNodeMap = new HashMap<QName, XmlNode>();
-            xmlNodeGenerator = new XmlNodeGenerator(xmlSchemaList, elementQname);
-            mainXmlNode = xmlNodeGenerator.getMainXmlNode();
-            queue = xmlNodeGenerator.getQueue(mainXmlNode);
-            newNodeMap.put(elementQname, mainXmlNode);
-            configContext.setProperty(JsonConstant.XMLNODES, newNodeMap);
-        }
+        jsonObjects = JsonMappingCache.getInstance(configContext).getJsonObjects(elementQname, xmlSchemaList);
+        nextJsonObject = 0;
         isProcessed = true;
     }
 
@@ -635,11 +612,12 @@ public class GsonXMLStreamReader implements XMLStreamReader {
             } else {
                 throw new XMLStreamException(JsonConstant.IN_JSON_MESSAGE_NOT_VALID + "expected : " + jsonObj.getName() + " but found : " + name);
             }
-        } else if (!queue.isEmpty()) {
-            JsonObject jsonObj = queue.peek();
+        } else if (nextJsonObject < jsonObjects.size()) {
+            JsonObject jsonObj = jsonObjects.get(nextJsonObject);
             if (jsonObj.getName().equals(name)) {
                 namespace = jsonObj.getNamespaceUri();
-                stackObj.push(queue.poll());
+                stackObj.push(jsonObj);
+                nextJsonObject++;
             } else {
                 throw new XMLStreamException(JsonConstant.IN_JSON_MESSAGE_NOT_VALID + "expected : " + jsonObj.getName() + " but found : " + name);
             }
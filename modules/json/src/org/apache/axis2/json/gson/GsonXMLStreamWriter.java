@@ -22,10 +22,8 @@ package org.apache.axis2.json.gson;
 import com.google.gson.stream.JsonWriter;
 import org.apache.axis2.context.ConfigurationContext;
 import org.apache.axis2.json.gson.factory.JSONType;
-import org.apache.axis2.json.gson.factory.JsonConstant;
+import org.apache.axis2.json.gson.factory.JsonMappingCache;
 import org.apache.axis2.json.gson.factory.JsonObject;
-import org.apache.axis2.json.gson.factory.XmlNode;
-import org.apache.axis2.json.gson.factory.XmlNodeGenerator;
 import org.apache.ws.commons.schema.XmlSchema;
 
 import javax.xml.namespace.NamespaceContext;
@@ -33,11 +31,10 @@ import javax.xml.namespace.QName;
 import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.XMLStreamWriter;
 import java.io.IOException;
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import java.util.Queue;
 import java.util.Stack;
 
 
@@ -46,9 +43,12 @@ public class GsonXMLStreamWriter implements XMLStreamWriter {
     private JsonWriter jsonWriter;
 
     /**
-     * queue is used to keep the outgoing response structure according to the response XMLSchema
+     * jsonObjects keeps the outgoing response structure according to the response XMLSchema. It is
+     * shared with the other writers of the response element, so it is only walked using nextJsonObject
      */
-    private Queue<JsonObject> queue = new LinkedList<JsonObject>();
+    private List<JsonObject> jsonObjects = Collections.emptyList();
+
+    private int nextJsonObject;
 
     /**
      * This stacks use to process the outgoing response
@@ -75,15 +75,8 @@ public class GsonXMLStreamWriter implements XMLStreamWriter {
      */
     private QName elementQName;
 
-    /**
-     * Intermediate representation of XmlSchema
-     */
-    private XmlNode mainXmlNode;
-
     private ConfigurationContext configContext;
 
-    private XmlNodeGenerator xmlNodeGenerator;
-
     private boolean isProcessed;
 
     /**
@@ -101,28 +94,8 @@ public class GsonXMLStreamWriter implements XMLStreamWriter {
     }
 
     private void process() throws IOException {
-        Object ob = configContext.getProperty(JsonConstant.XMLNODES);
-        if (ob != null) {
-            Map<QName, XmlNode> nodeMap = (Map<QName, XmlNode>) ob;
-            XmlNode resNode = nodeMap.get(elementQName);
-            if (resNode != null) {
-                xmlNodeGenerator = new XmlNodeGenerator();
-                queue = xmlNodeGenerator.getQueue(resNode);
-            } else {
-                xmlNodeGenerator = new XmlNodeGenerator(xmlSchemaList, elementQName);
-                mainXmlNode = xmlNodeGenerator.getMainXmlNode();
-                queue = xmlNodeGenerator.getQueue(mainXmlNode);
-                nodeMap.put(elementQName, mainXmlNode);
-                configContext.setProperty(JsonConstant.XMLNODES, nodeMap);
-            }
-        } else {
-            Map<QName, XmlNode> newNodeMap = new HashMap<QName, XmlNode>();
-            xmlNodeGenerator = new XmlNodeGenerator(xmlSchemaList, elementQName);
-            mainXmlNode = xmlNodeGenerator.getMainXmlNode();
-            queue = xmlNodeGenerator.getQueue(mainXmlNode);
-            newNodeMap.put(elementQName, mainXmlNode);
-            configContext.setProperty(JsonConstant.XMLNODES, newNodeMap);
-        }
+        jsonObjects = JsonMappingCache.getInstance(configContext).getJsonObjects(elementQName, xmlSchemaList);
+        nextJsonObject = 0;
         isProcessed = true;
         this.jsonWriter.beginObject();
     }
@@ -206,8 +179,8 @@ public class GsonXMLStreamWriter implements XMLStreamWriter {
         JsonObject stackObj = null;
         try {
             if (miniStack.isEmpty()) {
-                if (!queue.isEmpty()) {
-                    JsonObject queObj = queue.peek();
+                if (nextJsonObject < jsonObjects.size()) {
+                    JsonObject queObj = jsonObjects.get(nextJsonObject);
                     if (queObj.getName().equals(localName)) {
                         if (flushObject != null) {
                             if (topNestedArrayObj != null && flushObject.getType() == JSONType.NESTED_ARRAY
@@ -225,7 +198,8 @@ public class GsonXMLStreamWriter implements XMLStreamWriter {
                             processedJsonObjects.push(queObj);
                         }
                         writeStartJson(queObj);
-                        stack.push(queue.poll());
+                        stack.push(queObj);
+                        nextJsonObject++;
                     } else if (!stack.isEmpty()) {
                         stackObj = stack.peek();
                         if (stackObj.getName().equals(localName)) {
@@ -417,7 +391,7 @@ public class GsonXMLStreamWriter implements XMLStreamWriter {
                 throw new XMLStreamException("Error occours while write first begin object ");
             }
         }
-        if (queue.isEmpty() && stack.isEmpty()) {
+        if (nextJsonObject == jsonObjects.size() && stack.isEmpty()) {
             try {
                 if (flushObject != null) {
                     writeEndJson(flushObject);
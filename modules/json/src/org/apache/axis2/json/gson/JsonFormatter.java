@@ -27,6 +27,7 @@ import org.apache.axis2.AxisFault;
 import org.apache.axis2.Constants;
 import org.apache.axis2.context.MessageContext;
 import org.apache.axis2.json.gson.factory.JsonConstant;
+import org.apache.axis2.json.gson.rpc.JsonUtils;
 import org.apache.axis2.transport.MessageFormatter;
 import org.apache.axis2.wsdl.WSDLConstants;
 import org.apache.commons.logging.Log;
@@ -82,7 +83,8 @@ public class JsonFormatter implements MessageFormatter {
                     throw new AxisFault("Error while processing fault code in JsonWriter");
                 }
 
-            } else if (retObj == null) {
+            } else if (retObj == null && outMsgCtxt.getProperty(JsonConstant.RETURN_TYPE) == null) {
+                // The response has been produced as XML, convert it using the schema of the message
                 OMElement element = outMsgCtxt.getEnvelope().getBody().getFirstElement();
                 QName elementQname = outMsgCtxt.getAxisOperation().getMessage
                         (WSDLConstants.MESSAGE_LABEL_OUT_VALUE).getElementQName();
@@ -105,12 +107,19 @@ public class JsonFormatter implements MessageFormatter {
                 }
 
             } else {
+                // The return value of a JSON native service, write it as is without going
+                // through the envelope
                 try {
-                    Gson gson = new Gson();
                     jsonWriter.beginObject();
                     jsonWriter.name(JsonConstant.RESPONSE);
-                    Type returnType = (Type) outMsgCtxt.getProperty(JsonConstant.RETURN_TYPE);
-                    gson.toJson(retObj, returnType, jsonWriter);
+                    if (retObj == null) {
+                        // void or null return value
+                        jsonWriter.nullValue();
+                    } else {
+                        Gson gson = JsonUtils.getGson();
+                        Type returnType = (Type) outMsgCtxt.getProperty(JsonConstant.RETURN_TYPE);
+                        gson.toJson(retObj, returnType, jsonWriter);
+                    }
                     jsonWriter.endObject();
                     jsonWriter.flush();
 
@@ -0,0 +1,143 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.json.gson.factory;
+
+import org.apache.axis2.AxisFault;
+import org.apache.axis2.context.ConfigurationContext;
+import org.apache.ws.commons.schema.XmlSchema;
+
+import javax.xml.namespace.QName;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Caches the JSON mapping of message elements, i.e. the JsonObjects generated from the XmlSchema
+ * of an element in document order. A mapping is generated once, on first use, and then shared by
+ * all the GsonXMLStreamReaders and GsonXMLStreamWriters of the element, which only walk it.
+ * <p/>
+ * The mappings are kept per element and schema list, as services may define elements with the
+ * same QName in different schemas. The schema lists are only weakly referenced, so the mappings
+ * of an undeployed service are dropped along with its schemas.
+ * <p/>
+ * The cache is kept in the ConfigurationContext under the {@link JsonConstant#XMLNODES} property.
+ */
+public class JsonMappingCache {
+
+    private final Map<Key, List<JsonObject>> mappings = new ConcurrentHashMap<Key, List<JsonObject>>();
+    private final ReferenceQueue<List<XmlSchema>> staleKeys = new ReferenceQueue<List<XmlSchema>>();
+
+    /**
+     * @param configContext The ConfigurationContext
+     * @return The mapping cache of the ConfigurationContext, which is created if needed
+     */
+    public static JsonMappingCache getInstance(ConfigurationContext configContext) {
+        Object cache = configContext.getProperty(JsonConstant.XMLNODES);
+        if (cache instanceof JsonMappingCache) {
+            return (JsonMappingCache) cache;
+        }
+        synchronized (JsonMappingCache.class) {
+            cache = configContext.getProperty(JsonConstant.XMLNODES);
+            if (!(cache instanceof JsonMappingCache)) {
+                cache = new JsonMappingCache();
+                configContext.setProperty(JsonConstant.XMLNODES, cache);
+            }
+            return (JsonMappingCache) cache;
+        }
+    }
+
+    /**
+     * Get the JSON mapping of a message element. The element is mapped separately for each
+     * schema list, e.g. for each service defining it, or for a redeployed service.
+     *
+     * @param elementQName  The QName of the message element
+     * @param xmlSchemaList The schemas of the service
+     * @return The unmodifiable list of the JsonObjects of the element, in document order
+     * @throws AxisFault if the schemas can not be processed
+     */
+    public List<JsonObject> getJsonObjects(QName elementQName, List<XmlSchema> xmlSchemaList)
+            throws AxisFault {
+        Key key = new Key(elementQName, xmlSchemaList, null);
+        List<JsonObject> jsonObjects = mappings.get(key);
+        if (jsonObjects == null) {
+            // Generate each mapping only once, even if the first requests arrive concurrently
+            synchronized (this) {
+                jsonObjects = mappings.get(key);
+                if (jsonObjects == null) {
+                    removeStaleMappings();
+                    XmlNodeGenerator xmlNodeGenerator =
+                            new XmlNodeGenerator(xmlSchemaList, elementQName);
+                    jsonObjects = Collections.unmodifiableList(new ArrayList<JsonObject>(
+                            xmlNodeGenerator.getQueue(xmlNodeGenerator.getMainXmlNode())));
+                    mappings.put(new Key(elementQName, xmlSchemaList, staleKeys), jsonObjects);
+                }
+            }
+        }
+        return jsonObjects;
+    }
+
+    /**
+     * Remove the mappings of the schema lists which have been garbage collected
+     */
+    private void removeStaleMappings() {
+        Reference<? extends List<XmlSchema>> staleKey;
+        while ((staleKey = staleKeys.poll()) != null) {
+            mappings.remove(staleKey);
+        }
+    }
+
+    /**
+     * The key of a mapping, i.e. the QName of the element and the identity of the schema list
+     */
+    private static class Key extends WeakReference<List<XmlSchema>> {
+        private final QName elementQName;
+        private final int hash;
+
+        private Key(QName elementQName, List<XmlSchema> xmlSchemaList,
+                    ReferenceQueue<List<XmlSchema>> queue) {
+            super(xmlSchemaList, queue);
+            this.elementQName = elementQName;
+            this.hash = 31 * elementQName.hashCode() + System.identityHashCode(xmlSchemaList);
+        }
+
+        public int hashCode() {
+            return hash;
+        }
+
+        public boolean equals(Object obj) {
+            if (obj == this) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            List<XmlSchema> xmlSchemaList = get();
+            // A cleared key is only equal to itself
+            return xmlSchemaList != null && xmlSchemaList == other.get()
+                    && elementQName.equals(other.elementQName);
+        }
+    }
+}
@@ -56,8 +56,8 @@ public class JsonInOnlyRPCMessageReceiver extends RPCInOnlyMessageReceiver {
                 }
                 Object serviceObj = getTheImplementationObject(inMessage);
                 AxisOperation op = inMessage.getOperationContext().getAxisOperation();
-                String operation = op.getName().getLocalPart();
-                invokeService(jsonReader, serviceObj, operation);
+                Method method = JsonUtils.getOpMethod(op, serviceObj.getClass());
+                invokeService(jsonReader, serviceObj, method);
             } else {
                 throw new AxisFault("GsonXMLStreamReader should have put as a property of messageContext " +
                         "to evaluate JSON message");
@@ -68,10 +68,12 @@ public class JsonInOnlyRPCMessageReceiver extends RPCInOnlyMessageReceiver {
     }
 
     public void invokeService(JsonReader jsonReader, Object serviceObj, String operation_name) throws AxisFault {
+        Method[] allMethods = serviceObj.getClass().getDeclaredMethods();
+        invokeService(jsonReader, serviceObj, JsonUtils.getOpMethod(operation_name, allMethods));
+    }
+
+    public void invokeService(JsonReader jsonReader, Object serviceObj, Method method) throws AxisFault {
         String msg;
-        Class implClass = serviceObj.getClass();
-        Method[] allMethods = implClass.getDeclaredMethods();
-        Method method = JsonUtils.getOpMethod(operation_name, allMethods);
         Class[] paramClasses = method.getParameterTypes();
         try {
             int paramCount = paramClasses.length;
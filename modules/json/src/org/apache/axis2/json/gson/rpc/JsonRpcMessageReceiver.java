@@ -56,8 +56,11 @@ public class JsonRpcMessageReceiver extends RPCMessageReceiver {
                 }
                 Object serviceObj = getTheImplementationObject(inMessage);
                 AxisOperation op = inMessage.getOperationContext().getAxisOperation();
-                String operation = op.getName().getLocalPart();
-                invokeService(jsonReader, serviceObj, operation , outMessage);
+                Method method = JsonUtils.getOpMethod(op, serviceObj.getClass());
+                invokeService(jsonReader, serviceObj, method, outMessage);
+                // The JsonFormatter writes the response from the return object, the envelope is only
+                // a placeholder for the handlers of the out flow
+                outMessage.setEnvelope(getSOAPFactory(inMessage).getDefaultEnvelope());
             } else {
                 throw new AxisFault("GsonXMLStreamReader should be put as a property of messageContext " +
                         "to evaluate JSON message");
@@ -69,10 +72,13 @@ public class JsonRpcMessageReceiver extends RPCMessageReceiver {
 
     public void invokeService(JsonReader jsonReader, Object serviceObj, String operation_name,
                                    MessageContext outMes) throws AxisFault {
+        Method[] allMethods = serviceObj.getClass().getDeclaredMethods();
+        invokeService(jsonReader, serviceObj, JsonUtils.getOpMethod(operation_name, allMethods), outMes);
+    }
+
+    public void invokeService(JsonReader jsonReader, Object serviceObj, Method method,
+                              MessageContext outMes) throws AxisFault {
         String msg;
-        Class implClass = serviceObj.getClass();
-        Method[] allMethods = implClass.getDeclaredMethods();
-        Method method = JsonUtils.getOpMethod(operation_name, allMethods);
         Class[] paramClasses = method.getParameterTypes();
         try {
             int paramCount = paramClasses.length;
@@ -21,6 +21,8 @@ package org.apache.axis2.json.gson.rpc;
 
 import com.google.gson.Gson;
 import com.google.gson.stream.JsonReader;
+import org.apache.axis2.AxisFault;
+import org.apache.axis2.description.AxisOperation;
 
 import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
@@ -29,6 +31,21 @@ import java.lang.reflect.Method;
 
 public class JsonUtils {
 
+    /**
+     * Name of the AxisOperation parameter which caches the service method of the operation
+     */
+    public static final String JSON_METHOD = "jsonMethod";
+
+    /**
+     * Gson is thread safe and caches the type adapters it creates, so a single instance is shared
+     * by all the JSON services
+     */
+    private static final Gson gson = new Gson();
+
+    public static Gson getGson() {
+        return gson;
+    }
+
     public static Object invokeServiceClass(JsonReader jsonReader,
                                             Object service,
                                             Method operation ,
@@ -37,7 +54,6 @@ public class JsonUtils {
             IllegalAccessException, IOException  {
 
         Object[] methodParam = new Object[paramCount];
-        Gson gson = new Gson();
         String[] argNames = new String[paramCount];
 
         if( ! jsonReader.isLenient()){
@@ -63,6 +79,31 @@ public class JsonUtils {
 
     }
 
+    /**
+     * Get the service method of an operation. The method is resolved on the first request and
+     * cached in the operation.
+     *
+     * @param op        The operation
+     * @param implClass The class of the service object
+     * @return The method
+     * @throws AxisFault if the class has no method for the operation
+     */
+    public static Method getOpMethod(AxisOperation op, Class implClass) throws AxisFault {
+        Method method = (Method) op.getParameterValue(JSON_METHOD);
+        // If the declaring class has changed, e.g. because the service has been redeployed,
+        // the cached method is invalid
+        if (method == null || method.getDeclaringClass() != implClass) {
+            String methodName = op.getName().getLocalPart();
+            method = getOpMethod(methodName, implClass.getDeclaredMethods());
+            if (method == null) {
+                throw new AxisFault("No such method '" + methodName +
+                        "' in class " + implClass.getName());
+            }
+            op.addParameter(JSON_METHOD, method);
+        }
+        return method;
+    }
+
     public static Method getOpMethod(String methodName, Method[] methodSet) {
         for (Method method : methodSet) {
             String mName = method.getName();
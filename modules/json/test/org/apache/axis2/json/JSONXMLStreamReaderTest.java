@@ -0,0 +1,245 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.json;
+
+import com.google.gson.stream.JsonReader;
+import junit.framework.TestCase;
+
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.HashMap;
+import java.util.Map;
+
+public class JSONXMLStreamReaderTest extends TestCase {
+
+    public void testMapped() throws Exception {
+        assertEquals("<mapping><inner><first>test string one</first></inner>"
+                + "<inner>test string two</inner><name>foo</name></mapping>",
+                toXML(mapped("{\"mapping\":{\"inner\":[{\"first\":\"test string one\"},"
+                        + "\"test string two\"],\"name\":\"foo\"}}")));
+    }
+
+    public void testMappedAttributes() throws Exception {
+        assertEquals("<a id=\"1\" ok=\"true\"><b>2</b><c/>text<d><e>1.50</e></d><f>x</f></a>",
+                toXML(mapped("{\"a\":{\"b\":2,\"@id\":1,\"c\":null,\"$\":\"text\","
+                        + "\"@ok\":true,\"d\":{\"e\":1.50},\"f\":\"x\"},\"ignored\":1}")));
+    }
+
+    public void testMappedNamespaces() throws Exception {
+        Map<String, String> xnsToJns = new HashMap<String, String>();
+        xnsToJns.put("http://ns", "ns");
+        XMLStreamReader reader = new MappedJSONXMLStreamReader(
+                new StringReader("{\"ns.a\":{\"b\":\"x\",\"@ns.id\":\"1\"}}"), xnsToJns);
+        assertEquals(XMLStreamReader.START_ELEMENT, reader.next());
+        assertEquals("http://ns", reader.getNamespaceURI());
+        assertEquals("a", reader.getLocalName());
+        assertEquals("http://ns", reader.getAttributeNamespace(0));
+        assertEquals("1", reader.getAttributeValue("http://ns", "id"));
+        assertEquals(XMLStreamReader.START_ELEMENT, reader.next());
+        assertEquals("", reader.getNamespaceURI());
+        assertEquals("b", reader.getLocalName());
+        assertEquals("x", reader.getElementText());
+    }
+
+    public void testMappedRootValues() throws Exception {
+        assertEquals("<a><a>1</a><a>2</a><a><b>3</b></a></a>",
+                toXML(mapped("{\"a\":[1,2,{\"b\":3}]}")));
+        assertEquals("<a>1</a>", toXML(mapped("{\"a\":1}")));
+        assertEquals("<a/>", toXML(mapped("{\"a\":null}")));
+    }
+
+    public void testMappedDottedKeys() throws Exception {
+        assertEquals("<first.name last.name=\"y\">x</first.name>",
+                toXML(mapped("{\"first.name\":{\"@last.name\":\"y\",\"$\":\"x\"}}")));
+    }
+
+    public void testAttributeAfterNestedObject() throws Exception {
+        try {
+            toXML(mapped("{\"a\":{\"b\":{},\"@id\":1}}"));
+            fail("Expected XMLStreamException");
+        } catch (XMLStreamException e) {
+            // Expected
+        }
+    }
+
+    public void testReadAheadAttributes() throws Exception {
+        AbstractJSONXMLStreamReader reader = mapped("{\"a\":{\"b\":{\"c\":[1,{\"@x\":2}],"
+                + "\"@y\":3},\"@id\":1,\"d\":\"t\"},\"ignored\":{\"@z\":1}}");
+        reader.setReadAheadAttributes(true);
+        assertEquals("<a id=\"1\"><b y=\"3\"><c>1</c><c x=\"2\"/></b><d>t</d></a>",
+                toXML(reader));
+    }
+
+    public void testBadgerfishNamespacesAfterNestedObject() throws Exception {
+        AbstractJSONXMLStreamReader reader = new BadgerfishJSONXMLStreamReader(new StringReader(
+                "{\"p\":{\"aa:q\":{\"$\":\"x\"},\"@xmlns\":{\"aa\":\"http://other.ns\"}}}"));
+        reader.setReadAheadAttributes(true);
+        assertEquals(XMLStreamReader.START_ELEMENT, reader.next());
+        assertEquals(1, reader.getNamespaceCount());
+        assertEquals(XMLStreamReader.START_ELEMENT, reader.next());
+        assertEquals("http://other.ns", reader.getNamespaceURI());
+        assertEquals("x", reader.getElementText());
+        assertEquals(XMLStreamReader.END_ELEMENT, reader.next());
+        assertEquals("p", reader.getLocalName());
+        assertEquals(XMLStreamReader.END_DOCUMENT, reader.next());
+    }
+
+    public void testBadgerfish() throws Exception {
+        XMLStreamReader reader = new BadgerfishJSONXMLStreamReader(new StringReader(
+                "{\"p\":{\"@xmlns\":{\"bb\":\"http://other.nsb\",\"aa\":\"http://other.ns\","
+                        + "\"$\":\"http://def.ns\"},\"sam\":{\"$\":\"555\", \"@att\":\"lets\"},"
+                        + "\"aa:q\":[{\"$\":[\"a\",\"b\"]},{\"@bb:r\":\"s\"}]}}"));
+        assertEquals(XMLStreamReader.START_ELEMENT, reader.next());
+        assertEquals("http://def.ns", reader.getNamespaceURI());
+        assertEquals("", reader.getPrefix());
+        assertEquals(3, reader.getNamespaceCount());
+        assertEquals(XMLStreamReader.START_ELEMENT, reader.next());
+        assertEquals("http://def.ns", reader.getNamespaceURI());
+        assertEquals("sam", reader.getLocalName());
+        assertEquals("", reader.getAttributeNamespace(0));
+        assertEquals("lets", reader.getAttributeValue(null, "att"));
+        assertEquals("http://other.nsb", reader.getNamespaceURI("bb"));
+        assertEquals("555", reader.getElementText());
+        assertEquals(XMLStreamReader.START_ELEMENT, reader.next());
+        assertEquals("http://other.ns", reader.getNamespaceURI());
+        assertEquals("aa", reader.getPrefix());
+        assertEquals("ab", reader.getElementText());
+        assertEquals(XMLStreamReader.START_ELEMENT, reader.next());
+        assertEquals("q", reader.getLocalName());
+        assertEquals("http://other.nsb", reader.getAttributeNamespace(0));
+        assertEquals(XMLStreamReader.END_ELEMENT, reader.next());
+        assertEquals(XMLStreamReader.END_ELEMENT, reader.next());
+        assertEquals("p", reader.getLocalName());
+        assertEquals(XMLStreamReader.END_DOCUMENT, reader.next());
+        assertFalse(reader.hasNext());
+    }
+
+    public void testStreaming() throws Exception {
+        StringBuilder json = new StringBuilder("{\"root\":{\"child\":{\"a\":1},\"items\":[");
+        for (int i = 0; i < 10000; i++) {
+            json.append(i == 0 ? "" : ",").append("{\"item\":{\"value\":").append(i).append("}}");
+        }
+        json.append("]}}");
+        final int[] read = new int[1];
+        XMLStreamReader reader = mapped(new FilterReader(new StringReader(json.toString())) {
+            public int read(char[] cbuf, int off, int len) throws IOException {
+                int count = super.read(cbuf, off, len);
+                if (count > 0) {
+                    read[0] += count;
+                }
+                return count;
+            }
+        });
+        while (reader.next() != XMLStreamReader.START_ELEMENT
+                || !reader.getLocalName().equals("value")) {
+            // Skip to the first value
+        }
+        assertEquals("0", reader.getElementText());
+        // Only the beginning of the message has been read
+        assertTrue(read[0] < 10000);
+        assertTrue(json.length() > 200000);
+    }
+
+    public void testBufferedJsonReaderDropsReplayedTokens() throws Exception {
+        StringBuilder json = new StringBuilder("{\"a\":[");
+        for (int i = 0; i < 10000; i++) {
+            json.append(i == 0 ? "" : ",").append(i);
+        }
+        json.append("]}");
+        JsonReader jsonReader = new JsonReader(new StringReader(json.toString()));
+        jsonReader.beginObject();
+        jsonReader.nextName();
+        BufferedJsonReader buffer = new BufferedJsonReader(jsonReader);
+        assertEquals(10003, buffer.size());
+        buffer.beginArray();
+        for (int i = 0; i < 9000; i++) {
+            assertEquals(String.valueOf(i), buffer.nextString());
+        }
+        assertTrue(buffer.size() < 2000);
+        for (int i = 9000; i < 10000; i++) {
+            assertEquals(String.valueOf(i), buffer.nextString());
+        }
+        buffer.endArray();
+        buffer.endObject();
+        assertFalse(buffer.hasNext());
+    }
+
+    public void testBadgerfishErrors() throws Exception {
+        String[] invalid = {"{\"a\":{\"b\":\"text\"}}", "{\"a\":\"text\"}", "{\"x:a\":{}}", "{}"};
+        for (String json : invalid) {
+            try {
+                toXML(new BadgerfishJSONXMLStreamReader(new StringReader(json)));
+                fail("Expected XMLStreamException for " + json);
+            } catch (XMLStreamException e) {
+                // Expected
+            }
+        }
+    }
+
+    private static AbstractJSONXMLStreamReader mapped(String json) {
+        return mapped(new StringReader(json));
+    }
+
+    private static AbstractJSONXMLStreamReader mapped(Reader json) {
+        Map<String, String> xnsToJns = new HashMap<String, String>();
+        xnsToJns.put("", "");
+        return new MappedJSONXMLStreamReader(json, xnsToJns);
+    }
+
+    private static String toXML(XMLStreamReader reader) throws XMLStreamException {
+        StringBuilder sb = new StringBuilder();
+        boolean empty = false;
+        while (reader.hasNext()) {
+            switch (reader.next()) {
+                case XMLStreamReader.START_ELEMENT:
+                    if (empty) {
+                        sb.append('>');
+                    }
+                    sb.append('<').append(reader.getLocalName());
+                    for (int i = 0; i < reader.getAttributeCount(); i++) {
+                        sb.append(' ').append(reader.getAttributeLocalName(i)).append("=\"")
+                                .append(reader.getAttributeValue(i)).append('"');
+                    }
+                    empty = true;
+                    break;
+                case XMLStreamReader.CHARACTERS:
+                    if (empty) {
+                        sb.append('>');
+                        empty = false;
+                    }
+                    sb.append(reader.getText());
+                    break;
+                case XMLStreamReader.END_ELEMENT:
+                    if (empty) {
+                        sb.append("/>");
+                        empty = false;
+                    } else {
+                        sb.append("</").append(reader.getLocalName()).append('>');
+                    }
+                    break;
+            }
+        }
+        return sb.toString();
+    }
+}
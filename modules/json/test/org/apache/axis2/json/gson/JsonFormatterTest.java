@@ -133,6 +133,17 @@ public class JsonFormatterTest {
 
     }
 
+    @Test
+    public void testWriteToJSONVoidReturn() throws Exception {
+        outMsgContext.setProperty(JsonConstant.RETURN_TYPE, void.class);
+        outMsgContext.setEnvelope(soapEnvelope);
+        jsonString = "{\"" + JsonConstant.RESPONSE + "\":null}";
+
+        JsonFormatter jsonFormatter = new JsonFormatter();
+        jsonFormatter.writeTo(outMsgContext, outputFormat, outputStream, false);
+        Assert.assertEquals(jsonString, outputStream.toString());
+    }
+
 
     private OMElement createFaultOMElement() {
         OMFactory omFactory = OMAbstractFactory.getOMFactory();
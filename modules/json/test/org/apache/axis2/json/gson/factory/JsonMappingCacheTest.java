@@ -0,0 +1,136 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.json.gson.factory;
+
+import org.apache.axis2.context.ConfigurationContext;
+import org.apache.axis2.engine.AxisConfiguration;
+import org.apache.ws.commons.schema.XmlSchema;
+import org.apache.ws.commons.schema.XmlSchemaCollection;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import javax.xml.namespace.QName;
+import javax.xml.transform.stream.StreamSource;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+
+public class JsonMappingCacheTest {
+
+    static List<XmlSchema> schemaList = null;
+
+    static final QName ELEMENT_QNAME = new QName("http://test.json.axis2.apache.org", "echoPerson");
+
+    @Test
+    public void testJsonObjects() throws Exception {
+        ConfigurationContext configCtxt = new ConfigurationContext(new AxisConfiguration());
+        JsonMappingCache cache = JsonMappingCache.getInstance(configCtxt);
+        Assert.assertSame(cache, JsonMappingCache.getInstance(configCtxt));
+
+        List<JsonObject> jsonObjects = cache.getJsonObjects(ELEMENT_QNAME, schemaList);
+        Assert.assertEquals(5, jsonObjects.size());
+        Assert.assertEquals("echoPerson", jsonObjects.get(0).getName());
+        Assert.assertEquals(JSONType.NESTED_OBJECT, jsonObjects.get(0).getType());
+        Assert.assertEquals("arg0", jsonObjects.get(1).getName());
+        Assert.assertEquals("name", jsonObjects.get(2).getName());
+        Assert.assertEquals(JSONType.OBJECT, jsonObjects.get(2).getType());
+        Assert.assertSame(jsonObjects, cache.getJsonObjects(ELEMENT_QNAME, schemaList));
+
+        // A redeployed service comes with a new schema list
+        List<JsonObject> newJsonObjects =
+                cache.getJsonObjects(ELEMENT_QNAME, new ArrayList<XmlSchema>(schemaList));
+        Assert.assertNotSame(jsonObjects, newJsonObjects);
+        Assert.assertEquals(5, newJsonObjects.size());
+    }
+
+    @Test
+    public void testSameElementInDifferentServices() throws Exception {
+        JsonMappingCache cache =
+                JsonMappingCache.getInstance(new ConfigurationContext(new AxisConfiguration()));
+        List<XmlSchema> otherSchemaList = new ArrayList<XmlSchema>(schemaList);
+        List<JsonObject> jsonObjects = cache.getJsonObjects(ELEMENT_QNAME, schemaList);
+        List<JsonObject> otherJsonObjects = cache.getJsonObjects(ELEMENT_QNAME, otherSchemaList);
+        Assert.assertNotSame(jsonObjects, otherJsonObjects);
+        // Requests for both services do not replace each other's mapping
+        for (int i = 0; i < 3; i++) {
+            Assert.assertSame(jsonObjects, cache.getJsonObjects(ELEMENT_QNAME, schemaList));
+            Assert.assertSame(otherJsonObjects, cache.getJsonObjects(ELEMENT_QNAME, otherSchemaList));
+        }
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testJsonObjectsAreUnmodifiable() throws Exception {
+        ConfigurationContext configCtxt = new ConfigurationContext(new AxisConfiguration());
+        JsonMappingCache.getInstance(configCtxt).getJsonObjects(ELEMENT_QNAME, schemaList).remove(0);
+    }
+
+    @Test
+    public void testConcurrentFirstRequests() throws Exception {
+        final JsonMappingCache cache =
+                JsonMappingCache.getInstance(new ConfigurationContext(new AxisConfiguration()));
+        final CountDownLatch start = new CountDownLatch(1);
+        final List<List<JsonObject>> results = new ArrayList<List<JsonObject>>();
+        Thread[] threads = new Thread[8];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread() {
+                public void run() {
+                    try {
+                        start.await();
+                        List<JsonObject> jsonObjects = cache.getJsonObjects(ELEMENT_QNAME, schemaList);
+                        synchronized (results) {
+                            results.add(jsonObjects);
+                        }
+                    } catch (Exception e) {
+                        // The missing result fails the test
+                    }
+                }
+            };
+            threads[i].start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        Assert.assertEquals(threads.length, results.size());
+        for (List<JsonObject> jsonObjects : results) {
+            Assert.assertSame(results.get(0), jsonObjects);
+        }
+    }
+
+    @BeforeClass
+    public static void setUp() throws Exception {
+        InputStream is = null;
+        try {
+            is = new FileInputStream("test-resources/custom_schema/testSchema_2.xsd");
+            XmlSchemaCollection schemaCol = new XmlSchemaCollection();
+            XmlSchema schema = schemaCol.read(new StreamSource(is));
+            schemaList = new ArrayList<XmlSchema>();
+            schemaList.add(schema);
+        } finally {
+            if (is != null) {
+                is.close();
+            }
+        }
+    }
+}
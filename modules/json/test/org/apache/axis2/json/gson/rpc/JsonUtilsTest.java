@@ -0,0 +1,63 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.json.gson.rpc;
+
+import com.google.gson.stream.JsonReader;
+import org.apache.axis2.AxisFault;
+import org.apache.axis2.description.AxisOperation;
+import org.apache.axis2.description.InOutAxisOperation;
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.xml.namespace.QName;
+import java.io.StringReader;
+import java.lang.reflect.Method;
+
+public class JsonUtilsTest {
+
+    @Test
+    public void testGetOpMethod() throws Exception {
+        AxisOperation op = new InOutAxisOperation(new QName("echoPerson"));
+        Method method = JsonUtils.getOpMethod(op, JSONPOJOService.class);
+        Assert.assertEquals("echoPerson", method.getName());
+        Assert.assertSame(method, op.getParameterValue(JsonUtils.JSON_METHOD));
+        Assert.assertSame(method, JsonUtils.getOpMethod(op, JSONPOJOService.class));
+    }
+
+    @Test(expected = AxisFault.class)
+    public void testGetOpMethodWithUnknownOperation() throws Exception {
+        JsonUtils.getOpMethod(new InOutAxisOperation(new QName("unknown")), JSONPOJOService.class);
+    }
+
+    @Test
+    public void testInvokeServiceClass() throws Exception {
+        String jsonRequest = "{\"echoPerson\":[{\"arg0\":{\"name\":\"Simon\",\"age\":\"35\",\"gender\":\"male\"}}]}";
+        AxisOperation op = new InOutAxisOperation(new QName("echoPerson"));
+        Method method = JsonUtils.getOpMethod(op, JSONPOJOService.class);
+        Class[] paramClasses = method.getParameterTypes();
+        for (int i = 0; i < 2; i++) {
+            JsonReader jsonReader = new JsonReader(new StringReader(jsonRequest));
+            Person person = (Person) JsonUtils.invokeServiceClass(jsonReader, new JSONPOJOService(),
+                    method, paramClasses, paramClasses.length);
+            Assert.assertEquals("Simon", person.getName());
+            Assert.assertEquals("35", person.getAge());
+        }
+    }
+}
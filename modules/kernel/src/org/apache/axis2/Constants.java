@@ -133,6 +133,12 @@ public class Constants extends org.apache.axis2.namespace.Constants {
     public static final String FAULT_NAME = "faultName";
     public static final String REQUEST_PARAMETER_MAP = "requestParameterMap";
 
+    /**
+     * The HTTPLocationMatcher.Match holding the template parameters which have been extracted
+     * from the request URL while dispatching the operation
+     */
+    public static final String HTTP_LOCATION_MATCH = "httpLocationMatch";
+
     /**
      * Field REQUEST_URL_PREFIX
      */
@@ -467,5 +473,25 @@ public class Constants extends org.apache.axis2.namespace.Constants {
         public static final String DATA_BUFFER_SIZE="DataBufferSize";
         public static final int DEFAULT_DATA_BUFFER_SIZE=2048;        
 
+        /**
+         * The maximum number of suspended MessageContexts which the MessageContextStore of the
+         * ConfigurationContext holds in memory. Older MessageContexts are moved to a file. If
+         * this is not set, all suspended MessageContexts are held in memory.
+         */
+        public static final String SUSPENDED_MESSAGE_MAX_RESIDENT = "suspendedMessageMaxResident";
+
+        /**
+         * The fraction of the maximum heap size above which the MessageContextStore moves half of
+         * the suspended MessageContexts it holds in memory to a file. The default is 0.8.
+         */
+        public static final String SUSPENDED_MESSAGE_HEAP_THRESHOLD =
+                "suspendedMessageHeapThreshold";
+
+        /**
+         * The directory in which the MessageContextStore creates its file. The default is the
+         * temporary directory.
+         */
+        public static final String SUSPENDED_MESSAGE_SPILL_DIR = "suspendedMessageSpillDir";
+
     }
 }
@@ -32,6 +32,7 @@ import org.apache.axis2.context.MessageContext;
 import org.apache.axis2.description.AxisBinding;
 import org.apache.axis2.description.AxisBindingOperation;
 import org.apache.axis2.description.AxisEndpoint;
+import org.apache.axis2.description.HTTPLocationMatcher;
 import org.apache.axis2.description.WSDL20DefaultValueHolder;
 import org.apache.axis2.description.WSDL2Constants;
 import org.apache.axis2.i18n.Messages;
@@ -48,6 +49,7 @@ import java.io.UnsupportedEncodingException;
 import java.security.PrivilegedAction;
 import java.security.PrivilegedExceptionAction;
 import java.security.PrivilegedActionException;
+import java.util.Map;
 
 
 public class XFormURLEncodedBuilder implements Builder {
@@ -95,10 +97,22 @@ public class XFormURLEncodedBuilder implements Builder {
         }
 
         String requestURL = endpointReference.getAddress();
+        HTTPLocationMatcher.Match match =
+                (HTTPLocationMatcher.Match) messageContext.getProperty(
+                        Constants.HTTP_LOCATION_MATCH);
         try {
-            requestURL = extractParametersUsingHttpLocation(templatedPath, parameterMap,
-                                                            requestURL,
-                                                            queryParameterSeparator);
+            if (match != null && requestURL.equals(match.getRequestURL())
+                    && templatedPath != null && templatedPath.equals(match.getTemplate())) {
+                // The template parameters have already been extracted by the dispatcher
+                for (Map.Entry<String, String> parameter : match.getParameters().entrySet()) {
+                    addParameterToMap(parameterMap, parameter.getKey(), parameter.getValue());
+                }
+                requestURL = match.getRemainder();
+            } else {
+                requestURL = extractParametersUsingHttpLocation(templatedPath, parameterMap,
+                                                                requestURL,
+                                                                queryParameterSeparator);
+            }
         } catch (UnsupportedEncodingException e) {
             throw AxisFault.makeFault(e);
         }
@@ -0,0 +1,170 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.client;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.xml.namespace.QName;
+
+/**
+ * Maps the fault detail elements of the operations of a generated stub to the exception
+ * classes and fault message classes generated for them. This replaces the fault maps keyed by
+ * {@link FaultMapKey} that older stubs used.
+ * <p>
+ * The lookup doesn't create any objects, and the exception and message classes, the
+ * constructors and the <code>setFaultMessage</code> method are resolved (using the class
+ * loader of the stub) the first time a fault is received and then reused. The methods declare
+ * the same exceptions as the corresponding reflection calls so that the stub can handle them
+ * in the same way.
+ */
+public class FaultMapping {
+    /**
+     * The classes generated for a fault of a given operation.
+     */
+    public static final class Fault {
+        private final ClassLoader classLoader;
+        private final String exceptionClassName;
+        private final String messageClassName;
+        private volatile Class<?> exceptionClass;
+        private volatile Class<?> messageClass;
+        private volatile Constructor<?> defaultConstructor;
+        private volatile Constructor<?> messageConstructor;
+        private volatile Method setFaultMessageMethod;
+
+        Fault(ClassLoader classLoader, String exceptionClassName, String messageClassName) {
+            this.classLoader = classLoader;
+            this.exceptionClassName = exceptionClassName;
+            this.messageClassName = messageClassName;
+        }
+
+        private Class<?> getExceptionClass() throws ClassNotFoundException {
+            Class<?> clazz = exceptionClass;
+            if (clazz == null) {
+                clazz = Class.forName(exceptionClassName, true, classLoader);
+                exceptionClass = clazz;
+            }
+            return clazz;
+        }
+
+        /**
+         * Get the class of the fault message, i.e. the class of the object that will be passed
+         * to {@link #setFaultMessage(Exception, Object)}.
+         */
+        public Class<?> getMessageClass() throws ClassNotFoundException {
+            Class<?> clazz = messageClass;
+            if (clazz == null) {
+                clazz = Class.forName(messageClassName, true, classLoader);
+                messageClass = clazz;
+            }
+            return clazz;
+        }
+
+        /**
+         * Create an instance of the exception class using its default constructor.
+         */
+        public Exception newException() throws ClassNotFoundException, NoSuchMethodException,
+                InstantiationException, IllegalAccessException, InvocationTargetException {
+            Constructor<?> constructor = defaultConstructor;
+            if (constructor == null) {
+                constructor = getExceptionClass().getConstructor();
+                defaultConstructor = constructor;
+            }
+            return (Exception)constructor.newInstance();
+        }
+
+        /**
+         * Create an instance of the exception class using its constructor that takes a message.
+         */
+        public Exception newException(String message) throws ClassNotFoundException,
+                NoSuchMethodException, InstantiationException, IllegalAccessException,
+                InvocationTargetException {
+            Constructor<?> constructor = messageConstructor;
+            if (constructor == null) {
+                constructor = getExceptionClass().getConstructor(String.class);
+                messageConstructor = constructor;
+            }
+            return (Exception)constructor.newInstance(message);
+        }
+
+        /**
+         * Set the fault message on an exception created by {@link #newException()} or
+         * {@link #newException(String)}.
+         */
+        public void setFaultMessage(Exception ex, Object faultMessage)
+                throws ClassNotFoundException, NoSuchMethodException, IllegalAccessException,
+                InvocationTargetException {
+            Method method = setFaultMessageMethod;
+            if (method == null) {
+                method = getExceptionClass().getMethod("setFaultMessage", getMessageClass());
+                setFaultMessageMethod = method;
+            }
+            method.invoke(ex, faultMessage);
+        }
+    }
+
+    private final ClassLoader classLoader;
+    // operation name -> fault element name -> fault
+    private final Map<String,Map<QName,Fault>> faults = new HashMap<String,Map<QName,Fault>>();
+
+    /**
+     * @param stubClass the generated stub class; its class loader is used to load the exception
+     *            and message classes
+     */
+    public FaultMapping(Class<?> stubClass) {
+        classLoader = stubClass.getClassLoader();
+    }
+
+    /**
+     * Register a fault. This is expected to be called from the static initializer of the stub,
+     * before the mapping is used.
+     *
+     * @param elementQName the name of the fault detail element
+     * @param operationName the local name of the operation
+     * @param exceptionClassName the name of the exception class
+     * @param messageClassName the name of the fault message class
+     */
+    public void addFault(QName elementQName, String operationName, String exceptionClassName,
+                         String messageClassName) {
+        Map<QName,Fault> operationFaults = faults.get(operationName);
+        if (operationFaults == null) {
+            operationFaults = new HashMap<QName,Fault>();
+            faults.put(operationName, operationFaults);
+        }
+        operationFaults.put(elementQName,
+                new Fault(classLoader, exceptionClassName, messageClassName));
+    }
+
+    /**
+     * Look up the fault for a fault detail element received in response to an operation.
+     *
+     * @param elementQName the name of the fault detail element
+     * @param operationName the local name of the operation
+     * @return the fault or <code>null</code> if the element is not a declared fault of the
+     *         operation
+     */
+    public Fault getFault(QName elementQName, String operationName) {
+        Map<QName,Fault> operationFaults = faults.get(operationName);
+        return operationFaults == null ? null : operationFaults.get(elementQName);
+    }
+}
@@ -34,14 +34,18 @@ import org.apache.axiom.soap.SOAPHeaderBlock;
 import org.apache.axiom.soap.SOAPProcessingException;
 import org.apache.axis2.AxisFault;
 import org.apache.axis2.addressing.EndpointReference;
+import org.apache.axis2.context.ConfigurationContext;
 import org.apache.axis2.context.MessageContext;
 import org.apache.axis2.context.NamedValue;
+import org.apache.axis2.description.AxisOperation;
 import org.apache.axis2.description.AxisService;
 import org.apache.axis2.description.OutInAxisOperation;
 import org.apache.axis2.description.OutOnlyAxisOperation;
 import org.apache.axis2.description.RobustOutOnlyAxisOperation;
+import org.apache.axis2.engine.AxisConfiguration;
 import org.apache.axis2.i18n.Messages;
 import org.apache.axis2.transport.http.HTTPConstants;
+import org.apache.axis2.util.JavaUtils;
 
 import java.util.ArrayList;
 import java.util.Iterator;
@@ -55,6 +59,13 @@ import java.util.Iterator;
  */
 public abstract class Stub {
 
+    /**
+     * Name of the {@link ConfigurationContext} property that enables the sharing of the
+     * {@link AxisService} between the instances of a generated stub class created with that
+     * configuration context. Sharing is disabled by default; see {@link ServiceCache}.
+     */
+    public static final String SHARE_SERVICE = "org.apache.axis2.client.Stub.shareService";
+
     protected AxisService _service;
     protected ArrayList modules = new ArrayList();
 
@@ -240,4 +251,120 @@ public abstract class Stub {
         _service.addOperation(outInOperation);
     }
 
+    /**
+     * An {@link AxisService} (together with the operations in the order used by the stub) that
+     * is shared by all instances of a generated stub class created with the same
+     * {@link ConfigurationContext}.
+     */
+    public static final class SharedService {
+        private final AxisService service;
+        private final AxisOperation[] operations;
+
+        SharedService(AxisService service, AxisOperation[] operations) {
+            this.service = service;
+            this.operations = operations;
+        }
+
+        public AxisService getService() {
+            return service;
+        }
+
+        public AxisOperation[] getOperations() {
+            return operations;
+        }
+    }
+
+    /**
+     * Caches the {@link AxisService} built by a generated stub class, so that the service
+     * description is only built once per {@link ConfigurationContext} instead of once per stub
+     * instance. Generated stubs hold an instance of this class in a static field. The shared
+     * service is stored as a property of the configuration context, so that it doesn't outlive
+     * it.
+     * <p>
+     * Since the stubs sharing the service also share the modules engaged on it, its policies
+     * and its parameters, the cache is only used if the {@link Stub#SHARE_SERVICE} property of
+     * the configuration context is set to <code>true</code>. Otherwise every stub instance
+     * builds its own service, as before.
+     * <p>
+     * The service is added to the {@link AxisConfiguration} before the first
+     * {@link ServiceClient} is created, so that the service clients of the individual stubs
+     * don't remove it when they are cleaned up. If the service is removed from the
+     * configuration, it is rebuilt on the next stub creation.
+     */
+    public static final class ServiceCache {
+        private final String propertyName;
+
+        /**
+         * @param stubClass the generated stub class
+         */
+        public ServiceCache(Class<? extends Stub> stubClass) {
+            propertyName = ServiceCache.class.getName() + "." + stubClass.getName();
+        }
+
+        /**
+         * Get the service shared by the stubs using a given configuration context.
+         *
+         * @param configContext the configuration context; may be <code>null</code>
+         * @return the shared service, or <code>null</code> if there is none yet, if the
+         *         configuration context is <code>null</code> or if it doesn't enable sharing
+         */
+        public synchronized SharedService get(ConfigurationContext configContext) {
+            if (!isEnabled(configContext)) {
+                return null;
+            }
+            AxisConfiguration axisConfig = configContext.getAxisConfiguration();
+            SharedService sharedService =
+                    (SharedService)configContext.getPropertyNonReplicable(propertyName);
+            if (sharedService != null) {
+                AxisService service = sharedService.getService();
+                try {
+                    if (axisConfig.getService(service.getName()) == service) {
+                        return sharedService;
+                    }
+                } catch (AxisFault ex) {
+                    // the service has been deactivated; build a new one
+                }
+                configContext.removePropertyNonReplicable(propertyName);
+            }
+            return null;
+        }
+
+        /**
+         * Add a newly built service to the configuration and make it available to other
+         * instances of the stub. If another thread has registered a service in the meantime,
+         * that service is returned instead and the new one is discarded. If the configuration
+         * context doesn't enable sharing, nothing is done and the stub keeps its own service.
+         *
+         * @param configContext the configuration context; must not be <code>null</code>
+         * @param service the service built by the stub
+         * @param operations the operations of the service in the order used by the stub
+         * @param applyPolicy whether {@link AxisService#applyPolicy()} must be called once the
+         *            service has been added to the configuration
+         * @return the shared service, or <code>null</code> if sharing is not enabled
+         * @throws AxisFault if the service can't be added to the configuration
+         */
+        public synchronized SharedService register(ConfigurationContext configContext,
+                AxisService service, AxisOperation[] operations, boolean applyPolicy)
+                throws AxisFault {
+            if (!isEnabled(configContext)) {
+                return null;
+            }
+            SharedService sharedService = get(configContext);
+            if (sharedService == null) {
+                service.setClientSide(true);
+                configContext.getAxisConfiguration().addService(service);
+                if (applyPolicy) {
+                    service.applyPolicy();
+                }
+                sharedService = new SharedService(service, operations);
+                configContext.setNonReplicableProperty(propertyName, sharedService);
+            }
+            return sharedService;
+        }
+
+        private static boolean isEnabled(ConfigurationContext configContext) {
+            return configContext != null
+                    && JavaUtils.isTrueExplicitly(configContext.getProperty(SHARE_SERVICE), false);
+        }
+    }
 }
@@ -93,6 +93,60 @@ public final class ClusteringConstants {
          */
         public static final String SYNCHRONIZE_ALL_MEMBERS = "synchronizeAll";
 
+        /**
+         * How state changes are replicated: "sync-ack" (the request thread waits until all
+         * members have acknowledged the state), "async-ack" (a dedicated thread sends the state
+         * and waits for the acknowledgements) or "fire-and-forget" (a dedicated thread sends the
+         * state without waiting for acknowledgements). This parameter can be set on the state
+         * manager, and overridden on a service group or a service. If it is not set, the
+         * {@link #SYNCHRONIZE_ALL_MEMBERS} parameter applies.
+         */
+        public static final String REPLICATION_MODE = "replicationMode";
+
+        /**
+         * The time in milliseconds during which updates of the same context are merged before
+         * they are sent, if the state is replicated asynchronously
+         */
+        public static final String REPLICATION_COALESCING_WINDOW = "replicationCoalescingWindow";
+
+        /**
+         * The maximum number of state replication commands that can be queued, if the state is
+         * replicated asynchronously. Request threads block while the queue is full.
+         */
+        public static final String REPLICATION_MAX_PENDING_COMMANDS =
+                "replicationMaxPendingCommands";
+
+        /**
+         * Should the built-in state replication and member management commands be sent in the
+         * compact binary format? Members accept both the binary format and serialized commands,
+         * but members of older versions can only receive serialized commands, so this parameter
+         * should only be set to "true" once all members of the cluster have been upgraded. The
+         * default value is "false".
+         */
+        public static final String BINARY_COMMAND_ENCODING = "binaryCommandEncoding";
+
+        /**
+         * The maximum number of ServiceGroupContexts a member requests at a time when it gets
+         * the state from a neighbour while joining the cluster. A value of 0 transfers the
+         * complete state in a single message. The default value is 500.
+         */
+        public static final String STATE_TRANSFER_PAGE_SIZE = "stateTransferPageSize";
+
+        /**
+         * The interval in milliseconds at which a load balancer requests the members of the
+         * application groups to report their load, which is used to weight the routing of new
+         * sessions. A value of 0 disables polling. The default value is 0.
+         */
+        public static final String MEMBER_LOAD_POLL_INTERVAL = "memberLoadPollInterval";
+
+        /**
+         * The number of members, in addition to its primary member, to which the state of a
+         * ServiceGroupContext is replicated. The members are selected by consistent hashing, and
+         * the state is moved when members join or leave. A value of 0 replicates the state to
+         * all members. The default value is 0.
+         */
+        public static final String REPLICATION_BACKUP_COUNT = "replicationBackupCount";
+
         /**
          * Do not automatically initialize the cluster. The programmer has to explicitly initialize
          * the cluster.
@@ -0,0 +1,204 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.clustering.management;
+
+import org.apache.axis2.clustering.Member;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maps keys, typically ServiceGroupContext IDs, onto the members of a group, so that all
+ * requests of a session are routed to the same member, and the state of the session can be
+ * replicated to a fixed set of backup members.
+ * <p/>
+ * The members are ranked using weighted rendezvous hashing: each member gets a pseudo random
+ * score for the key, scaled by the weight of the member, and the members with the highest scores
+ * are selected. When a member joins or leaves the group, only the keys owned by that member move.
+ * When the weight of a member changes, only a proportional share of the keys moves between that
+ * member and the others.
+ * <p/>
+ * The weight of a member is derived from the load it reports. To avoid moving sessions around
+ * on every small fluctuation, a new load is only taken into account if it differs sufficiently
+ * from the load currently used.
+ */
+public class MemberSelector {
+
+    /**
+     * The minimum change of the load of a member which changes its weight
+     */
+    private static final double LOAD_THRESHOLD = 0.25;
+
+    private final Map<Member, Double> loads = new ConcurrentHashMap<Member, Double>();
+
+    public MemberSelector() {
+    }
+
+    /**
+     * Create a selector which uses the loads currently used by another selector. Later changes
+     * of the loads of either selector do not affect the other one.
+     *
+     * @param selector The selector to copy the loads from
+     */
+    public MemberSelector(MemberSelector selector) {
+        loads.putAll(selector.loads);
+    }
+
+    /**
+     * Set the load of a member. The load is a non-negative number, where 0 means idle and 1 means
+     * fully loaded, e.g. the system load average divided by the number of processors. The higher
+     * the load of a member, the fewer keys it is selected for.
+     *
+     * @param member The member
+     * @param load   The load reported by the member
+     * @return true - if the weight of the member has changed, false - otherwise
+     */
+    public boolean setLoad(Member member, double load) {
+        if (Double.isNaN(load) || load < 0) {
+            load = 0;
+        }
+        Double currentLoad = loads.get(member);
+        double current = currentLoad == null ? 0 : currentLoad.doubleValue();
+        if (Math.abs(load - current) < LOAD_THRESHOLD) {
+            return false;
+        }
+        loads.put(member, Double.valueOf(load));
+        return true;
+    }
+
+    /**
+     * @param member The member
+     * @return The load of the member which is currently used to compute its weight
+     */
+    public double getLoad(Member member) {
+        Double load = loads.get(member);
+        return load == null ? 0 : load.doubleValue();
+    }
+
+    /**
+     * Forget the load of a member which has left the group
+     *
+     * @param member The member
+     */
+    public void removeMember(Member member) {
+        loads.remove(member);
+    }
+
+    /**
+     * Select the members for a key. Members which are inactive or suspended are not selected.
+     *
+     * @param key     The key
+     * @param members The members of the group
+     * @param count   The maximum number of members to select
+     * @return The selected members, the owner of the key first, followed by the members which
+     *         would own the key in turn if the previous ones left the group
+     */
+    public List<Member> select(String key, List<Member> members, int count) {
+        List<Member> selected = new ArrayList<Member>(Math.max(0, Math.min(count, members.size())));
+        if (count <= 0) {
+            return selected;
+        }
+        long keyHash = hash(key, 0xcbf29ce484222325L);
+        List<ScoredMember> scored = new ArrayList<ScoredMember>(members.size());
+        for (Member member : members) {
+            if (member.isActive() && !member.isSuspended()) {
+                scored.add(new ScoredMember(member, score(member, keyHash)));
+            }
+        }
+        if (count == 1) {
+            ScoredMember best = null;
+            for (ScoredMember candidate : scored) {
+                if (best == null || candidate.compareTo(best) < 0) {
+                    best = candidate;
+                }
+            }
+            if (best != null) {
+                selected.add(best.member);
+            }
+            return selected;
+        }
+        Collections.sort(scored);
+        for (int i = 0; i < scored.size() && i < count; i++) {
+            selected.add(scored.get(i).member);
+        }
+        return selected;
+    }
+
+    private double score(Member member, long keyHash) {
+        long hash = mix(hash(member.getHostName(), keyHash) ^ member.getPort());
+        // A uniformly distributed number in (0, 1)
+        double u = ((hash >>> 11) + 0.5) / (1L << 53);
+        double weight = 1.0 / (1.0 + getLoad(member));
+        return weight / -Math.log(u);
+    }
+
+    /**
+     * FNV-1a hash of a string
+     */
+    private static long hash(String s, long seed) {
+        long hash = seed;
+        if (s != null) {
+            for (int i = 0; i < s.length(); i++) {
+                hash ^= s.charAt(i);
+                hash *= 0x100000001b3L;
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * Finalization step of MurmurHash3, so that similar inputs produce unrelated outputs
+     */
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private static class ScoredMember implements Comparable<ScoredMember> {
+        private final Member member;
+        private final double score;
+
+        private ScoredMember(Member member, double score) {
+            this.member = member;
+            this.score = score;
+        }
+
+        /**
+         * Orders by decreasing score, and by host name and port for equal scores
+         */
+        public int compareTo(ScoredMember other) {
+            if (score != other.score) {
+                return score > other.score ? -1 : 1;
+            }
+            String host = member.getHostName() == null ? "" : member.getHostName();
+            String otherHost =
+                    other.member.getHostName() == null ? "" : other.member.getHostName();
+            int result = host.compareTo(otherHost);
+            return result != 0 ? result : member.getPort() - other.member.getPort();
+        }
+    }
+}
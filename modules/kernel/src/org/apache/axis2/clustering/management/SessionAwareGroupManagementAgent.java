@@ -0,0 +1,62 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.clustering.management;
+
+import org.apache.axis2.clustering.Member;
+
+import java.util.List;
+
+/**
+ * An optional extension of {@link GroupManagementAgent} implemented by agents which map the
+ * sessions of the group to its members. A load balancer should check whether the agent of a
+ * group implements this interface before routing sessions through it.
+ *
+ * @see MemberSelector
+ */
+public interface SessionAwareGroupManagementAgent extends GroupManagementAgent {
+
+    /**
+     * Get the member which owns a session, i.e. the member to which the requests of the session
+     * should be routed. The same member is returned for a session as long as it is part of the
+     * group and its load does not change significantly.
+     *
+     * @param serviceGroupContextId The ID of the ServiceGroupContext of the session
+     * @return The owner of the session, or null if there are no available members
+     */
+    Member getMember(String serviceGroupContextId);
+
+    /**
+     * Get the owner of a session followed by its backup owners, i.e. the members which take over
+     * the session in turn if the previous ones leave the group
+     *
+     * @param serviceGroupContextId The ID of the ServiceGroupContext of the session
+     * @param count                 The maximum number of members to return
+     * @return The owner and the backup owners of the session
+     */
+    List<Member> getMembers(String serviceGroupContextId, int count);
+
+    /**
+     * Update the load of a member, which is used to weight the selection of session owners
+     *
+     * @param member The member
+     * @param load   The load reported by the member, where 0 means idle and 1 means fully loaded
+     */
+    void setMemberLoad(Member member, double load);
+}
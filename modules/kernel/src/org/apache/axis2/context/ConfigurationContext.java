@@ -31,6 +31,9 @@ import org.apache.axis2.description.AxisModule;
 import org.apache.axis2.description.AxisService;
 import org.apache.axis2.description.AxisServiceGroup;
 import org.apache.axis2.description.Parameter;
+import org.apache.axis2.context.externalize.FileMessageContextStore;
+import org.apache.axis2.context.externalize.InMemoryMessageContextStore;
+import org.apache.axis2.context.externalize.MessageContextStore;
 import org.apache.axis2.engine.AxisConfiguration;
 import org.apache.axis2.engine.DependencyManager;
 import org.apache.axis2.engine.ListenerManager;
@@ -75,6 +78,7 @@ public class ConfigurationContext extends AbstractContext {
     private Hashtable<String, ServiceGroupContext> applicationSessionServiceGroupContexts = new Hashtable<String, ServiceGroupContext>();
     private AxisConfiguration axisConfiguration;
     private ThreadFactory threadPool;
+    private MessageContextStore messageContextStore;
     //To keep TransportManager instance
     private ListenerManager listenerManager;
 
@@ -602,6 +606,52 @@ public class ConfigurationContext extends AbstractContext {
         return threadPool;
     }
 
+    /**
+     * Get the store for suspended MessageContexts. Unless a store has been set, a store is
+     * created on first use according to the
+     * {@link Constants.Configuration#SUSPENDED_MESSAGE_MAX_RESIDENT} parameter.
+     *
+     * @return The MessageContextStore
+     * @throws AxisFault If the store cannot be created
+     */
+    public synchronized MessageContextStore getMessageContextStore() throws AxisFault {
+        if (messageContextStore == null) {
+            messageContextStore = createMessageContextStore();
+        }
+        return messageContextStore;
+    }
+
+    /**
+     * Set the store for suspended MessageContexts
+     *
+     * @param messageContextStore The MessageContextStore
+     */
+    public synchronized void setMessageContextStore(MessageContextStore messageContextStore) {
+        this.messageContextStore = messageContextStore;
+    }
+
+    private MessageContextStore createMessageContextStore() throws AxisFault {
+        Object maxResident = axisConfiguration.getParameterValue(
+                Constants.Configuration.SUSPENDED_MESSAGE_MAX_RESIDENT);
+        if (maxResident == null) {
+            return new InMemoryMessageContextStore();
+        }
+        Object heapThreshold = axisConfiguration.getParameterValue(
+                Constants.Configuration.SUSPENDED_MESSAGE_HEAP_THRESHOLD);
+        Object spillDir = axisConfiguration.getParameterValue(
+                Constants.Configuration.SUSPENDED_MESSAGE_SPILL_DIR);
+        try {
+            return new InMemoryMessageContextStore(
+                    Integer.parseInt(maxResident.toString().trim()),
+                    heapThreshold == null ? 0.8 :
+                    Double.parseDouble(heapThreshold.toString().trim()),
+                    new FileMessageContextStore(this, spillDir == null ? null :
+                                                      new File(spillDir.toString().trim())));
+        } catch (NumberFormatException e) {
+            throw AxisFault.makeFault(e);
+        }
+    }
+
     /**
      * Set the AxisConfiguration to the specified configuration
      *
@@ -777,6 +827,12 @@ public class ConfigurationContext extends AbstractContext {
         if (listenerManager != null) {
             listenerManager.destroy();
         }
+        synchronized (this) {
+            if (messageContextStore != null) {
+                messageContextStore.close();
+                messageContextStore = null;
+            }
+        }
         if (axisConfiguration != null) {
             axisConfiguration.cleanup();
             cleanupTemp();
@@ -33,6 +33,16 @@ public interface ExternalizeConstants {
 
     // used to indicate an "empty" object
     public static String EMPTY_MARKER = "EMPTY_OBJ";
+
+    // System property which must be set to "true", in addition to debug logging, to trace
+    // every read and write through DebugObjectInput and DebugObjectOutputStream
+    public static final String DEBUG_STREAMS_PROPERTY =
+            "org.apache.axis2.context.externalize.debugStreams";
+
+    // MessageContext property which, if set to Boolean.TRUE, deflates the message when
+    // the MessageContext is externalized
+    public static final String COMPRESS_MESSAGE =
+            "org.apache.axis2.context.externalize.compressMessage";
     
     //  message/trace/logging strings
     public static final String UNSUPPORTED_SUID = "Serialization version ID is not supported.";
@@ -0,0 +1,267 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axis2.context.externalize;
+
+import org.apache.axis2.AxisFault;
+import org.apache.axis2.context.ConfigurationContext;
+import org.apache.axis2.context.MessageContext;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.RandomAccessFile;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A {@link MessageContextStore} which externalizes the MessageContexts to an append-only log
+ * file, and only keeps the position of each MessageContext in memory.
+ * <p/>
+ * A MessageContext is read back and activated against the ConfigurationContext of the store
+ * when it is retrieved. The space of retrieved and removed MessageContexts is reclaimed when the
+ * store becomes empty, or by rewriting the log once it consists mostly of such space.
+ */
+public class FileMessageContextStore implements MessageContextStore {
+
+    private static final Log log = LogFactory.getLog(FileMessageContextStore.class);
+
+    /**
+     * The minimum amount of unused space in bytes before the log is compacted
+     */
+    private static final long COMPACTION_THRESHOLD = 1024 * 1024;
+
+    private final ConfigurationContext configurationContext;
+    private final File directory;
+    private final Map<String, Entry> entries = new HashMap<String, Entry>();
+
+    private File file;
+    private RandomAccessFile raf;
+    private long liveBytes;
+    private long deadBytes;
+
+    /**
+     * @param configurationContext The ConfigurationContext the MessageContexts are activated
+     *                             against when they are retrieved
+     * @param directory            The directory the log file is created in, or null to use the
+     *                             default temporary directory
+     * @throws AxisFault If the log file cannot be created
+     */
+    public FileMessageContextStore(ConfigurationContext configurationContext, File directory)
+            throws AxisFault {
+        this.configurationContext = configurationContext;
+        this.directory = directory;
+        try {
+            file = createLogFile();
+            // The log is always kept at this path, so it only needs to be registered once
+            file.deleteOnExit();
+            raf = new RandomAccessFile(file, "rw");
+        } catch (IOException e) {
+            throw AxisFault.makeFault(e);
+        }
+    }
+
+    public void store(String key, MessageContext msgContext) throws AxisFault {
+        byte[] data;
+        try {
+            ByteArrayOutputStream bos = new ByteArrayOutputStream();
+            ObjectOutputStream out = new ObjectOutputStream(bos);
+            out.writeObject(msgContext);
+            out.close();
+            data = bos.toByteArray();
+        } catch (IOException e) {
+            throw AxisFault.makeFault(e);
+        }
+        synchronized (this) {
+            checkOpen();
+            try {
+                long offset = raf.length();
+                raf.seek(offset);
+                raf.write(data);
+                liveBytes += data.length;
+                release(entries.put(key, new Entry(offset, data.length)));
+            } catch (IOException e) {
+                throw AxisFault.makeFault(e);
+            }
+        }
+    }
+
+    public MessageContext retrieve(String key) throws AxisFault {
+        byte[] data;
+        synchronized (this) {
+            checkOpen();
+            Entry entry = entries.remove(key);
+            if (entry == null) {
+                return null;
+            }
+            data = new byte[entry.length];
+            try {
+                raf.seek(entry.offset);
+                raf.readFully(data);
+                release(entry);
+            } catch (IOException e) {
+                throw AxisFault.makeFault(e);
+            }
+        }
+        try {
+            ObjectInputStream in = new ObjectInputStreamWithCL(new ByteArrayInputStream(data));
+            MessageContext msgContext = (MessageContext) in.readObject();
+            in.close();
+            msgContext.activate(configurationContext);
+            return msgContext;
+        } catch (IOException e) {
+            throw AxisFault.makeFault(e);
+        } catch (ClassNotFoundException e) {
+            throw AxisFault.makeFault(e);
+        }
+    }
+
+    public synchronized boolean remove(String key) throws AxisFault {
+        checkOpen();
+        Entry entry = entries.remove(key);
+        if (entry == null) {
+            return false;
+        }
+        try {
+            release(entry);
+        } catch (IOException e) {
+            throw AxisFault.makeFault(e);
+        }
+        return true;
+    }
+
+    public int getResidentCount() {
+        return 0;
+    }
+
+    public synchronized int getSpilledCount() {
+        return entries.size();
+    }
+
+    /**
+     * @return The size of the log file in bytes
+     */
+    public synchronized long getLogSize() {
+        return liveBytes + deadBytes;
+    }
+
+    public synchronized void close() {
+        if (raf == null) {
+            return;
+        }
+        entries.clear();
+        try {
+            raf.close();
+        } catch (IOException e) {
+            log.warn("Could not close " + file, e);
+        }
+        raf = null;
+        if (!file.delete()) {
+            file.deleteOnExit();
+        }
+    }
+
+    private void checkOpen() throws AxisFault {
+        if (raf == null) {
+            throw new AxisFault("The MessageContext store has been closed");
+        }
+    }
+
+    /**
+     * Account for the space of an entry which is no longer used, and reclaim the unused space
+     * if necessary
+     */
+    private void release(Entry entry) throws IOException {
+        if (entry == null) {
+            return;
+        }
+        liveBytes -= entry.length;
+        deadBytes += entry.length;
+        if (entries.isEmpty()) {
+            raf.setLength(0);
+            liveBytes = 0;
+            deadBytes = 0;
+        } else if (deadBytes > COMPACTION_THRESHOLD && deadBytes > liveBytes) {
+            compact();
+        }
+    }
+
+    /**
+     * Copy the live entries to a new log file, which then replaces the current log file. The
+     * entries are only updated once all of them have been copied, so that they still refer to
+     * the current log file if the copy fails.
+     */
+    private void compact() throws IOException {
+        File newFile = createLogFile();
+        RandomAccessFile newLog = new RandomAccessFile(newFile, "rw");
+        Map<Entry, Long> newOffsets = new HashMap<Entry, Long>();
+        try {
+            long offset = 0;
+            for (Entry entry : entries.values()) {
+                byte[] data = new byte[entry.length];
+                raf.seek(entry.offset);
+                raf.readFully(data);
+                newLog.write(data);
+                newOffsets.put(entry, Long.valueOf(offset));
+                offset += entry.length;
+            }
+        } catch (IOException e) {
+            newLog.close();
+            newFile.delete();
+            throw e;
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Compacted " + file + " from " + (liveBytes + deadBytes) + " to " +
+                      liveBytes + " bytes");
+        }
+        for (Map.Entry<Entry, Long> newOffset : newOffsets.entrySet()) {
+            newOffset.getKey().offset = newOffset.getValue().longValue();
+        }
+        raf.close();
+        raf = null;
+        newLog.close();
+        deadBytes = 0;
+        // Move the new log to the path of the old one, which is already registered to be
+        // deleted on exit
+        if (!file.delete() || !newFile.renameTo(file)) {
+            log.debug("Could not replace " + file + " by " + newFile);
+            newFile.deleteOnExit();
+            file = newFile;
+        }
+        raf = new RandomAccessFile(file, "rw");
+    }
+
+    private File createLogFile() throws IOException {
+        return File.createTempFile("axis2-msgctx", ".log", directory);
+    }
+
+    private static class Entry {
+        private long offset;
+        private final int length;
+
+        private Entry(long offset, int length) {
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+}
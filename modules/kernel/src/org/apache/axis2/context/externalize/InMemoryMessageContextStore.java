@@ -0,0 +1,144 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axis2.context.externalize;
+
+import org.apache.axis2.AxisFault;
+import org.apache.axis2.context.MessageContext;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A {@link MessageContextStore} which holds the MessageContexts in memory, up to a maximum
+ * number. When the maximum is exceeded, or when the used heap exceeds a threshold, the oldest
+ * MessageContexts are moved to a secondary store, typically a {@link FileMessageContextStore}.
+ * Without a secondary store, the number of MessageContexts is not limited.
+ */
+public class InMemoryMessageContextStore implements MessageContextStore {
+
+    private static final Log log = LogFactory.getLog(InMemoryMessageContextStore.class);
+
+    private final int maxResident;
+    private final double heapThreshold;
+    private final MessageContextStore spillStore;
+
+    /**
+     * The resident MessageContexts, the oldest first
+     */
+    private final LinkedHashMap<String, MessageContext> resident =
+            new LinkedHashMap<String, MessageContext>();
+
+    /**
+     * Create a store which holds all MessageContexts in memory
+     */
+    public InMemoryMessageContextStore() {
+        this(Integer.MAX_VALUE, 1, null);
+    }
+
+    /**
+     * @param maxResident   The maximum number of MessageContexts held in memory
+     * @param heapThreshold The fraction of the maximum heap size above which half of the resident
+     *                      MessageContexts are moved to the secondary store, e.g. 0.8
+     * @param spillStore    The secondary store, or null to hold all MessageContexts in memory
+     */
+    public InMemoryMessageContextStore(int maxResident,
+                                       double heapThreshold,
+                                       MessageContextStore spillStore) {
+        this.maxResident = maxResident;
+        this.heapThreshold = heapThreshold;
+        this.spillStore = spillStore;
+    }
+
+    public synchronized void store(String key, MessageContext msgContext) throws AxisFault {
+        if (spillStore != null) {
+            spillStore.remove(key);
+        }
+        resident.remove(key);
+        resident.put(key, msgContext);
+        if (spillStore == null) {
+            return;
+        }
+        int spill = resident.size() - maxResident;
+        if (resident.size() > 1 && isHeapThresholdExceeded()) {
+            spill = Math.max(spill, resident.size() / 2);
+        }
+        if (spill > 0) {
+            spill(spill);
+        }
+    }
+
+    public MessageContext retrieve(String key) throws AxisFault {
+        synchronized (this) {
+            MessageContext msgContext = resident.remove(key);
+            if (msgContext != null || spillStore == null) {
+                return msgContext;
+            }
+        }
+        return spillStore.retrieve(key);
+    }
+
+    public boolean remove(String key) throws AxisFault {
+        synchronized (this) {
+            if (resident.remove(key) != null) {
+                return true;
+            }
+        }
+        return spillStore != null && spillStore.remove(key);
+    }
+
+    public synchronized int getResidentCount() {
+        return resident.size();
+    }
+
+    public int getSpilledCount() {
+        return spillStore == null ? 0 :
+               spillStore.getResidentCount() + spillStore.getSpilledCount();
+    }
+
+    public synchronized void close() {
+        resident.clear();
+        if (spillStore != null) {
+            spillStore.close();
+        }
+    }
+
+    private void spill(int count) throws AxisFault {
+        if (log.isDebugEnabled()) {
+            log.debug("Moving " + count + " suspended MessageContext(s) out of memory");
+        }
+        Iterator<Map.Entry<String, MessageContext>> iter = resident.entrySet().iterator();
+        for (int i = 0; i < count && iter.hasNext(); i++) {
+            Map.Entry<String, MessageContext> entry = iter.next();
+            spillStore.store(entry.getKey(), entry.getValue());
+            iter.remove();
+        }
+    }
+
+    private boolean isHeapThresholdExceeded() {
+        if (heapThreshold >= 1) {
+            return false;
+        }
+        Runtime runtime = Runtime.getRuntime();
+        long used = runtime.totalMemory() - runtime.freeMemory();
+        return used > runtime.maxMemory() * heapThreshold;
+    }
+}
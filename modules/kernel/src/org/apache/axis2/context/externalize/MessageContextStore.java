@@ -0,0 +1,77 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axis2.context.externalize;
+
+import org.apache.axis2.AxisFault;
+import org.apache.axis2.context.MessageContext;
+
+/**
+ * Holds MessageContexts whose processing has been suspended, e.g. by a handler returning
+ * {@link org.apache.axis2.engine.Handler.InvocationResponse#SUSPEND}, until they are resumed.
+ * <p/>
+ * An implementation may keep the MessageContexts in memory, or externalize them to free the
+ * heap. A MessageContext which has been externalized is activated against the
+ * ConfigurationContext of the store when it is retrieved, so it can be passed directly to
+ * {@link org.apache.axis2.engine.AxisEngine#resume(MessageContext)}.
+ */
+public interface MessageContextStore {
+
+    /**
+     * Store a suspended MessageContext
+     *
+     * @param key        The key under which the MessageContext is stored
+     * @param msgContext The MessageContext
+     * @throws AxisFault If the MessageContext cannot be stored
+     */
+    void store(String key, MessageContext msgContext) throws AxisFault;
+
+    /**
+     * Retrieve and remove a MessageContext
+     *
+     * @param key The key under which the MessageContext has been stored
+     * @return The MessageContext, or null if there is no MessageContext stored under the key
+     * @throws AxisFault If the MessageContext cannot be restored
+     */
+    MessageContext retrieve(String key) throws AxisFault;
+
+    /**
+     * Remove a MessageContext without restoring it
+     *
+     * @param key The key under which the MessageContext has been stored
+     * @return true - if a MessageContext has been removed, false - otherwise
+     * @throws AxisFault If the MessageContext cannot be removed
+     */
+    boolean remove(String key) throws AxisFault;
+
+    /**
+     * @return The number of stored MessageContexts which are held in memory
+     */
+    int getResidentCount();
+
+    /**
+     * @return The number of stored MessageContexts which have been externalized
+     */
+    int getSpilledCount();
+
+    /**
+     * Release the resources held by this store. The MessageContexts which are still stored are
+     * discarded.
+     */
+    void close();
+}
@@ -32,16 +32,22 @@ import org.apache.axis2.Constants;
 import org.apache.axis2.builder.BuilderUtil;
 import org.apache.axis2.context.MessageContext;
 import org.apache.axis2.transport.MessageFormatter;
+import org.apache.axis2.util.JavaUtils;
 import org.apache.axis2.util.MessageProcessorSelector;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
-import java.io.BufferedOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.ObjectInput;
 import java.io.ObjectOutput;
 import java.io.OutputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
 
 import javax.xml.parsers.FactoryConfigurationError;
 import javax.xml.stream.XMLStreamException;
@@ -61,6 +67,7 @@ import javax.xml.stream.XMLStreamException;
  *        [OPTIMIZED_CONTENT_TYPE (UTF)]    <--- If OPTIMIZED=TRUE
  *     [CHARSET   (UTF)] 
  *     [NAMESPACE (UTF)]
+ *     [COMPRESSED (BOOL)]                <--- REVISION 3 only
  *   
  * DataBlock :=
  *   SIZE (INT >0)
@@ -71,6 +78,10 @@ import javax.xml.stream.XMLStreamException;
  *     
  *   
  * </tt>
+ * 
+ * If COMPRESSED=TRUE, the data of the DataBlocks is deflated.  Revision 3 is
+ * only written for compressed messages, so uncompressed messages can still be
+ * read by older levels.
  */
 public class MessageExternalizeUtils  implements ExternalizeConstants {
     static final Log log = LogFactory.getLog(MessageExternalizeUtils.class);
@@ -84,8 +95,14 @@ public class MessageExternalizeUtils  implements ExternalizeConstants {
      */
     // supported revision levels, add a new level to manage compatible changes
     private static final int REVISION_2 = 2;
-    // current revision level of this object
-    private static final int revisionID = REVISION_2;
+    // adds the COMPRESSED flag
+    private static final int REVISION_3 = 3;
+    
+    // The size of the DataBlocks
+    private static final int CHUNK_SIZE = 32 * 1024;
+    
+    // Chunk buffers which are reused by subsequent writes
+    private static final BlockingQueue<byte[]> chunkPool = new ArrayBlockingQueue<byte[]>(16);
     
     
     /**
@@ -113,7 +130,7 @@ public class MessageExternalizeUtils  implements ExternalizeConstants {
         if (envelope == null) {
             // Case: No envelope
             out.writeUTF("NULL_ENVELOPE");
-            out.writeInt(revisionID);
+            out.writeInt(REVISION_2);
             out.writeBoolean(EMPTY_OBJECT); // Not Active
             out.writeInt(0);  // EndBlocks
             if (log.isDebugEnabled()) {
@@ -123,9 +140,10 @@ public class MessageExternalizeUtils  implements ExternalizeConstants {
         }
         
         // Write Prolog
+        boolean compressed = JavaUtils.isTrueExplicitly(mc.getProperty(COMPRESS_MESSAGE));
         String msgClass = envelope.getClass().getName();
         out.writeUTF(msgClass);
-        out.writeInt(revisionID);
+        out.writeInt(compressed ? REVISION_3 : REVISION_2);
         out.writeBoolean(ACTIVE_OBJECT);
         if (outputFormat.isOptimized()) {
             out.writeBoolean(true);
@@ -136,34 +154,47 @@ public class MessageExternalizeUtils  implements ExternalizeConstants {
         }
         out.writeUTF(outputFormat.getCharSetEncoding());
         out.writeUTF(envelope.getNamespace().getNamespaceURI());
+        if (compressed) {
+            out.writeBoolean(true);
+        }
         if (log.isDebugEnabled()) {
             log.debug(correlationIDString + ":writeExternal(): " + 
                       "optimized=[" + outputFormat.isOptimized() + "]  " +
                       "optimizedContentType " + outputFormat.getContentType() + "]  " +
                       "charSetEnc=[" + outputFormat.getCharSetEncoding() + "]  " +
-                      "namespaceURI=[" + envelope.getNamespace().getNamespaceURI() + "]");
+                      "namespaceURI=[" + envelope.getNamespace().getNamespaceURI() + "]  " +
+                      "compressed=[" + compressed + "]");
         }
         
         // Write DataBlocks
-        // MessageOutputStream writes out the DataBlocks in chunks
-        // BufferedOutputStream buffers the data to prevent numerous, small blocks
+        // MessageOutputStream buffers the data and writes out the DataBlocks in chunks
         MessageOutputStream mos = new MessageOutputStream(out);  
-        BufferedOutputStream bos = new BufferedOutputStream(mos);   
+        Deflater deflater = null;
+        OutputStream os = mos;
+        if (compressed) {
+            deflater = new Deflater(Deflater.BEST_SPEED);
+            os = new DeflaterOutputStream(mos, deflater, 4 * 1024);
+        }
         boolean errorOccurred = false;
         try { 
             // Write out the message using the same logic as the 
             // transport layer.
             MessageFormatter msgFormatter = MessageProcessorSelector.getMessageFormatter(mc);
-            msgFormatter.writeTo(mc, outputFormat, bos, 
+            msgFormatter.writeTo(mc, outputFormat, os, 
                                  true); // Preserve the original message
+            if (deflater != null) {
+                ((DeflaterOutputStream) os).finish();
+            }
             
         } catch (IOException e) {
             throw e;
         } catch (Throwable t) {
             throw AxisFault.makeFault(t);
         } finally {
-            bos.flush();
-            bos.close();
+            if (deflater != null) {
+                deflater.end();
+            }
+            mos.close();
         }
         
         // Write End of Data Blocks
@@ -239,7 +270,7 @@ public class MessageExternalizeUtils  implements ExternalizeConstants {
                       " revision= " + revision);
         }
         // make sure the object data is in a revision level we can handle
-        if (revision != REVISION_2) {
+        if (revision != REVISION_2 && revision != REVISION_3) {
             throw new ClassNotFoundException(ExternalizeConstants.UNSUPPORTED_REVID);
         }
         
@@ -262,23 +293,31 @@ public class MessageExternalizeUtils  implements ExternalizeConstants {
         }
         String charSetEnc = in.readUTF();
         String namespaceURI = in.readUTF();
+        boolean compressed = revision >= REVISION_3 && in.readBoolean();
         if (log.isDebugEnabled()) {
             log.debug(correlationIDString + ":readExternal(): " +
                       "optimized=[" + optimized + "]  " +
                       "optimizedContentType=[" + optimizedContentType + "]  " +
                       "charSetEnc=[" + charSetEnc + "]  " +
-                      "namespaceURI=[" + namespaceURI + "]");
+                      "namespaceURI=[" + namespaceURI + "]  " +
+                      "compressed=[" + compressed + "]");
         }
         
         MessageInputStream mis = new MessageInputStream(in);
+        Inflater inflater = null;
+        InputStream is = mis;
+        if (compressed) {
+            inflater = new Inflater();
+            is = new InflaterInputStream(mis, inflater, 4 * 1024);
+        }
         OMXMLParserWrapper builder = null;
         try {
             if (optimized) {
                 boolean isSOAP = true;
-                builder = getAttachmentsBuilder(mc, mis, optimizedContentType, isSOAP);
+                builder = getAttachmentsBuilder(mc, is, optimizedContentType, isSOAP);
                 envelope = (SOAPEnvelope) builder.getDocumentElement();
             } else {
-                builder = OMXMLBuilderFactory.createSOAPModelBuilder(mis, charSetEnc);
+                builder = OMXMLBuilderFactory.createSOAPModelBuilder(is, charSetEnc);
                 envelope = (SOAPEnvelope) builder.getDocumentElement();
             }
         } catch (Exception ex) {
@@ -290,10 +329,15 @@ public class MessageExternalizeUtils  implements ExternalizeConstants {
             envelope = null;
         } finally {
             // Prepare the builder to close the underlying stream
-            builder.detach();
+            if (builder != null) {
+                builder.detach();
+            }
             // Close the message input stream.  This will ensure that the
             // underlying stream is advanced past the message.
             mis.close();
+            if (inflater != null) {
+                inflater.end();
+            }
             if (log.isDebugEnabled()) {
                 log.debug(correlationIDString + ":readExternal(): end");
             }
@@ -303,64 +347,93 @@ public class MessageExternalizeUtils  implements ExternalizeConstants {
     
     /**
      * MessageOutputStream writes DataBlock chunks to the ObjectOutput.
+     * The data is collected in a chunk buffer, which is taken from a pool
+     * and returned to the pool when the stream is closed, so that small
+     * writes do not result in numerous, small blocks.
      */
     private static class MessageOutputStream extends OutputStream {
         ObjectOutput out;
         boolean isDebug;
+        byte[] chunk;
+        int count = 0;
+        
         MessageOutputStream(ObjectOutput out) {
             this.out = out;
             isDebug = log.isDebugEnabled();
+            chunk = chunkPool.poll();
+            if (chunk == null) {
+                chunk = new byte[CHUNK_SIZE];
+            }
         }
         
-         
+        /**
+         * Writes the remaining data and returns the chunk buffer to the pool
+         */
         public void close() throws IOException {
-            // NOOP: ObjectOutput will be closed externally
+            // ObjectOutput will be closed externally
+            if (chunk != null) {
+                try {
+                    writeChunk();
+                } finally {
+                    chunkPool.offer(chunk);
+                    chunk = null;
+                }
+            }
         }
         
         public void flush() throws IOException {
-            out.flush();
+            // NOOP: the data is written in full chunks, the ObjectOutput is
+            // flushed by its owner
         }
 
         /** 
-         * Writes a chunk of data to the ObjectOutput
+         * Writes data to the chunk buffer, and full chunks to the ObjectOutput
          */
         public void write(byte[] b, int off, int len) throws IOException {
-            if (len > 0) {
-                if (isDebug) {
-                    log.debug("Write data chunk with len=" + len);
+            while (len > 0) {
+                if (count == chunk.length) {
+                    writeChunk();
+                }
+                if (count == 0 && len >= chunk.length) {
+                    // Write large arrays directly instead of copying them
+                    writeChunk(b, off, len);
+                    return;
                 }
-                // Write out the length and the data chunk
-                out.writeInt(len);
-                out.write(b, off, len);
+                int copyLength = Math.min(len, chunk.length - count);
+                System.arraycopy(b, off, chunk, count, copyLength);
+                count += copyLength;
+                off += copyLength;
+                len -= copyLength;
             }
         }
 
-         
-        /** 
-         * Writes a chunk of data to the ObjectOutput
-         */
         public void write(byte[] b) throws IOException {
-            if (b != null &&  b.length > 0) {
-                if (isDebug) {
-                    log.debug("Write data chunk with size=" + b.length);
-                }
-                // Write out the length and the data chunk
-                out.writeInt(b.length);
-                out.write(b);
+            if (b != null) {
+                write(b, 0, b.length);
             }
         }
 
-         
-        /** 
-         * Writes a single byte chunk of data to the ObjectOutput
-         */
         public void write(int b) throws IOException {
+            if (count == chunk.length) {
+                writeChunk();
+            }
+            chunk[count++] = (byte) b;
+        }
+        
+        private void writeChunk() throws IOException {
+            if (count > 0) {
+                writeChunk(chunk, 0, count);
+                count = 0;
+            }
+        }
+        
+        private void writeChunk(byte[] b, int off, int len) throws IOException {
             if (isDebug) {
-                log.debug("Write one byte data chunk");
+                log.debug("Write data chunk with len=" + len);
             }
             // Write out the length and the data chunk
-            out.writeInt(1);
-            out.write(b);
+            out.writeInt(len);
+            out.write(b, off, len);
         }
     }
        
@@ -402,7 +475,9 @@ public class MessageExternalizeUtils  implements ExternalizeConstants {
                 chunkAvail--;
                 ret = in.readByte();
             }
-            log.debug("returning " + ret);
+            if (isDebug) {
+                log.debug("returning " + ret);
+            }
             return ret;
         }
 
@@ -44,6 +44,8 @@ public class SafeObjectInputStream implements ObjectInput, ObjectStreamConstants
 
     private static final Log log = LogFactory.getLog(SafeObjectInputStream.class);
     private static final boolean isDebug = log.isDebugEnabled();
+    private static final boolean useDebugStream =
+            isDebug && Boolean.getBoolean(ExternalizeConstants.DEBUG_STREAMS_PROPERTY);
     
     // All data is read from the delegated ObjectInput
     ObjectInput in = null;
@@ -73,7 +75,7 @@ public class SafeObjectInputStream implements ObjectInput, ObjectStreamConstants
      */
     private SafeObjectInputStream(ObjectInput in) {
         original = in;
-        if (log.isDebugEnabled()) {
+        if (useDebugStream) {
             this.in = new DebugObjectInput(original);
         } else {
             this.in = original;
@@ -58,6 +58,8 @@ public class SafeObjectOutputStream implements ObjectOutput,
     
     private static final Log log = LogFactory.getLog(SafeObjectOutputStream.class);
     private static final boolean isDebug = log.isDebugEnabled();
+    private static final boolean useDebugStream =
+            isDebug && Boolean.getBoolean(DEBUG_STREAMS_PROPERTY);
     
     // Actual Stream 
     private ObjectOutput out = null;
@@ -99,7 +101,7 @@ public class SafeObjectOutputStream implements ObjectOutput,
      * @throws IOException
      */
     private SafeObjectOutputStream(ObjectOutput oo) throws IOException {
-        if (log.isDebugEnabled()) {
+        if (useDebugStream) {
             this.out = new DebugObjectOutputStream(oo);
         } else {
             this.out = oo;
@@ -562,13 +564,20 @@ public class SafeObjectOutputStream implements ObjectOutput,
      */
     private static boolean isSafeSerializable(Object obj) {
         
-        boolean isSafeSerializable = (obj == null) || 
+        if (obj == null || 
             obj instanceof SafeSerializable ||
             obj instanceof String ||
             obj instanceof Integer ||
             obj instanceof Boolean ||
-            obj instanceof Long;
-        return isSafeSerializable;
+            obj instanceof Long) {
+            return true;
+        }
+        // Other JDK types which can neither fail to serialize nor to deserialize
+        Class cls = obj.getClass();
+        return cls == Double.class || cls == Float.class || cls == Short.class ||
+               cls == Byte.class || cls == Character.class ||
+               cls == byte[].class || cls == char[].class || cls == int[].class ||
+               cls == long[].class || cls == boolean[].class || cls == String[].class;
     }
     
     
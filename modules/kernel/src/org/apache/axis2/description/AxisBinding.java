@@ -52,6 +52,8 @@ public class AxisBinding extends AxisDescription {
 
     private Map<String, AxisBindingMessage> faults;
 
+    private volatile HTTPLocationMatcher httpLocationMatcher;
+
     public AxisBindingMessage getFault(String name) {
         return (AxisBindingMessage) faults.get(name);
     }
@@ -91,6 +93,26 @@ public class AxisBinding extends AxisDescription {
         return obj;
     }
 
+    /**
+     * Get the compiled form of the HTTP location table of this binding, which is used to
+     * dispatch REST requests. It is built on first use, and again if the table has been replaced
+     * or modified.
+     *
+     * @return the HTTPLocationMatcher, or null if this binding has no HTTP location table
+     */
+    public HTTPLocationMatcher getHTTPLocationMatcher() {
+        Map locationTable = (Map) getProperty(WSDL2Constants.HTTP_LOCATION_TABLE);
+        if (locationTable == null) {
+            return null;
+        }
+        HTTPLocationMatcher matcher = httpLocationMatcher;
+        if (matcher == null || !matcher.isCompiledFrom(locationTable)) {
+            matcher = new HTTPLocationMatcher(this, locationTable);
+            httpLocationMatcher = matcher;
+        }
+        return matcher;
+    }
+
     public QName getName() {
         return name;
     }
@@ -0,0 +1,416 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.description;
+
+import org.apache.axis2.wsdl.WSDLUtil;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The compiled form of the {@link WSDL2Constants#HTTP_LOCATION_TABLE} of a binding, which maps
+ * the HTTP method followed by the constant part of a <code>whttp:location</code> onto an
+ * operation.
+ * <p/>
+ * The constant parts are kept in a character trie per HTTP method, so that the operation of a
+ * request is found by walking the request URI once, regardless of the number of operations.
+ * The longest constant part which is a prefix of the request path wins. If the operation has a
+ * templated location, e.g. <code>stock/{symbol}/value</code>, the template parameters are
+ * extracted in the same pass, so that they need not be searched for again when the request is
+ * built.
+ * <p/>
+ * A matcher is immutable; {@link AxisBinding#getHTTPLocationMatcher()} builds a new one when the
+ * location table changes.
+ */
+public class HTTPLocationMatcher {
+
+    private final Map locationTable;
+    private final int locationTableSize;
+
+    private final Map<String, Node> methods = new HashMap<String, Node>();
+
+    /**
+     * Entries whose key does not contain a location, and hence is a prefix of the HTTP method,
+     * longest first
+     */
+    private final List<Entry> methodPrefixes = new ArrayList<Entry>();
+
+    /**
+     * @param binding       The binding, whose operations hold the location templates
+     * @param locationTable The location table of the binding
+     */
+    public HTTPLocationMatcher(AxisBinding binding, Map locationTable) {
+        this.locationTable = locationTable;
+        this.locationTableSize = locationTable.size();
+
+        Map<AxisOperation, AxisBindingOperation> bindingOperations =
+                new IdentityHashMap<AxisOperation, AxisBindingOperation>();
+        for (Iterator iter = binding.getChildren(); iter.hasNext();) {
+            Object child = iter.next();
+            if (child instanceof AxisBindingOperation) {
+                AxisBindingOperation bindingOperation = (AxisBindingOperation) child;
+                if (bindingOperation.getAxisOperation() != null) {
+                    bindingOperations.put(bindingOperation.getAxisOperation(), bindingOperation);
+                }
+            }
+        }
+
+        Map<String, TreeMap<Character, BuildNode>> roots =
+                new HashMap<String, TreeMap<Character, BuildNode>>();
+        for (Iterator iter = locationTable.entrySet().iterator(); iter.hasNext();) {
+            Map.Entry tableEntry = (Map.Entry) iter.next();
+            String key = (String) tableEntry.getKey();
+            AxisOperation operation = (AxisOperation) tableEntry.getValue();
+            if (key == null || operation == null) {
+                continue;
+            }
+            int locationStart = 0;
+            while (locationStart < key.length() && key.charAt(locationStart) != '/'
+                    && key.charAt(locationStart) != '?') {
+                locationStart++;
+            }
+            if (locationStart == key.length()) {
+                addMethodPrefix(new Entry(operation, key));
+                continue;
+            }
+            String method = key.substring(0, locationStart);
+            Entry entry = createEntry(operation, method, key, key.length() - locationStart,
+                                      bindingOperations.get(operation));
+
+            TreeMap<Character, BuildNode> root = roots.get(method);
+            if (root == null) {
+                root = new TreeMap<Character, BuildNode>();
+                roots.put(method, root);
+            }
+            BuildNode node = null;
+            TreeMap<Character, BuildNode> children = root;
+            for (int i = locationStart; i < key.length(); i++) {
+                Character c = Character.valueOf(key.charAt(i));
+                node = children.get(c);
+                if (node == null) {
+                    node = new BuildNode();
+                    children.put(c, node);
+                }
+                children = node.children;
+            }
+            node.entry = entry;
+        }
+        for (Map.Entry<String, TreeMap<Character, BuildNode>> root : roots.entrySet()) {
+            Node node = new Node();
+            node.setChildren(root.getValue());
+            methods.put(root.getKey(), node);
+        }
+    }
+
+    /**
+     * @param locationTable A location table
+     * @return true - if this matcher has been compiled from the given location table in its
+     *         current state, false - otherwise
+     */
+    public boolean isCompiledFrom(Map locationTable) {
+        return this.locationTable == locationTable && locationTableSize == locationTable.size();
+    }
+
+    /**
+     * Find the operation a request has been sent to.
+     *
+     * @param httpMethod The HTTP method of the request
+     * @param requestURL The request URL
+     * @param start      The index of the location in the request URL, i.e. the index of the '/'
+     *                   or '?' following the service name
+     * @return The match, or null if no operation matches
+     */
+    public Match match(String httpMethod, String requestURL, int start) {
+        Entry entry = null;
+        int end = -1;
+        Node node = httpMethod != null ? methods.get(httpMethod) : null;
+        if (node != null) {
+            int length = requestURL.length();
+            // A location is matched as if it ended with a '/'
+            boolean appendSlash = requestURL.charAt(length - 1) != '/';
+            for (int i = start; node != null; i++) {
+                char c;
+                if (i < length) {
+                    c = requestURL.charAt(i);
+                } else if (i == length && appendSlash) {
+                    c = '/';
+                } else {
+                    break;
+                }
+                node = node.getChild(c);
+                if (node != null && node.entry != null) {
+                    entry = node.entry;
+                    end = Math.min(i + 1, length);
+                }
+            }
+        }
+        if (entry == null && httpMethod != null) {
+            for (Entry methodPrefix : methodPrefixes) {
+                if (httpMethod.startsWith(methodPrefix.key)) {
+                    entry = methodPrefix;
+                    break;
+                }
+            }
+        }
+        if (entry == null) {
+            return null;
+        }
+        if (entry.parameterNames == null || end == -1) {
+            return new Match(entry.operation, requestURL, null, null, null);
+        }
+        return entry.extractParameters(requestURL, end);
+    }
+
+    private void addMethodPrefix(Entry entry) {
+        int i = 0;
+        while (i < methodPrefixes.size()
+                && methodPrefixes.get(i).key.length() >= entry.key.length()) {
+            i++;
+        }
+        methodPrefixes.add(i, entry);
+    }
+
+    private static Entry createEntry(AxisOperation operation, String method, String key,
+                                     int prefixLength, AxisBindingOperation bindingOperation) {
+        String template = null;
+        String separator = null;
+        if (bindingOperation != null) {
+            template = (String) bindingOperation.getProperty(WSDL2Constants.ATTR_WHTTP_LOCATION);
+            separator = (String) bindingOperation
+                    .getProperty(WSDL2Constants.ATTR_WHTTP_QUERY_PARAMETER_SEPARATOR);
+        }
+        if (template == null || template.length() == 0 || template.indexOf('{') == -1
+                || !key.equals(WSDLUtil.getConstantFromHTTPLocation(template, method))) {
+            return new Entry(operation, key);
+        }
+        if (separator == null) {
+            separator = WSDL20DefaultValueHolder.ATTR_WHTTP_QUERY_PARAMETER_SEPARATOR_DEFAULT;
+        }
+
+        // Split the rest of the template, following the constant part, into the parameters and
+        // the constant parts following them
+        List<String> names = new ArrayList<String>();
+        List<String> constants = new ArrayList<String>();
+        int index = template.indexOf('{');
+        while (index != -1) {
+            int close = template.indexOf('}', index + 1);
+            if (close == -1) {
+                // Not a valid template
+                return new Entry(operation, key);
+            }
+            names.add(template.substring(index + 1, close));
+            StringBuffer constant = new StringBuffer();
+            index = -1;
+            for (int i = close + 1; i < template.length(); i++) {
+                char c = template.charAt(i);
+                if ((c == '{' || c == '}') && i + 1 < template.length()
+                        && template.charAt(i + 1) == c) {
+                    constant.append(c);
+                    i++;
+                } else if (c == '{') {
+                    index = i;
+                    break;
+                } else {
+                    constant.append(c);
+                }
+            }
+            constants.add(constant.length() > 0 ? constant.toString() : null);
+        }
+        return new Entry(operation, key, template, names.toArray(new String[names.size()]),
+                         constants.toArray(new String[constants.size()]), separator);
+    }
+
+    /**
+     * The result of matching a request against the location table
+     */
+    public static class Match {
+        private final AxisOperation operation;
+        private final String requestURL;
+        private final String template;
+        private final Map<String, String> parameters;
+        private final String remainder;
+
+        private Match(AxisOperation operation, String requestURL, String template,
+                      Map<String, String> parameters, String remainder) {
+            this.operation = operation;
+            this.requestURL = requestURL;
+            this.template = template;
+            this.parameters = parameters;
+            this.remainder = remainder;
+        }
+
+        public AxisOperation getOperation() {
+            return operation;
+        }
+
+        /**
+         * @return The request URL which has been matched
+         */
+        public String getRequestURL() {
+            return requestURL;
+        }
+
+        /**
+         * @return The location template the parameters have been extracted with, or null if
+         *         none have been extracted
+         */
+        public String getTemplate() {
+            return template;
+        }
+
+        /**
+         * @return The values of the template parameters, in the order of the template, keyed by
+         *         parameter name. The values have not been decoded. null if no parameters have
+         *         been extracted.
+         */
+        public Map<String, String> getParameters() {
+            return parameters;
+        }
+
+        /**
+         * @return The part of the request URL following the template, which holds the remaining
+         *         query parameters
+         */
+        public String getRemainder() {
+            return remainder;
+        }
+    }
+
+    private static class Entry {
+        private final AxisOperation operation;
+        private final String key;
+        private final String template;
+        private final String[] parameterNames;
+        private final String[] constants;
+        private final String separator;
+
+        private Entry(AxisOperation operation, String key) {
+            this(operation, key, null, null, null, null);
+        }
+
+        private Entry(AxisOperation operation, String key, String template,
+                      String[] parameterNames, String[] constants, String separator) {
+            this.operation = operation;
+            this.key = key;
+            this.template = template;
+            this.parameterNames = parameterNames;
+            this.constants = constants;
+            this.separator = separator;
+        }
+
+        /**
+         * Extract the template parameters from the request URL. Each parameter ends where the
+         * constant following it starts. The last parameter ends at the query string or at the
+         * query parameter separator, if no constant follows it.
+         *
+         * @param requestURL The request URL
+         * @param start      The index following the constant part of the location
+         * @return The match
+         */
+        private Match extractParameters(String requestURL, int start) {
+            Map<String, String> parameters = new LinkedHashMap<String, String>();
+            String remainder = requestURL;
+            int index = start;
+            for (int i = 0; i < parameterNames.length; i++) {
+                String constant = constants[i];
+                if (constant != null) {
+                    int end = requestURL.indexOf(constant, index);
+                    if (end == -1) {
+                        // Let the builder deal with the request
+                        return new Match(operation, requestURL, null, null, null);
+                    }
+                    parameters.put(parameterNames[i], requestURL.substring(index, end));
+                    index = end + constant.length();
+                    remainder = requestURL.length() > end + 1 ? requestURL.substring(end + 1) : "";
+                } else if (i == parameterNames.length - 1) {
+                    int end = requestURL.indexOf('?', index);
+                    if (end == -1) {
+                        end = requestURL.indexOf(separator, index);
+                    }
+                    if (end > 0) {
+                        parameters.put(parameterNames[i], requestURL.substring(index, end));
+                        remainder = requestURL.substring(end);
+                    } else {
+                        parameters.put(parameterNames[i], requestURL.substring(index));
+                        remainder = "";
+                    }
+                } else {
+                    // Two adjacent parameters
+                    parameters.put(parameterNames[i], "");
+                }
+            }
+            return new Match(operation, requestURL, template, parameters, remainder);
+        }
+    }
+
+    private static class BuildNode {
+        private final TreeMap<Character, BuildNode> children = new TreeMap<Character, BuildNode>();
+        private Entry entry;
+    }
+
+    private static class Node {
+        private static final char[] NO_LABELS = new char[0];
+        private static final Node[] NO_CHILDREN = new Node[0];
+
+        private char[] labels = NO_LABELS;
+        private Node[] children = NO_CHILDREN;
+        private Entry entry;
+
+        private void setChildren(TreeMap<Character, BuildNode> buildChildren) {
+            if (buildChildren.isEmpty()) {
+                return;
+            }
+            labels = new char[buildChildren.size()];
+            children = new Node[buildChildren.size()];
+            int i = 0;
+            for (Map.Entry<Character, BuildNode> buildChild : buildChildren.entrySet()) {
+                Node child = new Node();
+                child.entry = buildChild.getValue().entry;
+                child.setChildren(buildChild.getValue().children);
+                labels[i] = buildChild.getKey().charValue();
+                children[i] = child;
+                i++;
+            }
+        }
+
+        private Node getChild(char c) {
+            int low = 0;
+            int high = labels.length - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                char label = labels[mid];
+                if (label < c) {
+                    low = mid + 1;
+                } else if (label > c) {
+                    high = mid - 1;
+                } else {
+                    return children[mid];
+                }
+            }
+            return null;
+        }
+    }
+}
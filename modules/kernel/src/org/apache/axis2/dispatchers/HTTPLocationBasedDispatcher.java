@@ -21,10 +21,12 @@
 package org.apache.axis2.dispatchers;
 
 import org.apache.axis2.AxisFault;
+import org.apache.axis2.Constants;
 import org.apache.axis2.context.MessageContext;
 import org.apache.axis2.description.AxisEndpoint;
 import org.apache.axis2.description.AxisOperation;
 import org.apache.axis2.description.AxisService;
+import org.apache.axis2.description.HTTPLocationMatcher;
 import org.apache.axis2.description.HandlerDescription;
 import org.apache.axis2.description.WSDL2Constants;
 import org.apache.axis2.engine.AbstractDispatcher;
@@ -32,10 +34,6 @@ import org.apache.axis2.transport.http.HTTPConstants;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
-import java.util.Collection;
-import java.util.Iterator;
-import java.util.Map;
-
 /**
  * Dispatches the operation based on the information from the target endpoint URL.
  */
@@ -54,24 +52,29 @@ public class HTTPLocationBasedDispatcher extends AbstractDispatcher {
         AxisService axisService = messageContext.getAxisService();
         if (axisService != null && messageContext.getTo() != null) {
             String uri = messageContext.getTo().getAddress();
-            String httpLocation = parseRequestURL(uri, axisService.getName());
+            int httpLocationStart = parseRequestURL(uri, axisService.getName());
             String httpMethod = (String) messageContext.getProperty(HTTPConstants.HTTP_METHOD);
 
-            if (httpLocation != null) {
-                httpLocation = httpMethod + httpLocation;
-                if(! httpLocation.endsWith("/")){
-                     httpLocation=httpLocation.concat("/");
-                }
+            if (httpLocationStart != -1) {
                 AxisEndpoint axisEndpoint = (AxisEndpoint) messageContext
                         .getProperty(WSDL2Constants.ENDPOINT_LOCAL_NAME);
                 // Here we check whether the request was dispatched to the correct endpoint. If it
                 // was we can dispatch the operation using the HTTPLocationDispatcher table of that
                 // specific endpoint. 
                 if (axisEndpoint != null) {
-                    Map httpLocationTable = (Map) axisEndpoint.getBinding()
-                            .getProperty(WSDL2Constants.HTTP_LOCATION_TABLE);
-                    if (httpLocationTable != null) {
-                        return getOperationFromHTTPLocation(httpLocation, httpLocationTable);
+                    HTTPLocationMatcher matcher =
+                            axisEndpoint.getBinding().getHTTPLocationMatcher();
+                    if (matcher != null) {
+                        HTTPLocationMatcher.Match match =
+                                matcher.match(httpMethod, uri, httpLocationStart);
+                        if (match == null) {
+                            return null;
+                        }
+                        if (match.getParameters() != null) {
+                            // Saves the builder from searching the request URL for them again
+                            messageContext.setProperty(Constants.HTTP_LOCATION_MATCH, match);
+                        }
+                        return match.getOperation();
                     }
                 } 
             } else {
@@ -96,52 +99,33 @@ public class HTTPLocationBasedDispatcher extends AbstractDispatcher {
         init(new HandlerDescription(NAME));
     }
 
-    private String parseRequestURL(String path, String serviceName) {
-
-        serviceName = "/" + serviceName;
-        int index = path.lastIndexOf(serviceName);
-        String httpLocation = null;
-
-        if (-1 != index) {
-            int serviceStart = index + serviceName.length();
-            if (path.length() > serviceStart + 1) {
-                httpLocation = path.substring(serviceStart);
-            }
-        }
-
-        if (httpLocation != null) {
-            index = httpLocation.indexOf("/");
-            if (-1 != index) {
-                httpLocation = httpLocation.substring(index);
-            } else {
-                int queryIndex = httpLocation.indexOf("?");
-                if (queryIndex != -1) {
-                    httpLocation = httpLocation.substring(queryIndex);
-                }
-            }
-        }
-        return httpLocation;
-    }
-
     /**
-     * Given the requestPath that the request came to his method returns the corresponding axisOperation
+     * Find the HTTP location in the request URL, i.e. the part following the service name,
+     * starting at the first '/' or '?'.
      *
-     * @param requestPath - Part of the request url which is the part after the service name
-     * @param httpLocationTable - The httpLocationTable stored in the relavant binding
-     * @return AxisOperation - The corresponding AxisOperation
+     * @param path        the request URL
+     * @param serviceName the name of the service the request has been dispatched to
+     * @return the index of the HTTP location, or -1 if there is none
      */
-    private AxisOperation getOperationFromHTTPLocation(String requestPath, Map httpLocationTable) {
-
-        Collection httpLocations = httpLocationTable.keySet();
-        Iterator iter = httpLocations.iterator();
-        while (iter.hasNext()) {
-            String location = (String) iter.next();
-            int index = requestPath.indexOf(location);
-            if (index == 0) {
-                return (AxisOperation) httpLocationTable.get(location);
+    private int parseRequestURL(String path, String serviceName) {
+        int index = path.lastIndexOf(serviceName);
+        while (index > 0 && path.charAt(index - 1) != '/') {
+            index = path.lastIndexOf(serviceName, index - 1);
+        }
+        if (index <= 0) {
+            return -1;
+        }
+        int serviceStart = index + serviceName.length();
+        if (path.length() <= serviceStart + 1) {
+            return -1;
+        }
+        int httpLocationStart = path.indexOf('/', serviceStart);
+        if (httpLocationStart == -1) {
+            httpLocationStart = path.indexOf('?', serviceStart);
+            if (httpLocationStart == -1) {
+                httpLocationStart = serviceStart;
             }
-
         }
-        return null;
+        return httpLocationStart;
     }
 }
@@ -30,6 +30,8 @@ import org.apache.axis2.description.HandlerDescription;
 import org.apache.axis2.description.TransportInDescription;
 import org.apache.axis2.description.WSDL2Constants;
 import org.apache.axis2.engine.AxisConfiguration;
+import org.apache.axis2.engine.ServicePathTrie;
+import org.apache.axis2.i18n.Messages;
 import org.apache.axis2.util.LoggingControl;
 import org.apache.axis2.util.Utils;
 import org.apache.axis2.wsdl.WSDLUtil;
@@ -58,68 +60,68 @@ public class RequestURIBasedServiceDispatcher extends AbstractServiceDispatcher
             String filePart = toEPR.getAddress();
             ConfigurationContext configurationContext = messageContext.getConfigurationContext();
 
-            //Get the service/operation part from the request URL
-            String serviceOpPart = Utils.getServiceAndOperationPart(filePart,
-                    messageContext.getConfigurationContext().getServiceContextPath());
+            //Get the bounds of the service/operation part of the request URL
+            int start = getServiceAndOperationStart(filePart,
+                    configurationContext.getServiceContextPath());
 
-            if (serviceOpPart != null) {
-            	
-                AxisConfiguration registry =
-                        configurationContext.getAxisConfiguration();
+            if (start != -1) {
+                int queryIndex = filePart.indexOf('?', start);
+                int end = queryIndex > start ? queryIndex : filePart.length();
 
                 /**
-                 * Split the serviceOpPart from '/' and add part by part and check whether we have
-                 * a service. This is because we are supporting hierarchical services. We can't
-                 * decide the service name just by looking at the request URL.
+                 * We are supporting hierarchical services, so we can't decide the service name
+                 * just by looking at the request URL. The trie matches the request URL against
+                 * all service names and service.endpoint aliases at once.
+                 *
+                 * To avoid performance issues if an incorrect URL comes in with a long service
+                 * name including lots of '/' separated strings, we limit the hierarchical depth
+                 * to 10
                  */
-                AxisService axisService = null;
-                String[] parts = serviceOpPart.split("/");
-                String serviceName = "";
-                int count = 0;
-
-                /**
-                 * To avoid performance issues if an incorrect URL comes in with a long service name
-                 * including lots of '/' separated strings, we limit the hierarchical depth to 10
-                 */
-                while (axisService == null && count < parts.length &&
-                        count < Constants.MAX_HIERARCHICAL_DEPTH) {
-                    serviceName = count == 0 ? serviceName + parts[count] :
-                            serviceName + "/" + parts[count];
-                    axisService = registry.getService(serviceName);
-                    count++;
+                AxisConfiguration registry = configurationContext.getAxisConfiguration();
+                ServicePathTrie.Entry entry = registry.getServicePathTrie().find(filePart, start,
+                        end, Constants.MAX_HIERARCHICAL_DEPTH);
+                AxisService axisService;
+                String endpointName;
+                if (entry != null) {
+                    axisService = entry.getService();
+                    endpointName = entry.getEndpointName();
+                } else {
+                    // Client side services are not part of the trie
+                    String serviceName = findClientSideServiceName(registry, filePart, start, end);
+                    if (serviceName == null) {
+                        return null;
+                    }
+                    axisService = registry.getServiceForActivation(serviceName);
+                    endpointName = serviceName.equals(axisService.getName()) ? null :
+                            serviceName.substring(axisService.getName().length() + 1);
+                }
+                if (!axisService.isActive()) {
+                    throw new AxisFault(Messages.getMessage("serviceinactive",
+                            axisService.getName()));
                 }
 
-                // If the axisService is not null we get the binding that the request came to add
-                // add it as a property to the messageContext
-                if (axisService != null) {
-                    Map endpoints = axisService.getEndpoints();
-                    if (endpoints != null) {
-                        if (endpoints.size() == 1) {
+                // We get the binding that the request came to and add it as a property to
+                // the messageContext
+                Map endpoints = axisService.getEndpoints();
+                if (endpoints != null) {
+                    if (endpoints.size() == 1) {
+                        messageContext.setProperty(WSDL2Constants.ENDPOINT_LOCAL_NAME,
+                                endpoints.get(axisService.getEndpointName()));
+                    } else {
+                        AxisEndpoint endpoint = null;
+                        if (endpointName != null) {
+                            endpoint = (AxisEndpoint) endpoints.get(endpointName);
+                        }
+                        if (endpoint != null) {
                             messageContext.setProperty(WSDL2Constants.ENDPOINT_LOCAL_NAME,
-                                    endpoints.get(
-            								axisService.getEndpointName()));
-            			} else {
-                            String[] temp = serviceName.split("/");
-                            int periodIndex = temp[temp.length - 1].lastIndexOf('.');
-                            if (periodIndex != -1) {
-                                String endpointName
-                                        = temp[temp.length - 1].substring(periodIndex + 1);
-                                messageContext.setProperty(WSDL2Constants.ENDPOINT_LOCAL_NAME,
-                                        endpoints.get(endpointName));
-                            }
-                            String endpointName = temp[0].substring(temp[0].indexOf(".") + 1);
-                            AxisEndpoint endpoint = (AxisEndpoint) endpoints.get(endpointName);
-                            if (endpoint != null) {
-                                messageContext.setProperty(WSDL2Constants.ENDPOINT_LOCAL_NAME,
-                                                           endpoint);
-                            } else {
-                                inferEndpoint(messageContext, axisService);
-                            }
+                                                       endpoint);
+                        } else {
+                            inferEndpoint(messageContext, axisService);
                         }
                     }
                 }
 
-            	return axisService;
+                return axisService;
             } else {
                 if (LoggingControl.debugLoggingAllowed && log.isDebugEnabled()) {
                     log.debug(messageContext.getLogIDString() +
@@ -136,6 +138,58 @@ public class RequestURIBasedServiceDispatcher extends AbstractServiceDispatcher
         }
     }
 
+    /**
+     * Find where the service/operation part of a request URL starts, i.e. the index after the
+     * last occurrence of the service context path followed by a '/'. Unlike
+     * {@link Utils#getServiceAndOperationPart(String, String)}, this does not create any strings.
+     *
+     * @param path        request URL
+     * @param servicePath service context path
+     * @return the index of the service/operation part, or -1 if there is none
+     */
+    private static int getServiceAndOperationStart(String path, String servicePath) {
+        if (path == null) {
+            return -1;
+        }
+        int length = servicePath.length();
+        if (servicePath.endsWith("/")) {
+            length--;
+        }
+        int index = path.lastIndexOf(servicePath);
+        while (index != -1) {
+            int slash = index + length;
+            if (slash < path.length() && path.charAt(slash) == '/') {
+                return slash + 1 < path.length() ? slash + 1 : -1;
+            }
+            index = index > 0 ? path.lastIndexOf(servicePath, index - 1) : -1;
+        }
+        return -1;
+    }
+
+    /**
+     * Find a client side service, e.g. the anonymous service of a ServiceClient receiving replies
+     * on a separate listener, by looking up the leading '/' separated segments of the request URL
+     * by their exact names, as the services were looked up before the trie was introduced.
+     *
+     * @return the name or service.endpoint alias of the client side service, or null if there
+     *         is none
+     */
+    private static String findClientSideServiceName(AxisConfiguration registry, String path,
+                                                    int start, int end) {
+        int segments = 0;
+        for (int i = start; i <= end && segments < Constants.MAX_HIERARCHICAL_DEPTH; i++) {
+            if (i == end || path.charAt(i) == '/') {
+                String serviceName = path.substring(start, i);
+                AxisService axisService = registry.getServiceForActivation(serviceName);
+                if (axisService != null && axisService.isClientSide()) {
+                    return serviceName;
+                }
+                segments++;
+            }
+        }
+        return null;
+    }
+
     public void initDispatcher() {
         init(new HandlerDescription(NAME));
     }
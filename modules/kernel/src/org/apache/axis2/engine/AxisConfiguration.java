@@ -34,6 +34,7 @@ import java.util.Map.Entry;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.xml.namespace.QName;
 
@@ -113,6 +114,14 @@ public class AxisConfiguration extends AxisDescription {
     private Map<String, AxisService> allServices = new ConcurrentHashMap<String, AxisService>();
     private Map<String, AxisService> allEndpoints = new ConcurrentHashMap<String, AxisService>();
 
+    /**
+     * Incremented whenever the services of allServices or allEndpoints change, so that a stale
+     * servicePathTrie can be detected. Client side services are not part of the trie, so adding
+     * or removing them does not change the version.
+     */
+    private final AtomicInteger servicesVersion = new AtomicInteger();
+    private volatile ServicePathTrie servicePathTrie;
+
     /**
      * Stores the module specified in the server.xml at the document parsing time.
      */
@@ -383,6 +392,7 @@ public class AxisConfiguration extends AxisDescription {
                 // remove all the ones we added...
                 for (AxisService service : servicesIAdded) {
                     allServices.remove(service.getName());
+                    servicesChanged(service);
                 }
                 // And toss this in case anyone wants it?
                 throw axisFault;
@@ -399,6 +409,7 @@ public class AxisConfiguration extends AxisDescription {
 
                     allEndpoints.put(serviceName + "." + endpointName, axisService);
                 }
+                servicesChanged(axisService);
                 if (log.isDebugEnabled()) {
                     log.debug("After adding to allEndpoints map, size is "
                               + allEndpoints.size());
@@ -465,6 +476,7 @@ public class AxisConfiguration extends AxisDescription {
 
                 allEndpoints.put(serviceName + "." + endpointName, axisService);
             }
+            servicesChanged(axisService);
             if (log.isDebugEnabled()) {
                 log.debug("After adding to allEndpoints map, size is "
                         + allEndpoints.size());
@@ -486,6 +498,7 @@ public class AxisConfiguration extends AxisDescription {
                 log.debug("Adding service to allServices map: [" + serviceName + "] ");
             }
             allServices.put(serviceName, axisService);
+            servicesChanged(axisService);
             if (log.isTraceEnabled()) {
                 //noinspection ThrowableInstanceNeverThrown
                 log.trace("After adding to allServices map, size is "
@@ -964,6 +977,25 @@ public class AxisConfiguration extends AxisDescription {
         return axis2Repository;
     }
 
+    /**
+     * Get the trie used to find the service addressed by a request URI. The trie is built on
+     * first use after services have been deployed or undeployed; it does not check whether the
+     * services are active. Client side services are not included; they have to be looked up by
+     * their exact names.
+     *
+     * @return a ServicePathTrie over the names and service.endpoint aliases of all services which
+     *         are not client side
+     */
+    public ServicePathTrie getServicePathTrie() {
+        ServicePathTrie trie = servicePathTrie;
+        int version = servicesVersion.get();
+        if (trie == null || trie.getVersion() != version) {
+            trie = new ServicePathTrie(allServices, allEndpoints, version);
+            servicePathTrie = trie;
+        }
+        return trie;
+    }
+
     /**
      * Method getService.
      *
@@ -1383,6 +1415,7 @@ public class AxisConfiguration extends AxisDescription {
         this.allEndpoints.clear();
         this.allModules.clear();
         this.allServices.clear();
+        servicesVersion.incrementAndGet();
         this.outPhases.clear();
         this.messageReceivers.clear();
         this.targetResolvers.clear();
@@ -1528,9 +1561,22 @@ public class AxisConfiguration extends AxisDescription {
                 String key = serviceName + "." + iter.next();
                 this.allEndpoints.remove(key);
             }
+            servicesChanged(axisService);
         }
         return axisService;
     }
+
+    /**
+     * Invalidate the servicePathTrie after a service has been added to or removed from the
+     * service maps. Client side services, e.g. the anonymous services of ServiceClients, are not
+     * dispatched through the trie; they are added and removed far more often than services are
+     * deployed, and would cause the trie to be rebuilt all the time.
+     */
+    private void servicesChanged(AxisService axisService) {
+        if (!axisService.isClientSide()) {
+            servicesVersion.incrementAndGet();
+        }
+    }
     
     public boolean isGlobalModulesRegistered(String moduleName) {
         if (globalModuleList.contains(moduleName)) {
@@ -387,6 +387,27 @@ public class AxisEngine {
         }
     }
 
+    /**
+     * Resume processing of a message which has been put into the MessageContextStore of the
+     * ConfigurationContext when it was suspended.
+     *
+     * @param configContext The ConfigurationContext
+     * @param key           The key under which the MessageContext has been stored
+     * @return An InvocationResponse allowing the invoker to perhaps determine
+     *         whether or not the message processing will ever succeed.
+     * @throws AxisFault If there is no MessageContext stored under the key, or if processing
+     *                   fails
+     * @see org.apache.axis2.context.externalize.MessageContextStore
+     */
+    public static InvocationResponse resume(ConfigurationContext configContext, String key)
+            throws AxisFault {
+        MessageContext msgctx = configContext.getMessageContextStore().retrieve(key);
+        if (msgctx == null) {
+            throw new AxisFault("No suspended MessageContext has been stored under " + key);
+        }
+        return resume(msgctx);
+    }
+
     /**
      * This methods represents the outflow of the Axis, this could be either at the server side or the client side.
      * Here the <code>ExecutionChain</code> is created using the Phases. The Handlers at the each Phases is ordered in
@@ -0,0 +1,199 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.engine;
+
+import org.apache.axis2.description.AxisService;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * An immutable character trie over the names under which services can be addressed in a request
+ * URI, i.e. the service names, which may be hierarchical (e.g. <code>foo/bar/1.0.1/Echo</code>),
+ * and the <code>service.endpoint</code> aliases.
+ * <p/>
+ * A request URI is resolved by walking its characters down the trie, without splitting it or
+ * creating any substrings. As with the former lookup by name, the shortest name ending at a
+ * <code>/</code> or at the end of the path wins, so the trailing segments of the path are left
+ * for the operation and the REST parameters.
+ * <p/>
+ * A trie is built from a snapshot of the service maps of the {@link AxisConfiguration}, which
+ * builds a new one after services have been deployed or undeployed. Client side services are left
+ * out, since they come and go with every ServiceClient.
+ */
+public final class ServicePathTrie {
+
+    private final Node root;
+    private final int version;
+
+    /**
+     * @param services  The services, keyed by name
+     * @param endpoints The services, keyed by <code>service.endpoint</code> alias
+     * @param version   The version of the service maps the trie has been built from
+     */
+    ServicePathTrie(Map<String, AxisService> services, Map<String, AxisService> endpoints,
+                    int version) {
+        this.version = version;
+        Builder builder = new Builder();
+        for (Map.Entry<String, AxisService> entry : endpoints.entrySet()) {
+            AxisService service = entry.getValue();
+            if (service.isClientSide()) {
+                continue;
+            }
+            String alias = entry.getKey();
+            String endpointName = alias.substring(service.getName().length() + 1);
+            builder.add(alias, new Entry(service, endpointName));
+        }
+        // Service names take precedence over endpoint aliases, as in
+        // AxisConfiguration#getService(String)
+        for (Map.Entry<String, AxisService> entry : services.entrySet()) {
+            if (!entry.getValue().isClientSide()) {
+                builder.add(entry.getKey(), new Entry(entry.getValue(), null));
+            }
+        }
+        root = builder.root.freeze();
+    }
+
+    int getVersion() {
+        return version;
+    }
+
+    /**
+     * Find the service addressed by a part of a request URI
+     *
+     * @param path        The request URI
+     * @param start       The index of the first character after the service context path
+     * @param end         The index after the last character to consider, e.g. the index of the
+     *                    query string
+     * @param maxSegments The maximum number of '/' separated segments of a service name
+     * @return The matching entry, or null if no service matches
+     */
+    public Entry find(String path, int start, int end, int maxSegments) {
+        Node node = root;
+        int segments = 1;
+        for (int i = start; i < end; i++) {
+            char c = path.charAt(i);
+            if (c == '/') {
+                if (node.entry != null) {
+                    return node.entry;
+                }
+                if (segments >= maxSegments) {
+                    return null;
+                }
+                segments++;
+            }
+            node = node.getChild(c);
+            if (node == null) {
+                return null;
+            }
+        }
+        return node.entry;
+    }
+
+    /**
+     * A service together with the endpoint it has been addressed by
+     */
+    public static final class Entry {
+        private final AxisService service;
+        private final String endpointName;
+
+        private Entry(AxisService service, String endpointName) {
+            this.service = service;
+            this.endpointName = endpointName;
+        }
+
+        public AxisService getService() {
+            return service;
+        }
+
+        /**
+         * @return The name of the endpoint if the service has been addressed by a
+         *         <code>service.endpoint</code> alias, null otherwise
+         */
+        public String getEndpointName() {
+            return endpointName;
+        }
+    }
+
+    private static final class Node {
+        private static final char[] NO_LABELS = new char[0];
+        private static final Node[] NO_CHILDREN = new Node[0];
+
+        private char[] labels = NO_LABELS;
+        private Node[] children = NO_CHILDREN;
+        private Entry entry;
+
+        // Only used while building the trie
+        private TreeMap<Character, Node> pending;
+
+        private Node getChild(char c) {
+            int low = 0;
+            int high = labels.length - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                char label = labels[mid];
+                if (label < c) {
+                    low = mid + 1;
+                } else if (label > c) {
+                    high = mid - 1;
+                } else {
+                    return children[mid];
+                }
+            }
+            return null;
+        }
+
+        private Node freeze() {
+            if (pending != null) {
+                labels = new char[pending.size()];
+                children = new Node[pending.size()];
+                int i = 0;
+                for (Map.Entry<Character, Node> child : pending.entrySet()) {
+                    labels[i] = child.getKey().charValue();
+                    children[i] = child.getValue().freeze();
+                    i++;
+                }
+                pending = null;
+            }
+            return this;
+        }
+    }
+
+    private static final class Builder {
+        private final Node root = new Node();
+
+        private void add(String name, Entry entry) {
+            Node node = root;
+            for (int i = 0; i < name.length(); i++) {
+                Character c = Character.valueOf(name.charAt(i));
+                if (node.pending == null) {
+                    node.pending = new TreeMap<Character, Node>();
+                }
+                Node child = node.pending.get(c);
+                if (child == null) {
+                    child = new Node();
+                    node.pending.put(c, child);
+                }
+                node = child;
+            }
+            node.entry = entry;
+        }
+    }
+}
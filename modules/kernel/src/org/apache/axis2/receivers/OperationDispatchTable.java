@@ -0,0 +1,76 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.receivers;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.axis2.util.JavaUtils;
+
+/**
+ * Maps operation names to the index of the corresponding skeleton method, so that generated
+ * message receivers can dispatch on an <code>int</code> instead of comparing method names.
+ * The operation name is converted to a Java method name (using
+ * {@link JavaUtils#xmlNameToJava(String)} or {@link JavaUtils#xmlNameToJavaIdentifier(String)})
+ * only the first time it is seen.
+ */
+public class OperationDispatchTable {
+    private static final Integer NOT_FOUND = Integer.valueOf(-1);
+
+    private final String[] methodNames;
+    private final boolean lowerCaseMethodNames;
+    private final Map<String,Integer> indexes = new ConcurrentHashMap<String,Integer>();
+
+    /**
+     * @param methodNames the names of the skeleton methods
+     * @param lowerCaseMethodNames <code>true</code> if the method names start with a lower case
+     *            letter, i.e. they were generated with
+     *            {@link JavaUtils#xmlNameToJavaIdentifier(String)}
+     */
+    public OperationDispatchTable(String[] methodNames, boolean lowerCaseMethodNames) {
+        this.methodNames = methodNames.clone();
+        this.lowerCaseMethodNames = lowerCaseMethodNames;
+    }
+
+    /**
+     * Get the index of the skeleton method for an operation.
+     *
+     * @param operationName the local part of the name of the operation
+     * @return the index of the method in the array passed to the constructor, or -1 if there
+     *         is no method for the operation
+     */
+    public int getIndex(String operationName) {
+        Integer index = indexes.get(operationName);
+        if (index == null) {
+            String methodName = lowerCaseMethodNames
+                    ? JavaUtils.xmlNameToJavaIdentifier(operationName)
+                    : JavaUtils.xmlNameToJava(operationName);
+            index = NOT_FOUND;
+            for (int i = 0; i < methodNames.length; i++) {
+                if (methodNames[i].equals(methodName)) {
+                    index = Integer.valueOf(i);
+                    break;
+                }
+            }
+            indexes.put(operationName, index);
+        }
+        return index.intValue();
+    }
+}
@@ -94,6 +94,7 @@ public interface CommandLineOptionConstants {
         String USE_OPERATION_NAME_LONG = "use-operation-name";
         String SKELTON_CLASS_NAME_OPTION = "scn";
         String SKELTON_CLASS_NAME_OPTION_LONG = "skelton-class-name";
+        String THREADS_OPTION_LONG = "threads";
 
         String INVALID_OPTION = "INVALID_OPTION";
         String EXTRA_OPTIONTYPE_PREFIX = "E";
@@ -39,11 +39,13 @@ public class PrettyPrinter {
 
 
     /**
-     * Pretty prints contents of the java source file.
+     * Pretty prints contents of the java source file. Since this temporarily replaces
+     * {@link System#out} and {@link System#err} and Jalopy uses global settings, concurrent
+     * invocations (by code generators writing files in parallel) are serialized.
      *
      * @param file
      */
-    public static void prettify(File file) {
+    public static synchronized void prettify(File file) {
         // If the user has set "axis2.jalopy=false" on the system property,
         // then just return back to caller
         String property = System.getProperty("axis2.jalopy");
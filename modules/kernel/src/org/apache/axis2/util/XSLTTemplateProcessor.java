@@ -24,6 +24,8 @@ import org.w3c.dom.Document;
 
 import javax.xml.transform.Result;
 import javax.xml.transform.Source;
+import javax.xml.transform.Templates;
+import javax.xml.transform.TransformerConfigurationException;
 import javax.xml.transform.Transformer;
 import javax.xml.transform.TransformerException;
 import javax.xml.transform.TransformerFactory;
@@ -155,4 +157,25 @@ public class XSLTTemplateProcessor {
         parse(out, document, transformer);
 
     }
+
+    /**
+     * Compiles an XSL stream so that it can be applied to multiple documents, possibly
+     * concurrently. Applying the returned {@link Templates} produces the same output as
+     * {@link #parse(OutputStream, Document, InputStream, URIResolver)}.
+     *
+     * @param xsltStream     Source XSL stream
+     * @param customResolver the resolver used for includes and imports; may be <code>null</code>
+     * @return the compiled template
+     * @throws TransformerFactoryConfigurationError
+     *
+     * @throws TransformerConfigurationException
+     */
+    public static Templates newTemplates(InputStream xsltStream, URIResolver customResolver)
+            throws TransformerFactoryConfigurationError, TransformerConfigurationException {
+        TransformerFactory transformerFactory = TransformerFactory.newInstance();
+        if (customResolver != null) {
+            transformerFactory.setURIResolver(customResolver);
+        }
+        return transformerFactory.newTemplates(new StreamSource(xsltStream));
+    }
 }
@@ -0,0 +1,82 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.client;
+
+import javax.xml.namespace.QName;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class FaultMappingTest extends Assert {
+    public static class TestFaultMessage {
+    }
+
+    public static class TestException extends Exception {
+        private static final long serialVersionUID = 1L;
+
+        private TestFaultMessage faultMessage;
+
+        public TestException() {
+        }
+
+        public TestException(String message) {
+            super(message);
+        }
+
+        public void setFaultMessage(TestFaultMessage faultMessage) {
+            this.faultMessage = faultMessage;
+        }
+
+        public TestFaultMessage getFaultMessage() {
+            return faultMessage;
+        }
+    }
+
+    private static final QName FAULT_QNAME = new QName("urn:test", "testFault");
+
+    @Test
+    public void testFault() throws Exception {
+        FaultMapping mapping = new FaultMapping(FaultMappingTest.class);
+        mapping.addFault(FAULT_QNAME, "echo", TestException.class.getName(),
+                TestFaultMessage.class.getName());
+        assertNull(mapping.getFault(FAULT_QNAME, "ping"));
+        assertNull(mapping.getFault(new QName("urn:test", "otherFault"), "echo"));
+
+        FaultMapping.Fault fault = mapping.getFault(FAULT_QNAME, "echo");
+        assertNotNull(fault);
+        assertSame(TestFaultMessage.class, fault.getMessageClass());
+        for (int i = 0; i < 2; i++) {
+            Exception ex = fault.newException("test");
+            assertTrue(ex instanceof TestException);
+            assertEquals("test", ex.getMessage());
+            TestFaultMessage faultMessage = new TestFaultMessage();
+            fault.setFaultMessage(ex, faultMessage);
+            assertSame(faultMessage, ((TestException)ex).getFaultMessage());
+        }
+        assertTrue(fault.newException() instanceof TestException);
+    }
+
+    @Test(expected=ClassNotFoundException.class)
+    public void testMissingMessageClass() throws Exception {
+        FaultMapping mapping = new FaultMapping(FaultMappingTest.class);
+        mapping.addFault(FAULT_QNAME, "echo", TestException.class.getName(), "");
+        mapping.getFault(FAULT_QNAME, "echo").getMessageClass();
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.client;
+
+import javax.xml.namespace.QName;
+
+import org.apache.axis2.context.ConfigurationContext;
+import org.apache.axis2.context.ConfigurationContextFactory;
+import org.apache.axis2.description.AxisOperation;
+import org.apache.axis2.description.AxisService;
+import org.apache.axis2.description.OutInAxisOperation;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class StubTest extends Assert {
+    private static class TestStub extends Stub {
+    }
+
+    private static AxisService createService(String name, AxisOperation[] operations) {
+        AxisService service = new AxisService(name);
+        operations[0] = new OutInAxisOperation(new QName("urn:test", "echo"));
+        service.addOperation(operations[0]);
+        return service;
+    }
+
+    @Test
+    public void testServiceCacheDisabledByDefault() throws Exception {
+        ConfigurationContext configContext =
+                ConfigurationContextFactory.createEmptyConfigurationContext();
+        Stub.ServiceCache cache = new Stub.ServiceCache(TestStub.class);
+        AxisOperation[] operations = new AxisOperation[1];
+        AxisService service = createService("TestService", operations);
+        assertNull(cache.register(configContext, service, operations, false));
+        assertNull(cache.get(configContext));
+        assertNull(configContext.getAxisConfiguration().getService("TestService"));
+    }
+
+    @Test
+    public void testServiceCache() throws Exception {
+        ConfigurationContext configContext =
+                ConfigurationContextFactory.createEmptyConfigurationContext();
+        configContext.setProperty(Stub.SHARE_SERVICE, Boolean.TRUE);
+        Stub.ServiceCache cache = new Stub.ServiceCache(TestStub.class);
+        assertNull(cache.get(null));
+        assertNull(cache.get(configContext));
+
+        AxisOperation[] operations = new AxisOperation[1];
+        AxisService service = createService("TestService1", operations);
+        Stub.SharedService sharedService = cache.register(configContext, service, operations, false);
+        assertSame(service, sharedService.getService());
+        assertSame(operations, sharedService.getOperations());
+        assertSame(service, configContext.getAxisConfiguration().getService("TestService1"));
+        assertSame(sharedService, cache.get(configContext));
+
+        // A service registered concurrently by another stub instance is discarded
+        AxisOperation[] operations2 = new AxisOperation[1];
+        assertSame(sharedService, cache.register(configContext,
+                createService("TestService2", operations2), operations2, false));
+        assertNull(configContext.getAxisConfiguration().getService("TestService2"));
+
+        // The service client doesn't remove the shared service on cleanup
+        ServiceClient serviceClient = new ServiceClient(configContext, service);
+        serviceClient.cleanup();
+        assertSame(sharedService, cache.get(configContext));
+
+        // The service is rebuilt if it has been removed from the configuration
+        configContext.getAxisConfiguration().removeService("TestService1");
+        assertNull(cache.get(configContext));
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axis2.context.externalize;
+
+import junit.framework.TestCase;
+import org.apache.axis2.context.ConfigurationContext;
+import org.apache.axis2.context.MessageContext;
+import org.apache.axis2.engine.AxisConfiguration;
+
+/**
+ * Validate the storage of suspended MessageContexts in memory and in a file
+ */
+public class MessageContextStoreTest extends TestCase {
+
+    private ConfigurationContext configCtx;
+
+    protected void setUp() throws Exception {
+        configCtx = new ConfigurationContext(new AxisConfiguration());
+    }
+
+    private static MessageContext createMessageContext(String value) {
+        MessageContext msgCtx = new MessageContext();
+        msgCtx.setProperty("key", value);
+        return msgCtx;
+    }
+
+    public void testFileStore() throws Exception {
+        FileMessageContextStore store = new FileMessageContextStore(configCtx, null);
+        try {
+            for (int i = 0; i < 10; i++) {
+                store.store("msg" + i, createMessageContext("value" + i));
+            }
+            assertEquals(0, store.getResidentCount());
+            assertEquals(10, store.getSpilledCount());
+            assertTrue(store.getLogSize() > 0);
+
+            MessageContext msgCtx = store.retrieve("msg3");
+            assertEquals("value3", msgCtx.getProperty("key"));
+            assertSame(configCtx, msgCtx.getConfigurationContext());
+            assertNull(store.retrieve("msg3"));
+            assertTrue(store.remove("msg4"));
+            assertFalse(store.remove("msg4"));
+            assertEquals(8, store.getSpilledCount());
+
+            // Storing a MessageContext again under the same key replaces it
+            store.store("msg5", createMessageContext("updated"));
+            assertEquals(8, store.getSpilledCount());
+            assertEquals("updated", store.retrieve("msg5").getProperty("key"));
+
+            for (int i = 0; i < 10; i++) {
+                store.remove("msg" + i);
+            }
+            assertEquals(0, store.getSpilledCount());
+            // The space is reclaimed once the store is empty
+            assertEquals(0, store.getLogSize());
+        } finally {
+            store.close();
+        }
+    }
+
+    public void testCompaction() throws Exception {
+        FileMessageContextStore store = new FileMessageContextStore(configCtx, null);
+        try {
+            for (int i = 0; i < 30; i++) {
+                MessageContext msgCtx = createMessageContext("value" + i);
+                msgCtx.setProperty("payload", new byte[100 * 1024]);
+                store.store("msg" + i, msgCtx);
+            }
+            long size = store.getLogSize();
+            assertTrue(size > 3000 * 1024);
+
+            // Removing most of the MessageContexts rewrites the log
+            for (int i = 0; i < 20; i++) {
+                assertTrue(store.remove("msg" + i));
+            }
+            assertTrue(store.getLogSize() < size);
+
+            // The remaining ones are read from their new positions
+            for (int i = 20; i < 30; i++) {
+                assertEquals("value" + i, store.retrieve("msg" + i).getProperty("key"));
+            }
+            assertEquals(0, store.getSpilledCount());
+        } finally {
+            store.close();
+        }
+    }
+
+    public void testSpillToFile() throws Exception {
+        InMemoryMessageContextStore store = new InMemoryMessageContextStore(
+                3, 1, new FileMessageContextStore(configCtx, null));
+        try {
+            MessageContext[] msgCtxs = new MessageContext[5];
+            for (int i = 0; i < msgCtxs.length; i++) {
+                msgCtxs[i] = createMessageContext("value" + i);
+                store.store("msg" + i, msgCtxs[i]);
+            }
+            assertEquals(3, store.getResidentCount());
+            assertEquals(2, store.getSpilledCount());
+
+            // The most recently stored MessageContexts stay in memory
+            assertSame(msgCtxs[4], store.retrieve("msg4"));
+            // The oldest ones have been externalized
+            MessageContext msgCtx = store.retrieve("msg0");
+            assertNotSame(msgCtxs[0], msgCtx);
+            assertEquals("value0", msgCtx.getProperty("key"));
+            assertEquals(2, store.getResidentCount());
+            assertEquals(1, store.getSpilledCount());
+            assertTrue(store.remove("msg1"));
+            assertEquals(0, store.getSpilledCount());
+            assertNull(store.retrieve("unknown"));
+        } finally {
+            store.close();
+        }
+    }
+
+    public void testUnboundedStore() throws Exception {
+        InMemoryMessageContextStore store = new InMemoryMessageContextStore();
+        MessageContext msgCtx = createMessageContext("value");
+        for (int i = 0; i < 100; i++) {
+            store.store("msg" + i, i == 0 ? msgCtx : createMessageContext("value" + i));
+        }
+        assertEquals(100, store.getResidentCount());
+        assertEquals(0, store.getSpilledCount());
+        assertSame(msgCtx, store.retrieve("msg0"));
+    }
+}
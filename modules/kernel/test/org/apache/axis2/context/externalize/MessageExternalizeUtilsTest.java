@@ -0,0 +1,94 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axis2.context.externalize;
+
+import junit.framework.TestCase;
+import org.apache.axiom.om.OMAbstractFactory;
+import org.apache.axiom.om.OMElement;
+import org.apache.axiom.soap.SOAPEnvelope;
+import org.apache.axiom.soap.SOAPFactory;
+import org.apache.axis2.context.ConfigurationContext;
+import org.apache.axis2.context.MessageContext;
+import org.apache.axis2.engine.AxisConfiguration;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+/**
+ * Validate the externalization of the message of a MessageContext
+ */
+public class MessageExternalizeUtilsTest extends TestCase {
+
+    private static String createText() {
+        StringBuffer text = new StringBuffer();
+        for (int i = 0; i < 10000; i++) {
+            text.append("text ").append(i % 10);
+        }
+        return text.toString();
+    }
+
+    private static MessageContext createMessageContext(String text) throws Exception {
+        SOAPFactory factory = OMAbstractFactory.getSOAP11Factory();
+        SOAPEnvelope envelope = factory.getDefaultEnvelope();
+        OMElement element = factory.createOMElement("data", "urn:test", "t");
+        element.setText(text);
+        envelope.getBody().addChild(element);
+        MessageContext mc = new MessageContext();
+        mc.setConfigurationContext(new ConfigurationContext(new AxisConfiguration()));
+        mc.setEnvelope(envelope);
+        return mc;
+    }
+
+    private static byte[] write(MessageContext mc) throws Exception {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        ObjectOutputStream oos = new ObjectOutputStream(baos);
+        mc.writeExternal(oos);
+        oos.close();
+        return baos.toByteArray();
+    }
+
+    private static MessageContext read(byte[] data) throws Exception {
+        ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(data));
+        MessageContext mc = new MessageContext();
+        mc.readExternal(ois);
+        return mc;
+    }
+
+    private static String getText(MessageContext mc) {
+        return mc.getEnvelope().getBody().getFirstElement().getText();
+    }
+
+    public void testUncompressed() throws Exception {
+        String text = createText();
+        MessageContext mc = read(write(createMessageContext(text)));
+        assertEquals(text, getText(mc));
+    }
+
+    public void testCompressed() throws Exception {
+        String text = createText();
+        byte[] uncompressed = write(createMessageContext(text));
+        MessageContext mc = createMessageContext(text);
+        mc.setProperty(ExternalizeConstants.COMPRESS_MESSAGE, Boolean.TRUE);
+        byte[] compressed = write(mc);
+        assertTrue(compressed.length < uncompressed.length / 4);
+        assertEquals(text, getText(read(compressed)));
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.description;
+
+import junit.framework.TestCase;
+
+import javax.xml.namespace.QName;
+import java.util.HashMap;
+import java.util.Map;
+
+public class HTTPLocationMatcherTest extends TestCase {
+
+    private static final String URL = "http://localhost:8080/axis2/services/StockService";
+
+    private AxisBinding binding;
+    private Map<String, AxisOperation> httpLocationTable;
+
+    protected void setUp() throws Exception {
+        binding = new AxisBinding();
+        httpLocationTable = new HashMap<String, AxisOperation>();
+        binding.setProperty(WSDL2Constants.HTTP_LOCATION_TABLE, httpLocationTable);
+    }
+
+    private AxisOperation addOperation(String name, String method, String location) {
+        AxisOperation operation = new InOutAxisOperation(new QName(name));
+        AxisBindingOperation bindingOperation = new AxisBindingOperation();
+        bindingOperation.setName(operation.getName());
+        bindingOperation.setAxisOperation(operation);
+        bindingOperation.setParent(binding);
+        bindingOperation.setProperty(WSDL2Constants.ATTR_WHTTP_METHOD, method);
+        bindingOperation.setProperty(WSDL2Constants.ATTR_WHTTP_LOCATION, location);
+        binding.addChild(bindingOperation);
+        httpLocationTable.put(method + "/" + location.replaceFirst("\\{.*", ""), operation);
+        return operation;
+    }
+
+    private HTTPLocationMatcher.Match match(String method, String location) {
+        return binding.getHTTPLocationMatcher().match(method, URL + location, URL.length());
+    }
+
+    public void testLongestMatch() {
+        AxisOperation listStocks = addOperation("listStocks", "GET", "list");
+        AxisOperation getStock = addOperation("getStock", "GET", "stocks/{symbol}");
+        AxisOperation getStockValue = addOperation("getStockValue", "GET", "stocks/value/{symbol}");
+        AxisOperation addStock = addOperation("addStock", "POST", "stocks/{symbol}");
+
+        assertSame(listStocks, match("GET", "/list").getOperation());
+        assertSame(getStock, match("GET", "/stocks/IBM").getOperation());
+        assertSame(getStockValue, match("GET", "/stocks/value/IBM").getOperation());
+        assertSame(addStock, match("POST", "/stocks/IBM").getOperation());
+        assertNull(match("PUT", "/stocks/IBM"));
+        assertNull(match("GET", "/quotes/IBM"));
+        assertNull(match(null, "/stocks/IBM"));
+    }
+
+    public void testParameters() {
+        addOperation("getStock", "GET", "stocks/{symbol}");
+        addOperation("getQuote", "GET", "quote/{symbol}/{!currency}/date/{date}.xml");
+
+        HTTPLocationMatcher.Match match = match("GET", "/stocks/IBM?detail=full");
+        assertEquals("stocks/{symbol}", match.getTemplate());
+        assertEquals(1, match.getParameters().size());
+        assertEquals("IBM", match.getParameters().get("symbol"));
+        assertEquals("?detail=full", match.getRemainder());
+
+        match = match("GET", "/quote/IBM/USD/date/2010-01-01.xml");
+        assertEquals(3, match.getParameters().size());
+        assertEquals("IBM", match.getParameters().get("symbol"));
+        assertEquals("USD", match.getParameters().get("!currency"));
+        assertEquals("2010-01-01", match.getParameters().get("date"));
+    }
+
+    public void testUntemplatedLocation() {
+        AxisOperation operation = new InOutAxisOperation(new QName("echo"));
+        httpLocationTable.put("GET/echo/", operation);
+        HTTPLocationMatcher.Match match = match("GET", "/echo");
+        assertSame(operation, match.getOperation());
+        assertNull(match.getParameters());
+    }
+
+    public void testRebuiltOnChange() {
+        addOperation("getStock", "GET", "stocks/{symbol}");
+        HTTPLocationMatcher matcher = binding.getHTTPLocationMatcher();
+        assertSame(matcher, binding.getHTTPLocationMatcher());
+        AxisOperation getStockValue = addOperation("getStockValue", "GET", "stocks/value/{symbol}");
+        assertNotSame(matcher, binding.getHTTPLocationMatcher());
+        assertSame(getStockValue, match("GET", "/stocks/value/IBM").getOperation());
+    }
+}
@@ -28,6 +28,7 @@ import org.apache.axis2.context.MessageContext;
 import org.apache.axis2.description.AxisService;
 import org.apache.axis2.description.AxisEndpoint;
 import org.apache.axis2.engine.AxisConfiguration;
+import org.apache.axis2.engine.ServicePathTrie;
 
 public class RequestURIBasedServiceDispatcherTest extends TestCase {
 
@@ -158,4 +159,65 @@ public class RequestURIBasedServiceDispatcherTest extends TestCase {
         assertEquals(as4, messageContext.getAxisService());
     }
 
+    public void testServiceRedeployment() throws AxisFault {
+        ConfigurationContext cc = ConfigurationContextFactory.createEmptyConfigurationContext();
+        AxisConfiguration ac = cc.getAxisConfiguration();
+        RequestURIBasedServiceDispatcher ruisd = new RequestURIBasedServiceDispatcher();
+
+        MessageContext messageContext = cc.createMessageContext();
+        messageContext.setTo(new EndpointReference("http://127.0.0.1:8080" +
+                "/axis2/services/foo/Echo/echo"));
+        ruisd.invoke(messageContext);
+        assertNull(messageContext.getAxisService());
+
+        AxisService as1 = new AxisService("foo/Echo");
+        ac.addService(as1);
+        messageContext = cc.createMessageContext();
+        messageContext.setTo(new EndpointReference("http://127.0.0.1:8080" +
+                "/axis2/services/foo/Echo/echo"));
+        ruisd.invoke(messageContext);
+        assertEquals(as1, messageContext.getAxisService());
+
+        ac.removeService("foo/Echo");
+        messageContext = cc.createMessageContext();
+        messageContext.setTo(new EndpointReference("http://127.0.0.1:8080" +
+                "/axis2/services/foo/Echo/echo"));
+        ruisd.invoke(messageContext);
+        assertNull(messageContext.getAxisService());
+    }
+
+    public void testClientSideService() throws AxisFault {
+        ConfigurationContext cc = ConfigurationContextFactory.createEmptyConfigurationContext();
+        AxisConfiguration ac = cc.getAxisConfiguration();
+        ac.addService(new AxisService("Service1"));
+        RequestURIBasedServiceDispatcher ruisd = new RequestURIBasedServiceDispatcher();
+        ServicePathTrie trie = ac.getServicePathTrie();
+
+        AxisService anonService = new AxisService("anonService1");
+        anonService.setClientSide(true);
+        ac.addService(anonService);
+        // Client side services do not invalidate the trie
+        assertSame(trie, ac.getServicePathTrie());
+
+        // They are still found by their exact names
+        MessageContext messageContext = cc.createMessageContext();
+        messageContext.setTo(new EndpointReference("http://127.0.0.1:8080" +
+                "/axis2/services/anonService1"));
+        ruisd.invoke(messageContext);
+        assertEquals(anonService, messageContext.getAxisService());
+
+        messageContext = cc.createMessageContext();
+        messageContext.setTo(new EndpointReference("http://127.0.0.1:8080" +
+                "/axis2/services/anonService1/anonOutInOp"));
+        ruisd.invoke(messageContext);
+        assertEquals(anonService, messageContext.getAxisService());
+
+        ac.removeService("anonService1");
+        assertSame(trie, ac.getServicePathTrie());
+        messageContext = cc.createMessageContext();
+        messageContext.setTo(new EndpointReference("http://127.0.0.1:8080" +
+                "/axis2/services/anonService1"));
+        ruisd.invoke(messageContext);
+        assertNull(messageContext.getAxisService());
+    }
 }
@@ -0,0 +1,90 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.engine;
+
+import junit.framework.TestCase;
+import org.apache.axis2.description.AxisService;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class ServicePathTrieTest extends TestCase {
+
+    private AxisService echo;
+    private AxisService version;
+    private AxisService versionedEcho;
+    private ServicePathTrie trie;
+
+    protected void setUp() throws Exception {
+        echo = new AxisService("Echo");
+        version = new AxisService("foo/bar/Version");
+        versionedEcho = new AxisService("foo/bar/1.0.1/Echo");
+
+        Map<String, AxisService> services = new HashMap<String, AxisService>();
+        services.put(echo.getName(), echo);
+        services.put(version.getName(), version);
+        services.put(versionedEcho.getName(), versionedEcho);
+        Map<String, AxisService> endpoints = new HashMap<String, AxisService>();
+        endpoints.put("Echo.EchoHttpEndpoint", echo);
+        endpoints.put("foo/bar/Version.VersionEndpoint", version);
+        trie = new ServicePathTrie(services, endpoints, 0);
+    }
+
+    private ServicePathTrie.Entry find(String path) {
+        return trie.find(path, 0, path.length(), 10);
+    }
+
+    public void testServiceNames() {
+        assertSame(echo, find("Echo").getService());
+        assertNull(find("Echo").getEndpointName());
+        assertSame(echo, find("Echo/echoString").getService());
+        assertSame(echo, find("Echo/").getService());
+        assertSame(version, find("foo/bar/Version/student/name/peter").getService());
+        assertSame(versionedEcho, find("foo/bar/1.0.1/Echo/echo").getService());
+        assertNull(find("Ech"));
+        assertNull(find("Echo2"));
+        assertNull(find("foo/bar"));
+        assertNull(find("foo/bar/1.0.2/Echo"));
+        assertNull(find(""));
+    }
+
+    public void testEndpointAliases() {
+        ServicePathTrie.Entry entry = find("Echo.EchoHttpEndpoint/echoString");
+        assertSame(echo, entry.getService());
+        assertEquals("EchoHttpEndpoint", entry.getEndpointName());
+        entry = find("foo/bar/Version.VersionEndpoint");
+        assertSame(version, entry.getService());
+        assertEquals("VersionEndpoint", entry.getEndpointName());
+        assertNull(find("Echo.Unknown"));
+    }
+
+    public void testBounds() {
+        String path = "http://localhost/axis2/services/Echo/echoString?wsdl";
+        int start = path.indexOf("Echo");
+        assertSame(echo, trie.find(path, start, path.indexOf('?'), 10).getService());
+        assertNull(trie.find(path, start, start + 3, 10));
+    }
+
+    public void testMaxSegments() {
+        String path = "foo/bar/Version";
+        assertSame(version, trie.find(path, 0, path.length(), 3).getService());
+        assertNull(trie.find(path, 0, path.length(), 2));
+    }
+}
@@ -0,0 +1,41 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.receivers;
+
+import junit.framework.TestCase;
+
+public class OperationDispatchTableTest extends TestCase {
+    public void testLowerCaseMethodNames() {
+        OperationDispatchTable table =
+                new OperationDispatchTable(new String[] { "echoString", "getQuote" }, true);
+        assertEquals(0, table.getIndex("EchoString"));
+        assertEquals(1, table.getIndex("get-quote"));
+        // second lookup uses the cached index
+        assertEquals(1, table.getIndex("get-quote"));
+        assertEquals(-1, table.getIndex("unknown"));
+    }
+
+    public void testMethodNames() {
+        OperationDispatchTable table =
+                new OperationDispatchTable(new String[] { "EchoString" }, false);
+        assertEquals(0, table.getIndex("EchoString"));
+        assertEquals(-1, table.getIndex("echoString"));
+    }
+}
@@ -117,5 +117,17 @@ public class MDQConstants {
      */
     public static final String  SHARE_DYNAMIC_PORTS_ACROSS_SERVICES = "jaxws.share.dynamic.ports.enable"; 
 
+    /** 
+     * System Property or Axis Configuration Parameter:
+     * Name: jaxws.wsdl.definition.cache.dir
+     * Value: String path of a writable directory
+     * Default: null, which disables the cache
+     * 
+     * When set, parsed WSDL definitions are persisted in the directory (see
+     * org.apache.axis2.jaxws.util.WSDLDefinitionCache) and reused on subsequent starts as long
+     * as none of the WSDL or schema documents that contributed to them has changed.
+     */
+    public static final String WSDL_DEFINITION_CACHE_DIR = "jaxws.wsdl.definition.cache.dir";
+
 
 }
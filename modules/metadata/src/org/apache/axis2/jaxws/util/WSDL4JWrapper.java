@@ -682,9 +682,31 @@ public class WSDL4JWrapper implements WSDLWrapper {
 
 
     /*
-     * Load a WSDL4J WSDL definition from a URL
+     * Load a WSDL4J WSDL definition from a URL, using the persistent
+     * WSDLDefinitionCache if it is enabled.
      */
     public Definition loadDefinition() {
+        File cacheDir = null;
+        if (wsdlExplicitURL != null) {
+            cacheDir = WSDLDefinitionCache.getCacheDirectory(configContext);
+        }
+        if (cacheDir != null) {
+            Definition def = WSDLDefinitionCache.get(cacheDir, wsdlExplicitURL);
+            if (def != null) {
+                return def;
+            }
+        }
+        Definition def = readDefinition();
+        if (def != null && cacheDir != null) {
+            WSDLDefinitionCache.put(cacheDir, wsdlExplicitURL, def);
+        }
+        return def;
+    }
+
+    /*
+     * Read a WSDL4J WSDL definition from a URL
+     */
+    private Definition readDefinition() {
 
         Definition def = null;
 
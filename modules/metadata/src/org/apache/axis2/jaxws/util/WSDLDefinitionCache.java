@@ -0,0 +1,353 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.jaxws.util;
+
+import org.apache.axis2.context.ConfigurationContext;
+import org.apache.axis2.description.Parameter;
+import org.apache.axis2.java.security.AccessController;
+import org.apache.axis2.jaxws.description.builder.MDQConstants;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import javax.wsdl.Definition;
+import javax.wsdl.Import;
+import javax.wsdl.Types;
+import javax.wsdl.extensions.schema.Schema;
+import javax.wsdl.extensions.schema.SchemaImport;
+import javax.wsdl.extensions.schema.SchemaReference;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.net.URL;
+import java.security.MessageDigest;
+import java.security.PrivilegedAction;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Persistent (on-disk) cache of parsed WSDL4J Definitions.
+ * <p/>
+ * Reading and resolving a large WSDL (and all of its imported WSDL and schema documents)
+ * is the dominant cost of building the JAX-WS ServiceDescription for an endpoint or client.
+ * When a cache directory is configured, the parsed Definition is serialized to the directory
+ * together with a checksum of every document that contributed to it.  On a later start the
+ * Definition is read back from the cache, and the checksums are validated lazily (at the time
+ * the Definition is first requested).  If any of the documents changed, the entry is
+ * discarded and the WSDL is read and cached again.
+ * <p/>
+ * The cache is enabled by setting the {@link MDQConstants#WSDL_DEFINITION_CACHE_DIR} system
+ * property, or a parameter of the same name on the AxisConfiguration, to a writable directory.
+ * Any problem reading or writing an entry is logged and treated as a cache miss.
+ */
+public class WSDLDefinitionCache {
+    private static final Log log = LogFactory.getLog(WSDLDefinitionCache.class);
+
+    // Increment if the format of the cache entries changes
+    private static final int VERSION = 1;
+    private static final String SUFFIX = ".wsdlcache";
+
+    /**
+     * Intentionally private.  All methods are static.
+     */
+    private WSDLDefinitionCache() {
+    }
+
+    /**
+     * Get the cache directory.
+     * @param configContext ConfigurationContext or null
+     * @return the cache directory or null if the cache is not enabled
+     */
+    public static File getCacheDirectory(ConfigurationContext configContext) {
+        String dirName = null;
+        if (configContext != null && configContext.getAxisConfiguration() != null) {
+            Parameter param = configContext.getAxisConfiguration().
+                getParameter(MDQConstants.WSDL_DEFINITION_CACHE_DIR);
+            if (param != null && param.getValue() != null) {
+                dirName = param.getValue().toString().trim();
+            }
+        }
+        if (dirName == null) {
+            dirName = (String) AccessController.doPrivileged(new PrivilegedAction() {
+                public Object run() {
+                    return System.getProperty(MDQConstants.WSDL_DEFINITION_CACHE_DIR);
+                }
+            });
+        }
+        if (dirName == null || dirName.length() == 0) {
+            return null;
+        }
+        return new File(dirName);
+    }
+
+    /**
+     * Get the cached Definition for the wsdl location.
+     * @param cacheDir cache directory
+     * @param wsdlLocation String location of the WSDL
+     * @return Definition or null if there is no valid cached Definition
+     */
+    public static Definition get(final File cacheDir, final String wsdlLocation) {
+        return (Definition) AccessController.doPrivileged(new PrivilegedAction() {
+            public Object run() {
+                return read(getCacheFile(cacheDir, wsdlLocation), wsdlLocation);
+            }
+        });
+    }
+
+    /**
+     * Cache the Definition for the wsdl location.
+     * @param cacheDir cache directory
+     * @param wsdlLocation String location of the WSDL
+     * @param def Definition read from the wsdl location
+     */
+    public static void put(final File cacheDir, final String wsdlLocation, final Definition def) {
+        AccessController.doPrivileged(new PrivilegedAction() {
+            public Object run() {
+                write(cacheDir, getCacheFile(cacheDir, wsdlLocation), wsdlLocation, def);
+                return null;
+            }
+        });
+    }
+
+    static File getCacheFile(File cacheDir, String wsdlLocation) {
+        return new File(cacheDir, digest(wsdlLocation) + SUFFIX);
+    }
+
+    private static Definition read(File file, String wsdlLocation) {
+        if (!file.isFile()) {
+            if (log.isDebugEnabled()) {
+                log.debug("No cached WSDL definition for " + wsdlLocation);
+            }
+            return null;
+        }
+        ObjectInputStream in = null;
+        boolean valid = false;
+        try {
+            in = new ObjectInputStream(new BufferedInputStream(new FileInputStream(file)));
+            if (in.readInt() != VERSION || !wsdlLocation.equals(in.readUTF())) {
+                return null;
+            }
+            Map<String, String> checksums = (Map<String, String>) in.readObject();
+            for (Map.Entry<String, String> entry : checksums.entrySet()) {
+                String checksum = checksum(entry.getKey());
+                if (!entry.getValue().equals(checksum)) {
+                    if (log.isDebugEnabled()) {
+                        log.debug("The cached WSDL definition for " + wsdlLocation +
+                                  " is stale because " + entry.getKey() + " changed");
+                    }
+                    return null;
+                }
+            }
+            Definition def = (Definition) in.readObject();
+            valid = true;
+            if (log.isDebugEnabled()) {
+                log.debug("Using cached WSDL definition for " + wsdlLocation + " from " + file);
+            }
+            return def;
+        } catch (Exception e) {
+            if (log.isDebugEnabled()) {
+                log.debug("The cached WSDL definition for " + wsdlLocation +
+                          " could not be read: " + e, e);
+            }
+            return null;
+        } finally {
+            close(in);
+            if (!valid) {
+                file.delete();
+            }
+        }
+    }
+
+    private static void write(File cacheDir, File file, String wsdlLocation, Definition def) {
+        Map<String, String> checksums = new LinkedHashMap<String, String>();
+        Set<Definition> visited = new HashSet<Definition>();
+        try {
+            collectDocuments(def, checksums, visited);
+        } catch (Exception e) {
+            if (log.isDebugEnabled()) {
+                log.debug("The WSDL definition for " + wsdlLocation +
+                          " is not cached because its documents could not be read: " + e);
+            }
+            return;
+        }
+        if (!cacheDir.isDirectory() && !cacheDir.mkdirs()) {
+            if (log.isDebugEnabled()) {
+                log.debug("The WSDL definition cache directory " + cacheDir +
+                          " could not be created");
+            }
+            return;
+        }
+        File tmpFile = null;
+        ObjectOutputStream out = null;
+        try {
+            // Write to a temporary file and rename it so that a concurrent reader
+            // never sees a partially written entry.
+            tmpFile = File.createTempFile("wsdlDef_", null, cacheDir);
+            out = new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(tmpFile)));
+            out.writeInt(VERSION);
+            out.writeUTF(wsdlLocation);
+            out.writeObject(checksums);
+            out.writeObject(def);
+            out.close();
+            out = null;
+            file.delete();
+            if (!tmpFile.renameTo(file)) {
+                throw new IOException("Unable to rename " + tmpFile + " to " + file);
+            }
+            tmpFile = null;
+            if (log.isDebugEnabled()) {
+                log.debug("Cached WSDL definition for " + wsdlLocation + " in " + file);
+            }
+        } catch (Exception e) {
+            if (log.isDebugEnabled()) {
+                log.debug("The WSDL definition for " + wsdlLocation +
+                          " could not be cached: " + e, e);
+            }
+        } finally {
+            close(out);
+            if (tmpFile != null) {
+                tmpFile.delete();
+            }
+        }
+    }
+
+    /**
+     * Record the checksum of the document of the Definition and of all of the
+     * WSDL and schema documents that it imports or includes.
+     */
+    private static void collectDocuments(Definition def, Map<String, String> checksums,
+                                         Set<Definition> visited) throws Exception {
+        if (def == null || !visited.add(def)) {
+            return;
+        }
+        addDocument(def.getDocumentBaseURI(), checksums);
+        Types types = def.getTypes();
+        if (types != null) {
+            Set<Schema> visitedSchemas = new HashSet<Schema>();
+            for (Iterator it = types.getExtensibilityElements().iterator(); it.hasNext();) {
+                Object element = it.next();
+                if (element instanceof Schema) {
+                    collectDocuments((Schema) element, checksums, visitedSchemas);
+                }
+            }
+        }
+        Map imports = def.getImports();
+        if (imports != null) {
+            for (Iterator it = imports.values().iterator(); it.hasNext();) {
+                for (Iterator it2 = ((List) it.next()).iterator(); it2.hasNext();) {
+                    collectDocuments(((Import) it2.next()).getDefinition(), checksums, visited);
+                }
+            }
+        }
+    }
+
+    private static void collectDocuments(Schema schema, Map<String, String> checksums,
+                                         Set<Schema> visited) throws Exception {
+        if (schema == null || !visited.add(schema)) {
+            return;
+        }
+        addDocument(schema.getDocumentBaseURI(), checksums);
+        Map imports = schema.getImports();
+        if (imports != null) {
+            for (Iterator it = imports.values().iterator(); it.hasNext();) {
+                for (Iterator it2 = ((Collection) it.next()).iterator(); it2.hasNext();) {
+                    collectDocuments(((SchemaImport) it2.next()).getReferencedSchema(),
+                                     checksums, visited);
+                }
+            }
+        }
+        collectReferences(schema.getIncludes(), checksums, visited);
+        collectReferences(schema.getRedefines(), checksums, visited);
+    }
+
+    private static void collectReferences(List references, Map<String, String> checksums,
+                                          Set<Schema> visited) throws Exception {
+        if (references != null) {
+            for (Iterator it = references.iterator(); it.hasNext();) {
+                collectDocuments(((SchemaReference) it.next()).getReferencedSchema(),
+                                 checksums, visited);
+            }
+        }
+    }
+
+    private static void addDocument(String documentURI, Map<String, String> checksums)
+            throws Exception {
+        if (documentURI != null && !checksums.containsKey(documentURI)) {
+            checksums.put(documentURI, checksum(documentURI));
+        }
+    }
+
+    private static String checksum(String documentURI) throws Exception {
+        MessageDigest md = MessageDigest.getInstance("SHA-1");
+        InputStream is = new URL(documentURI).openStream();
+        try {
+            byte[] buffer = new byte[4096];
+            int len;
+            while ((len = is.read(buffer)) != -1) {
+                md.update(buffer, 0, len);
+            }
+        } finally {
+            is.close();
+        }
+        return toHex(md.digest());
+    }
+
+    private static String digest(String value) {
+        try {
+            return toHex(MessageDigest.getInstance("SHA-1").digest(value.getBytes("UTF-8")));
+        } catch (Exception e) {
+            // SHA-1 and UTF-8 are always available; fall back to the hash code anyway
+            return Integer.toHexString(value.hashCode());
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder(bytes.length * 2);
+        for (int i = 0; i < bytes.length; i++) {
+            int b = bytes[i] & 0xff;
+            if (b < 0x10) {
+                sb.append('0');
+            }
+            sb.append(Integer.toHexString(b));
+        }
+        return sb.toString();
+    }
+
+    private static void close(Closeable c) {
+        if (c != null) {
+            try {
+                c.close();
+            } catch (Exception e) {
+                // just absorb it
+            }
+        }
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.jaxws.utils;
+
+import junit.framework.TestCase;
+import org.apache.axis2.jaxws.description.DescriptionTestUtils;
+import org.apache.axis2.jaxws.util.WSDLDefinitionCache;
+import org.apache.axis2.wsdl.WSDLUtil;
+
+import javax.wsdl.Definition;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+public class WSDLDefinitionCacheTests extends TestCase {
+
+    private File dir;
+    private File wsdlFile;
+
+    protected void setUp() throws Exception {
+        dir = File.createTempFile("wsdlcache", "");
+        dir.delete();
+        dir.mkdirs();
+        wsdlFile = new File(dir, "EchoMessageService.wsdl");
+        copy(new File(DescriptionTestUtils.getWSDLLocation("EchoMessageService.wsdl")), wsdlFile,
+             null);
+    }
+
+    protected void tearDown() throws Exception {
+        File[] files = dir.listFiles();
+        for (int i = 0; i < files.length; i++) {
+            files[i].delete();
+        }
+        dir.delete();
+    }
+
+    public void testCacheHitAndInvalidation() throws Exception {
+        String location = wsdlFile.toURI().toURL().toString();
+        File cacheDir = new File(dir, "cache");
+        assertNull(WSDLDefinitionCache.get(cacheDir, location));
+
+        Definition def = WSDLUtil.newWSDLReaderWithPopulatedExtensionRegistry().readWSDL(location);
+        WSDLDefinitionCache.put(cacheDir, location, def);
+
+        Definition cached = WSDLDefinitionCache.get(cacheDir, location);
+        assertNotNull(cached);
+        assertEquals(def.getTargetNamespace(), cached.getTargetNamespace());
+        assertEquals(def.getServices().keySet(), cached.getServices().keySet());
+
+        // Changing the WSDL document invalidates the entry
+        copy(new File(DescriptionTestUtils.getWSDLLocation("EchoMessageService.wsdl")), wsdlFile,
+             "<!-- changed -->");
+        assertNull(WSDLDefinitionCache.get(cacheDir, location));
+    }
+
+    private static void copy(File from, File to, String trailer) throws Exception {
+        InputStream in = new FileInputStream(from);
+        OutputStream out = new FileOutputStream(to);
+        try {
+            byte[] buffer = new byte[4096];
+            int len;
+            while ((len = in.read(buffer)) != -1) {
+                out.write(buffer, 0, len);
+            }
+            if (trailer != null) {
+                out.write(trailer.getBytes("UTF-8"));
+            }
+        } finally {
+            in.close();
+            out.close();
+        }
+    }
+}
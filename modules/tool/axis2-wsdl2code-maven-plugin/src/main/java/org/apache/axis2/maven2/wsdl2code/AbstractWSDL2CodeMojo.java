@@ -205,6 +205,14 @@ public abstract class AbstractWSDL2CodeMojo extends AbstractMojo {
      */
     private boolean skipBuildXML = false;
 
+    /**
+     * The number of threads used to write the generated files. The generated code is the same
+     * regardless of this setting.
+     *
+     * @parameter expression="${axis2.wsdl2code.threads}" default-value="1"
+     */
+    private int threads = 1;
+
     /**
      * @parameter expression="${axis2.wsdl2code.skipWSDL}" default-value="false" *
      */
@@ -307,6 +315,7 @@ public abstract class AbstractWSDL2CodeMojo extends AbstractMojo {
         config.setFlattenFiles(flattenFiles);
         config.setSkipMessageReceiver(skipMessageReceiver);
         config.setSkipBuildXML(skipBuildXML);
+        config.setThreads(threads);
         config.setSkipWriteWSDLs(skipWSDL);
         config.setOverride(overWrite);
         config.setSuppressPrefixesMode(suppressPrefixes);